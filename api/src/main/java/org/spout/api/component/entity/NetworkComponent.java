@@ -35,7 +35,10 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 
 import org.spout.api.Platform;
 import org.spout.api.ServerOnly;
@@ -335,7 +338,24 @@ public class NetworkComponent extends EntityComponent {
 		observeChunksFailed = false;
 		while (itr.hasNext()) {
 			IntVector3 v = itr.next();
-			Chunk chunk = w.getChunk(v.getX(), v.getY(), v.getZ(), LoadOption.LOAD_ONLY);
+			Future<Chunk> future = w.getChunkFuture(v.getX(), v.getY(), v.getZ(), LoadOption.LOAD_ONLY);
+			if (!future.isDone()) {
+				// Still being loaded, it is picked up by a later update
+				observeChunksFailed = true;
+				continue;
+			}
+			Chunk chunk;
+			try {
+				chunk = future.get();
+			} catch (ExecutionException e) {
+				Spout.getLogger().log(Level.SEVERE, "Unable to load chunk " + v + " for observer " + getOwner(), e.getCause());
+				observeChunksFailed = true;
+				continue;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				observeChunksFailed = true;
+				continue;
+			}
 			if (chunk != null) {
 				chunk.refreshObserver(getOwner());
 				observing.add(chunk);
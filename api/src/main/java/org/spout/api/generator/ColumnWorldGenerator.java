@@ -0,0 +1,35 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.generator;
+
+/**
+ * A {@link WorldGenerator} that can generate a region one chunk column at a time.<br> <br> The engine generates regions for these generators by calling {@link #generate} concurrently, from
+ * several threads, with buffers that are one chunk wide in the x and z directions, instead of once with a buffer covering a whole column group.  The output for each block must not depend on the
+ * size or base of the buffer it is generated into.<br> <br> Generators which do not implement this interface are always called once per column group, from a single thread.
+ */
+public interface ColumnWorldGenerator extends WorldGenerator {
+}
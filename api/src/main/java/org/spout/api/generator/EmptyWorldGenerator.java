@@ -34,7 +34,7 @@ import org.spout.api.util.cuboid.CuboidBlockMaterialBuffer;
 /**
  * Generates an empty world using air blocks
  */
-public class EmptyWorldGenerator implements WorldGenerator {
+public class EmptyWorldGenerator implements ColumnWorldGenerator {
 	@Override
 	public void generate(CuboidBlockMaterialBuffer blockData, World world) {
 		blockData.flood(BlockMaterial.AIR);
@@ -34,7 +34,7 @@ import org.spout.api.util.cuboid.CuboidBlockMaterialBuffer;
 /**
  * Generates a flat world of a Spout-colored material
  */
-public class FlatWorldGenerator implements WorldGenerator {
+public class FlatWorldGenerator implements ColumnWorldGenerator {
 	@Override
 	public void generate(CuboidBlockMaterialBuffer blockData, World world) {
 		if (blockData.getBase().getY() < 0) {
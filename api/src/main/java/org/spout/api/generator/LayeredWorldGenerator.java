@@ -39,7 +39,7 @@ import org.spout.api.util.cuboid.CuboidBlockMaterialBuffer;
 /**
  * A world generator that generates using previously-specified layers of blocks
  */
-public class LayeredWorldGenerator implements WorldGenerator {
+public class LayeredWorldGenerator implements ColumnWorldGenerator {
 	private List<Layer> layers = new ArrayList<>();
 	private int minimum = Integer.MAX_VALUE;
 	private int height = Integer.MIN_VALUE;
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.generator.biome;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.util.hashing.IntPairHashed;
+
+/**
+ * A bounded cache of the biomes selected for chunk columns.<br> <br> Each entry holds the biomes for a full column, indexed by (z << 4) | x, as produced by {@link
+ * BiomeSelector#pickBiomes(int, int, long, Biome[])}. The least recently used columns are evicted when the cache is full.
+ */
+public class BiomeCache {
+	/**
+	 * The default number of columns held by a cache
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+	private final Cache<Long, Biome[]> columns;
+
+	public BiomeCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new biome cache
+	 *
+	 * @param capacity the maximum number of columns to cache
+	 */
+	public BiomeCache(int capacity) {
+		columns = CacheBuilder.newBuilder().maximumSize(capacity).concurrencyLevel(Runtime.getRuntime().availableProcessors()).build();
+	}
+
+	/**
+	 * Gets the biomes for a column, selecting them if they are not cached.<br> <br> The returned array is shared and must not be modified.
+	 *
+	 * @param selector the selector to use if the column is not cached
+	 * @param chunkX the x coordinate of the column, in chunks
+	 * @param chunkZ the z coordinate of the column, in chunks
+	 * @param seed the world seed
+	 * @return the biomes for the column
+	 */
+	public Biome[] getColumn(BiomeSelector selector, int chunkX, int chunkZ, long seed) {
+		final Long key = IntPairHashed.key(chunkX, chunkZ);
+		Biome[] biomes = columns.getIfPresent(key);
+		if (biomes == null) {
+			biomes = new Biome[Chunk.BLOCKS.AREA];
+			selector.pickBiomes(chunkX << Chunk.BLOCKS.BITS, chunkZ << Chunk.BLOCKS.BITS, seed, biomes);
+			columns.put(key, biomes);
+		}
+		return biomes;
+	}
+
+	/**
+	 * Removes all cached columns
+	 */
+	public void clear() {
+		columns.invalidateAll();
+	}
+}
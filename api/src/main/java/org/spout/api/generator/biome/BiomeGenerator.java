@@ -29,6 +29,8 @@ package org.spout.api.generator.biome;
 import java.util.ArrayList;
 import java.util.Set;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 
 import org.spout.api.generator.GeneratorPopulator;
@@ -47,6 +49,11 @@ public abstract class BiomeGenerator implements WorldGenerator {
 	protected final BiomeMap biomes = new BiomeMap();
 	private final ArrayList<Populator> populators = new ArrayList<>();
 	private final ArrayList<GeneratorPopulator> generatorPopulators = new ArrayList<>();
+	/**
+	 * The maximum number of world seeds to keep column biome caches for
+	 */
+	private static final int MAX_CACHED_SEEDS = 8;
+	private final Cache<Long, BiomeCache> biomeCaches = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_SEEDS).build();
 
 	public BiomeGenerator() {
 		registerBiomes();
@@ -65,6 +72,7 @@ public abstract class BiomeGenerator implements WorldGenerator {
 
 	protected void setSelector(BiomeSelector selector) {
 		biomes.setSelector(selector);
+		biomeCaches.invalidateAll();
 	}
 
 	public BiomeSelector getSelector() {
@@ -112,20 +120,49 @@ public abstract class BiomeGenerator implements WorldGenerator {
 	}
 
 	public BiomeManager generateBiomes(int chunkX, int chunkZ, World world) {
-		final int x = chunkX << Chunk.BLOCKS.BITS;
-		final int z = chunkZ << Chunk.BLOCKS.BITS;
 		final Simple2DBiomeManager biomeManager = new Simple2DBiomeManager(chunkX, chunkZ);
+		final Biome[] columnBiomes = getColumnBiomes(chunkX, chunkZ, world.getSeed());
 		byte[] biomeData = new byte[Chunk.BLOCKS.AREA];
-		for (int dx = x; dx < x + Chunk.BLOCKS.SIZE; ++dx) {
-			for (int dz = z; dz < z + Chunk.BLOCKS.SIZE; ++dz) {
-				biomeData[(dz & Chunk.BLOCKS.MASK) << 4 | (dx & Chunk.BLOCKS.MASK)] =
-						(byte) biomes.getBiome(dx, dz, world.getSeed()).getId();
-			}
+		for (int i = 0; i < biomeData.length; i++) {
+			biomeData[i] = (byte) columnBiomes[i].getId();
 		}
 		biomeManager.deserialize(biomeData);
 		return biomeManager;
 	}
 
+	/**
+	 * Gets the biomes for a chunk column, indexed by (z << 4) | x. The biomes are picked in one batch and cached per world seed.<br> <br> The returned array is shared and must not be modified.
+	 *
+	 * @param chunkX the x coordinate of the column, in chunks
+	 * @param chunkZ the z coordinate of the column, in chunks
+	 * @param seed the world seed
+	 * @return the biomes for the column
+	 */
+	public Biome[] getColumnBiomes(int chunkX, int chunkZ, long seed) {
+		if (biomes.getSelector() == null) {
+			throw new IllegalStateException("Biome Selector is null and cannot set a selector");
+		}
+		return getBiomeCache(seed).getColumn(biomes.getSelector(), chunkX, chunkZ, seed);
+	}
+
+	/**
+	 * Gets the cache of column biomes for a world seed.  Caches are kept for the most recently used seeds only.
+	 *
+	 * @param seed the world seed
+	 * @return the cache
+	 */
+	public BiomeCache getBiomeCache(long seed) {
+		BiomeCache cache = biomeCaches.getIfPresent(seed);
+		if (cache == null) {
+			cache = new BiomeCache();
+			BiomeCache previous = biomeCaches.asMap().putIfAbsent(seed, cache);
+			if (previous != null) {
+				cache = previous;
+			}
+		}
+		return cache;
+	}
+
 	protected abstract void generateTerrain(CuboidBlockMaterialBuffer blockData, int x, int y, int z, BiomeManager manager, long seed);
 
 	@Override
@@ -146,7 +183,7 @@ public abstract class BiomeGenerator implements WorldGenerator {
 	}
 
 	public Biome getBiome(int x, int z, long seed) {
-		return biomes.getBiome(x, z, seed);
+		return getColumnBiomes(x >> Chunk.BLOCKS.BITS, z >> Chunk.BLOCKS.BITS, seed)[(z & Chunk.BLOCKS.MASK) << Chunk.BLOCKS.BITS | (x & Chunk.BLOCKS.MASK)];
 	}
 
 	public Set<Biome> getBiomes() {
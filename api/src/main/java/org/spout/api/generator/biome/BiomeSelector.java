@@ -26,6 +26,8 @@
  */
 package org.spout.api.generator.biome;
 
+import org.spout.api.geo.cuboid.Chunk;
+
 /**
  * Defines an abstract biome selector
  *
@@ -44,4 +46,21 @@ public abstract class BiomeSelector {
 	 * @return the biome between 0 and maxBiomes
 	 */
 	public abstract Biome pickBiome(int x, int y, int z, long seed);
+
+	/**
+	 * Picks the biomes for a full chunk column at y = 0. The biomes are placed in the array at index (z << 4) | x, relative to the column's base.<br> <br> By default, this calls {@link
+	 * #pickBiome(int, int, int, long)} for every block. Selectors with a cheaper way to fill a column should override it.
+	 *
+	 * @param x the x coordinate of the column's base block
+	 * @param z the z coordinate of the column's base block
+	 * @param seed the world seed
+	 * @param biomes the array to place the biomes, of length at least {@code Chunk.BLOCKS.AREA}
+	 */
+	public void pickBiomes(int x, int z, long seed, Biome[] biomes) {
+		for (int dz = 0; dz < Chunk.BLOCKS.SIZE; dz++) {
+			for (int dx = 0; dx < Chunk.BLOCKS.SIZE; dx++) {
+				biomes[dz << Chunk.BLOCKS.BITS | dx] = pickBiome(x + dx, 0, z + dz, seed);
+			}
+		}
+	}
 }
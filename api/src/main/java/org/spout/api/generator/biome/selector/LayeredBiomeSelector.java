@@ -31,15 +31,19 @@ import java.util.logging.Level;
 import org.spout.api.Spout;
 import org.spout.api.generator.biome.Biome;
 import org.spout.api.generator.biome.BiomeSelector;
+import org.spout.api.geo.cuboid.Chunk;
 
 /**
  * A layered biome selector. This selector starts with a starting layer which will pick an element for the same seed and coordinates. If the element is a biome, it will be returned, else if it is a
  * layer, the selector will use this layer to pick a new element. The selector will treat this layer like the first one, and will continue the cycle until it finds a biome or a null element. If a null
- * element is found, the fallback biome will be returned.
+ * element is found, the fallback biome will be returned.<br> <br> When picking the biomes of a whole column, the layers are sampled on a coarse grid. Cells with the same biome at all four corners are
+ * filled without sampling the layers again, and only the blocks in cells on a biome boundary are picked individually. The default sample spacing of 1 picks every block, larger spacings are faster
+ * but may change the biomes of existing worlds and must be enabled with {@link #setSampleSpacing(int)}.
  */
 public class LayeredBiomeSelector extends BiomeSelector {
 	private final BiomeSelectorLayer start;
 	private final Biome fallback;
+	private int sampleSpacing = 1;
 
 	/**
 	 * Constructs a new layered biome selector.
@@ -68,4 +72,64 @@ public class LayeredBiomeSelector extends BiomeSelector {
 		}
 		return (Biome) current;
 	}
+
+	@Override
+	public void pickBiomes(int x, int z, long seed, Biome[] biomes) {
+		final int spacing = sampleSpacing;
+		if (spacing <= 1) {
+			super.pickBiomes(x, z, seed, biomes);
+			return;
+		}
+		final int samples = Chunk.BLOCKS.SIZE / spacing + 1;
+		final Biome[] grid = new Biome[samples * samples];
+		for (int sz = 0; sz < samples; sz++) {
+			for (int sx = 0; sx < samples; sx++) {
+				grid[sz * samples + sx] = pickBiome(x + sx * spacing, 0, z + sz * spacing, seed);
+			}
+		}
+		for (int cz = 0; cz < samples - 1; cz++) {
+			for (int cx = 0; cx < samples - 1; cx++) {
+				final Biome corner = grid[cz * samples + cx];
+				final boolean uniform = corner == grid[cz * samples + cx + 1]
+						&& corner == grid[(cz + 1) * samples + cx]
+						&& corner == grid[(cz + 1) * samples + cx + 1];
+				for (int dz = 0; dz < spacing; dz++) {
+					final int bz = cz * spacing + dz;
+					for (int dx = 0; dx < spacing; dx++) {
+						final int bx = cx * spacing + dx;
+						final Biome biome;
+						if (uniform || (dx == 0 && dz == 0)) {
+							biome = corner;
+						} else {
+							biome = pickBiome(x + bx, 0, z + bz, seed);
+						}
+						biomes[bz << Chunk.BLOCKS.BITS | bx] = biome;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the spacing between the samples taken when picking the biomes of a column.
+	 *
+	 * @return The sample spacing, in blocks.
+	 */
+	public int getSampleSpacing() {
+		return sampleSpacing;
+	}
+
+	/**
+	 * Sets the spacing between the samples taken when picking the biomes of a column. Biomes narrower than the spacing may be missed if they fall entirely between samples.
+	 *
+	 * @param sampleSpacing The sample spacing, in blocks. Must be a power of two no larger than the chunk size.
+	 * @return This selector, for chaining.
+	 */
+	public LayeredBiomeSelector setSampleSpacing(int sampleSpacing) {
+		if (sampleSpacing < 1 || sampleSpacing > Chunk.BLOCKS.SIZE || (sampleSpacing & (sampleSpacing - 1)) != 0) {
+			throw new IllegalArgumentException("Sample spacing must be a power of two between 1 and " + Chunk.BLOCKS.SIZE);
+		}
+		this.sampleSpacing = sampleSpacing;
+		return this;
+	}
 }
@@ -27,6 +27,7 @@
 package org.spout.api.geo;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.spout.api.ServerOnly;
 import org.spout.api.geo.cuboid.Chunk;
@@ -61,6 +62,19 @@ public interface AreaChunkAccess extends AreaBlockAccess {
 	@LiveRead
 	public Chunk getChunk(int x, int y, int z, LoadOption loadopt);
 
+	/**
+	 * Gets a future for the {@link Chunk} at chunk coordinates (x, y, z).<br> If the chunk has to be loaded, it is read and decoded off the calling thread and the future completes once the
+	 * chunk has been added to its region, at the start of a later tick. Concurrent requests for the same chunk share a single load.
+	 *
+	 * @param x coordinate of the chunk
+	 * @param y coordinate of the chunk
+	 * @param z coordinate of the chunk
+	 * @param loadopt to control whether to load and/or generate the chunk, if needed
+	 * @return a future for the chunk, holding null if the chunk could not be loaded
+	 */
+	@LiveRead
+	public Future<Chunk> getChunkFuture(int x, int y, int z, LoadOption loadopt);
+
 	/**
 	 * Gets if a chunk is contained in this area
 	 *
@@ -58,26 +58,30 @@ public abstract class ChunkSnapshot extends Cube implements AreaBlockSource {
 	}
 
 	/**
-	 * Gets a copy of the raw block ids.
+	 * Gets the raw block ids.<br> <br> The array is copied from the chunk once per block change, not once per snapshot.  Every snapshot of the chunk taken before its next block change
+	 * returns the same array, and snapshots of uniform chunks with the same id share one array.  It must not be modified.
 	 *
 	 * @return raw block ids
 	 */
 	public abstract short[] getBlockIds();
 
 	/**
-	 * Gets a copy of the raw block data.
+	 * Gets the raw block data.<br> <br> The array is copied from the chunk once per block change, not once per snapshot.  Every snapshot of the chunk taken before its next block change
+	 * returns the same array, and snapshots of uniform chunks with the same data share one array.  It must not be modified.
 	 *
 	 * @return block data
 	 */
 	public abstract short[] getBlockData();
 
 	/**
-	 * Gets an array containing a copy of the light data arrays
+	 * Gets the light buffers.<br> <br> The array and the buffers in it are copied from the chunk once per light change, not once per snapshot.  Every snapshot of the chunk taken before its
+	 * next light change returns the same array and buffers.  They must not be modified.
 	 */
 	public abstract CuboidLightBuffer[] getLightBuffers();
 
 	/**
-	 * Gets an array containing a copy of a light data arrays
+	 * Gets the light buffer of a light manager.<br> <br> The buffer is copied from the chunk once per light change, not once per snapshot.  Every snapshot of the chunk taken before its next
+	 * light change returns the same buffer.  It must not be modified.
 	 *
 	 * @param id the id of the corresponding light manager
 	 */
@@ -0,0 +1,107 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.io.regionfile;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of the buffers and deflaters used by {@link SRFOutputStream}, so that saving many blocks does not allocate new compression state and output arrays for every block.<br> Buffers and
+ * deflaters returned when the pool is full are discarded.
+ */
+final class SRFBufferPool {
+	/**
+	 * The size of each pooled buffer
+	 */
+	static final int BUFFER_SIZE = 16384;
+	private static final int MAX_BUFFERS = 512;
+	private static final int MAX_DEFLATERS = Runtime.getRuntime().availableProcessors() * 2;
+	private static final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger bufferCount = new AtomicInteger(0);
+	private static final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger deflaterCount = new AtomicInteger(0);
+
+	private SRFBufferPool() {
+	}
+
+	/**
+	 * Takes a buffer of {@link #BUFFER_SIZE} bytes from the pool, or allocates one if the pool is empty.  The contents of the buffer are undefined.
+	 *
+	 * @return the buffer
+	 */
+	static byte[] takeBuffer() {
+		byte[] buffer = buffers.poll();
+		if (buffer == null) {
+			return new byte[BUFFER_SIZE];
+		}
+		bufferCount.decrementAndGet();
+		return buffer;
+	}
+
+	/**
+	 * Returns a buffer to the pool
+	 *
+	 * @param buffer the buffer
+	 */
+	static void release(byte[] buffer) {
+		if (bufferCount.incrementAndGet() <= MAX_BUFFERS) {
+			buffers.add(buffer);
+		} else {
+			bufferCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Takes a deflater, set to the default compression level, from the pool
+	 *
+	 * @return the deflater
+	 */
+	static Deflater takeDeflater() {
+		Deflater deflater = deflaters.poll();
+		if (deflater == null) {
+			return new Deflater();
+		}
+		deflaterCount.decrementAndGet();
+		return deflater;
+	}
+
+	/**
+	 * Resets a deflater and returns it to the pool.  Deflaters that do not fit in the pool have their native memory released.
+	 *
+	 * @param deflater the deflater
+	 */
+	static void release(Deflater deflater) {
+		deflater.reset();
+		if (deflaterCount.incrementAndGet() <= MAX_DEFLATERS) {
+			deflaters.add(deflater);
+		} else {
+			deflaterCount.decrementAndGet();
+			deflater.end();
+		}
+	}
+}
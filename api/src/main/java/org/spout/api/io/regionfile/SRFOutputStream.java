@@ -26,35 +26,116 @@
  */
 package org.spout.api.io.regionfile;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
+import java.util.zip.Deflater;
 
-public class SRFOutputStream extends ByteArrayOutputStream {
+/**
+ * Compresses the data for a block into buffers taken from the {@link SRFBufferPool}.  The compressed data is written to the file when the stream is closed, since the block's segments can only be
+ * reserved once its length is known, and the buffers are then returned to the pool.
+ */
+public class SRFOutputStream extends OutputStream {
 	private final SimpleRegionFile srf;
 	private final int index;
 	private final Lock lock;
 	private final AtomicBoolean lockUnlocked;
+	private final Deflater deflater;
+	private final byte[] input;
+	private int inputCount = 0;
+	private final List<byte[]> output = new ArrayList<>();
+	private byte[] current = null;
+	private int currentCount = 0;
+	private int length = 0;
 
-	SRFOutputStream(SimpleRegionFile srf, int index, int estimatedSize, Lock lock) {
-		super(estimatedSize);
+	SRFOutputStream(SimpleRegionFile srf, int index, Lock lock) {
 		this.srf = srf;
 		this.index = index;
 		this.lock = lock;
 		this.lockUnlocked = new AtomicBoolean(false);
+		this.deflater = SRFBufferPool.takeDeflater();
+		this.input = SRFBufferPool.takeBuffer();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		checkOpen();
+		if (inputCount == input.length) {
+			flushInput();
+		}
+		input[inputCount++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		checkOpen();
+		if (len >= input.length) {
+			flushInput();
+			deflate(b, off, len);
+			return;
+		}
+		if (len > input.length - inputCount) {
+			flushInput();
+		}
+		System.arraycopy(b, off, input, inputCount, len);
+		inputCount += len;
 	}
 
 	@Override
 	public void close() throws IOException {
 		if (this.lockUnlocked.compareAndSet(false, true)) {
 			try {
-				srf.write(index, buf, count);
+				flushInput();
+				deflater.finish();
+				while (!deflater.finished()) {
+					drain();
+				}
+				srf.write(index, output, length);
 			} finally {
+				SRFBufferPool.release(deflater);
+				SRFBufferPool.release(input);
+				for (byte[] buffer : output) {
+					SRFBufferPool.release(buffer);
+				}
+				output.clear();
 				lock.unlock();
 			}
 		} else {
 			throw new SRFException("Attempt made to close a block output stream twice");
 		}
 	}
-}
\ No newline at end of file
+
+	private void checkOpen() throws IOException {
+		if (lockUnlocked.get()) {
+			throw new SRFException("Attempt made to write to a closed block output stream");
+		}
+	}
+
+	private void flushInput() {
+		if (inputCount > 0) {
+			deflate(input, 0, inputCount);
+			inputCount = 0;
+		}
+	}
+
+	private void deflate(byte[] b, int off, int len) {
+		deflater.setInput(b, off, len);
+		while (!deflater.needsInput()) {
+			drain();
+		}
+	}
+
+	private void drain() {
+		if (current == null || currentCount == current.length) {
+			current = SRFBufferPool.takeBuffer();
+			currentCount = 0;
+			output.add(current);
+		}
+		int written = deflater.deflate(current, currentCount, current.length - currentCount);
+		currentCount += written;
+		length += written;
+	}
+}
@@ -27,20 +27,19 @@
 package org.spout.api.io.regionfile;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
-import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterInputStream;
 
 import org.spout.api.io.bytearrayarray.ByteArrayArray;
@@ -219,17 +218,17 @@ public class SimpleRegionFile implements ByteArrayArray {
 		if (this.isClosed()) {
 			throw new SRFClosedException("File closed");
 		}
-		return new BufferedOutputStream(new DeflaterOutputStream(new SRFOutputStream(this, i, this.segmentMask + 1, lock)));
+		return new SRFOutputStream(this, i, lock);
 	}
 
 	/**
-	 * Writes a byte array to a block.  This is for internal use only. <br> <br> Note: It is assumed that the block is locked when making these changes<br>
+	 * Writes a sequence of buffers to a block.  This is for internal use only. <br> <br> Note: It is assumed that the block is locked when making these changes<br>
 	 *
 	 * @param i the block index
-	 * @param buf the buffer
+	 * @param buffers the buffers, in order, with only the last buffer partially filled
 	 * @param length the actual block length
 	 */
-	void write(int i, byte[] buf, int length) throws IOException {
+	void write(int i, List<byte[]> buffers, int length) throws IOException {
 		refreshAccess();
 		int start = reserveBlockSegments(i, length);
 		synchronized (fileSyncObject) {
@@ -238,7 +237,12 @@ public class SimpleRegionFile implements ByteArrayArray {
 			}
 			this.writeFAT(i, start, length);
 			file.seek(start << segmentSize);
-			file.write(buf, 0, length);
+			int remaining = length;
+			for (byte[] buf : buffers) {
+				int count = Math.min(remaining, buf.length);
+				file.write(buf, 0, count);
+				remaining -= count;
+			}
 		}
 	}
 
@@ -28,7 +28,7 @@ package org.spout.api.lighting;
 
 public interface Modifiable {
 	/**
-	 * Marks this object as modified
+	 * Marks this object as modified.  This should be called after the modification has been applied.
 	 */
 	public void setModified();
 }
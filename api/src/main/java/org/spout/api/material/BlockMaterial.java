@@ -227,6 +227,7 @@ public class BlockMaterial extends Material implements Placeable {
 		} else {
 			surface = false;
 		}
+		MaterialRegistry.invalidateBlockProperties();
 		return this;
 	}
 
@@ -257,6 +258,7 @@ public class BlockMaterial extends Material implements Placeable {
 	 */
 	public BlockMaterial setSurface() {
 		this.surface = true;
+		MaterialRegistry.invalidateBlockProperties();
 		return this;
 	}
 
@@ -267,6 +269,7 @@ public class BlockMaterial extends Material implements Placeable {
 	 */
 	public BlockMaterial setSky() {
 		this.surface = false;
+		MaterialRegistry.invalidateBlockProperties();
 		return this;
 	}
 
@@ -405,6 +408,7 @@ public class BlockMaterial extends Material implements Placeable {
 	 */
 	public BlockMaterial setOcclusion(short data, BlockFaces faces) {
 		this.getOcclusion(data).set(faces);
+		MaterialRegistry.invalidateBlockProperties();
 		return this;
 	}
 
@@ -417,6 +421,7 @@ public class BlockMaterial extends Material implements Placeable {
 	 */
 	public BlockMaterial setOcclusion(short data, BlockFace face) {
 		this.getOcclusion(data).set(face);
+		MaterialRegistry.invalidateBlockProperties();
 		return this;
 	}
 
@@ -505,6 +510,7 @@ public class BlockMaterial extends Material implements Placeable {
 	public BlockMaterial setInvisible() {
 		this.invisible = true;
 		this.occlusion.set(BlockFaces.NONE);
+		MaterialRegistry.invalidateBlockProperties();
 		return this;
 	}
 
@@ -571,6 +577,7 @@ public class BlockMaterial extends Material implements Placeable {
 	 */
 	public void setGhost(final boolean isGhost) {
 		this.isGhost = isGhost;
+		MaterialRegistry.invalidateBlockProperties();
 	}
 
 	/**
@@ -662,6 +669,7 @@ public class BlockMaterial extends Material implements Placeable {
 	 */
 	public BlockMaterial setShape(final CollisionShape shape) {
 		this.shape = shape;
+		MaterialRegistry.invalidateBlockProperties();
 		return this;
 	}
 }
@@ -0,0 +1,172 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.material;
+
+import org.spout.api.material.block.BlockFace;
+import org.spout.api.material.block.BlockFullState;
+
+/**
+ * A snapshot of the block properties read by lighting, meshing, physics and height map updates, stored as flat primitive arrays indexed by packed full state.<br> Each registered block id owns a run of
+ * slots, one per sub-material data value, so a lookup is a few array reads instead of a material lookup and a virtual call.<br> Ids that are not registered, or are not blocks, resolve to the
+ * properties of {@link BlockMaterial#AIR}, in the same way as {@link BlockFullState#getMaterial(int)}.<br> Tables are built by {@link MaterialRegistry#getBlockProperties()} and are immutable.  Hot
+ * loops should get the table once and reuse it for the whole pass.
+ */
+public final class BlockPropertyTable {
+	private final int version;
+	private final int[] offsets;
+	private final int[] masks;
+	private final int[] sizes;
+	private final byte[] opacity;
+	private final boolean[] surface;
+	private final byte[] occlusion;
+	private final boolean[] collidable;
+	private final byte[] lightLevel;
+
+	BlockPropertyTable(int version, int[] offsets, int[] masks, int[] sizes, int slots) {
+		this.version = version;
+		this.offsets = offsets;
+		this.masks = masks;
+		this.sizes = sizes;
+		this.opacity = new byte[slots];
+		this.surface = new boolean[slots];
+		this.occlusion = new byte[slots];
+		this.collidable = new boolean[slots];
+		this.lightLevel = new byte[slots];
+	}
+
+	void setSlot(int slot, BlockMaterial material, short data) {
+		opacity[slot] = material.getOpacity();
+		surface[slot] = material.isSurface();
+		occlusion[slot] = material.getOcclusion(data).get();
+		collidable[slot] = material.getShape() != null && !material.isGhost();
+		lightLevel[slot] = material.getLightLevel(data);
+	}
+
+	/**
+	 * Gets the registry version this table was built from
+	 *
+	 * @return the version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the slot holding the properties of a packed full state
+	 *
+	 * @param packed the packed id and data
+	 * @return the slot
+	 */
+	public int getSlot(int packed) {
+		int id = packed >>> 16;
+		int data = packed & masks[id];
+		if (data >= sizes[id]) {
+			data = 0;
+		}
+		return offsets[id] + data;
+	}
+
+	/**
+	 * Gets the amount of light blocked by a block, see {@link BlockMaterial#getOpacity()}
+	 *
+	 * @param packed the packed id and data
+	 * @return the opacity, from 0 to 15
+	 */
+	public byte getOpacity(int packed) {
+		return opacity[getSlot(packed)];
+	}
+
+	/**
+	 * Gets if a block counts towards the surface height, see {@link BlockMaterial#isSurface()}
+	 *
+	 * @param packed the packed id and data
+	 * @return true for surface blocks
+	 */
+	public boolean isSurface(int packed) {
+		return surface[getSlot(packed)];
+	}
+
+	/**
+	 * Gets the occluded faces of a block as a face mask, see {@link BlockMaterial#getOcclusion(short)}
+	 *
+	 * @param packed the packed id and data
+	 * @return the occlusion mask
+	 */
+	public byte getOcclusion(int packed) {
+		return occlusion[getSlot(packed)];
+	}
+
+	/**
+	 * Gets if a block occludes the given face
+	 *
+	 * @param packed the packed id and data
+	 * @param face the face
+	 * @return true if the face is occluded
+	 */
+	public boolean isOccluding(int packed, BlockFace face) {
+		int mask = face.getMask();
+		return (occlusion[getSlot(packed)] & mask) == mask;
+	}
+
+	/**
+	 * Gets if entities collide with a block.  This is true for blocks that have a collision shape and are not ghosts.
+	 *
+	 * @param packed the packed id and data
+	 * @return true if the block is collidable
+	 */
+	public boolean isCollidable(int packed) {
+		return collidable[getSlot(packed)];
+	}
+
+	/**
+	 * Gets the amount of light a block emits, see {@link BlockMaterial#getLightLevel(short)}
+	 *
+	 * @param packed the packed id and data
+	 * @return the light level
+	 */
+	public byte getLightLevel(int packed) {
+		return lightLevel[getSlot(packed)];
+	}
+
+	/**
+	 * Gets the opacity of every slot, indexed by {@link #getSlot(int)}.  The returned array must not be modified.
+	 *
+	 * @return the opacity array
+	 */
+	public byte[] getRawOpacity() {
+		return opacity;
+	}
+
+	/**
+	 * Gets the light level of every slot, indexed by {@link #getSlot(int)}.  The returned array must not be modified.
+	 *
+	 * @return the light level array
+	 */
+	public byte[] getRawLightLevel() {
+		return lightLevel;
+	}
+}
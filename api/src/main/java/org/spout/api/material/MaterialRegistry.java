@@ -29,6 +29,7 @@ package org.spout.api.material;
 import java.io.File;
 import java.util.HashSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.spout.api.Server;
@@ -52,6 +53,9 @@ public abstract class MaterialRegistry {
 	private static boolean setup = false;
 	private static SyncedStringMap materialRegistry = SyncedStringMap.create(null, new MemoryStore<Integer>(), 1, Short.MAX_VALUE, Material.class.getName());
 	private final static Material[] NULL_MATERIAL_ARRAY = new Material[] {null};
+	private final static AtomicInteger blockPropertyVersion = new AtomicInteger();
+	private final static Object blockPropertyLock = new Object();
+	private static volatile BlockPropertyTable blockProperties = null;
 
 	static {
 		for (int i = 0; i < materialLookup.length; i++) {
@@ -109,6 +113,7 @@ public abstract class MaterialRegistry {
 		if (material.isSubMaterial()) {
 			material.getParentMaterial().registerSubMaterial(material);
 			nameLookup.put(formatName(material.getDisplayName()), material);
+			invalidateBlockProperties();
 			return material.getParentMaterial().getId();
 		} else {
 			int id = materialRegistry.register(material.getName());
@@ -118,6 +123,7 @@ public abstract class MaterialRegistry {
 			}
 
 			nameLookup.put(formatName(material.getDisplayName()), material);
+			invalidateBlockProperties();
 			return id;
 		}
 	}
@@ -140,6 +146,7 @@ public abstract class MaterialRegistry {
 		}
 
 		nameLookup.put(formatName(material.getName()), material);
+		invalidateBlockProperties();
 		return id;
 	}
 
@@ -204,6 +211,71 @@ public abstract class MaterialRegistry {
 		return (BlockMaterial) material[BlockFullState.getData(packedState) & (material[0].getDataMask())];
 	}
 
+	/**
+	 * Gets the block property table for the current set of materials.  The table is rebuilt on first use after a material is registered or a block property is changed.<br> Hot loops should get
+	 * the table once per pass rather than once per block.
+	 *
+	 * @return the block property table
+	 */
+	public static BlockPropertyTable getBlockProperties() {
+		BlockPropertyTable table = blockProperties;
+		if (table != null && table.getVersion() == blockPropertyVersion.get()) {
+			return table;
+		}
+		synchronized (blockPropertyLock) {
+			table = blockProperties;
+			int version = blockPropertyVersion.get();
+			if (table == null || table.getVersion() != version) {
+				table = buildBlockProperties(version);
+				blockProperties = table;
+			}
+			return table;
+		}
+	}
+
+	/**
+	 * Marks the block property table as out of date.  This is called automatically when materials are registered and by the {@link BlockMaterial} setters.  Materials that compute their properties in
+	 * overridden getters must call this when the result of those getters changes.
+	 */
+	public static void invalidateBlockProperties() {
+		blockPropertyVersion.incrementAndGet();
+	}
+
+	private static BlockPropertyTable buildBlockProperties(int version) {
+		int[] offsets = new int[MAX_SIZE];
+		int[] masks = new int[MAX_SIZE];
+		int[] sizes = new int[MAX_SIZE];
+		// Slot 0 holds air, which unregistered and non-block ids resolve to
+		int slots = 1;
+		for (int id = 0; id < MAX_SIZE; id++) {
+			Material[] subMaterials = materialLookup[id].get();
+			sizes[id] = 1;
+			if (subMaterials[0] instanceof BlockMaterial) {
+				offsets[id] = slots;
+				masks[id] = subMaterials[0].getDataMask() & 0xFFFF;
+				sizes[id] = subMaterials.length;
+				slots += subMaterials.length;
+			}
+		}
+
+		BlockPropertyTable table = new BlockPropertyTable(version, offsets, masks, sizes, slots);
+		if (BlockMaterial.AIR != null) {
+			table.setSlot(0, BlockMaterial.AIR, (short) 0);
+		}
+		for (int id = 0; id < MAX_SIZE; id++) {
+			if (offsets[id] == 0) {
+				continue;
+			}
+			Material[] subMaterials = materialLookup[id].get();
+			BlockMaterial root = (BlockMaterial) subMaterials[0];
+			for (int data = 0; data < sizes[id]; data++) {
+				Material m = subMaterials[data];
+				table.setSlot(offsets[id] + data, m instanceof BlockMaterial ? (BlockMaterial) m : root, (short) data);
+			}
+		}
+		return table;
+	}
+
 	/**
 	 * Returns all current materials in the game
 	 *
@@ -30,18 +30,25 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+
+import org.spout.api.geo.cuboid.Chunk;
 import org.spout.api.geo.cuboid.Region;
 import org.spout.api.material.block.BlockFace;
 import org.spout.api.math.IntVector3;
 
 public abstract class EffectRangeImpl implements EffectRange {
 	private static int regionMax = Region.BLOCKS.SIZE - 1;
+	private static int chunkMax = Chunk.BLOCKS.SIZE - 1;
 	private final int maxX;
 	private final int maxY;
 	private final int maxZ;
 	private final int minX;
 	private final int minY;
 	private final int minZ;
+	/**
+	 * The offsets of the range, as x, y, z triples.  Computed the first time they are needed, since subclasses are not initialized when this constructor runs.
+	 */
+	private volatile int[] offsets = null;
 
 	protected EffectRangeImpl(int range) {
 		this(range, range, range);
@@ -127,6 +134,67 @@ public abstract class EffectRangeImpl implements EffectRange {
 	@Override
 	public abstract void initEffectIterator(EffectIterator i);
 
+	/**
+	 * Executes a procedure for every offset in the effect range, in the same order as the iterator.  The offsets are computed once per range, so this does not allocate.
+	 *
+	 * @param procedure the procedure
+	 * @return false if the procedure stopped the iteration
+	 */
+	public boolean forEach(EffectProcedure procedure) {
+		int[] offsets = getOffsets();
+		for (int i = 0; i < offsets.length; i += 3) {
+			if (!procedure.execute(offsets[i], offsets[i + 1], offsets[i + 2])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the number of offsets in the effect range
+	 *
+	 * @return the number of offsets
+	 */
+	public int getOffsetCount() {
+		return getOffsets().length / 3;
+	}
+
+	private int[] getOffsets() {
+		int[] offsets = this.offsets;
+		if (offsets == null) {
+			List<IntVector3> list = new ArrayList<>();
+			EffectIterator iter = new EffectIterator();
+			this.initEffectIterator(iter);
+			while (iter.hasNext()) {
+				list.add(iter.next().copy());
+			}
+			offsets = new int[list.size() * 3];
+			int i = 0;
+			for (IntVector3 v : list) {
+				offsets[i++] = v.getX();
+				offsets[i++] = v.getY();
+				offsets[i++] = v.getZ();
+			}
+			this.offsets = offsets;
+		}
+		return offsets;
+	}
+
+	/**
+	 * Checks if the effect is contained within a Chunk for the given block position
+	 *
+	 * @param the x coordinate of the block
+	 * @param the y coordinate of the block
+	 * @param the z coordinate of the block
+	 * @return true if the range is Chunk specific
+	 */
+	public boolean isChunkLocal(int x, int y, int z) {
+		x &= Chunk.BLOCKS.MASK;
+		y &= Chunk.BLOCKS.MASK;
+		z &= Chunk.BLOCKS.MASK;
+		return !(x + maxX > chunkMax || y + maxY > chunkMax || z + maxZ > chunkMax || x + minX < 0 || y + minY < 0 || z + minZ < 0);
+	}
+
 	@Override
 	public boolean isRegionLocal(int x, int y, int z) {
 		x &= Region.BLOCKS.MASK;
@@ -26,25 +26,42 @@
  */
 package org.spout.api.plugin;
 
+import java.io.File;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 public class PluginClassLoader extends URLClassLoader {
-	private final Map<String, Class<?>> classes = new HashMap<>();
+	private static final int MISSING_CLASS_CACHE_SIZE = 4096;
+	private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
 	private final PluginLoader loader;
 	private Plugin plugin;
 	private final Map<String, String> componentRemapping;
 	private final List<String> depends;
 	private final List<String> softDepends;
-	private static HashMap<String, Plugin> pluginsForClassNames = new HashMap<>(500);
-	private static Set<PluginClassLoader> loaders = new HashSet<>();
+	private final Set<File> jars = new CopyOnWriteArraySet<>();
+	private volatile boolean indexed = true;
+	private static final ConcurrentMap<String, Plugin> pluginsForClassNames = new ConcurrentHashMap<>(500);
+	private static final Set<PluginClassLoader> loaders = new CopyOnWriteArraySet<>();
+	/**
+	 * The loader for every class found in a plugin jar, filled when the jar is added to its loader
+	 */
+	private static final ConcurrentMap<String, PluginClassLoader> classIndex = new ConcurrentHashMap<>(4096);
+	/**
+	 * Class names which could not be found in any plugin, cleared whenever a jar is added
+	 */
+	private static final Cache<String, Boolean> missingClasses = CacheBuilder.newBuilder().maximumSize(MISSING_CLASS_CACHE_SIZE).build();
 
 	public PluginClassLoader(final PluginLoader loader, final ClassLoader parent, PluginDescriptionFile desc) {
 		super(new URL[0], parent);
@@ -58,11 +75,59 @@ public class PluginClassLoader extends URLClassLoader {
 	@Override
 	protected void addURL(URL url) {
 		super.addURL(url);
+		if ("file".equals(url.getProtocol())) {
+			try {
+				indexJar(new File(url.toURI()));
+			} catch (URISyntaxException ignored) {
+			}
+		}
+	}
+
+	private void indexJar(File file) {
+		jars.add(file);
+		for (String name : PluginJarIndex.getClassNames(file)) {
+			classIndex.putIfAbsent(name, this);
+		}
+		missingClasses.invalidateAll();
+	}
+
+	/**
+	 * Adds this loader and the classes of its jars back to the lookup shared by all plugins, after {@link #removeFromIndex()}
+	 */
+	synchronized void restoreIndex() {
+		if (indexed) {
+			return;
+		}
+		indexed = true;
+		loaders.add(this);
+		for (File file : jars) {
+			indexJar(file);
+		}
+	}
+
+	/**
+	 * Removes this loader and the classes of its jars from the lookup shared by all plugins, and discards the scans of its jars
+	 */
+	synchronized void removeFromIndex() {
+		if (!indexed) {
+			return;
+		}
+		indexed = false;
+		loaders.remove(this);
+		classIndex.values().removeAll(Collections.singleton(this));
+		for (File file : jars) {
+			PluginJarIndex.invalidate(file);
+		}
+		missingClasses.invalidateAll();
 	}
 
 	protected void setPlugin(Plugin plugin) {
 		this.plugin = plugin;
 		pluginsForClassNames.put(plugin.getClass().getName(), plugin);
+		// Classes loaded before the plugin was constructed
+		for (String name : classes.keySet()) {
+			pluginsForClassNames.putIfAbsent(name, plugin);
+		}
 	}
 
 	protected Plugin getPlugin() {
@@ -97,7 +162,9 @@ public class PluginClassLoader extends URLClassLoader {
 
 			if (result != null) {
 				classes.put(name, result);
-				pluginsForClassNames.put(name, plugin);
+				if (plugin != null) {
+					pluginsForClassNames.put(name, plugin);
+				}
 			} else {
 				throw new ClassNotFoundException(name);
 			}
@@ -125,23 +192,52 @@ public class PluginClassLoader extends URLClassLoader {
 	}
 
 	public static Plugin getPlugin(String className) {
-		return pluginsForClassNames.get(className);
+		Plugin plugin = pluginsForClassNames.get(className);
+		if (plugin == null) {
+			PluginClassLoader owner = classIndex.get(className);
+			if (owner != null) {
+				plugin = owner.plugin;
+			}
+		}
+		return plugin;
 	}
 
 	public static Class<?> findPluginClass(final String name) throws ClassNotFoundException {
 		for (PluginClassLoader loader : loaders) {
-			if (loader.componentRemapping.containsKey(name)) {
+			String remapped = loader.componentRemapping.get(name);
+			if (remapped != null) {
 				//Research all plugins, allows plugins to replace old component with one in different plugin
-				Class<?> clazz = findPluginClass(loader.componentRemapping.get(name));
-				if (clazz != null) {
-					return clazz;
+				try {
+					return findPluginClass(remapped);
+				} catch (ClassNotFoundException ignored) {
 				}
 			}
-			Class<?> clazz = loader.findClass(name);
-			if (clazz != null) {
-				return clazz;
+		}
+
+		if (missingClasses.getIfPresent(name) != null) {
+			throw new ClassNotFoundException("Class " + name + " was unable to be found");
+		}
+
+		PluginClassLoader owner = classIndex.get(name);
+		if (owner != null) {
+			try {
+				return owner.findClass(name, false);
+			} catch (ClassNotFoundException ignored) {
+			}
+		}
+
+		// Classes which are not in a jar's entries, such as those defined at runtime
+		for (PluginClassLoader loader : loaders) {
+			if (loader == owner) {
+				continue;
+			}
+			try {
+				return loader.findClass(name, false);
+			} catch (ClassNotFoundException ignored) {
 			}
 		}
+
+		missingClasses.put(name, Boolean.TRUE);
 		throw new ClassNotFoundException("Class " + name + " was unable to be found");
 	}
 }
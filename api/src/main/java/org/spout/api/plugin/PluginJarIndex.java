@@ -0,0 +1,151 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.spout.api.Spout;
+
+/**
+ * Lists the classes contained in plugin jars.<br> <br> Jars may be scanned ahead of time and in parallel, so that plugin class loaders can build their class index without reopening the jar.
+ */
+public final class PluginJarIndex {
+	private static final String CLASS_SUFFIX = ".class";
+	private static final ConcurrentMap<File, Set<String>> scanned = new ConcurrentHashMap<>();
+
+	private PluginJarIndex() {
+	}
+
+	/**
+	 * Scans the given jars in parallel.  Files which are not jars are ignored.
+	 *
+	 * @param files the files to scan
+	 */
+	public static void prescan(Collection<File> files) {
+		final List<File> jars = new ArrayList<>(files.size());
+		for (File file : files) {
+			if (file.isFile() && file.getName().endsWith(".jar")) {
+				jars.add(file);
+			}
+		}
+		if (jars.size() <= 1) {
+			for (File jar : jars) {
+				getClassNames(jar);
+			}
+			return;
+		}
+
+		int threads = Math.min(jars.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("Plugin Jar Scanner - %d").setDaemon(true).build());
+		try {
+			List<Future<?>> futures = new ArrayList<>(jars.size());
+			for (final File jar : jars) {
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						getClassNames(jar);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Spout.getLogger().log(Level.WARNING, "Unable to scan plugin jar", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Gets the names of the classes in a jar, scanning it if it has not been scanned yet
+	 *
+	 * @param file the jar
+	 * @return the binary names of the classes
+	 */
+	public static Set<String> getClassNames(File file) {
+		file = file.getAbsoluteFile();
+		Set<String> names = scanned.get(file);
+		if (names == null) {
+			names = scan(file);
+			Set<String> old = scanned.putIfAbsent(file, names);
+			if (old != null) {
+				names = old;
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Discards the scan of a jar, so that it is scanned again when it is next loaded
+	 *
+	 * @param file the jar
+	 */
+	public static void invalidate(File file) {
+		scanned.remove(file.getAbsoluteFile());
+	}
+
+	private static Set<String> scan(File file) {
+		Set<String> names = new HashSet<>();
+		try (JarFile jar = new JarFile(file)) {
+			Enumeration<JarEntry> entries = jar.entries();
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (!entry.isDirectory() && name.endsWith(CLASS_SUFFIX) && !name.startsWith("META-INF/")) {
+					names.add(name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.'));
+				}
+			}
+		} catch (IOException e) {
+			Spout.getLogger().log(Level.WARNING, "Unable to index plugin jar " + file.getName(), e);
+		}
+		return Collections.unmodifiableSet(names);
+	}
+}
@@ -79,6 +79,7 @@ public class PluginLoader {
 			if (!loaders.containsKey(name)) {
 				loaders.put(name, (PluginClassLoader) plugin.getClassLoader());
 			}
+			((PluginClassLoader) plugin.getClassLoader()).restoreIndex();
 
 			try {
 				String version = plugin.getDescription().getVersion();
@@ -115,6 +116,7 @@ public class PluginLoader {
 			}
 
 			engine.getEventManager().callEvent(new PluginDisableEvent(plugin));
+			((PluginClassLoader) plugin.getClassLoader()).removeFromIndex();
 		}
 	}
 
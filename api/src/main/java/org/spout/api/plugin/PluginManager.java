@@ -146,6 +146,7 @@ public class PluginManager {
 
 				// copy file to target and mark update file for deletion
 				FileUtils.copyFile(file, target);
+				PluginJarIndex.invalidate(target);
 				if (!file.delete()) {
 					file.deleteOnExit();
 				}
@@ -190,6 +191,8 @@ public class PluginManager {
 
 		List<Plugin> result = new ArrayList<>();
 		LinkedList<File> files = new LinkedList<>(Arrays.asList(paramFile.listFiles()));
+		// Index the classes of every jar up front, rather than one jar at a time as each plugin loads
+		PluginJarIndex.prescan(files);
 		boolean failed = false;
 		boolean lastPass = false;
 
@@ -264,6 +267,11 @@ public class PluginManager {
 	public void clearPlugins() {
 		synchronized (this) {
 			disablePlugins();
+			for (Plugin plugin : plugins) {
+				if (plugin.getClassLoader() instanceof PluginClassLoader) {
+					((PluginClassLoader) plugin.getClassLoader()).removeFromIndex();
+				}
+			}
 			plugins.clear();
 			names.clear();
 		}
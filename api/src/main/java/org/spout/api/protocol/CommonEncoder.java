@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.util.List;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 
@@ -47,7 +48,6 @@ public class CommonEncoder extends ProcessingEncoder {
 		this.onClient = onClient;
 	}
 
-	@SuppressWarnings ("unchecked")
 	@Override
 	protected void encodePreProcess(ChannelHandlerContext ctx, final Object msg, List<Object> out) throws IOException {
 		if (msg instanceof Message) {
@@ -58,16 +58,33 @@ public class CommonEncoder extends ProcessingEncoder {
 					protocol = Spout.getEngine().getProtocol(ctx.channel().localAddress());
 				}
 			}
-			final Message message = (Message) msg;
-			final Class<? extends Message> clazz = message.getClass();
-			final MessageCodec<Message> codec = (MessageCodec<Message>) protocol.getCodecLookupService().find(clazz);
-			if (codec == null) {
-				throw new IOException("Unknown message type: " + clazz + ".");
+			if (msg instanceof SharedMessage) {
+				out.add(((SharedMessage) msg).getEncoded(protocol, onClient));
+				return;
 			}
-			final ByteBuf messageBuf = codec.encode(onClient, message);
-			final ByteBuf headerBuf = protocol.writeHeader(codec, messageBuf);
-			out.add(Unpooled.wrappedBuffer(headerBuf, messageBuf));
+			out.add(encode(ctx.alloc(), protocol, onClient, (Message) msg));
+		}
+	}
+
+	/**
+	 * Encodes a message, including its header
+	 *
+	 * @param alloc the allocator to take the buffer from
+	 * @param protocol the protocol to encode the message with
+	 * @param onClient true if the message is being sent by the client
+	 * @param message the message
+	 * @return the encoded message
+	 */
+	@SuppressWarnings ("unchecked")
+	static ByteBuf encode(ByteBufAllocator alloc, Protocol protocol, boolean onClient, Message message) throws IOException {
+		final Class<? extends Message> clazz = message.getClass();
+		final MessageCodec<Message> codec = (MessageCodec<Message>) protocol.getCodecLookupService().find(clazz);
+		if (codec == null) {
+			throw new IOException("Unknown message type: " + clazz + ".");
 		}
+		final ByteBuf messageBuf = codec.encode(alloc, onClient, message);
+		final ByteBuf headerBuf = protocol.writeHeader(codec, messageBuf);
+		return Unpooled.wrappedBuffer(headerBuf, messageBuf);
 	}
 
 	void setProtocol(Protocol protocol) {
@@ -29,6 +29,8 @@ package org.spout.api.protocol;
 import java.io.IOException;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 
 public abstract class MessageCodec<T extends Message> {
 	private final Class<T> clazz;
@@ -60,20 +62,68 @@ public abstract class MessageCodec<T extends Message> {
 		this.dynamic = dynamic;
 	}
 
+	/**
+	 * Encodes a message into a buffer taken from the given allocator, normally the allocator of the channel the message is written to.
+	 *
+	 * @param alloc the allocator to take the buffer from
+	 * @param onClient true if the message is being sent by the client
+	 * @param message the message to encode
+	 * @return the encoded message
+	 */
+	public final ByteBuf encode(ByteBufAllocator alloc, boolean onClient, T message) throws IOException {
+		return onClient ? encodeToServer(alloc, message) : encodeToClient(alloc, message);
+	}
+
+	/**
+	 * Encodes a message into an unpooled buffer
+	 *
+	 * @deprecated use {@link #encode(ByteBufAllocator, boolean, Message)}
+	 */
+	@Deprecated
 	public final ByteBuf encode(boolean onClient, T message) throws IOException {
-		return onClient ? encodeToServer(message) : encodeToClient(message);
+		return encode(UnpooledByteBufAllocator.DEFAULT, onClient, message);
 	}
 
+	/**
+	 * Encodes a message without an allocator
+	 *
+	 * @deprecated override {@link #encode(ByteBufAllocator, Message)} so the buffer can come from the channel's pooled allocator
+	 */
+	@Deprecated
 	public ByteBuf encode(T message) throws IOException {
 		return null;
 	}
 
-	public ByteBuf encodeToClient(T message) throws IOException {
+	public ByteBuf encode(ByteBufAllocator alloc, T message) throws IOException {
 		return encode(message);
 	}
 
+	public ByteBuf encodeToClient(ByteBufAllocator alloc, T message) throws IOException {
+		return encode(alloc, message);
+	}
+
+	public ByteBuf encodeToServer(ByteBufAllocator alloc, T message) throws IOException {
+		return encode(alloc, message);
+	}
+
+	/**
+	 * Encodes a message sent to the client into an unpooled buffer
+	 *
+	 * @deprecated use, or override, {@link #encodeToClient(ByteBufAllocator, Message)}
+	 */
+	@Deprecated
+	public ByteBuf encodeToClient(T message) throws IOException {
+		return encodeToClient(UnpooledByteBufAllocator.DEFAULT, message);
+	}
+
+	/**
+	 * Encodes a message sent to the server into an unpooled buffer
+	 *
+	 * @deprecated use, or override, {@link #encodeToServer(ByteBufAllocator, Message)}
+	 */
+	@Deprecated
 	public ByteBuf encodeToServer(T message) throws IOException {
-		return encode(message);
+		return encodeToServer(UnpooledByteBufAllocator.DEFAULT, message);
 	}
 
 	public final T decode(boolean onClient, ByteBuf buffer) throws IOException {
@@ -69,4 +69,16 @@ public abstract class MessageHandler<T extends Message> {
 	public void handleClient(ClientSession session, T message) {
 		throw new UnsupportedOperationException("Tried to handle a message that did not have a handleClient implemented.");
 	}
+
+	/**
+	 * Gets if this handler only touches the session, its player and the region the player is in.
+	 *
+	 * Messages for region-affine handlers may be handled on a thread shared by the sessions of players in the same region, while sessions in other regions are handled concurrently. All other
+	 * messages are handled on the main thread.
+	 *
+	 * @return true if the handler is region-affine, false by default
+	 */
+	public boolean isRegionAffine() {
+		return false;
+	}
 }
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.protocol;
+
+import java.io.IOException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+
+/**
+ * Wraps a message that is sent unchanged to many sessions, so that it is only encoded once.<br> The message is encoded by the network thread of the first session to write it.  Every write after
+ * that is given a retained duplicate of the same buffer, which the channel releases once it has been written.  The shared buffer is not pooled, since it outlives the write of any one channel.
+ */
+public final class SharedMessage implements Message {
+	private final Message message;
+	private ByteBuf encoded = null;
+	private Protocol protocol = null;
+	private boolean onClient;
+
+	public SharedMessage(Message message) {
+		if (message instanceof SharedMessage) {
+			throw new IllegalArgumentException("Shared messages may not be nested");
+		}
+		this.message = message;
+	}
+
+	/**
+	 * Gets the wrapped message
+	 *
+	 * @return the message
+	 */
+	public Message getMessage() {
+		return message;
+	}
+
+	/**
+	 * Gets the encoded message, including its header, encoding it if this is the first write.  Writes using a different protocol to the first write are encoded separately.
+	 *
+	 * @param protocol the protocol of the channel
+	 * @param onClient true if the message is being sent by the client
+	 * @return a buffer that the caller must release
+	 */
+	synchronized ByteBuf getEncoded(Protocol protocol, boolean onClient) throws IOException {
+		if (encoded == null) {
+			encoded = CommonEncoder.encode(UnpooledByteBufAllocator.DEFAULT, protocol, onClient, message);
+			this.protocol = protocol;
+			this.onClient = onClient;
+		} else if (this.protocol != protocol || this.onClient != onClient) {
+			return CommonEncoder.encode(UnpooledByteBufAllocator.DEFAULT, protocol, onClient, message);
+		}
+		return encoded.duplicate().retain();
+	}
+
+	@Override
+	public boolean isAsync() {
+		return message.isAsync();
+	}
+
+	@Override
+	public int getChannelId() {
+		return message.getChannelId();
+	}
+
+	@Override
+	public String toString() {
+		return "SharedMessage{" + message + "}";
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof SharedMessage && ((SharedMessage) other).message.equals(message);
+	}
+
+	@Override
+	public int hashCode() {
+		return message.hashCode();
+	}
+}
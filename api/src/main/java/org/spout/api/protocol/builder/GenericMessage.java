@@ -29,6 +29,7 @@ package org.spout.api.protocol.builder;
 import java.io.IOException;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 
 import org.spout.api.Platform;
@@ -116,7 +117,7 @@ public abstract class GenericMessage<T extends Message> extends MessageCodec<T>
 	}
 
 	@Override
-	public ByteBuf encode(T message) throws IOException {
+	public ByteBuf encode(ByteBufAllocator alloc, T message) throws IOException {
 		return this.buffer;
 	}
 
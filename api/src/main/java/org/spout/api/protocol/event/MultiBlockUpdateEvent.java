@@ -0,0 +1,98 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.protocol.event;
+
+import org.spout.api.event.HandlerList;
+import org.spout.api.event.ProtocolEvent;
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.util.hashing.NibbleQuadHashed;
+
+/**
+ * Called when several blocks in a chunk have changed during a tick.  Each changed block appears once, with its state at the end of the tick.
+ */
+public class MultiBlockUpdateEvent extends ProtocolEvent {
+	private static final HandlerList handlers = new HandlerList();
+	private final Chunk chunk;
+	private final short[] blocks;
+	private final int[] states;
+
+	/**
+	 * Creates the event.  The arrays are shared between all the observers of the chunk, so they must not be modified.
+	 *
+	 * @param chunk the chunk
+	 * @param blocks the chunk coordinates of each changed block, packed using {@link NibbleQuadHashed}
+	 * @param states the packed full state of each changed block
+	 */
+	public MultiBlockUpdateEvent(Chunk chunk, short[] blocks, int[] states) {
+		if (blocks.length != states.length) {
+			throw new IllegalArgumentException("Block and state arrays must be the same length");
+		}
+		this.chunk = chunk;
+		this.blocks = blocks;
+		this.states = states;
+	}
+
+	public Chunk getChunk() {
+		return chunk;
+	}
+
+	/**
+	 * Gets the number of changed blocks
+	 *
+	 * @return the number of blocks
+	 */
+	public int getCount() {
+		return blocks.length;
+	}
+
+	/**
+	 * Gets the chunk coordinates of the changed blocks, packed using {@link NibbleQuadHashed}.  The returned array must not be modified.
+	 *
+	 * @return the packed positions
+	 */
+	public short[] getBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * Gets the packed full states of the changed blocks.  The returned array must not be modified.
+	 *
+	 * @return the states
+	 */
+	public int[] getStates() {
+		return states;
+	}
+
+	@Override
+	public HandlerList getHandlers() {
+		return handlers;
+	}
+
+	public static HandlerList getHandlerList() {
+		return handlers;
+	}
+}
@@ -72,6 +72,26 @@ public abstract class ResourceLoader {
 		return fallback;
 	}
 
+	/**
+	 * Returns true if {@link #load(InputStream)} can be called from any thread, concurrently with other loads. Loaders that touch the render or sound context must return false so they are only
+	 * ever run on the thread that requested the resource.
+	 *
+	 * @return true if resources of this scheme may be loaded in parallel
+	 */
+	public boolean isConcurrent() {
+		return false;
+	}
+
+	/**
+	 * Returns true if resources of this scheme are plain data, which may be dropped from the resource cache when memory is low and loaded again when next requested. Loaders whose resources own
+	 * render, sound or other native objects must return false, so the resource is kept for the life of the file system and is never loaded twice.
+	 *
+	 * @return true if resources of this scheme may be evicted
+	 */
+	public boolean isEvictable() {
+		return false;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		return obj instanceof ResourceLoader && ((ResourceLoader) obj).scheme.equalsIgnoreCase(scheme);
@@ -28,6 +28,9 @@ package org.spout.api.scheduler;
 
 import java.util.concurrent.Callable;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.spout.api.geo.cuboid.Region;
 import org.spout.api.plugin.Plugin;
 import org.spout.api.util.thread.annotation.Threadsafe;
 
@@ -74,4 +77,37 @@ public interface Scheduler extends TaskManager {
 	 */
 	@Threadsafe
 	public <T> T safeCall(final Plugin plugin, final Callable<T> task);
+
+	/**
+	 * Calls a Callable on the main thread.  The Callable is run during the {@link TickStage#TICKSTART} stage of the next tick, and the future is completed as soon as it returns.<br> <br> The
+	 * future is cancelled if the task is cancelled before it runs.
+	 *
+	 * @param plugin the owner of the task
+	 * @param task the Callable to execute
+	 * @return a future for the result of the Callable
+	 */
+	@Threadsafe
+	public <T> ListenableFuture<T> supplySync(Object plugin, Callable<T> task);
+
+	/**
+	 * Calls a Callable on an async thread.  The snapshot read lock is held while the Callable runs, so it sees a stable snapshot of the world. It must not block for long, since the next snapshot
+	 * copy waits for it to complete.
+	 *
+	 * @param plugin the owner of the task
+	 * @param task the Callable to execute
+	 * @return a future for the result of the Callable
+	 */
+	@Threadsafe
+	public <T> ListenableFuture<T> supplyAsync(Object plugin, Callable<T> task);
+
+	/**
+	 * Calls a Callable on the thread that ticks a region.  The Callable is run during the {@link TickStage#STAGE1} stage of the next tick, and so it may modify the region.
+	 *
+	 * @param region the region
+	 * @param plugin the owner of the task
+	 * @param task the Callable to execute
+	 * @return a future for the result of the Callable
+	 */
+	@Threadsafe
+	public <T> ListenableFuture<T> supplyOnRegion(Region region, Object plugin, Callable<T> task);
 }
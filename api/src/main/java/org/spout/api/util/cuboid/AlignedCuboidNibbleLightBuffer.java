@@ -38,7 +38,8 @@ public class AlignedCuboidNibbleLightBuffer extends CuboidNibbleLightBuffer {
 	private final int zShift;
 
 	protected AlignedCuboidNibbleLightBuffer(AlignedCuboidNibbleLightBuffer buffer) {
-		this(buffer.holder, buffer.getManagerId(), buffer.baseX, buffer.baseY, buffer.baseZ, buffer.sizeX, buffer.sizeY, buffer.sizeZ, buffer.lightData);
+		this(buffer.holder, buffer.getManagerId(), buffer.baseX, buffer.baseY, buffer.baseZ, buffer.sizeX, buffer.sizeY, buffer.sizeZ);
+		copyStorage(buffer);
 	}
 
 	protected AlignedCuboidNibbleLightBuffer(Modifiable holder, short id, int baseX, int baseY, int baseZ, int sizeX, int sizeY, int sizeZ) {
@@ -92,6 +93,17 @@ public class AlignedCuboidNibbleLightBuffer extends CuboidNibbleLightBuffer {
 	public void copyZRow(int x, int y, int z, int start, int end, int[] values) {
 		int index = getIndex(x, y, z);
 
+		byte[] lightData = getDenseData();
+		if (lightData == null) {
+			// Uniform and sparse buffers are only promoted if the row actually changes a value
+			while (start < end) {
+				set(index, (byte) values[start]);
+				start++;
+				index += Zinc;
+			}
+			return;
+		}
+
 		int inc = (Zinc >> 1);
 
 		if (isEven(index)) {
@@ -111,5 +123,7 @@ public class AlignedCuboidNibbleLightBuffer extends CuboidNibbleLightBuffer {
 				index += inc;
 			}
 		}
+		markDirty();
+		holder.setModified();
 	}
 }
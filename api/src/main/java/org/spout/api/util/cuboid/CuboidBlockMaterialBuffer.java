@@ -102,11 +102,8 @@ public class CuboidBlockMaterialBuffer extends ImmutableCuboidBlockMaterialBuffe
 
 	@Override
 	public void copyElement(int thisIndex, int sourceIndex, int runLength) {
-		final int end = thisIndex + runLength;
-		for (; thisIndex < end; thisIndex++) {
-			id[thisIndex] = source.id[sourceIndex];
-			data[thisIndex] = source.data[sourceIndex++];
-		}
+		System.arraycopy(source.id, sourceIndex, id, thisIndex, runLength);
+		System.arraycopy(source.data, sourceIndex, data, thisIndex, runLength);
 	}
 
 	@Override
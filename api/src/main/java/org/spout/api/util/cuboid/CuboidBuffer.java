@@ -178,6 +178,16 @@ public abstract class CuboidBuffer {
 		setSource(source);
 
 		if (!(sourceIndex == -1 || thisIndex == -1)) {
+			// Rows which span the full width of both buffers are contiguous, so a whole plane, or the whole overlap, can be copied as one run
+			if (runLength == sizeX && runLength == source.sizeX) {
+				boolean fullPlanes = innerRepeats == sizeZ && innerRepeats == source.sizeZ;
+				runLength *= innerRepeats;
+				innerRepeats = 1;
+				if (fullPlanes) {
+					runLength *= outerRepeats;
+					outerRepeats = 1;
+				}
+			}
 			for (int x = 0; x < outerRepeats; x++) {
 				int outerSourceIndex = sourceIndex;
 				int outerThisIndex = thisIndex;
@@ -68,6 +68,15 @@ public abstract class CuboidLightBuffer extends CuboidBuffer implements Modifiab
 	 */
 	public abstract byte[] serialize();
 
+	/**
+	 * Compacts the storage used by the buffer, if the buffer supports it.  This must not be called concurrently with writes to the buffer.
+	 *
+	 * @return true if the storage was compacted
+	 */
+	public boolean compress() {
+		return false;
+	}
+
 	/**
 	 * Used to dispose of calls to setModified for wrapped buffers
 	 */
@@ -27,37 +27,115 @@
 package org.spout.api.util.cuboid;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.spout.api.lighting.Modifiable;
 
+/**
+ * A light buffer which stores one nibble per block.<br> <br> The buffer starts out uniform, holding a single value for the whole cuboid. The first differing write promotes it to sparse storage,
+ * where only the {@link #SPARSE_BLOCK_SIZE} element blocks that differ from their block value are allocated, and once more than half of the blocks are allocated it is promoted to a dense nibble array.
+ * {@link #compress()} demotes the buffer again when the data allows it.<br> <br> Reads may happen from any thread.  The storage is allocated and promoted by compare and set, so concurrent
+ * writers never replace each other's blocks or arrays, but writes to the same byte and compression must still be made from a single thread.
+ */
 public class CuboidNibbleLightBuffer extends CuboidLightBuffer {
-	protected final byte[] lightData;
+	/**
+	 * The number of elements in each block of sparse storage, a y layer for a chunk sized buffer
+	 */
+	public static final int SPARSE_BLOCK_SIZE = 256;
+	private static final int SPARSE_BLOCK_BITS = 8;
+	private static final int SPARSE_BLOCK_MASK = SPARSE_BLOCK_SIZE - 1;
+	private static final int SPARSE_BLOCK_BYTES = SPARSE_BLOCK_SIZE >> 1;
+	private static final byte MODE_UNIFORM = 1;
+	private static final byte MODE_SPARSE = 2;
+	private static final byte SPARSE_ALLOCATED = 0x10;
+	private static final AtomicReferenceFieldUpdater<CuboidNibbleLightBuffer, byte[]> lightDataUpdater = AtomicReferenceFieldUpdater.newUpdater(CuboidNibbleLightBuffer.class, byte[].class, "lightData");
+	private static final AtomicReferenceFieldUpdater<CuboidNibbleLightBuffer, SparseData> sparseDataUpdater = AtomicReferenceFieldUpdater.newUpdater(CuboidNibbleLightBuffer.class, SparseData.class, "sparseData");
+	private final int arrayLength;
+	private final int blockCount;
+	private volatile byte[] lightData;
+	private volatile SparseData sparseData;
+	private byte uniform;
+	private boolean dirty;
 	private CuboidNibbleLightBuffer source = null;
 
 	protected CuboidNibbleLightBuffer(CuboidNibbleLightBuffer buffer) {
-		this(buffer.holder, buffer.getManagerId(), buffer.baseX, buffer.baseY, buffer.baseZ, buffer.sizeX, buffer.sizeY, buffer.sizeZ, buffer.lightData);
+		this(buffer.holder, buffer.getManagerId(), buffer.baseX, buffer.baseY, buffer.baseZ, buffer.sizeX, buffer.sizeY, buffer.sizeZ);
+		copyStorage(buffer);
 	}
 
 	protected CuboidNibbleLightBuffer(Modifiable holder, short id, int baseX, int baseY, int baseZ, int sizeX, int sizeY, int sizeZ) {
 		this(holder, id, baseX, baseY, baseZ, sizeX, sizeY, sizeZ, null);
 	}
 
+	/**
+	 * Creates a buffer from serialized data.  The data may either be a dense nibble array of half the volume of the buffer or the uniform or sparse form produced by {@link #serialize()}.
+	 */
 	protected CuboidNibbleLightBuffer(Modifiable holder, short id, int baseX, int baseY, int baseZ, int sizeX, int sizeY, int sizeZ, byte[] data) {
 		super(holder, id, baseX, baseY, baseZ, sizeX, sizeY, sizeZ);
 		int volume = getVolume();
 		if ((volume | 1) == volume) {
 			throw new IllegalArgumentException("Buffer volume must be an even number, " + volume);
 		}
-		int arrayLength = volume >> 1;
+		this.arrayLength = volume >> 1;
+		this.blockCount = (volume & SPARSE_BLOCK_MASK) == 0 ? volume >> SPARSE_BLOCK_BITS : 0;
 		if (data != null) {
-			if (data.length != arrayLength) {
+			if (data.length == arrayLength) {
+				this.lightData = Arrays.copyOf(data, data.length);
+				this.dirty = true;
+			} else if (!deserializeCompact(data)) {
 				throw new IllegalArgumentException("The length of the given array is invalid, " + data.length + ", expected length, " + arrayLength);
 			}
-			this.lightData = Arrays.copyOf(data, data.length);
-			;
+		}
+	}
+
+	private boolean deserializeCompact(byte[] data) {
+		if (data.length == 2 && data[0] == MODE_UNIFORM) {
+			uniform = (byte) (data[1] & 0x0F);
+			return true;
+		} else if (data.length > blockCount && blockCount > 0 && data[0] == MODE_SPARSE) {
+			byte[] values = new byte[blockCount];
+			byte[][] blocks = new byte[blockCount][];
+			int allocated = 0;
+			int index = 1 + blockCount;
+			for (int i = 0; i < blockCount; i++) {
+				byte header = data[i + 1];
+				if ((header & SPARSE_ALLOCATED) != 0) {
+					if (index + SPARSE_BLOCK_BYTES > data.length) {
+						return false;
+					}
+					blocks[i] = Arrays.copyOfRange(data, index, index + SPARSE_BLOCK_BYTES);
+					index += SPARSE_BLOCK_BYTES;
+					allocated++;
+				} else {
+					values[i] = (byte) (header & 0x0F);
+				}
+			}
+			if (index != data.length) {
+				return false;
+			}
+			sparseData = new SparseData(values, blocks, allocated);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Copies the storage of the given buffer into this buffer, the buffer must be the same size
+	 */
+	protected void copyStorage(CuboidNibbleLightBuffer buffer) {
+		byte[] dense = buffer.lightData;
+		SparseData sparse = buffer.sparseData;
+		if (dense == null && sparse == null) {
+			dense = buffer.lightData;
+		}
+		if (dense != null) {
+			lightData = Arrays.copyOf(dense, dense.length);
+		} else if (sparse != null) {
+			sparseData = sparse.copy();
 		} else {
-			this.lightData = new byte[arrayLength];
+			uniform = buffer.uniform;
 		}
+		dirty = buffer.dirty;
 	}
 
 	@Override
@@ -71,9 +149,9 @@ public class CuboidNibbleLightBuffer extends CuboidLightBuffer {
 
 	@Override
 	public void copyElement(int thisIndex, int sourceIndex, int runLength) {
-		holder.setModified();
-		if (!isEven(thisIndex + sourceIndex)) {
-			// means one is even and one is odd
+		byte[] sourceData = source.lightData;
+		if (sourceData == null || !isEven(thisIndex + sourceIndex)) {
+			// means one is even and one is odd, or the source is not dense
 			for (int i = 0; i < runLength; i++) {
 				set(thisIndex++, source.get(sourceIndex++));
 			}
@@ -88,13 +166,10 @@ public class CuboidNibbleLightBuffer extends CuboidLightBuffer {
 				set(thisIndex + runLength - 1, source.get(sourceIndex + runLength - 1));
 			}
 			// Copy the remaining elements with direct array to array copy
-			runLength >>= 1;
-			thisIndex >>= 1;
-			sourceIndex >>= 1;
-			for (int i = 0; i < runLength; i++) {
-				lightData[thisIndex++] = source.lightData[sourceIndex++];
-			}
+			System.arraycopy(sourceData, sourceIndex >> 1, inflate(), thisIndex >> 1, runLength >> 1);
+			dirty = true;
 		}
+		holder.setModified();
 	}
 
 	public void set(int x, int y, int z, byte value) {
@@ -106,24 +181,174 @@ public class CuboidNibbleLightBuffer extends CuboidLightBuffer {
 	}
 
 	public void set(int index, byte value) {
-		holder.setModified();
-		if (isEven(index)) {
-			index >>= 1;
-			lightData[index] = (byte) ((lightData[index] & 0xF0) | (value & 0x0F));
-		} else {
-			index >>= 1;
-			lightData[index] = (byte) ((lightData[index] & 0x0F) | (value << 4));
+		value &= 0x0F;
+		byte[] data;
+		int dataIndex = index;
+		while (true) {
+			data = lightData;
+			if (data != null) {
+				break;
+			}
+			SparseData sparse = sparseData;
+			if (sparse == null) {
+				if (lightData != null) {
+					// The buffer was promoted since the first read
+					continue;
+				}
+				if (value == uniform) {
+					return;
+				}
+				if (blockCount == 0) {
+					data = inflate();
+					break;
+				}
+				sparse = new SparseData(blockCount, uniform);
+				if (!sparseDataUpdater.compareAndSet(this, null, sparse)) {
+					continue;
+				}
+			}
+			int block = index >> SPARSE_BLOCK_BITS;
+			data = sparse.blocks[block];
+			if (data != null) {
+				dataIndex = index & SPARSE_BLOCK_MASK;
+				break;
+			}
+			if (value == sparse.values[block]) {
+				return;
+			}
+			if (sparse.allocated >= (blockCount >> 1)) {
+				data = inflate();
+				break;
+			}
+			byte[] newBlock = new byte[SPARSE_BLOCK_BYTES];
+			Arrays.fill(newBlock, (byte) (sparse.values[block] * 0x11));
+			if (sparseDataUpdater.compareAndSet(this, sparse, sparse.allocate(block, newBlock))) {
+				data = newBlock;
+				dataIndex = index & SPARSE_BLOCK_MASK;
+				break;
+			}
 		}
+		setNibble(data, dataIndex, value);
+		dirty = true;
+		holder.setModified();
 	}
 
 	public byte get(int index) {
-		if (isEven(index)) {
-			index >>= 1;
-			return (byte) (lightData[index] & 0x0F);
-		} else {
-			index >>= 1;
-			return (byte) ((lightData[index] >> 4) & 0x0F);
+		byte[] data = lightData;
+		if (data == null) {
+			SparseData sparse = sparseData;
+			if (sparse != null) {
+				return sparse.get(index);
+			}
+			// The buffer may have been promoted since the first read
+			data = lightData;
+			if (data == null) {
+				return uniform;
+			}
 		}
+		return getNibble(data, index);
+	}
+
+	/**
+	 * Gets the dense array backing this buffer, promoting the buffer to dense storage if required
+	 */
+	protected byte[] inflate() {
+		byte[] data = lightData;
+		if (data != null) {
+			return data;
+		}
+		SparseData sparse = sparseData;
+		data = new byte[arrayLength];
+		copyStorageToArray(sparse, data, 0);
+		if (!lightDataUpdater.compareAndSet(this, null, data)) {
+			return lightData;
+		}
+		// Blocks allocated after the copy was made are copied again, writers see the dense array once it is published
+		while (!sparseDataUpdater.compareAndSet(this, sparse, null)) {
+			sparse = sparseData;
+			copyStorageToArray(sparse, data, 0);
+		}
+		return data;
+	}
+
+	/**
+	 * Gets the dense array backing this buffer
+	 *
+	 * @return the array, or null if the buffer is uniform or sparse
+	 */
+	protected byte[] getDenseData() {
+		return lightData;
+	}
+
+	/**
+	 * Marks the buffer as written, so that the next call to {@link #compress()} scans it.  Subclasses writing directly to the dense array must call this.
+	 */
+	protected void markDirty() {
+		dirty = true;
+	}
+
+	/**
+	 * Demotes the buffer to uniform or sparse storage, if its data allows it.  This scans the buffer, so it is skipped if there have been no writes since the last call.
+	 *
+	 * @return true if the storage was compacted
+	 */
+	@Override
+	public boolean compress() {
+		if (!dirty) {
+			return false;
+		}
+		dirty = false;
+		byte[] data = lightData;
+		SparseData sparse = sparseData;
+		if (data != null) {
+			if (isUniform(data, 0, data.length)) {
+				uniform = (byte) (data[0] & 0x0F);
+				lightData = null;
+				return true;
+			}
+			if (blockCount == 0) {
+				return false;
+			}
+			byte[] values = new byte[blockCount];
+			byte[][] blocks = new byte[blockCount][];
+			int allocated = 0;
+			for (int i = 0; i < blockCount; i++) {
+				int start = i * SPARSE_BLOCK_BYTES;
+				if (isUniform(data, start, SPARSE_BLOCK_BYTES)) {
+					values[i] = (byte) (data[start] & 0x0F);
+				} else if (++allocated > (blockCount >> 1)) {
+					return false;
+				} else {
+					blocks[i] = Arrays.copyOfRange(data, start, start + SPARSE_BLOCK_BYTES);
+				}
+			}
+			sparseData = new SparseData(values, blocks, allocated);
+			lightData = null;
+			return true;
+		} else if (sparse != null) {
+			byte[] values = sparse.values.clone();
+			byte[][] blocks = sparse.blocks.clone();
+			int allocated = sparse.allocated;
+			boolean valuesUniform = true;
+			for (int i = 0; i < blockCount; i++) {
+				if (blocks[i] != null && isUniform(blocks[i], 0, SPARSE_BLOCK_BYTES)) {
+					values[i] = (byte) (blocks[i][0] & 0x0F);
+					blocks[i] = null;
+					allocated--;
+				}
+				valuesUniform &= blocks[i] == null && values[i] == values[0];
+			}
+			if (valuesUniform) {
+				uniform = values[0];
+				sparseData = null;
+				return true;
+			} else if (allocated != sparse.allocated) {
+				sparseData = new SparseData(values, blocks, allocated);
+				return true;
+			}
+			return false;
+		}
+		return false;
 	}
 
 	@Override
@@ -131,16 +356,152 @@ public class CuboidNibbleLightBuffer extends CuboidLightBuffer {
 		return new CuboidNibbleLightBuffer(this);
 	}
 
+	/**
+	 * Copies the buffer, as a dense nibble array, into the target array
+	 */
 	public void copyToArray(byte[] target, int start) {
-		System.arraycopy(lightData, 0, target, start, lightData.length);
+		byte[] data = lightData;
+		if (data == null) {
+			SparseData sparse = sparseData;
+			data = lightData;
+			if (data == null) {
+				copyStorageToArray(sparse, target, start);
+				return;
+			}
+		}
+		System.arraycopy(data, 0, target, start, data.length);
 	}
 
+	/**
+	 * Copies the given sparse storage, or the uniform value if it is null, into the target array
+	 */
+	private void copyStorageToArray(SparseData sparse, byte[] target, int start) {
+		if (sparse == null) {
+			Arrays.fill(target, start, start + arrayLength, (byte) (uniform * 0x11));
+			return;
+		}
+		for (int i = 0; i < blockCount; i++) {
+			int offset = start + i * SPARSE_BLOCK_BYTES;
+			if (sparse.blocks[i] == null) {
+				Arrays.fill(target, offset, offset + SPARSE_BLOCK_BYTES, (byte) (sparse.values[i] * 0x11));
+			} else {
+				System.arraycopy(sparse.blocks[i], 0, target, offset, SPARSE_BLOCK_BYTES);
+			}
+		}
+	}
+
+	/**
+	 * Serializes the buffer.  Dense buffers are serialized as a nibble array of half the volume of the buffer, uniform and sparse buffers use a shorter form.  Both forms are accepted when the buffer
+	 * is deserialized.
+	 */
 	@Override
 	public byte[] serialize() {
-		return Arrays.copyOf(lightData, lightData.length);
+		byte[] data = lightData;
+		SparseData sparse = sparseData;
+		if (data == null && sparse == null && lightData == null && arrayLength > 2) {
+			return new byte[] {MODE_UNIFORM, uniform};
+		} else if (data == null && sparse != null) {
+			int length = 1 + blockCount + sparse.allocated * SPARSE_BLOCK_BYTES;
+			if (length < arrayLength) {
+				byte[] serialized = new byte[length];
+				serialized[0] = MODE_SPARSE;
+				int index = 1 + blockCount;
+				for (int i = 0; i < blockCount; i++) {
+					if (sparse.blocks[i] == null) {
+						serialized[i + 1] = sparse.values[i];
+					} else {
+						serialized[i + 1] = SPARSE_ALLOCATED;
+						System.arraycopy(sparse.blocks[i], 0, serialized, index, SPARSE_BLOCK_BYTES);
+						index += SPARSE_BLOCK_BYTES;
+					}
+				}
+				return serialized;
+			}
+		}
+		byte[] serialized = new byte[arrayLength];
+		copyToArray(serialized, 0);
+		return serialized;
 	}
 
 	protected static boolean isEven(int i) {
 		return (i | 1) != i;
 	}
+
+	private static void setNibble(byte[] data, int index, byte value) {
+		if (isEven(index)) {
+			index >>= 1;
+			data[index] = (byte) ((data[index] & 0xF0) | value);
+		} else {
+			index >>= 1;
+			data[index] = (byte) ((data[index] & 0x0F) | (value << 4));
+		}
+	}
+
+	private static byte getNibble(byte[] data, int index) {
+		if (isEven(index)) {
+			return (byte) (data[index >> 1] & 0x0F);
+		} else {
+			return (byte) ((data[index >> 1] >> 4) & 0x0F);
+		}
+	}
+
+	private static boolean isUniform(byte[] data, int start, int length) {
+		byte first = data[start];
+		if ((first & 0x0F) != ((first >> 4) & 0x0F)) {
+			return false;
+		}
+		int end = start + length;
+		for (int i = start + 1; i < end; i++) {
+			if (data[i] != first) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sparse storage, blocks which are null hold a single value.  The block array is replaced rather than modified when a block is allocated, so readers never see a partially filled block.
+	 */
+	private static class SparseData {
+		private final byte[] values;
+		private final byte[][] blocks;
+		private final int allocated;
+
+		public SparseData(int blockCount, byte value) {
+			this.values = new byte[blockCount];
+			this.blocks = new byte[blockCount][];
+			this.allocated = 0;
+			Arrays.fill(values, value);
+		}
+
+		public SparseData(byte[] values, byte[][] blocks, int allocated) {
+			this.values = values;
+			this.blocks = blocks;
+			this.allocated = allocated;
+		}
+
+		public SparseData allocate(int block, byte[] data) {
+			byte[][] newBlocks = blocks.clone();
+			newBlocks[block] = data;
+			return new SparseData(values, newBlocks, allocated + 1);
+		}
+
+		public SparseData copy() {
+			byte[][] newBlocks = new byte[blocks.length][];
+			for (int i = 0; i < blocks.length; i++) {
+				if (blocks[i] != null) {
+					newBlocks[i] = Arrays.copyOf(blocks[i], blocks[i].length);
+				}
+			}
+			return new SparseData(values.clone(), newBlocks, allocated);
+		}
+
+		public byte get(int index) {
+			byte[] data = blocks[index >> SPARSE_BLOCK_BITS];
+			if (data == null) {
+				return values[index >> SPARSE_BLOCK_BITS];
+			}
+			return getNibble(data, index & SPARSE_BLOCK_MASK);
+		}
+	}
 }
@@ -52,10 +52,7 @@ public class CuboidShortBuffer extends CuboidBuffer {
 
 	@Override
 	public void copyElement(int thisIndex, int sourceIndex, int runLength) {
-		final int end = thisIndex + runLength;
-		for (; thisIndex < end; thisIndex++) {
-			buffer[thisIndex] = source.buffer[sourceIndex++];
-		}
+		System.arraycopy(source.buffer, sourceIndex, buffer, thisIndex, runLength);
 	}
 
 	@Override
@@ -0,0 +1,242 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.util.list.concurrent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.spout.api.math.GenericMath;
+
+/**
+ * A hierarchical timing wheel of prioritized elements, where the priority is the time that the element is due.<br> <br> Times are grouped into ticks of the given resolution. The first level of the
+ * wheel has a slot for each of the next 256 ticks, and each further level has a slot for 256 slots of the level below. Elements are moved down a level when the wheel reaches their slot. Adding,
+ * removing and re-adding an element are constant time.<br> <br> An element may only be in the wheel once. Adding an element that is already in the wheel moves it to its new priority.
+ */
+public class ConcurrentLongTimingWheel<T extends LongPrioritized> {
+	private static final int SLOT_BITS = 8;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final int OVERFLOW = LEVELS;
+	private final int shift;
+	@SuppressWarnings ("unchecked")
+	private final Node<T>[][] slots = new Node[LEVELS + 1][SLOTS];
+	private final int[] counts = new int[LEVELS + 1];
+	private final Map<T, Node<T>> nodes = new HashMap<>();
+	private long currentTick;
+
+	public ConcurrentLongTimingWheel(long resolution) {
+		this(resolution, 0L);
+	}
+
+	/**
+	 * Constructs a new timing wheel
+	 *
+	 * @param resolution the time covered by each tick of the wheel, rounded down to a power of two
+	 * @param startTime the initial time of the wheel
+	 */
+	public ConcurrentLongTimingWheel(long resolution, long startTime) {
+		if (resolution < 1) {
+			resolution = 1;
+		}
+		long step = GenericMath.roundUpPow2(resolution);
+		while (step > resolution) {
+			step >>= 1;
+		}
+		this.shift = Long.numberOfTrailingZeros(step);
+		this.currentTick = startTime >> shift;
+	}
+
+	/**
+	 * Adds a prioritized element to the wheel, or moves it if it is already in the wheel
+	 */
+	public synchronized boolean add(T o) {
+		Node<T> node = nodes.get(o);
+		if (node != null) {
+			unlink(node);
+		} else {
+			node = new Node<>(o);
+			nodes.put(o, node);
+		}
+		node.tick = o.getPriority() >> shift;
+		insert(node);
+		return true;
+	}
+
+	/**
+	 * Removes a prioritized element from the wheel
+	 *
+	 * @return true if the element was in the wheel
+	 */
+	public synchronized boolean remove(T o) {
+		Node<T> node = nodes.remove(o);
+		if (node == null) {
+			return false;
+		}
+		unlink(node);
+		return true;
+	}
+
+	/**
+	 * Removes and returns an element with a priority before or equal to the given threshold.  Elements are returned in order of their tick, but in no particular order within a tick.
+	 *
+	 * @return the element, or null if no elements are due
+	 */
+	public synchronized T poll(long threshold) {
+		final long thresholdTick = threshold >> shift;
+		if (nodes.isEmpty()) {
+			// Nothing to cascade, so the wheel can skip ahead
+			if (thresholdTick > currentTick) {
+				currentTick = thresholdTick;
+			}
+			return null;
+		}
+		while (true) {
+			Node<T> node = slots[0][(int) currentTick & SLOT_MASK];
+			while (node != null) {
+				if (node.value.getPriority() <= threshold) {
+					unlink(node);
+					nodes.remove(node.value);
+					return node.value;
+				}
+				node = node.next;
+			}
+			if (currentTick >= thresholdTick) {
+				return null;
+			}
+			advance(thresholdTick);
+		}
+	}
+
+	/**
+	 * Gets the number of elements in the wheel
+	 */
+	public synchronized int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Gets a list of all the elements in the wheel, in no particular order
+	 */
+	public synchronized List<T> getAll() {
+		return new ArrayList<>(nodes.keySet());
+	}
+
+	private void insert(Node<T> node) {
+		if (node.tick < currentTick) {
+			node.tick = currentTick;
+		}
+		int level = 0;
+		while (level < LEVELS && (node.tick >> (SLOT_BITS * (level + 1))) != (currentTick >> (SLOT_BITS * (level + 1)))) {
+			level++;
+		}
+		int slot = level == OVERFLOW ? 0 : (int) (node.tick >> (SLOT_BITS * level)) & SLOT_MASK;
+		node.level = level;
+		node.slot = slot;
+		counts[level]++;
+		node.prev = null;
+		node.next = slots[level][slot];
+		if (node.next != null) {
+			node.next.prev = node;
+		}
+		slots[level][slot] = node;
+	}
+
+	private void unlink(Node<T> node) {
+		counts[node.level]--;
+		if (node.prev != null) {
+			node.prev.next = node.next;
+		} else {
+			slots[node.level][node.slot] = node.next;
+		}
+		if (node.next != null) {
+			node.next.prev = node.prev;
+		}
+		node.prev = null;
+		node.next = null;
+	}
+
+	/**
+	 * Moves the current tick forward, up to the threshold.  Levels with no elements are skipped over, up to the next slot boundary of the first level that has elements.
+	 */
+	private void advance(long thresholdTick) {
+		int empty = 0;
+		while (empty < LEVELS && counts[empty] == 0) {
+			empty++;
+		}
+		long next;
+		if (empty == 0) {
+			next = currentTick + 1;
+		} else {
+			long boundary = 1L << (SLOT_BITS * empty);
+			next = (currentTick & ~(boundary - 1)) + boundary;
+		}
+		if (next > thresholdTick) {
+			// Still inside the current slot of every non-empty level, so no cascade is needed
+			currentTick = thresholdTick;
+		} else {
+			currentTick = next;
+			cascade();
+		}
+	}
+
+	/**
+	 * Moves elements down to lower levels when the current tick enters a new slot on a higher level.  Higher levels are moved first, as their elements may move into a lower level's current slot.
+	 */
+	private void cascade() {
+		int top = 0;
+		while (top < LEVELS && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+			top++;
+		}
+		for (int level = top; level >= 1; level--) {
+			int slot = level == OVERFLOW ? 0 : (int) (currentTick >> (SLOT_BITS * level)) & SLOT_MASK;
+			Node<T> node = slots[level][slot];
+			slots[level][slot] = null;
+			while (node != null) {
+				Node<T> next = node.next;
+				counts[level]--;
+				insert(node);
+				node = next;
+			}
+		}
+	}
+
+	private static class Node<T> {
+		private final T value;
+		private long tick;
+		private int level;
+		private int slot;
+		private Node<T> prev;
+		private Node<T> next;
+
+		private Node(T value) {
+			this.value = value;
+		}
+	}
+}
@@ -74,6 +74,16 @@ public interface AtomicBlockStore {
 	 */
 	public int getFullData(int index);
 
+	/**
+	 * Copies the full state of a run of consecutive blocks into an array.  Each block is read atomically, but the run as a whole is not.
+	 *
+	 * @param index the index of the first block
+	 * @param array the array to copy to
+	 * @param offset the position in the array of the first block
+	 * @param length the number of blocks to copy
+	 */
+	public void getFullData(int index, int[] array, int offset, int length);
+
 	/**
 	 * Sets the block id and data for the block at (x, y, z).<br> <br> If the data is 0 and the auxData is null, then the block will be stored as a single short.<br>
 	 *
@@ -192,6 +202,29 @@ public interface AtomicBlockStore {
 	 */
 	public short[] getDataArray(short[] array);
 
+	/**
+	 * Gets a short array containing the block ids in the store.<br> <br> The array is shared between callers until the store is next modified and must not be modified.  Uniform stores may share the
+	 * array with other stores.
+	 *
+	 * @return the array
+	 */
+	public short[] getBlockIdSnapshot();
+
+	/**
+	 * Gets a short array containing the block data for the blocks in the store.<br> <br> The array is shared between callers until the store is next modified and must not be modified.  Uniform stores
+	 * may share the array with other stores.
+	 *
+	 * @return the array
+	 */
+	public short[] getDataSnapshot();
+
+	/**
+	 * Gets the version of the store.  The version is incremented after every block change.
+	 *
+	 * @return the version
+	 */
+	public int getVersion();
+
 	/**
 	 * Compresses the store.<br>
 	 */
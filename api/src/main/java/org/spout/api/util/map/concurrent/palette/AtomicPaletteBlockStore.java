@@ -26,6 +26,7 @@
  */
 package org.spout.api.util.map.concurrent.palette;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import gnu.trove.set.hash.TIntHashSet;
@@ -35,8 +36,14 @@ import org.spout.api.material.block.BlockFullState;
 import org.spout.api.math.IntVector3;
 import org.spout.api.math.Vector3;
 import org.spout.api.util.map.concurrent.AtomicBlockStore;
+import org.spout.api.util.map.concurrent.TSyncIntObjectHashMap;
 
 public class AtomicPaletteBlockStore implements AtomicBlockStore {
+	/**
+	 * Id and data arrays for uniform stores, shared between all stores with the same uniform value
+	 */
+	private static final TSyncIntObjectHashMap<short[]> uniformIdArrays = new TSyncIntObjectHashMap<>();
+	private static final TSyncIntObjectHashMap<short[]> uniformDataArrays = new TSyncIntObjectHashMap<>();
 	private final int side;
 	private final int shift;
 	private final int doubleShift;
@@ -54,6 +61,12 @@ public class AtomicPaletteBlockStore implements AtomicBlockStore {
 	private final AtomicInteger minY = new AtomicInteger();
 	private final AtomicInteger minZ = new AtomicInteger();
 	private final AtomicInteger dirtyBlocks = new AtomicInteger(0);
+	/**
+	 * Incremented after every block change, used to validate the cached snapshot arrays
+	 */
+	private final AtomicInteger version = new AtomicInteger(0);
+	private volatile ArrayView idView = null;
+	private volatile ArrayView dataView = null;
 
 	public AtomicPaletteBlockStore(int shift, boolean storeState, boolean compress) {
 		this(shift, storeState, compress, 10);
@@ -120,6 +133,11 @@ public class AtomicPaletteBlockStore implements AtomicBlockStore {
 		return store.get(index);
 	}
 
+	@Override
+	public void getFullData(int index, int[] array, int offset, int length) {
+		store.get(index, array, offset, length);
+	}
+
 	@Override
 	public int getAndSetBlock(int x, int y, int z, short id, short data) {
 		int newState = BlockFullState.getPacked(id, data);
@@ -212,6 +230,80 @@ public class AtomicPaletteBlockStore implements AtomicBlockStore {
 		return array;
 	}
 
+	@Override
+	public short[] getBlockIdSnapshot() {
+		ArrayView view = idView;
+		int v = version.get();
+		if (view != null && view.version == v) {
+			return view.array;
+		}
+		short[] array;
+		if (store.isUniform()) {
+			array = getUniformIdArray(length, BlockFullState.getId(store.get(0)));
+		} else {
+			array = getBlockIdArray();
+		}
+		if (version.get() == v) {
+			idView = new ArrayView(v, array);
+		}
+		return array;
+	}
+
+	@Override
+	public short[] getDataSnapshot() {
+		ArrayView view = dataView;
+		int v = version.get();
+		if (view != null && view.version == v) {
+			return view.array;
+		}
+		short[] array;
+		if (store.isUniform()) {
+			array = getUniformDataArray(length, BlockFullState.getData(store.get(0)));
+		} else {
+			array = getDataArray();
+		}
+		if (version.get() == v) {
+			dataView = new ArrayView(v, array);
+		}
+		return array;
+	}
+
+	@Override
+	public int getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Gets the shared id array for stores of a given length which only hold one block id.  The array must not be modified.
+	 */
+	static short[] getUniformIdArray(int length, short id) {
+		return getUniformArray(uniformIdArrays, length, id);
+	}
+
+	/**
+	 * Gets the shared data array for stores of a given length which only hold one block data value.  The array must not be modified.
+	 */
+	static short[] getUniformDataArray(int length, short data) {
+		return getUniformArray(uniformDataArrays, length, data);
+	}
+
+	private static short[] getUniformArray(TSyncIntObjectHashMap<short[]> cache, int length, short value) {
+		short[] array = cache.get(value);
+		if (array == null || array.length != length) {
+			array = new short[length];
+			if (value != 0) {
+				Arrays.fill(array, value);
+			}
+			if (cache.putIfAbsent(value, array) != null) {
+				short[] existing = cache.get(value);
+				if (existing != null && existing.length == length) {
+					array = existing;
+				}
+			}
+		}
+		return array;
+	}
+
 	@Override
 	public void compress() {
 		compress(new TIntHashSet());
@@ -305,6 +397,7 @@ public class AtomicPaletteBlockStore implements AtomicBlockStore {
 				this.newState[index] = newState;
 			}
 		}
+		version.incrementAndGet();
 	}
 
 	public int incrementDirtyIndex() {
@@ -360,6 +453,19 @@ public class AtomicPaletteBlockStore implements AtomicBlockStore {
 		return store.isUniform();
 	}
 
+	/**
+	 * An array copied from the store at a given version.  The array is shared and must not be modified.
+	 */
+	private static class ArrayView {
+		private final int version;
+		private final short[] array;
+
+		private ArrayView(int version, short[] array) {
+			this.version = version;
+			this.array = array;
+		}
+	}
+
 	private void setAsMin(AtomicInteger i, int x) {
 		int old;
 		while ((old = i.get()) > x) {
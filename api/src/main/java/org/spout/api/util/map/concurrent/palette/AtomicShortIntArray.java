@@ -26,14 +26,15 @@
  */
 package org.spout.api.util.map.concurrent.palette;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import gnu.trove.set.hash.TIntHashSet;
 
 /**
- * An integer array that has a short index.  The array is atomic and is backed by a palette based lookup system.
+ * An integer array that has a short index.  The array is atomic and is backed by a palette based lookup system.<br> <br> Reads never block.  Writes go straight into the current backing array
+ * after checking a version stamp.  Only replacing the backing array, when the palette is full, on compression or while the store is locked, is exclusive.
  */
 public class AtomicShortIntArray {
 	/**
@@ -45,13 +46,24 @@ public class AtomicShortIntArray {
 	 */
 	private final AtomicReference<AtomicShortIntBackingArray> store = new AtomicReference<>();
 	/**
-	 * Locks<br> A ReadWrite lock is used to managing locking<br> When copying to a new store instance, and updating to new the store reference, all updates must be stopped.  The write lock is used as
-	 * the resize lock.<br> When making changes to the data stored in an array instance, multiple threads can access the array concurrently.  The read lock is used for the update lock. Reads to the array
-	 * are atomic and do not require any locking. <br>
+	 * The version stamp.  It is odd while a thread has exclusive access and is incremented when exclusive access starts and ends.<br> A writer registers in {@link #writers} and then checks the
+	 * stamp is even.  A thread taking exclusive access makes the stamp odd and then waits for the registered writers to finish, so every write is either seen by the copy to the new store or waits for
+	 * the new store.
 	 */
-	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-	private final Lock resizeLock = lock.writeLock();
-	private final Lock updateLock = lock.readLock();
+	private final AtomicInteger stamp = new AtomicInteger(0);
+	/**
+	 * The number of writes in progress
+	 */
+	private final AtomicInteger writers = new AtomicInteger(0);
+	/**
+	 * The number of threads waiting for exclusive access to end
+	 */
+	private final AtomicInteger waiting = new AtomicInteger(0);
+	/**
+	 * The thread with exclusive access and its hold count, the hold count is only accessed by the owner
+	 */
+	private volatile Thread owner = null;
+	private int holds = 0;
 
 	public AtomicShortIntArray(int length) {
 		this.length = length;
@@ -104,6 +116,25 @@ public class AtomicShortIntArray {
 		return store.get().get(i);
 	}
 
+	/**
+	 * Copies a run of elements into an array.  Each element is read atomically, but the run as a whole is not.
+	 *
+	 * @param i the index of the first element
+	 * @param array the array to copy to
+	 * @param offset the position in the array of the first element
+	 * @param length the number of elements to copy
+	 */
+	public void get(int i, int[] array, int offset, int length) {
+		AtomicShortIntBackingArray s = store.get();
+		if (s instanceof AtomicShortIntUniformBackingArray) {
+			Arrays.fill(array, offset, offset + length, s.get(i));
+		} else {
+			for (int j = 0; j < length; j++) {
+				array[offset + j] = s.get(i + j);
+			}
+		}
+	}
+
 	/**
 	 * Sets an element to the given value
 	 *
@@ -113,29 +144,17 @@ public class AtomicShortIntArray {
 	 */
 	public int set(int i, int newValue) {
 		while (true) {
+			if (!startWrite()) {
+				continue;
+			}
+			AtomicShortIntBackingArray s = store.get();
 			try {
-				updateLock.lock();
-				try {
-					return store.get().set(i, newValue);
-				} finally {
-					updateLock.unlock();
-				}
+				return s.set(i, newValue);
 			} catch (PaletteFullException pfe) {
-				resizeLock.lock();
-				try {
-					try {
-						return store.get().set(i, newValue);
-					} catch (PaletteFullException pfe2) {
-						if (store.get().isPaletteMaxSize()) {
-							store.set(new AtomicShortIntDirectBackingArray(store.get()));
-						} else {
-							store.set(new AtomicShortIntPaletteBackingArray(store.get(), true));
-						}
-					}
-				} finally {
-					resizeLock.unlock();
-				}
+			} finally {
+				endWrite();
 			}
+			expand(s);
 		}
 	}
 
@@ -145,7 +164,7 @@ public class AtomicShortIntArray {
 	 * @param initial the array containing the new values
 	 */
 	public void set(int[] initial) {
-		resizeLock.lock();
+		lockExclusive();
 		try {
 			if (initial.length != length) {
 				throw new IllegalArgumentException("Array length mismatch, expected " + length + ", got " + initial.length);
@@ -160,7 +179,7 @@ public class AtomicShortIntArray {
 				store.set(new AtomicShortIntPaletteBackingArray(length, unique, initial));
 			}
 		} finally {
-			resizeLock.unlock();
+			unlockExclusive();
 		}
 	}
 
@@ -170,14 +189,14 @@ public class AtomicShortIntArray {
 	 * @param initial the array containing the new values
 	 */
 	public void uncompressedSet(int[] initial) {
-		resizeLock.lock();
+		lockExclusive();
 		try {
 			if (initial.length != length) {
 				throw new IllegalArgumentException("Array length mismatch, expected " + length + ", got " + initial.length);
 			}
 			store.set(new AtomicShortIntDirectBackingArray(length, initial));
 		} finally {
-			resizeLock.unlock();
+			unlockExclusive();
 		}
 	}
 
@@ -189,7 +208,7 @@ public class AtomicShortIntArray {
 	 * @param variableWidthBlockArray the array containing the new values, packed into ints
 	 */
 	public void set(int[] palette, int blockArrayWidth, int[] variableWidthBlockArray) {
-		resizeLock.lock();
+		lockExclusive();
 		try {
 			if (palette.length == 0) {
 				store.set(new AtomicShortIntDirectBackingArray(length, variableWidthBlockArray));
@@ -199,7 +218,7 @@ public class AtomicShortIntArray {
 				store.set(new AtomicShortIntPaletteBackingArray(length, palette, blockArrayWidth, variableWidthBlockArray));
 			}
 		} finally {
-			resizeLock.unlock();
+			unlockExclusive();
 		}
 	}
 
@@ -213,25 +232,37 @@ public class AtomicShortIntArray {
 	 */
 	public boolean compareAndSet(int i, int expect, int update) {
 		while (true) {
+			if (!startWrite()) {
+				continue;
+			}
+			AtomicShortIntBackingArray s = store.get();
 			try {
-				updateLock.lock();
-				try {
-					return store.get().compareAndSet(i, expect, update);
-				} finally {
-					updateLock.unlock();
-				}
+				return s.compareAndSet(i, expect, update);
 			} catch (PaletteFullException pfe) {
-				resizeLock.lock();
-				try {
-					if (store.get().isPaletteMaxSize()) {
-						store.set(new AtomicShortIntDirectBackingArray(store.get()));
-					} else {
-						store.set(new AtomicShortIntPaletteBackingArray(store.get(), true));
-					}
-				} finally {
-					resizeLock.unlock();
+			} finally {
+				endWrite();
+			}
+			expand(s);
+		}
+	}
+
+	/**
+	 * Replaces a full backing array with a larger one, unless another thread already has
+	 *
+	 * @param full the backing array that was full
+	 */
+	private void expand(AtomicShortIntBackingArray full) {
+		lockExclusive();
+		try {
+			if (store.get() == full) {
+				if (full.isPaletteMaxSize()) {
+					store.set(new AtomicShortIntDirectBackingArray(full));
+				} else {
+					store.set(new AtomicShortIntPaletteBackingArray(full, true));
 				}
 			}
+		} finally {
+			unlockExclusive();
 		}
 	}
 
@@ -248,7 +279,7 @@ public class AtomicShortIntArray {
 	 * @param set to use to store used ids
 	 */
 	public void compress(TIntHashSet inUseSet) {
-		resizeLock.lock();
+		lockExclusive();
 		try {
 			AtomicShortIntBackingArray s = store.get();
 			if (s instanceof AtomicShortIntUniformBackingArray) {
@@ -268,7 +299,7 @@ public class AtomicShortIntArray {
 			}
 			s = store.get();
 		} finally {
-			resizeLock.unlock();
+			unlockExclusive();
 		}
 	}
 
@@ -315,14 +346,14 @@ public class AtomicShortIntArray {
 	 * Locks the store so that reads and writes are prevented
 	 */
 	public void lock() {
-		resizeLock.lock();
+		lockExclusive();
 	}
 
 	/**
 	 * Unlocks the store
 	 */
 	public void unlock() {
-		resizeLock.unlock();
+		unlockExclusive();
 	}
 
 	/**
@@ -331,7 +362,107 @@ public class AtomicShortIntArray {
 	 * @return true on success
 	 */
 	public boolean tryLock() {
-		return resizeLock.tryLock();
+		return tryLockExclusive();
+	}
+
+	/**
+	 * Gets the version stamp.  The stamp is odd while the store is locked or being replaced and changes every time the backing array may have been replaced.
+	 *
+	 * @return the stamp
+	 */
+	public int getStamp() {
+		return stamp.get();
+	}
+
+	/**
+	 * Registers a write, waiting if another thread has exclusive access
+	 *
+	 * @return true if the write may go ahead, false if the caller should retry
+	 */
+	private boolean startWrite() {
+		if (owner == Thread.currentThread()) {
+			return true;
+		}
+		writers.incrementAndGet();
+		if ((stamp.get() & 1) == 0) {
+			return true;
+		}
+		writers.decrementAndGet();
+		awaitExclusive();
+		return false;
+	}
+
+	private void endWrite() {
+		if (owner != Thread.currentThread()) {
+			writers.decrementAndGet();
+		}
+	}
+
+	private void lockExclusive() {
+		while (!tryLockExclusive()) {
+			awaitExclusive();
+		}
+	}
+
+	private boolean tryLockExclusive() {
+		Thread current = Thread.currentThread();
+		if (owner == current) {
+			holds++;
+			return true;
+		}
+		int s = stamp.get();
+		if ((s & 1) != 0 || !stamp.compareAndSet(s, s + 1)) {
+			return false;
+		}
+		owner = current;
+		holds = 1;
+		// Writes in progress are a single atomic update, so they finish quickly
+		while (writers.get() != 0) {
+			Thread.yield();
+		}
+		return true;
+	}
+
+	private void unlockExclusive() {
+		if (owner != Thread.currentThread()) {
+			throw new IllegalMonitorStateException("The store is not locked by this thread");
+		}
+		if (--holds == 0) {
+			owner = null;
+			stamp.incrementAndGet();
+			if (waiting.get() != 0) {
+				synchronized (waiting) {
+					waiting.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits until no thread has exclusive access
+	 */
+	private void awaitExclusive() {
+		if ((stamp.get() & 1) == 0) {
+			return;
+		}
+		synchronized (waiting) {
+			boolean interrupted = false;
+			waiting.incrementAndGet();
+			try {
+				while ((stamp.get() & 1) != 0) {
+					try {
+						waiting.wait();
+					} catch (InterruptedException ie) {
+						interrupted = true;
+					}
+				}
+			} finally {
+				waiting.decrementAndGet();
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
 	}
 
 	/**
@@ -0,0 +1,310 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.util.map.concurrent.palette;
+
+import java.util.Arrays;
+
+import gnu.trove.set.hash.TIntHashSet;
+
+import org.spout.api.material.BlockMaterial;
+import org.spout.api.material.block.BlockFullState;
+import org.spout.api.math.IntVector3;
+import org.spout.api.math.Vector3;
+import org.spout.api.util.map.concurrent.AtomicBlockStore;
+import org.spout.api.util.map.concurrent.TSyncIntObjectHashMap;
+
+/**
+ * An immutable block store where every block has the same state.  A single instance is shared by every store of the same size and state, so a uniform chunk holds no block storage of its
+ * own.<br> <br> The store cannot be written to.  Its owner must replace it with a writable store, such as an {@link AtomicPaletteBlockStore}, before changing a block.  Since the store never
+ * changes, locking it is a no-op and it is never dirty.
+ */
+public final class UniformBlockStore implements AtomicBlockStore {
+	private static final TSyncIntObjectHashMap<UniformBlockStore> stores = new TSyncIntObjectHashMap<>();
+	private static final int[] EMPTY_ARRAY = new int[0];
+	private final int shift;
+	private final int length;
+	private final int state;
+
+	private UniformBlockStore(int shift, int state) {
+		this.shift = shift;
+		int side = 1 << shift;
+		this.length = side * side * side;
+		this.state = state;
+	}
+
+	/**
+	 * Gets the shared store for a size and state
+	 *
+	 * @param shift the number of bits for each side of the store
+	 * @param state the full state of every block
+	 * @return the store
+	 */
+	public static UniformBlockStore get(int shift, int state) {
+		UniformBlockStore store = stores.get(state);
+		if (store == null || store.shift != shift) {
+			store = new UniformBlockStore(shift, state);
+			if (stores.putIfAbsent(state, store) != null) {
+				UniformBlockStore existing = stores.get(state);
+				if (existing != null && existing.shift == shift) {
+					store = existing;
+				}
+			}
+		}
+		return store;
+	}
+
+	/**
+	 * Gets the shared store for a block id and data array, if all the blocks have the same state
+	 *
+	 * @param shift the number of bits for each side of the store
+	 * @param blocks the block ids
+	 * @param data the block data, or null if all block data is 0
+	 * @return the store, or null if the blocks are not uniform
+	 */
+	public static UniformBlockStore get(int shift, short[] blocks, short[] data) {
+		if (blocks == null || blocks.length == 0) {
+			return null;
+		}
+		short id = blocks[0];
+		short d = data == null ? 0 : data[0];
+		for (int i = 1; i < blocks.length; i++) {
+			if (blocks[i] != id || (data != null && data[i] != d)) {
+				return null;
+			}
+		}
+		return get(shift, BlockFullState.getPacked(id, d));
+	}
+
+	/**
+	 * Gets the full state of every block in the store
+	 *
+	 * @return the state
+	 */
+	public int getState() {
+		return state;
+	}
+
+	/**
+	 * Creates a writable store holding the same blocks as this store
+	 *
+	 * @param storeState true if the old and new states of dirty blocks should be recorded
+	 * @param dirtySize the number of dirty blocks to record
+	 * @return the new store
+	 */
+	public AtomicPaletteBlockStore toPaletteStore(boolean storeState, int dirtySize) {
+		return new AtomicPaletteBlockStore(shift, storeState, true, dirtySize, new int[] {state}, 0, EMPTY_ARRAY);
+	}
+
+	@Override
+	public int getBlockId(int x, int y, int z) {
+		return BlockFullState.getId(state);
+	}
+
+	@Override
+	public int getData(int x, int y, int z) {
+		return BlockFullState.getData(state);
+	}
+
+	@Override
+	public int getFullData(int x, int y, int z) {
+		return state;
+	}
+
+	@Override
+	public int getFullData(int index) {
+		return state;
+	}
+
+	@Override
+	public void getFullData(int index, int[] array, int offset, int length) {
+		Arrays.fill(array, offset, offset + length, state);
+	}
+
+	@Override
+	public void setBlock(int x, int y, int z, BlockMaterial material) {
+		throw new UnsupportedOperationException("Shared uniform block stores cannot be modified");
+	}
+
+	@Override
+	public int touchBlock(int x, int y, int z) {
+		throw new UnsupportedOperationException("Shared uniform block stores cannot be modified");
+	}
+
+	@Override
+	public boolean isBlockUniform() {
+		return true;
+	}
+
+	@Override
+	public int getAndSetBlock(int x, int y, int z, BlockMaterial material) {
+		throw new UnsupportedOperationException("Shared uniform block stores cannot be modified");
+	}
+
+	@Override
+	public void setBlock(int x, int y, int z, short id, short data) {
+		throw new UnsupportedOperationException("Shared uniform block stores cannot be modified");
+	}
+
+	@Override
+	public int getAndSetBlock(int x, int y, int z, short id, short data) {
+		throw new UnsupportedOperationException("Shared uniform block stores cannot be modified");
+	}
+
+	@Override
+	public boolean compareAndSetBlock(int x, int y, int z, short expectId, short expectData, short newId, short newData) {
+		throw new UnsupportedOperationException("Shared uniform block stores cannot be modified");
+	}
+
+	@Override
+	public boolean needsCompression() {
+		return false;
+	}
+
+	@Override
+	public short[] getBlockIdArray() {
+		return getBlockIdArray(new short[length]);
+	}
+
+	@Override
+	public short[] getBlockIdArray(short[] array) {
+		if (array.length != length) {
+			array = new short[length];
+		}
+		Arrays.fill(array, BlockFullState.getId(state));
+		return array;
+	}
+
+	@Override
+	public short[] getDataArray() {
+		return getDataArray(new short[length]);
+	}
+
+	@Override
+	public short[] getDataArray(short[] array) {
+		if (array.length != length) {
+			array = new short[length];
+		}
+		Arrays.fill(array, BlockFullState.getData(state));
+		return array;
+	}
+
+	@Override
+	public short[] getBlockIdSnapshot() {
+		return AtomicPaletteBlockStore.getUniformIdArray(length, BlockFullState.getId(state));
+	}
+
+	@Override
+	public short[] getDataSnapshot() {
+		return AtomicPaletteBlockStore.getUniformDataArray(length, BlockFullState.getData(state));
+	}
+
+	@Override
+	public int getVersion() {
+		return 0;
+	}
+
+	@Override
+	public void compress() {
+	}
+
+	@Override
+	public void compress(TIntHashSet inUseSet) {
+	}
+
+	@Override
+	public boolean isDirtyOverflow() {
+		return false;
+	}
+
+	@Override
+	public boolean isDirty() {
+		return false;
+	}
+
+	@Override
+	public boolean resetDirtyArrays() {
+		return false;
+	}
+
+	@Override
+	public int getDirtyBlocks() {
+		return 0;
+	}
+
+	@Override
+	public IntVector3 getMinDirty() {
+		return new IntVector3(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public IntVector3 getMaxDirty() {
+		return new IntVector3(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE);
+	}
+
+	@Override
+	public Vector3 getDirtyBlock(int i) {
+		return null;
+	}
+
+	@Override
+	public int getDirtyOldState(int i) {
+		return -1;
+	}
+
+	@Override
+	public int getDirtyNewState(int i) {
+		return -1;
+	}
+
+	@Override
+	public int getPackedWidth() {
+		return 0;
+	}
+
+	@Override
+	public int[] getPackedArray() {
+		return new int[] {};
+	}
+
+	@Override
+	public int[] getPalette() {
+		return new int[] {state};
+	}
+
+	@Override
+	public void writeLock() {
+	}
+
+	@Override
+	public void writeUnlock() {
+	}
+
+	@Override
+	public boolean tryWriteLock() {
+		return true;
+	}
+}
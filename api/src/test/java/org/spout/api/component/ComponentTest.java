@@ -30,6 +30,7 @@ import java.io.File;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -738,6 +739,11 @@ public final class ComponentTest {
 			return null;
 		}
 
+		@Override
+		public Future<Chunk> getChunkFuture(int x, int y, int z, LoadOption loadopt) {
+			return null;
+		}
+
 		@Override
 		public boolean containsChunk(int x, int y, int z) {
 			return false;
@@ -162,6 +162,38 @@ public class SimpleRegionFileTest {
 		file.delete();
 	}
 
+	@Test
+	public void testLargeBlocks() throws IOException {
+		File file = new File("target/regionfile-large.dat");
+		if (file.exists()) {
+			file.delete();
+		}
+
+		srf = new SimpleRegionFile(file, 9, desiredEntries);
+
+		System.out.println("Writing blocks that span several pooled buffers");
+
+		for (int i = 0; i < 8; i++) {
+			// Mostly random data, so that the compressed output is larger than a single buffer
+			updateEntry(i, createFakeChunk(SRFBufferPool.BUFFER_SIZE * (i + 1), 1.0F));
+		}
+
+		for (int i = 0; i < 8; i++) {
+			assertTrue("Data read from store did not match written data", checkEntryMatch(i));
+		}
+
+		assertTrue("Unable to close file after writing large blocks", srf.attemptClose());
+
+		srf = new SimpleRegionFile(file, 9, desiredEntries);
+
+		for (int i = 0; i < 8; i++) {
+			assertTrue("Data read, after second open, from store did not match written data", checkEntryMatch(i));
+		}
+
+		assertTrue("Unable to close file after second open", srf.attemptClose());
+		file.delete();
+	}
+
 	private boolean checkEntryMatch(int entry) throws IOException {
 		byte[] expected = dataCache[entry];
 		if (expected == null) {
@@ -0,0 +1,86 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.material;
+
+import org.junit.Test;
+
+import org.spout.api.faker.EngineFaker;
+import org.spout.api.material.basic.Solid;
+import org.spout.api.material.block.BlockFace;
+import org.spout.api.material.block.BlockFullState;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BlockPropertyTableTest extends EngineFaker {
+	@Test
+	public void testMatchesMaterials() {
+		BlockPropertyTable properties = MaterialRegistry.getBlockProperties();
+		for (BlockMaterial m : new BlockMaterial[] {BlockMaterial.AIR, BlockMaterial.SOLID_BLUE, BlockMaterial.UNBREAKABLE, BlockMaterial.UNGENERATED}) {
+			int packed = BlockFullState.getPacked(m);
+			assertEquals(m.getOpacity(), properties.getOpacity(packed));
+			assertEquals(m.isSurface(), properties.isSurface(packed));
+			assertEquals(m.getOcclusion(m.getData()).get(), properties.getOcclusion(packed));
+			assertEquals(m.getShape() != null && !m.isGhost(), properties.isCollidable(packed));
+			assertEquals(m.getLightLevel(), properties.getLightLevel(packed));
+		}
+		assertTrue(properties.isOccluding(BlockFullState.getPacked(BlockMaterial.SOLID_BLUE), BlockFace.TOP));
+		assertFalse(properties.isOccluding(BlockFullState.getPacked(BlockMaterial.AIR), BlockFace.TOP));
+	}
+
+	@Test
+	public void testUnregisteredIsAir() {
+		BlockPropertyTable properties = MaterialRegistry.getBlockProperties();
+		int air = BlockFullState.getPacked(BlockMaterial.AIR);
+		int unregistered = BlockFullState.getPacked((short) (Short.MAX_VALUE - 1), (short) 5);
+		assertEquals(properties.getSlot(air), properties.getSlot(unregistered));
+		assertEquals(properties.getSlot(air), properties.getSlot(-1));
+	}
+
+	@Test
+	public void testRebuiltOnChange() {
+		BlockMaterial m = new Solid("Block Property Table Test");
+		int packed = BlockFullState.getPacked(m);
+
+		BlockPropertyTable properties = MaterialRegistry.getBlockProperties();
+		assertSame(properties, MaterialRegistry.getBlockProperties());
+		assertEquals(15, properties.getOpacity(packed));
+		assertTrue(properties.isCollidable(packed));
+
+		m.setOpacity(3);
+		m.setGhost(true);
+
+		BlockPropertyTable updated = MaterialRegistry.getBlockProperties();
+		assertNotSame(properties, updated);
+		assertEquals(3, updated.getOpacity(packed));
+		assertFalse(updated.isCollidable(packed));
+		assertEquals(15, properties.getOpacity(packed));
+	}
+}
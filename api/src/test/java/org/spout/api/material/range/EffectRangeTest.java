@@ -0,0 +1,102 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.material.range;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.spout.api.math.IntVector3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EffectRangeTest {
+	private static final EffectRangeImpl[] RANGES = new EffectRangeImpl[] {
+			(EffectRangeImpl) EffectRange.THIS,
+			(EffectRangeImpl) EffectRange.THIS_AND_BELOW,
+			(EffectRangeImpl) EffectRange.THIS_AND_NEIGHBORS,
+			(EffectRangeImpl) EffectRange.NEIGHBORS,
+			new CubicEffectRange(2),
+			new CuboidEffectRange(-1, -2, -3, 3, 2, 1),
+			new DiamondEffectRange(1, 3),
+			new PlusEffectRange(4, true),
+			new ListEffectRange(EffectRange.THIS_AND_ABOVE, new CubicEffectRange(1)),
+			(EffectRangeImpl) new CubicEffectRange(1).translate(new IntVector3(5, -6, 7)),
+			new CuboidEffectRange(998, 0, -600, 1000, 0, -599)
+	};
+
+	@Test
+	public void forEachMatchesIterator() {
+		for (EffectRangeImpl range : RANGES) {
+			List<IntVector3> expected = new ArrayList<>();
+			EffectIterator i = range.iterator();
+			while (i.hasNext()) {
+				expected.add(i.next().copy());
+			}
+
+			final List<IntVector3> visited = new ArrayList<>();
+			assertTrue(range.forEach(new EffectProcedure() {
+				@Override
+				public boolean execute(int dx, int dy, int dz) {
+					visited.add(new IntVector3(dx, dy, dz));
+					return true;
+				}
+			}));
+
+			assertEquals("Offsets visited for " + range.getClass().getSimpleName(), expected, visited);
+			assertEquals(expected.size(), range.getOffsetCount());
+		}
+	}
+
+	@Test
+	public void forEachStops() {
+		final int[] count = new int[1];
+		assertFalse(new CubicEffectRange(1).forEach(new EffectProcedure() {
+			@Override
+			public boolean execute(int dx, int dy, int dz) {
+				return ++count[0] < 5;
+			}
+		}));
+		assertEquals(5, count[0]);
+	}
+
+	@Test
+	public void chunkLocal() {
+		EffectRangeImpl range = (EffectRangeImpl) EffectRange.THIS_AND_NEIGHBORS;
+		assertTrue(range.isChunkLocal(1, 1, 1));
+		assertTrue(range.isChunkLocal(14, 14, 14));
+		assertTrue(range.isChunkLocal(17, 33, 49));
+		assertFalse(range.isChunkLocal(0, 5, 5));
+		assertFalse(range.isChunkLocal(5, 15, 5));
+		assertFalse(range.isChunkLocal(5, 5, 16));
+		assertTrue(range.isRegionLocal(5, 5, 16));
+		assertTrue(((EffectRangeImpl) EffectRange.THIS).isChunkLocal(0, 15, 0));
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.plugin;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PluginJarIndexTest {
+	private File createJar(String... entries) throws IOException {
+		File file = File.createTempFile("plugin", ".jar");
+		file.deleteOnExit();
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file))) {
+			for (String entry : entries) {
+				out.putNextEntry(new JarEntry(entry));
+				out.closeEntry();
+			}
+		}
+		return file;
+	}
+
+	@Test
+	public void testClassNames() throws IOException {
+		File jar = createJar("com/example/", "com/example/Main.class", "com/example/Main$Inner.class", "properties.yml", "META-INF/versions/9/com/example/Main.class");
+		Set<String> names = PluginJarIndex.getClassNames(jar);
+		assertEquals(2, names.size());
+		assertTrue(names.contains("com.example.Main"));
+		assertTrue(names.contains("com.example.Main$Inner"));
+		assertSame("Scan was not cached", names, PluginJarIndex.getClassNames(jar));
+	}
+
+	@Test
+	public void testPrescan() throws IOException {
+		File first = createJar("a/First.class");
+		File second = createJar("b/Second.class");
+		PluginJarIndex.prescan(Arrays.asList(first, second, first.getParentFile()));
+		assertTrue(PluginJarIndex.getClassNames(first).contains("a.First"));
+		assertTrue(PluginJarIndex.getClassNames(second).contains("b.Second"));
+
+		PluginJarIndex.invalidate(first);
+		assertEquals(1, PluginJarIndex.getClassNames(first).size());
+	}
+}
@@ -26,6 +26,8 @@
  */
 package org.spout.api.util.cuboid;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 import org.spout.api.math.Vector3;
@@ -56,4 +58,41 @@ public class CuboidBlockMaterialBufferTest {
 			}
 		}
 	}
+
+	@Test
+	public void testWrite() {
+		Random r = new Random();
+		for (int i = 0; i < 50; i++) {
+			int sx = r.nextInt(20) + 1, sy = r.nextInt(20) + 1, sz = r.nextInt(20) + 1;
+			CuboidBlockMaterialBuffer source = new CuboidBlockMaterialBuffer(0, 0, 0, sx, sy, sz);
+			for (int x = 0; x < sx; x++) {
+				for (int y = 0; y < sy; y++) {
+					for (int z = 0; z < sz; z++) {
+						source.set(x, y, z, (short) r.nextInt(1000), (short) r.nextInt(1000));
+					}
+				}
+			}
+
+			// Half of the targets share the x and z extents of the source, so whole planes are copied as a single run
+			boolean aligned = r.nextBoolean();
+			int bx = aligned ? 0 : r.nextInt(10) - 5;
+			int by = r.nextInt(10) - 5;
+			int bz = aligned ? 0 : r.nextInt(10) - 5;
+			int tx = aligned ? sx : r.nextInt(20) + 1;
+			int ty = r.nextInt(20) + 1;
+			int tz = aligned ? sz : r.nextInt(20) + 1;
+			CuboidBlockMaterialBuffer target = new CuboidBlockMaterialBuffer(bx, by, bz, tx, ty, tz);
+			target.write(source);
+
+			for (int x = bx; x < bx + tx; x++) {
+				for (int y = by; y < by + ty; y++) {
+					for (int z = bz; z < bz + tz; z++) {
+						boolean inside = x >= 0 && x < sx && y >= 0 && y < sy && z >= 0 && z < sz;
+						assertEquals(inside ? source.getId(x, y, z) : 0, target.getId(x, y, z));
+						assertEquals(inside ? source.getData(x, y, z) : 0, target.getData(x, y, z));
+					}
+				}
+			}
+		}
+	}
 }
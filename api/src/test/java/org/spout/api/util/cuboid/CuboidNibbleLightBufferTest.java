@@ -180,4 +180,86 @@ public class CuboidNibbleLightBufferTest {
 			}
 		}
 	}
+
+	@Test
+	public void storageModeTest() {
+		CuboidNibbleLightBuffer buffer = new CuboidNibbleLightBuffer(null, (short) 0, 0, 0, 0, SIZE, SIZE, SIZE);
+		int denseLength = SIZE * SIZE * SIZE / 2;
+		int layerLength = SIZE * SIZE / 2;
+
+		assertEquals("New buffer is not uniform", 2, buffer.serialize().length);
+
+		buffer.set(3, 5, 7, (byte) 9);
+		assertEquals("Single write did not allocate a single layer", 1 + SIZE + layerLength, buffer.serialize().length);
+		assertEquals(9, buffer.get(3, 5, 7));
+		assertEquals(0, buffer.get(3, 6, 7));
+
+		for (int y = 0; y < SIZE; y++) {
+			buffer.set(0, y, 0, (byte) 1);
+		}
+		assertEquals("Buffer was not promoted to dense", denseLength, buffer.serialize().length);
+		assertEquals(9, buffer.get(3, 5, 7));
+
+		for (int y = 0; y < SIZE; y++) {
+			buffer.set(0, y, 0, (byte) 0);
+		}
+		assertTrue("Dense buffer was not compressed", buffer.compress());
+		assertEquals("Buffer was not demoted to sparse", 1 + SIZE + layerLength, buffer.serialize().length);
+
+		buffer.set(3, 5, 7, (byte) 0);
+		assertTrue("Sparse buffer was not compressed", buffer.compress());
+		assertEquals("Buffer was not demoted to uniform", 2, buffer.serialize().length);
+		assertEquals(0, buffer.get(3, 5, 7));
+	}
+
+	@Test
+	public void storageModeRandomTest() {
+		Random r = new Random();
+
+		for (int c = 0; c < LOOPS; c++) {
+			CuboidNibbleLightBuffer buffer = new CuboidNibbleLightBuffer(null, (short) 0, 0, 0, 0, SIZE, SIZE, SIZE);
+			byte[] values = new byte[buffer.getVolume()];
+			int layers = r.nextInt(SIZE) + 1;
+
+			for (int i = 0; i < 2000; i++) {
+				int index = r.nextInt(layers) * SIZE * SIZE + r.nextInt(SIZE * SIZE);
+				byte value = (byte) (r.nextInt(4) == 0 ? r.nextInt(16) : 0);
+				values[index] = value;
+				buffer.set(index, value);
+				if (r.nextInt(100) == 0) {
+					buffer.compress();
+				}
+			}
+			buffer.compress();
+
+			byte[] serialized = buffer.serialize();
+			CuboidNibbleLightBuffer copy = new CuboidNibbleLightBuffer(null, (short) 0, 0, 0, 0, SIZE, SIZE, SIZE, serialized);
+			CuboidNibbleLightBuffer clone = buffer.copy();
+			byte[] dense = new byte[values.length / 2];
+			buffer.copyToArray(dense, 0);
+			CuboidNibbleLightBuffer fromDense = new CuboidNibbleLightBuffer(null, (short) 0, 0, 0, 0, SIZE, SIZE, SIZE, dense);
+
+			for (int i = 0; i < values.length; i++) {
+				assertEquals("Value mismatch at index " + i, values[i], buffer.get(i));
+				assertEquals("Deserialized value mismatch at index " + i, values[i], copy.get(i));
+				assertEquals("Copied value mismatch at index " + i, values[i], clone.get(i));
+				assertEquals("Dense value mismatch at index " + i, values[i], fromDense.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void legacyDenseTest() {
+		byte[] dense = new byte[SIZE * SIZE * SIZE / 2];
+		for (int i = 0; i < dense.length; i++) {
+			dense[i] = (byte) i;
+		}
+		// Version 5 data which starts with a compact storage mode byte is still read as a dense array
+		dense[0] = 1;
+		CuboidNibbleLightBuffer buffer = new CuboidNibbleLightBuffer(null, (short) 0, 0, 0, 0, SIZE, SIZE, SIZE, dense);
+		for (int i = 0; i < dense.length; i++) {
+			assertEquals("Low nibble mismatch at index " + i, dense[i] & 0x0F, buffer.get(i << 1));
+			assertEquals("High nibble mismatch at index " + i, (dense[i] >> 4) & 0x0F, buffer.get((i << 1) + 1));
+		}
+	}
 }
@@ -0,0 +1,122 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.util.list.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentLongTimingWheelTest {
+	private static final int RESOLUTION = 8;
+	private static final int LENGTH = 4096;
+	private static final long STEP = 50;
+
+	@Test
+	public void testOrderAndTimeliness() {
+		Random r = new Random(1);
+		long start = 1000000;
+		ConcurrentLongTimingWheel<MutablePriority> wheel = new ConcurrentLongTimingWheel<>(RESOLUTION, start);
+		long maxDelay = 0;
+		for (int i = 0; i < LENGTH; i++) {
+			// Spread the elements over the first three levels of the wheel
+			long delay = r.nextInt(1 << (8 + (i % 3) * 6));
+			maxDelay = Math.max(maxDelay, delay);
+			wheel.add(new MutablePriority(start + delay));
+		}
+		int count = 0;
+		long lastTick = Long.MIN_VALUE;
+		for (long time = start; time <= start + maxDelay + STEP; time += STEP) {
+			MutablePriority p;
+			while ((p = wheel.poll(time)) != null) {
+				assertTrue("Element returned early", p.getPriority() <= time);
+				assertTrue("Element returned late", p.getPriority() > time - STEP);
+				long tick = p.getPriority() / RESOLUTION;
+				assertTrue("Output is not monotonic increasing", tick >= lastTick);
+				lastTick = tick;
+				count++;
+			}
+		}
+		assertEquals(LENGTH, count);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testRemoveAndReschedule() {
+		ConcurrentLongTimingWheel<MutablePriority> wheel = new ConcurrentLongTimingWheel<>(RESOLUTION);
+		List<MutablePriority> elements = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			MutablePriority p = new MutablePriority(i * 100);
+			elements.add(p);
+			wheel.add(p);
+		}
+		for (int i = 0; i < 100; i += 2) {
+			assertTrue(wheel.remove(elements.get(i)));
+			assertFalse(wheel.remove(elements.get(i)));
+		}
+		MutablePriority moved = elements.get(99);
+		moved.priority = 5;
+		wheel.add(moved);
+		assertEquals(50, wheel.size());
+		assertSame(moved, wheel.poll(10));
+		assertNull(wheel.poll(10));
+		int count = 0;
+		while (wheel.poll(10000) != null) {
+			count++;
+		}
+		assertEquals(49, count);
+	}
+
+	@Test
+	public void testFarFuture() {
+		ConcurrentLongTimingWheel<MutablePriority> wheel = new ConcurrentLongTimingWheel<>(1);
+		MutablePriority far = new MutablePriority(1L << 40);
+		wheel.add(far);
+		assertNull(wheel.poll((1L << 40) - 1));
+		assertSame(far, wheel.poll(1L << 40));
+	}
+
+	private static class MutablePriority implements LongPrioritized {
+		private long priority;
+
+		public MutablePriority(long priority) {
+			this.priority = priority;
+		}
+
+		@Override
+		public long getPriority() {
+			return priority;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.util.map.concurrent;
+
+import org.junit.Test;
+
+import org.spout.api.util.map.concurrent.palette.AtomicPaletteBlockStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class AtomicPaletteBlockStoreTest {
+	@Test
+	public void snapshotSharedUntilWrite() {
+		AtomicPaletteBlockStore store = new AtomicPaletteBlockStore(4, false, true);
+		store.setBlock(1, 2, 3, (short) 5, (short) 1);
+
+		short[] ids = store.getBlockIdSnapshot();
+		short[] data = store.getDataSnapshot();
+		assertSame(ids, store.getBlockIdSnapshot());
+		assertSame(data, store.getDataSnapshot());
+
+		store.setBlock(4, 5, 6, (short) 7, (short) 2);
+
+		short[] newIds = store.getBlockIdSnapshot();
+		assertNotSame(ids, newIds);
+		assertEquals(0, ids[getIndex(4, 5, 6)]);
+		assertEquals(7, newIds[getIndex(4, 5, 6)]);
+		assertEquals(5, newIds[getIndex(1, 2, 3)]);
+		assertEquals(2, store.getDataSnapshot()[getIndex(4, 5, 6)]);
+	}
+
+	@Test
+	public void uniformSnapshotShared() {
+		AtomicPaletteBlockStore a = new AtomicPaletteBlockStore(4, false, true);
+		AtomicPaletteBlockStore b = new AtomicPaletteBlockStore(4, false, true);
+
+		assertSame(a.getBlockIdSnapshot(), b.getBlockIdSnapshot());
+		assertSame(a.getDataSnapshot(), b.getDataSnapshot());
+	}
+
+	private static int getIndex(int x, int y, int z) {
+		return (y << 8) + (z << 4) + x;
+	}
+}
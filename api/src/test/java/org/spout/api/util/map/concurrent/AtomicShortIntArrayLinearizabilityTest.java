@@ -0,0 +1,275 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.util.map.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.spout.api.util.map.concurrent.palette.AtomicShortIntArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that writes to an {@link AtomicShortIntArray} behave as if they happened atomically, one after another, while the palette grows and the array is compressed underneath them.
+ */
+public class AtomicShortIntArrayLinearizabilityTest {
+	final int LENGTH = 256;
+	final int THREADS = 8;
+	final int COUNT = 8192;
+	final int REPEATS = 4;
+
+	@Test
+	public void compareAndSetCounter() throws InterruptedException {
+		for (int r = 0; r < REPEATS; r++) {
+			final AtomicShortIntArray a = new AtomicShortIntArray(LENGTH);
+			final AtomicReference<Throwable> error = new AtomicReference<>();
+			final AtomicBoolean done = new AtomicBoolean(false);
+
+			Thread[] threads = new Thread[THREADS];
+			for (int t = 0; t < THREADS; t++) {
+				final int seed = t * 31 + r;
+				threads[t] = new Thread() {
+					@Override
+					public void run() {
+						try {
+							int index = seed;
+							for (int c = 0; c < COUNT; c++) {
+								index = (index * 1103515245 + 12345) & 0x7FFFFFFF;
+								int i = index % LENGTH;
+								int old;
+								do {
+									old = a.get(i);
+								} while (!a.compareAndSet(i, old, old + 1));
+							}
+						} catch (Throwable t) {
+							error.compareAndSet(null, t);
+						}
+					}
+				};
+			}
+
+			Thread compressor = new Compressor(a, done, error);
+
+			run(threads, compressor, done);
+			rethrow(error);
+
+			long sum = 0;
+			for (int i = 0; i < LENGTH; i++) {
+				sum += a.get(i);
+			}
+			assertEquals("Increments were lost or duplicated", (long) THREADS * COUNT, sum);
+		}
+	}
+
+	@Test
+	public void setReturnsEachValueOnce() throws InterruptedException {
+		for (int r = 0; r < REPEATS; r++) {
+			final AtomicShortIntArray a = new AtomicShortIntArray(LENGTH);
+			final AtomicReference<Throwable> error = new AtomicReference<>();
+			final AtomicBoolean done = new AtomicBoolean(false);
+			final int[][] returned = new int[THREADS][COUNT];
+
+			Thread[] threads = new Thread[THREADS];
+			for (int t = 0; t < THREADS; t++) {
+				final int id = t;
+				threads[t] = new Thread() {
+					@Override
+					public void run() {
+						try {
+							for (int c = 0; c < COUNT; c++) {
+								// Every written value is unique, so every value must be handed back exactly once
+								returned[id][c] = a.set((c * 7 + id) % LENGTH, id * COUNT + c + 1);
+							}
+						} catch (Throwable t) {
+							error.compareAndSet(null, t);
+						}
+					}
+				};
+			}
+
+			Thread compressor = new Compressor(a, done, error);
+
+			run(threads, compressor, done);
+			rethrow(error);
+
+			int total = THREADS * COUNT;
+			boolean[] seen = new boolean[total + 1];
+			int zeros = 0;
+			for (int t = 0; t < THREADS; t++) {
+				for (int c = 0; c < COUNT; c++) {
+					int v = returned[t][c];
+					if (v == 0) {
+						zeros++;
+					} else {
+						assertFalse("Value " + v + " was returned twice", seen[v]);
+						seen[v] = true;
+					}
+				}
+			}
+			for (int i = 0; i < LENGTH; i++) {
+				int v = a.get(i);
+				if (v == 0) {
+					zeros++;
+				} else {
+					assertFalse("Value " + v + " was returned and is still stored", seen[v]);
+					seen[v] = true;
+				}
+			}
+			assertEquals("Each entry should give up its initial value once", LENGTH, zeros);
+			for (int v = 1; v <= total; v++) {
+				assertTrue("Value " + v + " was lost", seen[v]);
+			}
+		}
+	}
+
+	@Test
+	public void readsDoNotBlockOnLock() throws InterruptedException {
+		final AtomicShortIntArray a = new AtomicShortIntArray(LENGTH);
+		a.set(7, 42);
+
+		final CountDownLatch read = new CountDownLatch(1);
+		final CountDownLatch written = new CountDownLatch(1);
+
+		a.lock();
+		try {
+			new Thread() {
+				@Override
+				public void run() {
+					if (a.get(7) == 42) {
+						read.countDown();
+					}
+				}
+			}.start();
+			assertTrue("Reader blocked while the array was locked", read.await(5, TimeUnit.SECONDS));
+
+			new Thread() {
+				@Override
+				public void run() {
+					a.set(7, 43);
+					written.countDown();
+				}
+			}.start();
+			assertFalse("Writer was not blocked while the array was locked", written.await(100, TimeUnit.MILLISECONDS));
+			assertEquals(42, a.get(7));
+		} finally {
+			a.unlock();
+		}
+
+		assertTrue("Writer did not resume after unlock", written.await(5, TimeUnit.SECONDS));
+		assertEquals(43, a.get(7));
+	}
+
+	@Test
+	public void stampAdvancesOnExclusiveAccess() {
+		AtomicShortIntArray a = new AtomicShortIntArray(LENGTH);
+		// Moves the store from uniform to palette, which replaces the backing array
+		a.set(0, 1);
+
+		int stamp = a.getStamp();
+		assertEquals("Stamp should be even when unlocked", 0, stamp & 1);
+
+		a.set(1, 1);
+		a.compareAndSet(2, 0, 1);
+		assertEquals("Writes that fit the palette should not move the stamp", stamp, a.getStamp());
+
+		a.lock();
+		a.lock();
+		assertEquals("Stamp should be odd while locked", 1, a.getStamp() & 1);
+		a.unlock();
+		assertEquals("Stamp should stay odd while the lock is still held", 1, a.getStamp() & 1);
+		a.unlock();
+		assertEquals("Stamp should advance by a full cycle", stamp + 2, a.getStamp());
+
+		int[] values = new int[LENGTH];
+		Arrays.fill(values, 5);
+		a.set(values);
+		assertEquals(stamp + 4, a.getStamp());
+	}
+
+	private void run(Thread[] threads, Thread compressor, AtomicBoolean done) throws InterruptedException {
+		compressor.start();
+		for (Thread t : threads) {
+			t.start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		done.set(true);
+		compressor.join();
+	}
+
+	private static void rethrow(AtomicReference<Throwable> error) {
+		Throwable t = error.get();
+		if (t != null) {
+			throw new RuntimeException("Exception thrown by thread", t);
+		}
+	}
+
+	/**
+	 * Repeatedly compresses and locks the array so that writers race with store replacement.
+	 */
+	private static class Compressor extends Thread {
+		private final AtomicShortIntArray a;
+		private final AtomicBoolean done;
+		private final AtomicReference<Throwable> error;
+
+		public Compressor(AtomicShortIntArray a, AtomicBoolean done, AtomicReference<Throwable> error) {
+			this.a = a;
+			this.done = done;
+			this.error = error;
+		}
+
+		@Override
+		public void run() {
+			try {
+				int count = 0;
+				while (!done.get()) {
+					if ((count++ & 3) == 0) {
+						a.lock();
+						try {
+							a.compress();
+						} finally {
+							a.unlock();
+						}
+					} else {
+						a.compress();
+					}
+					Thread.yield();
+				}
+			} catch (Throwable t) {
+				error.compareAndSet(null, t);
+			}
+		}
+	}
+}
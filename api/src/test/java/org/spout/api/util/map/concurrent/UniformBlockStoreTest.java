@@ -0,0 +1,99 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.api.util.map.concurrent;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.spout.api.material.block.BlockFullState;
+import org.spout.api.util.map.concurrent.palette.AtomicPaletteBlockStore;
+import org.spout.api.util.map.concurrent.palette.UniformBlockStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class UniformBlockStoreTest {
+	@Test
+	public void sharedPerState() {
+		int state = BlockFullState.getPacked((short) 3, (short) 1);
+		UniformBlockStore store = UniformBlockStore.get(4, state);
+		assertSame(store, UniformBlockStore.get(4, state));
+
+		short[] ids = new short[4096];
+		short[] data = new short[4096];
+		Arrays.fill(ids, (short) 3);
+		Arrays.fill(data, (short) 1);
+		assertSame(store, UniformBlockStore.get(4, ids, data));
+
+		data[100] = 2;
+		assertNull(UniformBlockStore.get(4, ids, data));
+	}
+
+	@Test
+	public void readsUniformState() {
+		UniformBlockStore store = UniformBlockStore.get(4, BlockFullState.getPacked((short) 7, (short) 0));
+		assertEquals(7, store.getBlockId(1, 2, 3));
+		assertEquals(0, store.getData(1, 2, 3));
+		int[] row = new int[16];
+		store.getFullData(32, row, 0, row.length);
+		for (int state : row) {
+			assertEquals(store.getState(), state);
+		}
+		assertTrue(store.isBlockUniform());
+		assertFalse(store.isDirty());
+	}
+
+	@Test (expected = UnsupportedOperationException.class)
+	public void cannotWrite() {
+		UniformBlockStore.get(4, 0).setBlock(1, 2, 3, (short) 1, (short) 0);
+	}
+
+	@Test
+	public void promotedStoreIsWritable() {
+		UniformBlockStore store = UniformBlockStore.get(4, BlockFullState.getPacked((short) 2, (short) 0));
+		AtomicPaletteBlockStore promoted = store.toPaletteStore(false, 10);
+		assertEquals(2, promoted.getBlockId(5, 6, 7));
+		assertTrue(promoted.isBlockUniform());
+
+		promoted.setBlock(5, 6, 7, (short) 4, (short) 0);
+		assertEquals(4, promoted.getBlockId(5, 6, 7));
+		assertEquals(2, promoted.getBlockId(0, 0, 0));
+		assertEquals(2, store.getBlockId(5, 6, 7));
+	}
+
+	@Test
+	public void snapshotSharedWithPaletteStores() {
+		AtomicPaletteBlockStore palette = new AtomicPaletteBlockStore(4, false, true);
+		UniformBlockStore store = UniformBlockStore.get(4, 0);
+		assertSame(palette.getBlockIdSnapshot(), store.getBlockIdSnapshot());
+		assertSame(palette.getDataSnapshot(), store.getDataSnapshot());
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.spout.api.Engine;
+import org.spout.api.Platform;
+import org.spout.api.Spout;
+
+/**
+ * A minimal engine for benchmarks that need {@link Spout#getPlatform()} or the logger. All other engine methods return null.
+ */
+public final class BenchmarkEngine {
+	private static Engine engine;
+
+	private BenchmarkEngine() {
+	}
+
+	/**
+	 * Installs the benchmark engine, if no engine has been set
+	 *
+	 * @return the engine
+	 */
+	public static synchronized Engine setup() {
+		if (engine == null) {
+			engine = (Engine) Proxy.newProxyInstance(Engine.class.getClassLoader(), new Class<?>[] {Engine.class}, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					switch (method.getName()) {
+						case "getPlatform":
+							return Platform.CLIENT;
+						case "getLogger":
+							return Spout.getLogger();
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						case "toString":
+							return "BenchmarkEngine";
+						default:
+							return null;
+					}
+				}
+			});
+			Spout.setEngine(engine);
+		}
+		return engine;
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.util.map.concurrent.palette.AtomicPaletteBlockStore;
+
+/**
+ * Random block reads and writes on one shared chunk.<br>
+ * {@link AtomicPaletteBlockStore} is measured against an {@link AtomicIntegerArray} holding the packed id and data, the number of materials deciding the palette size.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class BlockStoreBenchmark {
+	private static final int SHIFT = 4;
+	private static final int MASK = (1 << SHIFT) - 1;
+	@Param ({"AtomicPaletteBlockStore", "AtomicIntegerArray"})
+	public String impl;
+	@Param ({"4", "256"})
+	public int materials;
+	private BlockStore store;
+
+	@Setup
+	public void setup() {
+		switch (impl) {
+			case "AtomicPaletteBlockStore":
+				final AtomicPaletteBlockStore palette = new AtomicPaletteBlockStore(SHIFT, true, true);
+				store = new BlockStore() {
+					@Override
+					public int get(int x, int y, int z) {
+						return palette.getFullData(x, y, z);
+					}
+
+					@Override
+					public void set(int x, int y, int z, short id, short data) {
+						palette.setBlock(x, y, z, id, data);
+					}
+				};
+				break;
+			case "AtomicIntegerArray":
+				final AtomicIntegerArray jdk = new AtomicIntegerArray(1 << (SHIFT * 3));
+				store = new BlockStore() {
+					@Override
+					public int get(int x, int y, int z) {
+						return jdk.get(index(x, y, z));
+					}
+
+					@Override
+					public void set(int x, int y, int z, short id, short data) {
+						jdk.set(index(x, y, z), (id << 16) | (data & 0xFFFF));
+					}
+				};
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown block store " + impl);
+		}
+		ThreadRandom random = new ThreadRandom();
+		for (int x = 0; x <= MASK; x++) {
+			for (int y = 0; y <= MASK; y++) {
+				for (int z = 0; z <= MASK; z++) {
+					store.set(x, y, z, (short) random.nextInt(materials), (short) 0);
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public int read(ThreadRandom random) {
+		int r = random.nextInt();
+		return store.get(r & MASK, (r >> SHIFT) & MASK, (r >> (SHIFT * 2)) & MASK);
+	}
+
+	@Benchmark
+	public void write(ThreadRandom random) {
+		int r = random.nextInt();
+		store.set(r & MASK, (r >> SHIFT) & MASK, (r >> (SHIFT * 2)) & MASK, (short) ((r >>> 16) & (materials - 1)), (short) 0);
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (3)
+	public int reader(ThreadRandom random) {
+		return read(random);
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (1)
+	public void writer(ThreadRandom random) {
+		write(random);
+	}
+
+	private static int index(int x, int y, int z) {
+		return (y << (SHIFT * 2)) | (z << SHIFT) | x;
+	}
+
+	private interface BlockStore {
+		public int get(int x, int y, int z);
+
+		public void set(int x, int y, int z, short id, short data);
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the concurrent structure benchmarks for every workload at 1, 2, 4 and so on up to the maximum number of threads.<br>
+ * Each workload and thread count is written as JMH JSON to its own file, for example <code>readHeavy-8.json</code>.<br>
+ * <br>
+ * <code>java -cp benchmarks.jar org.spout.benchmark.concurrent.ConcurrentBenchmarks --threads 16 --output results</code>
+ */
+public class ConcurrentBenchmarks {
+	@Parameter (names = {"--threads", "-t"}, description = "Maximum number of threads")
+	public int threads = Runtime.getRuntime().availableProcessors();
+	@Parameter (names = {"--output", "-o"}, description = "Directory to write the JSON results to")
+	public String output = "concurrent-results";
+	@Parameter (names = {"--include", "-i"}, description = "Only run benchmark classes whose simple name matches this regex")
+	public String include = ".*";
+	@Parameter (names = {"--workload", "-w"}, description = "Workloads to run: read, write, readHeavy, mixed, writeHeavy")
+	public List<String> workloads = new ArrayList<>();
+	@Parameter (names = {"--warmup"}, description = "Warmup iterations, the benchmark default if not given")
+	public int warmup = -1;
+	@Parameter (names = {"--measurement"}, description = "Measurement iterations, the benchmark default if not given")
+	public int measurement = -1;
+
+	public static void main(String[] args) throws RunnerException {
+		ConcurrentBenchmarks benchmarks = new ConcurrentBenchmarks();
+		new JCommander(benchmarks).parse(args);
+		benchmarks.run();
+	}
+
+	public void run() throws RunnerException {
+		File dir = new File(output);
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IllegalStateException("Unable to create " + dir);
+		}
+		if (workloads.isEmpty()) {
+			for (Workload workload : Workload.values()) {
+				workloads.add(workload.name());
+			}
+		}
+		List<Integer> counts = new ArrayList<>();
+		for (int t = 1; t < threads; t <<= 1) {
+			counts.add(t);
+		}
+		counts.add(threads);
+		for (int t : counts) {
+			for (String name : workloads) {
+				Workload workload = Workload.valueOf(name);
+				ChainedOptionsBuilder options = new OptionsBuilder()
+						.include(getClass().getPackage().getName() + "\\." + include + "\\." + workload.getMethod() + "$")
+						.resultFormat(ResultFormatType.JSON)
+						.result(new File(dir, workload.name() + "-" + t + ".json").getPath());
+				if (!workload.configure(options, t)) {
+					continue;
+				}
+				if (warmup >= 0) {
+					options.warmupIterations(warmup);
+				}
+				if (measurement > 0) {
+					options.measurementIterations(measurement);
+				}
+				new Runner(options.build()).run();
+			}
+		}
+	}
+
+	/**
+	 * The thread split for each workload. The split benchmarks are JMH groups, with readers listed before writers.
+	 */
+	private static enum Workload {
+		read("read"),
+		write("write"),
+		readHeavy("readWrite"),
+		mixed("readWrite"),
+		writeHeavy("readWrite");
+		private final String method;
+
+		private Workload(String method) {
+			this.method = method;
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		/**
+		 * Sets the thread count for this workload
+		 *
+		 * @param options the options to configure
+		 * @param threads the total number of threads
+		 * @return false if the workload can not be run with this many threads
+		 */
+		public boolean configure(ChainedOptionsBuilder options, int threads) {
+			switch (this) {
+				case read:
+				case write:
+					options.threads(threads);
+					return true;
+				default:
+					if (threads < 2) {
+						return false;
+					}
+			}
+			int minority = Math.max(1, threads >> 2);
+			switch (this) {
+				case readHeavy:
+					options.threadGroups(threads - minority, minority);
+					break;
+				case writeHeavy:
+					options.threadGroups(minority, threads - minority);
+					break;
+				default:
+					options.threadGroups(threads >> 1, threads - (threads >> 1));
+			}
+			options.threads(threads);
+			return true;
+		}
+	}
+}
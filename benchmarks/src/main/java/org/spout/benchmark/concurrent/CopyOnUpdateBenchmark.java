@@ -0,0 +1,115 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.util.list.concurrent.UnprotectedCopyOnUpdateArray;
+
+/**
+ * Full iteration against add and remove on a shared copy on write list, as used for listeners and observers.<br>
+ * {@link UnprotectedCopyOnUpdateArray} is measured against {@link CopyOnWriteArrayList}.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class CopyOnUpdateBenchmark {
+	@Param ({"UnprotectedCopyOnUpdateArray", "CopyOnWriteArrayList"})
+	public String impl;
+	@Param ({"8", "128"})
+	public int size;
+	private Collection<Integer> list;
+	private Integer[] elements;
+
+	@Setup
+	public void setup() {
+		switch (impl) {
+			case "UnprotectedCopyOnUpdateArray":
+				list = new UnprotectedCopyOnUpdateArray<>(Integer.class);
+				break;
+			case "CopyOnWriteArrayList":
+				list = new CopyOnWriteArrayList<>();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown list " + impl);
+		}
+		elements = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			elements[i] = new Integer(i);
+			list.add(elements[i]);
+		}
+	}
+
+	@Benchmark
+	public int read() {
+		int sum = 0;
+		for (Integer i : list) {
+			sum += i;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public boolean write(ThreadRandom random) {
+		Integer element = elements[random.nextInt(size)];
+		list.remove(element);
+		return list.add(element);
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (3)
+	public int reader() {
+		return read();
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (1)
+	public boolean writer(ThreadRandom random) {
+		return write(random);
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.util.map.concurrent.AtomicVariableWidthArray;
+import org.spout.api.util.map.concurrent.palette.AtomicShortIntArray;
+
+/**
+ * Random get and set on one chunk sized array shared by every thread.<br>
+ * The palette and variable width arrays are measured against {@link AtomicIntegerArray}, with the number of distinct values deciding the palette size and bit width.<br>
+ * {@link LockingShortIntArray} is the old lock based write path of {@link AtomicShortIntArray}.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class IntArrayBenchmark {
+	private static final int LENGTH = 4096;
+	@Param ({"AtomicShortIntArray", "LockingShortIntArray", "AtomicVariableWidthArray", "AtomicIntegerArray"})
+	public String impl;
+	@Param ({"16", "4096"})
+	public int values;
+	private IntArray array;
+
+	@Setup
+	public void setup() {
+		switch (impl) {
+			case "AtomicShortIntArray":
+				final AtomicShortIntArray shortInt = new AtomicShortIntArray(LENGTH);
+				array = new IntArray() {
+					@Override
+					public int get(int i) {
+						return shortInt.get(i);
+					}
+
+					@Override
+					public void set(int i, int value) {
+						shortInt.set(i, value);
+					}
+				};
+				break;
+			case "LockingShortIntArray":
+				final LockingShortIntArray locking = new LockingShortIntArray(LENGTH);
+				array = new IntArray() {
+					@Override
+					public int get(int i) {
+						return locking.get(i);
+					}
+
+					@Override
+					public void set(int i, int value) {
+						locking.set(i, value);
+					}
+				};
+				break;
+			case "AtomicVariableWidthArray":
+				int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(values - 1));
+				int width = Integer.highestOneBit(bits);
+				if (width < bits) {
+					width <<= 1;
+				}
+				final AtomicVariableWidthArray variable = new AtomicVariableWidthArray(LENGTH, width);
+				array = new IntArray() {
+					@Override
+					public int get(int i) {
+						return variable.get(i);
+					}
+
+					@Override
+					public void set(int i, int value) {
+						variable.set(i, value);
+					}
+				};
+				break;
+			case "AtomicIntegerArray":
+				final AtomicIntegerArray jdk = new AtomicIntegerArray(LENGTH);
+				array = new IntArray() {
+					@Override
+					public int get(int i) {
+						return jdk.get(i);
+					}
+
+					@Override
+					public void set(int i, int value) {
+						jdk.set(i, value);
+					}
+				};
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown array " + impl);
+		}
+		ThreadRandom random = new ThreadRandom();
+		for (int i = 0; i < LENGTH; i++) {
+			array.set(i, random.nextInt(values));
+		}
+	}
+
+	@Benchmark
+	public int read(ThreadRandom random) {
+		return array.get(random.nextInt(LENGTH));
+	}
+
+	@Benchmark
+	public void write(ThreadRandom random) {
+		array.set(random.nextInt(LENGTH), random.nextInt(values));
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (3)
+	public int reader(ThreadRandom random) {
+		return read(random);
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (1)
+	public void writer(ThreadRandom random) {
+		write(random);
+	}
+
+	private interface IntArray {
+		public int get(int i);
+
+		public void set(int i, int value);
+	}
+}
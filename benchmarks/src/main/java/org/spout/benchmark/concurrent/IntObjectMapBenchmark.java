@@ -0,0 +1,152 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.util.map.concurrent.TSyncIntObjectHashMap;
+
+/**
+ * Random get, put and remove on a shared int keyed map, half full at the start.<br>
+ * The lock striped {@link TSyncIntObjectHashMap} is measured against a boxed {@link ConcurrentHashMap}.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class IntObjectMapBenchmark {
+	private static final Object VALUE = new Object();
+	@Param ({"TSyncIntObjectHashMap", "ConcurrentHashMap"})
+	public String impl;
+	@Param ({"1024", "65536"})
+	public int keys;
+	private IntObjectMap map;
+
+	@Setup
+	public void setup() {
+		switch (impl) {
+			case "TSyncIntObjectHashMap":
+				final TSyncIntObjectHashMap<Object> tsync = new TSyncIntObjectHashMap<>();
+				map = new IntObjectMap() {
+					@Override
+					public Object get(int key) {
+						return tsync.get(key);
+					}
+
+					@Override
+					public Object put(int key, Object value) {
+						return tsync.put(key, value);
+					}
+
+					@Override
+					public Object remove(int key) {
+						return tsync.remove(key);
+					}
+				};
+				break;
+			case "ConcurrentHashMap":
+				final ConcurrentHashMap<Integer, Object> jdk = new ConcurrentHashMap<>();
+				map = new IntObjectMap() {
+					@Override
+					public Object get(int key) {
+						return jdk.get(key);
+					}
+
+					@Override
+					public Object put(int key, Object value) {
+						return jdk.put(key, value);
+					}
+
+					@Override
+					public Object remove(int key) {
+						return jdk.remove(key);
+					}
+				};
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown map " + impl);
+		}
+		for (int i = 0; i < keys; i += 2) {
+			map.put(i, VALUE);
+		}
+	}
+
+	@Benchmark
+	public Object read(ThreadRandom random) {
+		return map.get(random.nextInt(keys));
+	}
+
+	@Benchmark
+	public Object write(ThreadRandom random) {
+		int r = random.nextInt();
+		int key = r & (keys - 1);
+		if (r < 0) {
+			return map.put(key, VALUE);
+		} else {
+			return map.remove(key);
+		}
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (3)
+	public Object reader(ThreadRandom random) {
+		return read(random);
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (1)
+	public Object writer(ThreadRandom random) {
+		return write(random);
+	}
+
+	private interface IntObjectMap {
+		public Object get(int key);
+
+		public Object put(int key, Object value);
+
+		public Object remove(int key);
+	}
+}
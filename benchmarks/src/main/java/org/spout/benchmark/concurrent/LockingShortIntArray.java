@@ -0,0 +1,109 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.spout.api.util.map.concurrent.palette.AtomicShortIntArray;
+import org.spout.api.util.map.concurrent.palette.AtomicShortIntBackingArray;
+import org.spout.api.util.map.concurrent.palette.AtomicShortIntDirectBackingArray;
+import org.spout.api.util.map.concurrent.palette.AtomicShortIntPaletteBackingArray;
+import org.spout.api.util.map.concurrent.palette.AtomicShortIntUniformBackingArray;
+import org.spout.api.util.map.concurrent.palette.PaletteFullException;
+
+/**
+ * The read/write lock based write path that {@link AtomicShortIntArray} used before it moved to version stamps.  Every write takes the read lock and a palette resize takes the write lock.<br>
+ * Kept only as a baseline for {@link IntArrayBenchmark}.
+ */
+public class LockingShortIntArray {
+	private final AtomicReference<AtomicShortIntBackingArray> store = new AtomicReference<>();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Lock resizeLock = lock.writeLock();
+	private final Lock updateLock = lock.readLock();
+
+	public LockingShortIntArray(int length) {
+		store.set(new AtomicShortIntUniformBackingArray(length));
+	}
+
+	public int get(int i) {
+		return store.get().get(i);
+	}
+
+	public int set(int i, int newValue) {
+		while (true) {
+			try {
+				updateLock.lock();
+				try {
+					return store.get().set(i, newValue);
+				} finally {
+					updateLock.unlock();
+				}
+			} catch (PaletteFullException pfe) {
+				resizeLock.lock();
+				try {
+					try {
+						return store.get().set(i, newValue);
+					} catch (PaletteFullException pfe2) {
+						expand();
+					}
+				} finally {
+					resizeLock.unlock();
+				}
+			}
+		}
+	}
+
+	public boolean compareAndSet(int i, int expect, int update) {
+		while (true) {
+			try {
+				updateLock.lock();
+				try {
+					return store.get().compareAndSet(i, expect, update);
+				} finally {
+					updateLock.unlock();
+				}
+			} catch (PaletteFullException pfe) {
+				resizeLock.lock();
+				try {
+					expand();
+				} finally {
+					resizeLock.unlock();
+				}
+			}
+		}
+	}
+
+	private void expand() {
+		if (store.get().isPaletteMaxSize()) {
+			store.set(new AtomicShortIntDirectBackingArray(store.get()));
+		} else {
+			store.set(new AtomicShortIntPaletteBackingArray(store.get(), true));
+		}
+	}
+}
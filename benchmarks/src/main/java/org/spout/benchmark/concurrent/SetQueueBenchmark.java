@@ -0,0 +1,149 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.util.list.concurrent.setqueue.SetQueue;
+import org.spout.api.util.list.concurrent.setqueue.SetQueueElement;
+
+/**
+ * Writers mark random elements dirty while readers drain the dirty queue.<br>
+ * {@link SetQueue} is measured against a {@link ConcurrentLinkedQueue} with the same queued flag per element.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class SetQueueBenchmark {
+	@Param ({"SetQueue", "ConcurrentLinkedQueue"})
+	public String impl;
+	@Param ({"64", "4096"})
+	public int elements;
+	private DirtyQueue queue;
+
+	@Setup
+	public void setup() {
+		switch (impl) {
+			case "SetQueue":
+				final SetQueue<Integer> setQueue = new SetQueue<>(elements);
+				final DummyElement[] dummies = new DummyElement[elements];
+				for (int i = 0; i < elements; i++) {
+					dummies[i] = new DummyElement(setQueue, i);
+				}
+				queue = new DirtyQueue() {
+					@Override
+					public boolean mark(int i) {
+						return dummies[i].add();
+					}
+
+					@Override
+					public Object poll() {
+						return setQueue.poll();
+					}
+				};
+				break;
+			case "ConcurrentLinkedQueue":
+				final ConcurrentLinkedQueue<Integer> jdk = new ConcurrentLinkedQueue<>();
+				final AtomicBoolean[] queued = new AtomicBoolean[elements];
+				for (int i = 0; i < elements; i++) {
+					queued[i] = new AtomicBoolean(false);
+				}
+				queue = new DirtyQueue() {
+					@Override
+					public boolean mark(int i) {
+						if (queued[i].compareAndSet(false, true)) {
+							jdk.add(i);
+							return true;
+						}
+						return false;
+					}
+
+					@Override
+					public Object poll() {
+						Integer i = jdk.poll();
+						if (i != null) {
+							queued[i].set(false);
+						}
+						return i;
+					}
+				};
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown queue " + impl);
+		}
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (1)
+	public Object reader() {
+		return queue.poll();
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (3)
+	public boolean writer(ThreadRandom random) {
+		return queue.mark(random.nextInt(elements));
+	}
+
+	private interface DirtyQueue {
+		public boolean mark(int i);
+
+		public Object poll();
+	}
+
+	private static class DummyElement extends SetQueueElement<Integer> {
+		public DummyElement(SetQueue<Integer> queue, Integer value) {
+			super(queue, value);
+		}
+
+		@Override
+		protected boolean isValid() {
+			return true;
+		}
+	}
+}
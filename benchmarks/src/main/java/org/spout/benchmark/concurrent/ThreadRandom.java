@@ -0,0 +1,59 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A per thread xorshift generator for picking keys and values.<br>
+ * Much cheaper than {@link java.util.Random}, so the cost of choosing a key does not hide the cost of the structure.
+ */
+@State (Scope.Thread)
+public class ThreadRandom {
+	private static final AtomicLong seeds = new AtomicLong(0x2545F4914F6CDD1DL);
+	private long seed = seeds.getAndAdd(0x9E3779B97F4A7C15L) | 1;
+
+	public int nextInt() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 7;
+		seed ^= seed << 17;
+		return (int) (seed >>> 32);
+	}
+
+	/**
+	 * Gets a random int in the range 0 to bound - 1, the bound must be a power of two
+	 *
+	 * @param bound the power of two bound
+	 * @return the random int
+	 */
+	public int nextInt(int bound) {
+		return nextInt() & (bound - 1);
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.util.map.concurrent.TSyncInt21TripleObjectHashMap;
+import org.spout.api.util.map.concurrent.TripleIntObjectMap;
+import org.spout.api.util.map.concurrent.TripleIntObjectReferenceArrayMap;
+
+/**
+ * Random get, put and remove on a shared (x, y, z) keyed map, as used for loaded chunks and regions.<br>
+ * Keys are taken from a cube centred on the origin, which is half full at the start.
+ * The Spout maps are measured against a {@link ConcurrentHashMap} keyed by the packed coordinates.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class TripleIntMapBenchmark {
+	private static final Object VALUE = new Object();
+	@Param ({"TripleIntObjectReferenceArrayMap", "TSyncInt21TripleObjectHashMap", "ConcurrentHashMap"})
+	public String impl;
+	@Param ({"8", "32"})
+	public int size;
+	private TripleIntObjectMap<Object> map;
+	private int mask;
+	private int offset;
+
+	@Setup
+	public void setup() {
+		switch (impl) {
+			case "TripleIntObjectReferenceArrayMap":
+				map = new TripleIntObjectReferenceArrayMap<>(4);
+				break;
+			case "TSyncInt21TripleObjectHashMap":
+				map = new TSyncInt21TripleObjectHashMap<>();
+				break;
+			case "ConcurrentHashMap":
+				map = new ConcurrentTripleIntMap();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown map " + impl);
+		}
+		mask = size - 1;
+		offset = size >> 1;
+		ThreadRandom random = new ThreadRandom();
+		for (int i = 0; i < size * size * size / 2; i++) {
+			int r = random.nextInt();
+			map.put(x(r), y(r), z(r), VALUE);
+		}
+	}
+
+	@Benchmark
+	public Object read(ThreadRandom random) {
+		int r = random.nextInt();
+		return map.get(x(r), y(r), z(r));
+	}
+
+	@Benchmark
+	public Object write(ThreadRandom random) {
+		int r = random.nextInt();
+		if (r < 0) {
+			return map.put(x(r), y(r), z(r), VALUE);
+		} else {
+			return map.remove(x(r), y(r), z(r));
+		}
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (3)
+	public Object reader(ThreadRandom random) {
+		return read(random);
+	}
+
+	@Benchmark
+	@Group ("readWrite")
+	@GroupThreads (1)
+	public Object writer(ThreadRandom random) {
+		return write(random);
+	}
+
+	private int x(int r) {
+		return (r & mask) - offset;
+	}
+
+	private int y(int r) {
+		return ((r >> 10) & mask) - offset;
+	}
+
+	private int z(int r) {
+		return ((r >> 20) & mask) - offset;
+	}
+
+	private static class ConcurrentTripleIntMap implements TripleIntObjectMap<Object> {
+		private final ConcurrentHashMap<Long, Object> map = new ConcurrentHashMap<>();
+
+		private static long key(int x, int y, int z) {
+			return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+		}
+
+		@Override
+		public Object get(int x, int y, int z) {
+			return map.get(key(x, y, z));
+		}
+
+		@Override
+		public Object remove(int x, int y, int z) {
+			return map.remove(key(x, y, z));
+		}
+
+		@Override
+		public boolean remove(int x, int y, int z, Object value) {
+			return map.remove(key(x, y, z), value);
+		}
+
+		@Override
+		public Object put(int x, int y, int z, Object value) {
+			return map.put(key(x, y, z), value);
+		}
+
+		@Override
+		public Object putIfAbsent(int x, int y, int z, Object value) {
+			return map.putIfAbsent(key(x, y, z), value);
+		}
+
+		@Override
+		public Collection<Object> valueCollection() {
+			return map.values();
+		}
+	}
+}
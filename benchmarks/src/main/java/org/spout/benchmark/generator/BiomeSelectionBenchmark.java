@@ -0,0 +1,162 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.generator.biome.Biome;
+import org.spout.api.generator.biome.BiomeCache;
+import org.spout.api.generator.biome.BiomeRegistry;
+import org.spout.api.generator.biome.selector.LayeredBiomeSelector;
+import org.spout.api.generator.biome.selector.PerlinRangeLayer;
+import org.spout.api.generator.biome.selector.VoronoiLayer;
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.benchmark.BenchmarkEngine;
+
+/**
+ * Measures biome lookups per second for a column, picking every block, picking in a batch and reading from a {@link BiomeCache}.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class BiomeSelectionBenchmark {
+	private static final long SEED = 0x5EEDL;
+	private static final int COLUMNS = 32;
+	private static Biome[] registered;
+	@Param ({"1", "4", "8"})
+	public int sampleSpacing;
+	private LayeredBiomeSelector selector;
+	private BiomeCache cache;
+	private final Biome[] biomes = new Biome[Chunk.BLOCKS.AREA];
+	private int column;
+
+	@Setup
+	public void setup() {
+		Biome[] b = registerBiomes();
+		PerlinRangeLayer land = new PerlinRangeLayer(7);
+		land.setFrequency(0.005);
+		land.addElement(b[2], -1, 0).addElement(b[3], 0, 1);
+		VoronoiLayer start = new VoronoiLayer(13);
+		start.setVoronoiFrequency(0.007).setTurbulenceFrequency(0.01).setTurbulencePower(8);
+		start.addElements(b[0], b[1], land);
+		selector = new LayeredBiomeSelector(start, b[0]).setSampleSpacing(sampleSpacing);
+		cache = new BiomeCache(COLUMNS * COLUMNS);
+		for (int x = 0; x < COLUMNS; x++) {
+			for (int z = 0; z < COLUMNS; z++) {
+				cache.getColumn(selector, x, z, SEED);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation (Chunk.BLOCKS.AREA)
+	public Biome[] perBlock() {
+		int c = nextColumn();
+		int x = (c % COLUMNS) << Chunk.BLOCKS.BITS;
+		int z = (c / COLUMNS) << Chunk.BLOCKS.BITS;
+		for (int dz = 0; dz < Chunk.BLOCKS.SIZE; dz++) {
+			for (int dx = 0; dx < Chunk.BLOCKS.SIZE; dx++) {
+				biomes[dz << Chunk.BLOCKS.BITS | dx] = selector.pickBiome(x + dx, 0, z + dz, SEED);
+			}
+		}
+		return biomes;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation (Chunk.BLOCKS.AREA)
+	public Biome[] batched() {
+		int c = nextColumn();
+		selector.pickBiomes((c % COLUMNS) << Chunk.BLOCKS.BITS, (c / COLUMNS) << Chunk.BLOCKS.BITS, SEED, biomes);
+		return biomes;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation (Chunk.BLOCKS.AREA)
+	public Biome[] cached() {
+		int c = nextColumn();
+		return cache.getColumn(selector, c % COLUMNS, c / COLUMNS, SEED);
+	}
+
+	private int nextColumn() {
+		column = (column + 1) % (COLUMNS * COLUMNS);
+		return column;
+	}
+
+	private static synchronized Biome[] registerBiomes() {
+		if (registered == null) {
+			BenchmarkEngine.setup();
+			BiomeRegistry.setupRegistry();
+			registered = new Biome[] {new OceanBiome(), new DesertBiome(), new PlainsBiome(), new ForestBiome()};
+		}
+		return registered;
+	}
+
+	// Biome ids are registered by class name, so each biome needs its own class
+	private static class OceanBiome extends Biome {
+		@Override
+		public String getName() {
+			return "Ocean";
+		}
+	}
+
+	private static class DesertBiome extends Biome {
+		@Override
+		public String getName() {
+			return "Desert";
+		}
+	}
+
+	private static class PlainsBiome extends Biome {
+		@Override
+		public String getName() {
+			return "Plains";
+		}
+	}
+
+	private static class ForestBiome extends Biome {
+		@Override
+		public String getName() {
+			return "Forest";
+		}
+	}
+}
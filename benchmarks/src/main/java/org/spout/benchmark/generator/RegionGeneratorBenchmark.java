@@ -0,0 +1,171 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import net.royawesome.jlibnoise.module.source.Perlin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.generator.ColumnWorldGenerator;
+import org.spout.api.generator.LayeredWorldGenerator;
+import org.spout.api.generator.Populator;
+import org.spout.api.generator.WorldGenerator;
+import org.spout.api.geo.World;
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.geo.cuboid.Region;
+import org.spout.api.material.BlockMaterial;
+import org.spout.api.util.cuboid.CuboidBlockMaterialBuffer;
+import org.spout.engine.world.RegionGenerator;
+import org.spout.engine.world.SpoutRegion;
+
+/**
+ * Compares serial generation of a region generator column group with the parallel phases used by {@link RegionGenerator}.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class RegionGeneratorBenchmark {
+	@Param ({"layered", "noise"})
+	public String generatorType;
+	private WorldGenerator generator;
+	private int size;
+
+	@Setup
+	public void setup() {
+		if ("layered".equals(generatorType)) {
+			generator = new BenchmarkLayeredGenerator();
+		} else {
+			generator = new BenchmarkNoiseGenerator();
+		}
+		size = Chunk.BLOCKS.SIZE * SpoutRegion.GENERATOR_COLUMN_WIDTH;
+	}
+
+	@Benchmark
+	public int[][] serial() {
+		CuboidBlockMaterialBuffer buffer = new CuboidBlockMaterialBuffer(0, 0, 0, size, Region.BLOCKS.SIZE, size);
+		generator.generate(buffer, null);
+		int[][] heights = new int[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int z = 0; z < size; z++) {
+				heights[x][z] = -1;
+				for (int y = Region.BLOCKS.SIZE - 1; y >= 0; y--) {
+					if (buffer.get(x, y, z).isSurface()) {
+						heights[x][z] = y;
+						break;
+					}
+				}
+			}
+		}
+		return heights;
+	}
+
+	@Benchmark
+	public int[][] parallel() {
+		CuboidBlockMaterialBuffer buffer = new CuboidBlockMaterialBuffer(0, 0, 0, size, Region.BLOCKS.SIZE, size);
+		RegionGenerator.generateParallel(generator, null, buffer);
+		int[][] heights = new int[size][size];
+		int[][] columnHeights = new int[Chunk.BLOCKS.SIZE][Chunk.BLOCKS.SIZE];
+		for (int x = 0; x < size; x += Chunk.BLOCKS.SIZE) {
+			for (int z = 0; z < size; z += Chunk.BLOCKS.SIZE) {
+				RegionGenerator.scanSurfaceHeights(buffer, x, z, columnHeights, -1);
+				for (int bx = 0; bx < Chunk.BLOCKS.SIZE; bx++) {
+					System.arraycopy(columnHeights[bx], 0, heights[x + bx], z, Chunk.BLOCKS.SIZE);
+				}
+			}
+		}
+		return heights;
+	}
+
+	private static class BenchmarkLayeredGenerator extends LayeredWorldGenerator {
+		public BenchmarkLayeredGenerator() {
+			setFloorLayer(BlockMaterial.UNBREAKABLE);
+			addLayer(0, 1, BlockMaterial.UNBREAKABLE);
+			stackLayer(60, BlockMaterial.SOLID_BROWN);
+			stackLayer(4, BlockMaterial.SOLID_GREEN);
+		}
+	}
+
+	private static class BenchmarkNoiseGenerator implements ColumnWorldGenerator {
+		private final Perlin perlin = new Perlin();
+
+		public BenchmarkNoiseGenerator() {
+			perlin.setSeed(1234);
+			perlin.setFrequency(0.01);
+			perlin.setOctaveCount(6);
+		}
+
+		@Override
+		public void generate(CuboidBlockMaterialBuffer blockData, World world) {
+			int baseX = blockData.getBase().getFloorX();
+			int baseY = blockData.getBase().getFloorY();
+			int baseZ = blockData.getBase().getFloorZ();
+			int sizeX = blockData.getSize().getFloorX();
+			int sizeY = blockData.getSize().getFloorY();
+			int sizeZ = blockData.getSize().getFloorZ();
+			for (int x = baseX; x < baseX + sizeX; x++) {
+				for (int z = baseZ; z < baseZ + sizeZ; z++) {
+					for (int y = baseY; y < baseY + sizeY; y++) {
+						double density = perlin.GetValue(x, y, z) - (y - 64) / 32.0;
+						if (density > 0) {
+							blockData.set(x, y, z, BlockMaterial.SOLID_BROWN);
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public int[][] getSurfaceHeight(World world, int chunkX, int chunkZ) {
+			return new int[Chunk.BLOCKS.SIZE][Chunk.BLOCKS.SIZE];
+		}
+
+		@Override
+		public Populator[] getPopulators() {
+			return new Populator[0];
+		}
+
+		@Override
+		public String getName() {
+			return "BenchmarkNoise";
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.engine.protocol.NetworkTransport;
+import org.spout.engine.protocol.builtin.codec.BlockUpdateCodec;
+import org.spout.engine.protocol.builtin.message.BlockUpdateMessage;
+
+/**
+ * Encodes block update messages with the channel allocator and writes them to a server over loopback, once per transport and allocator.<br>
+ * Scores are messages per second. Run with <code>-prof gc</code> to get the allocation rate of each combination.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class LoopbackBenchmark {
+	private static final int BATCH = 1000;
+	private static final int HEADER_SIZE = 6;
+	@Param ({"NIO", "EPOLL"})
+	public String transport;
+	@Param ({"pooled", "unpooled"})
+	public String buffers;
+	private final BlockUpdateCodec codec = new BlockUpdateCodec(0);
+	private final BlockUpdateMessage message = new BlockUpdateMessage(1, 64, 1, (short) 1, (short) 0);
+	private Receiver receiver;
+	private EventLoopGroup serverGroup;
+	private EventLoopGroup clientGroup;
+	private Channel server;
+	private Channel client;
+	private long sent;
+
+	@Setup
+	public void setup() throws InterruptedException {
+		NetworkTransport t = NetworkTransport.valueOf(transport);
+		if (!t.isAvailable()) {
+			throw new IllegalStateException("The " + t + " transport is not available");
+		}
+		ByteBufAllocator alloc;
+		switch (buffers) {
+			case "pooled":
+				alloc = new PooledByteBufAllocator(true);
+				break;
+			case "unpooled":
+				alloc = new UnpooledByteBufAllocator(true);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown buffers " + buffers);
+		}
+		receiver = new Receiver();
+		serverGroup = t.newEventLoopGroup(1, "Loopback Server");
+		clientGroup = t.newEventLoopGroup(1, "Loopback Client");
+		ServerBootstrap serverBootstrap = t.configure(new ServerBootstrap().group(serverGroup));
+		serverBootstrap.childOption(ChannelOption.ALLOCATOR, alloc).childHandler(receiver);
+		server = serverBootstrap.bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+		Bootstrap clientBootstrap = t.configure(new Bootstrap().group(clientGroup));
+		clientBootstrap.option(ChannelOption.ALLOCATOR, alloc).handler(new ChannelInboundHandlerAdapter());
+		client = clientBootstrap.connect(server.localAddress()).sync().channel();
+		sent = 0;
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		client.close().sync();
+		server.close().sync();
+		clientGroup.shutdownGracefully();
+		serverGroup.shutdownGracefully();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation (BATCH)
+	public void send() throws IOException, InterruptedException {
+		for (int i = 0; i < BATCH; i++) {
+			ByteBuf body = codec.encode(client.alloc(), false, message);
+			ByteBuf header = client.alloc().buffer(HEADER_SIZE);
+			header.writeShort(codec.getOpcode());
+			header.writeInt(body.readableBytes());
+			sent += HEADER_SIZE + body.readableBytes();
+			client.write(header);
+			client.write(body);
+		}
+		client.flush();
+		receiver.await(sent);
+	}
+
+	/**
+	 * Counts and releases every buffer read by the server
+	 */
+	@Sharable
+	private static class Receiver extends ChannelInboundHandlerAdapter {
+		private long received = 0;
+
+		@Override
+		public void channelRead(ChannelHandlerContext ctx, Object msg) {
+			ByteBuf buf = (ByteBuf) msg;
+			int bytes = buf.readableBytes();
+			buf.release();
+			synchronized (this) {
+				received += bytes;
+				notifyAll();
+			}
+		}
+
+		public synchronized void await(long target) throws InterruptedException {
+			while (received < target) {
+				wait();
+			}
+		}
+	}
+}
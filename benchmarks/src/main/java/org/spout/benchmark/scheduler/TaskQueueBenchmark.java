@@ -0,0 +1,151 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.scheduler;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.util.list.concurrent.ConcurrentLongPriorityQueue;
+import org.spout.api.util.list.concurrent.ConcurrentLongTimingWheel;
+import org.spout.api.util.list.concurrent.LongPrioritized;
+
+/**
+ * Schedule, cancel and reschedule churn against the old skip list queue and the timing wheel.<br>
+ * Each operation moves one task to a new call time and then advances the clock by one step, draining every due task.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class TaskQueueBenchmark {
+	private static final long RESOLUTION = 12;
+	private static final long STEP = 50;
+	@Param ({"1000", "100000"})
+	public int tasks;
+	@Param ({"1000", "60000"})
+	public int maxDelay;
+	private DummyTask[] pending;
+	private ConcurrentLongPriorityQueue<DummyTask> queue;
+	private ConcurrentLongTimingWheel<DummyTask> wheel;
+	private Random random;
+	private long queueTime;
+	private long wheelTime;
+
+	@Setup
+	public void setup() {
+		random = new Random(1);
+		queue = new ConcurrentLongPriorityQueue<>(RESOLUTION);
+		wheel = new ConcurrentLongTimingWheel<>(RESOLUTION);
+		pending = new DummyTask[tasks];
+		for (int i = 0; i < tasks; i++) {
+			pending[i] = new DummyTask(random.nextInt(maxDelay));
+			queue.add(pending[i]);
+			wheel.add(pending[i]);
+		}
+		queueTime = 0;
+		wheelTime = 0;
+	}
+
+	@Benchmark
+	public int priorityQueue() {
+		DummyTask task = pending[random.nextInt(tasks)];
+		queue.remove(task);
+		task.time = queueTime + nextDelay();
+		queue.add(task);
+		queueTime += STEP;
+		int due = 0;
+		Queue<DummyTask> q;
+		while ((q = queue.poll(queueTime)) != null) {
+			boolean below = queue.isFullyBelowThreshold(q, queueTime);
+			Iterator<DummyTask> i = q.iterator();
+			while (i.hasNext()) {
+				DummyTask t = i.next();
+				if (below || t.time <= queueTime) {
+					i.remove();
+					t.time = queueTime + nextDelay();
+					queue.add(t);
+					due++;
+				}
+			}
+			if (queue.complete(q, queueTime)) {
+				break;
+			}
+		}
+		return due;
+	}
+
+	@Benchmark
+	public int timingWheel() {
+		DummyTask task = pending[random.nextInt(tasks)];
+		wheel.remove(task);
+		task.time = wheelTime + nextDelay();
+		wheel.add(task);
+		wheelTime += STEP;
+		int due = 0;
+		DummyTask t;
+		while ((t = wheel.poll(wheelTime)) != null) {
+			t.time = wheelTime + nextDelay();
+			wheel.add(t);
+			due++;
+		}
+		return due;
+	}
+
+	// Always lands beyond the bucket being drained, so a rescheduled task is never polled twice in one step
+	private long nextDelay() {
+		return STEP + random.nextInt(maxDelay);
+	}
+
+	private static class DummyTask implements LongPrioritized {
+		private long time;
+
+		public DummyTask(long time) {
+			this.time = time;
+		}
+
+		@Override
+		public long getPriority() {
+			return time;
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.world;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.geo.cuboid.Region;
+import org.spout.api.material.BlockMaterial;
+import org.spout.api.material.BlockPropertyTable;
+import org.spout.api.material.MaterialRegistry;
+import org.spout.api.material.block.BlockFullState;
+
+/**
+ * Compares resolving block properties through {@link BlockMaterial} objects with reading them from the {@link BlockPropertyTable}, for a surface height scan and a light resolution pass over a
+ * region high chunk column.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class BlockPropertyBenchmark {
+	private static final int SIZE = Chunk.BLOCKS.SIZE;
+	private static final int HEIGHT = Region.BLOCKS.SIZE;
+	private static final int LAYER = SIZE * SIZE;
+	@Param ({"material", "table"})
+	public String lookup;
+	private int[] states;
+	private int[] heights;
+	private byte[] light;
+
+	@Setup
+	public void setup() {
+		BlockMaterial[] materials = {BlockMaterial.UNBREAKABLE, BlockMaterial.SOLID_BROWN, BlockMaterial.SOLID_GREEN, BlockMaterial.SOLID_BLUE, BlockMaterial.SOLID_RED};
+		Random random = new Random(1);
+		states = new int[LAYER * HEIGHT];
+		for (int x = 0; x < SIZE; x++) {
+			for (int z = 0; z < SIZE; z++) {
+				int top = 64 + random.nextInt(64);
+				for (int y = 0; y < HEIGHT; y++) {
+					BlockMaterial m = BlockMaterial.AIR;
+					if (y <= top && random.nextInt(8) != 0) {
+						m = materials[random.nextInt(materials.length)];
+					}
+					states[index(x, y, z)] = BlockFullState.getPacked(m);
+				}
+			}
+		}
+		heights = new int[LAYER];
+		light = new byte[states.length];
+	}
+
+	@Benchmark
+	public int[] surfaceScan() {
+		if ("table".equals(lookup)) {
+			BlockPropertyTable properties = MaterialRegistry.getBlockProperties();
+			for (int column = 0; column < LAYER; column++) {
+				heights[column] = -1;
+				for (int y = HEIGHT - 1; y >= 0; y--) {
+					if (properties.isSurface(states[y * LAYER + column])) {
+						heights[column] = y;
+						break;
+					}
+				}
+			}
+		} else {
+			for (int column = 0; column < LAYER; column++) {
+				heights[column] = -1;
+				for (int y = HEIGHT - 1; y >= 0; y--) {
+					if (BlockFullState.getMaterial(states[y * LAYER + column]).isSurface()) {
+						heights[column] = y;
+						break;
+					}
+				}
+			}
+		}
+		return heights;
+	}
+
+	/**
+	 * Sky light falls down each column and is reduced by the opacity of each block, then a few sweeps spread the light to the neighbouring blocks in the layer.
+	 */
+	@Benchmark
+	public byte[] lightResolution() {
+		boolean table = "table".equals(lookup);
+		BlockPropertyTable properties = MaterialRegistry.getBlockProperties();
+		byte[] opacity = properties.getRawOpacity();
+		byte[] emitted = properties.getRawLightLevel();
+		for (int column = 0; column < LAYER; column++) {
+			int level = 15;
+			for (int y = HEIGHT - 1; y >= 0; y--) {
+				int i = y * LAYER + column;
+				int blockOpacity;
+				int blockLight;
+				if (table) {
+					int slot = properties.getSlot(states[i]);
+					blockOpacity = opacity[slot];
+					blockLight = emitted[slot];
+				} else {
+					BlockMaterial m = BlockFullState.getMaterial(states[i]);
+					blockOpacity = m.getOpacity();
+					blockLight = m.getLightLevel(m.getData());
+				}
+				level = Math.max(blockLight, level - blockOpacity);
+				light[i] = (byte) level;
+			}
+		}
+		for (int sweep = 0; sweep < 2; sweep++) {
+			for (int y = 0; y < HEIGHT; y++) {
+				for (int z = 1; z < SIZE - 1; z++) {
+					for (int x = 1; x < SIZE - 1; x++) {
+						int i = index(x, y, z);
+						int blockOpacity;
+						if (table) {
+							blockOpacity = properties.getOpacity(states[i]);
+						} else {
+							blockOpacity = BlockFullState.getMaterial(states[i]).getOpacity();
+						}
+						int neighbour = Math.max(Math.max(light[i - 1], light[i + 1]), Math.max(light[i - SIZE], light[i + SIZE]));
+						int level = neighbour - 1 - blockOpacity;
+						if (level > light[i]) {
+							light[i] = (byte) level;
+						}
+					}
+				}
+			}
+		}
+		return light;
+	}
+
+	private static int index(int x, int y, int z) {
+		return y * LAYER + z * SIZE + x;
+	}
+}
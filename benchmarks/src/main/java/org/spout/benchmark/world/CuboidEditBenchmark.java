@@ -0,0 +1,168 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.benchmark.world;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.material.block.BlockFullState;
+import org.spout.api.util.cuboid.CuboidBlockMaterialBuffer;
+import org.spout.api.util.map.concurrent.AtomicBlockStore;
+import org.spout.api.util.map.concurrent.palette.AtomicPaletteBlockStore;
+
+/**
+ * Measures the block copies behind a cuboid edit of a given edge length: slicing the edit into chunk buffers, reading chunk stores into a buffer and writing a buffer into chunk stores.<br>
+ * The store paths walk rows in the same way as SpoutChunk.getCuboid and setCuboid, without the events and block change notifications.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (value = 1, jvmArgsAppend = "-Xmx3G")
+public class CuboidEditBenchmark {
+	private static final int CHUNK = Chunk.BLOCKS.SIZE;
+	@Param ({"16", "64", "256"})
+	public int size;
+	private int chunks;
+	private CuboidBlockMaterialBuffer[] edits;
+	private CuboidBlockMaterialBuffer[] slices;
+	private AtomicBlockStore[] stores;
+	private CuboidBlockMaterialBuffer gathered;
+	private int[] row;
+	private int edit;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		chunks = size / CHUNK;
+		edits = new CuboidBlockMaterialBuffer[2];
+		for (int i = 0; i < edits.length; i++) {
+			edits[i] = new CuboidBlockMaterialBuffer(0, 0, 0, size, size, size);
+			short[] ids = edits[i].getRawId();
+			for (int j = 0; j < ids.length; j++) {
+				ids[j] = (short) random.nextInt(8);
+			}
+		}
+		slices = new CuboidBlockMaterialBuffer[chunks * chunks * chunks];
+		stores = new AtomicBlockStore[slices.length];
+		int i = 0;
+		for (int cx = 0; cx < chunks; cx++) {
+			for (int cy = 0; cy < chunks; cy++) {
+				for (int cz = 0; cz < chunks; cz++) {
+					slices[i] = new CuboidBlockMaterialBuffer(cx * CHUNK, cy * CHUNK, cz * CHUNK, CHUNK, CHUNK, CHUNK);
+					slices[i].write(edits[0]);
+					stores[i] = new AtomicPaletteBlockStore(Chunk.BLOCKS.BITS, false, true, 10, slices[i].getRawId(), slices[i].getRawData());
+					i++;
+				}
+			}
+		}
+		gathered = new CuboidBlockMaterialBuffer(0, 0, 0, size, size, size);
+		row = new int[CHUNK];
+	}
+
+	@Benchmark
+	public CuboidBlockMaterialBuffer[] sliceToChunks() {
+		CuboidBlockMaterialBuffer source = nextEdit();
+		for (CuboidBlockMaterialBuffer slice : slices) {
+			slice.write(source);
+		}
+		return slices;
+	}
+
+	@Benchmark
+	public CuboidBlockMaterialBuffer storesToBuffer() {
+		short[] ids = gathered.getRawId();
+		short[] data = gathered.getRawData();
+		int i = 0;
+		for (int cx = 0; cx < chunks; cx++) {
+			for (int cy = 0; cy < chunks; cy++) {
+				for (int cz = 0; cz < chunks; cz++) {
+					AtomicBlockStore store = stores[i++];
+					for (int y = 0; y < CHUNK; y++) {
+						for (int z = 0; z < CHUNK; z++) {
+							store.getFullData((y << Chunk.BLOCKS.DOUBLE_BITS) + (z << Chunk.BLOCKS.BITS), row, 0, CHUNK);
+							int index = ((cy * CHUNK + y) * size + cz * CHUNK + z) * size + cx * CHUNK;
+							for (int x = 0; x < CHUNK; x++) {
+								ids[index + x] = BlockFullState.getId(row[x]);
+								data[index + x] = BlockFullState.getData(row[x]);
+							}
+						}
+					}
+				}
+			}
+		}
+		return gathered;
+	}
+
+	@Benchmark
+	public AtomicBlockStore[] bufferToStores() {
+		CuboidBlockMaterialBuffer source = nextEdit();
+		short[] ids = source.getRawId();
+		short[] data = source.getRawData();
+		int i = 0;
+		for (int cx = 0; cx < chunks; cx++) {
+			for (int cy = 0; cy < chunks; cy++) {
+				for (int cz = 0; cz < chunks; cz++) {
+					AtomicBlockStore store = stores[i++];
+					for (int y = 0; y < CHUNK; y++) {
+						for (int z = 0; z < CHUNK; z++) {
+							store.getFullData((y << Chunk.BLOCKS.DOUBLE_BITS) + (z << Chunk.BLOCKS.BITS), row, 0, CHUNK);
+							int index = ((cy * CHUNK + y) * size + cz * CHUNK + z) * size + cx * CHUNK;
+							for (int x = 0; x < CHUNK; x++) {
+								if (row[x] != BlockFullState.getPacked(ids[index + x], data[index + x])) {
+									store.getAndSetBlock(x, y, z, ids[index + x], data[index + x]);
+								}
+							}
+						}
+					}
+					store.resetDirtyArrays();
+				}
+			}
+		}
+		return stores;
+	}
+
+	// Alternates between two edits, so that every invocation changes blocks
+	private CuboidBlockMaterialBuffer nextEdit() {
+		edit ^= 1;
+		return edits[edit];
+	}
+}
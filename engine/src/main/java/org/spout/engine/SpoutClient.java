@@ -53,8 +53,6 @@ import io.netty.bootstrap.ChannelFactory;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import org.spout.api.Client;
 import org.spout.api.Platform;
 import org.spout.api.audio.SoundManager;
@@ -82,6 +80,7 @@ import org.spout.engine.entity.SpoutClientPlayer;
 import org.spout.engine.filesystem.ClientFileSystem;
 import org.spout.engine.gui.SpoutScreenStack;
 import org.spout.engine.input.SpoutInputManager;
+import org.spout.engine.protocol.NetworkTransport;
 import org.spout.engine.protocol.PortBindingImpl;
 import org.spout.engine.protocol.SpoutClientSession;
 import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
@@ -129,8 +128,9 @@ public class SpoutClient extends SpoutEngine implements Client {
         if (inJar || args.path != null) {
             unpackNatives(args.path);
         }
-        bootstrap.handler(new CommonChannelInitializer()).channel(NioSocketChannel.class).group(new NioEventLoopGroup());
         super.init(args);
+        NetworkTransport transport = NetworkTransport.getConfigured();
+        transport.configure(bootstrap.handler(new CommonChannelInitializer())).group(transport.newEventLoopGroup(SpoutConfiguration.NETWORK_WORKER_THREADS.getInt(), "Netty Client"));
         this.ccoverride = args.ccoverride;
         inputManager = new SpoutInputManager();
         soundManager = new SpoutSoundManager();
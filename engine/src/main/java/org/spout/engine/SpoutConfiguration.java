@@ -49,12 +49,34 @@ public class SpoutConfiguration extends ConfigurationHolderConfiguration {
 	public static final ConfigurationHolder UNLOAD_CHUNKS_PER_TICK = new ConfigurationHolder(50, "chunks", "unload-per-tick");
 	public static final ConfigurationHolder DYNAMIC_BLOCKS = new ConfigurationHolder(true, "chunks", "dynamic-blocks");
 	public static final ConfigurationHolder BLOCK_PHYSICS = new ConfigurationHolder(true, "chunks", "block-physics");
+	public static final ConfigurationHolder CHUNK_IO_THREADS = new ConfigurationHolder(2, "chunks", "io-threads");
+	public static final ConfigurationHolder CHUNK_DECODE_THREADS = new ConfigurationHolder(0, "chunks", "decode-threads");
+	public static final ConfigurationHolder PREGEN_MIN_HEIGHT = new ConfigurationHolder(0, "chunks", "pregen-min-height");
+	public static final ConfigurationHolder PREGEN_MAX_HEIGHT = new ConfigurationHolder(255, "chunks", "pregen-max-height");
+	// Scheduler
+	public static final ConfigurationHolder ASYNC_THREADS = new ConfigurationHolder(0, "scheduler", "async-threads");
+	public static final ConfigurationHolder ASYNC_QUEUE_LIMIT = new ConfigurationHolder(1000, "scheduler", "async-queue-limit");
+	public static final ConfigurationHolder SHARED_BLOCKING_THREADS = new ConfigurationHolder(false, "scheduler", "shared-blocking-threads");
+	public static final ConfigurationHolder BLOCKING_THREAD_LIMIT = new ConfigurationHolder(256, "scheduler", "blocking-thread-limit");
+	// Resources
+	public static final ConfigurationHolder RESOURCE_THREADS = new ConfigurationHolder(0, "resources", "loader-threads");
+	public static final ConfigurationHolder RESOURCE_CACHE_SIZE = new ConfigurationHolder(2048, "resources", "cache-size");
+	public static final ConfigurationHolder PARSE_CACHE = new ConfigurationHolder(true, "resources", "parse-cache");
 	// Messages
 	public static final ConfigurationHolder DEFAULT_LANGUAGE = new ConfigurationHolder("EN_US", "messages", "default-language");
 	// Network
 	public static final ConfigurationHolder UPNP = new ConfigurationHolder(true, "network", "upnp");
 	public static final ConfigurationHolder BONJOUR = new ConfigurationHolder(false, "network", "bonjour");
 	public static final ConfigurationHolder SHOW_CONNECTIONS = new ConfigurationHolder(false, "network", "show-connections");
+	public static final ConfigurationHolder NETWORK_TRANSPORT = new ConfigurationHolder("auto", "network", "transport");
+	public static final ConfigurationHolder NETWORK_BOSS_THREADS = new ConfigurationHolder(1, "network", "boss-threads");
+	public static final ConfigurationHolder NETWORK_WORKER_THREADS = new ConfigurationHolder(0, "network", "worker-threads");
+	public static final ConfigurationHolder NETWORK_POOLED_BUFFERS = new ConfigurationHolder(true, "network", "pooled-buffers");
+	public static final ConfigurationHolder NETWORK_DIRECT_BUFFERS = new ConfigurationHolder(true, "network", "direct-buffers");
+	public static final ConfigurationHolder WRITE_BUFFER_HIGH_WATER_MARK = new ConfigurationHolder(64 * 1024, "network", "write-buffer-high-water-mark");
+	public static final ConfigurationHolder WRITE_BUFFER_LOW_WATER_MARK = new ConfigurationHolder(32 * 1024, "network", "write-buffer-low-water-mark");
+	public static final ConfigurationHolder SESSION_THREADS = new ConfigurationHolder(0, "network", "session-threads");
+	public static final ConfigurationHolder SESSION_MESSAGE_BUDGET = new ConfigurationHolder(256, "network", "messages-per-tick");
 	// Debug
 	public static final ConfigurationHolder SEND_LATENCY = new ConfigurationHolder(0L, "debug", "send-latency");
 	public static final ConfigurationHolder SEND_SPIKE_LATENCY = new ConfigurationHolder(0L, "debug", "send-spike-latency");
@@ -63,6 +85,7 @@ public class SpoutConfiguration extends ConfigurationHolderConfiguration {
 	public static final ConfigurationHolder RECV_SPIKE_CHANCE = new ConfigurationHolder(0F, "debug", "recv-spikes-per-second");
 	public static final ConfigurationHolder DEBUG_SHADERS = new ConfigurationHolder(false, "debug", "debug-shaders");
 	public static final ConfigurationHolder CREATE_FALLBACK_WORLD = new ConfigurationHolder(true, "debug", "create-fallback-world");
+	public static final ConfigurationHolder LOAD_TEST_BLOCK_CHANGES = new ConfigurationHolder(false, "debug", "load-test-block-changes");
 
 	public SpoutConfiguration() {
 		super(new YamlConfiguration(new File(CommonFileSystem.CONFIG_DIRECTORY, "spout.yml")));
@@ -53,13 +53,10 @@ import org.fourthline.cling.support.model.PortMapping;
 import org.fourthline.cling.transport.spi.InitializationException;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
-import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.ChannelGroupFuture;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import org.spout.api.Platform;
 import org.spout.api.Server;
@@ -98,12 +95,14 @@ import org.spout.engine.filesystem.ServerFileSystem;
 import org.spout.engine.filesystem.versioned.PlayerFiles;
 import org.spout.engine.filesystem.versioned.WorldFiles;
 import org.spout.engine.listener.SpoutServerListener;
+import org.spout.engine.protocol.NetworkTransport;
 import org.spout.engine.protocol.PortBindingImpl;
 import org.spout.engine.protocol.PortBindings;
 import org.spout.engine.protocol.SpoutServerSession;
 import org.spout.engine.protocol.SpoutSessionRegistry;
 import org.spout.engine.util.access.SpoutAccessManager;
 import org.spout.engine.util.thread.snapshotable.SnapshotableLinkedHashMap;
+import org.spout.engine.world.ChunkLoadPipeline;
 import org.spout.engine.world.SpoutServerWorld;
 import org.spout.engine.world.SpoutWorld;
 import org.spout.engine.world.WorldSavingThread;
@@ -134,9 +133,12 @@ public class SpoutServer extends SpoutEngine implements Server {
 
     protected final ChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
 
-    protected final EventLoopGroup bossGroup = new NioEventLoopGroup();
+    /**
+	 * The event loops, created from the configured {@link NetworkTransport} in {@link #init(SpoutApplication)}
+	 */
+    protected EventLoopGroup bossGroup;
 
-    protected final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    protected EventLoopGroup workerGroup;
 
     /**
 	 * The {@link AccessManager} for the Server.
@@ -214,7 +216,11 @@ public class SpoutServer extends SpoutEngine implements Server {
     @Override
     public void init(SpoutApplication args) {
         super.init(args);
-        bootstrap.group(bossGroup, workerGroup).channel(NioServerSocketChannel.class).childHandler(new CommonChannelInitializer()).childOption(ChannelOption.TCP_NODELAY, true).childOption(ChannelOption.SO_KEEPALIVE, true);
+        NetworkTransport transport = NetworkTransport.getConfigured();
+        getLogger().info("Using the " + transport + " network transport");
+        bossGroup = transport.newEventLoopGroup(SpoutConfiguration.NETWORK_BOSS_THREADS.getInt(), "Netty Boss");
+        workerGroup = transport.newEventLoopGroup(SpoutConfiguration.NETWORK_WORKER_THREADS.getInt(), "Netty Worker");
+        transport.configure(bootstrap.group(bossGroup, workerGroup)).childHandler(new CommonChannelInitializer());
         accessManager.load();
         accessManager.setWhitelistEnabled(SpoutConfiguration.WHITELIST_ENABLED.getBoolean());
     }
@@ -260,8 +266,10 @@ public class SpoutServer extends SpoutEngine implements Server {
                 }
                 WorldSavingThread.finish();
                 WorldSavingThread.staticJoin();
+                ChunkLoadPipeline.shutdown();
                 bossGroup.shutdownGracefully();
                 workerGroup.shutdownGracefully();
+                sessions.shutdown();
                 boundProtocols.clear();
             }
         };
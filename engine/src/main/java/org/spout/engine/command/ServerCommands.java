@@ -42,6 +42,8 @@ import org.spout.api.util.access.BanType;
 import org.spout.engine.SpoutConfiguration;
 import org.spout.engine.SpoutEngine;
 import org.spout.engine.SpoutServer;
+import org.spout.engine.world.SpoutServerWorld;
+import org.spout.engine.world.WorldPregenerator;
 
 public class ServerCommands extends CommonCommands {
 	public ServerCommands(SpoutEngine engine) {
@@ -210,6 +212,64 @@ public class ServerCommands extends CommonCommands {
 		source.sendMessage(onlineMsg.toString());
 	}
 
+	@CommandDescription (aliases = "pregen", usage = "<start|pause|resume|status> <world> [chunk x] [chunk z] [radius] [--populate]", flags = {@Flag (aliases = {"populate", "p"})},
+			desc = "Pre-generates the chunks in a square area of a world")
+	@Permissible ("spout.command.pregen")
+	public void pregen(CommandSource source, CommandArguments args) throws CommandException {
+		String action = args.popString("action");
+		SpoutServerWorld world = (SpoutServerWorld) args.popWorld("world", source);
+		WorldPregenerator pregen = world.getPregenerator();
+
+		if (action.equalsIgnoreCase("start")) {
+			int x = args.popInteger("chunk x");
+			int z = args.popInteger("chunk z");
+			int radius = args.popInteger("radius");
+			args.assertCompletelyParsed();
+			if (radius < 0) {
+				throw new CommandException("The radius may not be negative");
+			}
+			pregen = WorldPregenerator.fromRadius(world, x, z, radius, args.has("populate"));
+			if (!world.setPregenerator(pregen)) {
+				throw new CommandException("Pre-generation is already running for world " + world.getName());
+			}
+			pregen.start();
+			source.sendMessage("Started pre-generation of " + pregen.getTotal() + " columns in world " + world.getName());
+			return;
+		}
+
+		args.assertCompletelyParsed();
+		if (pregen == null) {
+			throw new CommandException("No pre-generation has been started for world " + world.getName());
+		}
+
+		if (action.equalsIgnoreCase("pause")) {
+			pregen.pause();
+			source.sendMessage("Pre-generation of world " + world.getName() + " will pause after the current batch");
+		} else if (action.equalsIgnoreCase("resume")) {
+			if (!pregen.start()) {
+				throw new CommandException("Pre-generation of world " + world.getName() + " is already running or complete");
+			}
+			source.sendMessage("Resumed pre-generation of world " + world.getName());
+		} else if (action.equalsIgnoreCase("status")) {
+			int percent = (int) (pregen.getCompleted() * 100L / Math.max(1, pregen.getTotal()));
+			StringBuilder message = new StringBuilder("Pre-generation of world " + world.getName() + ": " + pregen.getCompleted() + "/" + pregen.getTotal() + " columns (" + percent + "%)");
+			if (pregen.isRunning()) {
+				message.append(", ").append(String.format("%.1f", pregen.getChunksPerSecond())).append(" chunks/s");
+				long eta = pregen.getEstimatedSecondsRemaining();
+				if (eta >= 0) {
+					message.append(", ETA ").append(eta / 3600).append("h ").append((eta / 60) % 60).append("m ").append(eta % 60).append("s");
+				}
+			} else if (pregen.isComplete()) {
+				message.append(", complete");
+			} else {
+				message.append(", paused");
+			}
+			source.sendMessage(message.toString());
+		} else {
+			throw new CommandException("Unknown action " + action + ", expected start, pause, resume or status");
+		}
+	}
+
 	@CommandDescription (aliases = "disconnect", desc = "Disconnect the client from the server", usage = "[message]")
 	public void disconnectClient(CommandSource source, CommandArguments args) throws CommandException {
 		String message = args.popRemainingStrings("message", "Oops!");
@@ -26,17 +26,14 @@
  */
 package org.spout.engine.component.entity;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.spout.api.ServerOnly;
 import org.spout.api.Spout;
 import org.spout.api.component.entity.PlayerNetworkComponent;
 import org.spout.api.entity.Entity;
 import org.spout.api.event.EventHandler;
 import org.spout.api.event.Listener;
+import org.spout.api.geo.cuboid.Chunk;
 import org.spout.api.geo.cuboid.ChunkSnapshot;
-import org.spout.api.geo.discrete.Transform;
 import org.spout.api.protocol.Message;
 import org.spout.api.protocol.Session;
 import org.spout.api.protocol.event.BlockUpdateEvent;
@@ -45,11 +42,14 @@ import org.spout.api.protocol.event.ChunkFreeEvent;
 import org.spout.api.protocol.event.ChunkSendEvent;
 import org.spout.api.protocol.event.EntitySyncEvent;
 import org.spout.api.protocol.event.EntityUpdateEvent;
+import org.spout.api.protocol.event.MultiBlockUpdateEvent;
 import org.spout.api.protocol.event.WorldChangeProtocolEvent;
+import org.spout.engine.entity.EntitySyncMessages;
+import org.spout.engine.entity.SpoutEntitySyncEvent;
 import org.spout.engine.protocol.builtin.message.BlockUpdateMessage;
 import org.spout.engine.protocol.builtin.message.ChunkDataMessage;
 import org.spout.engine.protocol.builtin.message.ChunkDatatableMessage;
-import org.spout.engine.protocol.builtin.message.EntityDatatableMessage;
+import org.spout.engine.protocol.builtin.message.MultiBlockUpdateMessage;
 import org.spout.engine.protocol.builtin.message.UpdateEntityMessage;
 import org.spout.engine.protocol.builtin.message.WorldChangeMessage;
 import org.spout.engine.world.SpoutChunk;
@@ -83,6 +83,12 @@ public class SpoutPlayerNetworkComponent extends PlayerNetworkComponent implemen
 		event.getMessages().add(new BlockUpdateMessage(event.getChunk().getBlock(event.getX(), event.getY(), event.getZ())));
 	}
 
+	@EventHandler
+	public void onMultiBlockUpdate(MultiBlockUpdateEvent event) {
+		Chunk chunk = event.getChunk();
+		event.getMessages().add(new MultiBlockUpdateMessage(chunk.getX(), chunk.getY(), chunk.getZ(), event.getBlocks(), event.getStates()));
+	}
+
 	@EventHandler
 	public void onChunkDatatableSend(ChunkDatatableSendEvent event) {
 		event.getMessages().add(new ChunkDatatableMessage(((SpoutChunk) event.getChunk())));
@@ -96,31 +102,45 @@ public class SpoutPlayerNetworkComponent extends PlayerNetworkComponent implemen
 	@ServerOnly
 	@Override
 	public void syncEntity(EntitySyncEvent event) {
+		if (event instanceof SpoutEntitySyncEvent) {
+			SpoutEntitySyncEvent spoutEvent = (SpoutEntitySyncEvent) event;
+			//The engine fires one event for each observer
+			if (spoutEvent.getObserver() == getOwner()) {
+				syncEntity(event, spoutEvent.getSharedMessages());
+			}
+			return;
+		}
+		EntitySyncMessages messages = new EntitySyncMessages(event.getEntity(), event.getTransform());
+		syncEntity(event, messages);
+		messages.finish();
+	}
+
+	/**
+	 * Syncs an entity to this player, using messages that are shared with the entity's other observers where possible
+	 *
+	 * @param event the sync event for this player
+	 * @param shared the shared messages for the entity
+	 */
+	@ServerOnly
+	public void syncEntity(EntitySyncEvent event, EntitySyncMessages shared) {
 		super.syncEntity(event);
 		final Entity e = event.getEntity();
-		final Transform transform = event.getTransform();
 		final boolean remove = event.shouldRemove();
 		final boolean add = event.shouldAdd();
-		List<Message> messages = new ArrayList<>();
 		if (!e.equals(getOwner())) {
 			if (remove) {
-				messages.add(new UpdateEntityMessage(e.getId(), null, EntityUpdateEvent.UpdateAction.REMOVE, null));
+				getSession().send(new UpdateEntityMessage(e.getId(), null, EntityUpdateEvent.UpdateAction.REMOVE, null));
 			} else if (add) {
-				messages.add(new UpdateEntityMessage(e.getId(), transform, EntityUpdateEvent.UpdateAction.ADD, getRepositionManager()));
-			} else {
-				if (e.getPhysics().isTransformDirty()) {
-					messages.add(new UpdateEntityMessage(e.getId(), transform, EntityUpdateEvent.UpdateAction.TRANSFORM, getRepositionManager()));
-				}
+				getSession().send(new UpdateEntityMessage(e.getId(), event.getTransform(), EntityUpdateEvent.UpdateAction.ADD, getRepositionManager()));
+			} else if (e.getPhysics().isTransformDirty()) {
+				getSession().send(shared.getTransformMessage(getRepositionManager()));
 			}
 		}
 		if (!remove && !add) {
-			if (!e.getData().getDeltaMap().isEmpty()) {
-				messages.add(new EntityDatatableMessage(e.getId(), e.getData().getDeltaMap()));
-				e.getData().resetDelta();
+			Message datatable = shared.getDatatableMessage();
+			if (datatable != null) {
+				getSession().send(datatable);
 			}
 		}
-		for (Message message : messages) {
-			getSession().send(message);
-		}
 	}
 }
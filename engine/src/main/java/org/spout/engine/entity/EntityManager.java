@@ -39,7 +39,6 @@ import org.spout.api.Spout;
 import org.spout.api.component.entity.PlayerNetworkComponent;
 import org.spout.api.entity.Entity;
 import org.spout.api.entity.Player;
-import org.spout.api.protocol.event.EntitySyncEvent;
 import org.spout.engine.component.entity.SpoutPhysicsComponent;
 import org.spout.engine.util.thread.snapshotable.SnapshotManager;
 import org.spout.engine.util.thread.snapshotable.SnapshotableHashMap;
@@ -218,17 +217,22 @@ public class EntityManager {
 			if (observed.getChunk() == null) {
 				continue;
 			}
+			//The messages for this entity are built once and shared by all its observers
+			EntitySyncMessages messages = new EntitySyncMessages(observed, ((SpoutPhysicsComponent) observed.getPhysics()).getTransformLive());
+
 			//Players observing the chunk this entity is in
 			Set<? extends Entity> observers = observed.getChunk().getObservers();
-			syncEntity(observed, observers, false);
+			syncEntity(observed, observers, false, messages);
 
 			//TODO: Why do we need this...?
 			Set<? extends Entity> expiredObservers = ((SpoutChunk) observed.getChunk()).getExpiredObservers();
-			syncEntity(observed, expiredObservers, true);
+			syncEntity(observed, expiredObservers, true, messages);
+
+			messages.finish();
 		}
 	}
 
-	private void syncEntity(Entity observed, Set<? extends Entity> observers, boolean forceDestroy) {
+	private void syncEntity(Entity observed, Set<? extends Entity> observers, boolean forceDestroy, EntitySyncMessages messages) {
 		for (Entity observer : observers) {
 			//Non-players have no synchronizer, ignore
 			if (!(observer instanceof Player)) {
@@ -255,7 +259,7 @@ public class EntityManager {
 			} else {
 				add = true;
 			}
-			observed.getEngine().getEventManager().callEvent(new EntitySyncEvent(observed, ((SpoutPhysicsComponent) observed.getPhysics()).getTransformLive(), add, sync, remove));
+			observed.getEngine().getEventManager().callEvent(new SpoutEntitySyncEvent(observed, physics.getTransformLive(), add, sync, remove, player, messages));
 		}
 	}
 }
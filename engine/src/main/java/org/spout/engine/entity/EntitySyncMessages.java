@@ -0,0 +1,95 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.entity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.spout.api.entity.Entity;
+import org.spout.api.geo.discrete.Transform;
+import org.spout.api.protocol.Message;
+import org.spout.api.protocol.SharedMessage;
+import org.spout.api.protocol.event.EntityUpdateEvent.UpdateAction;
+import org.spout.api.protocol.reposition.RepositionManager;
+import org.spout.engine.protocol.builtin.message.EntityDatatableMessage;
+import org.spout.engine.protocol.builtin.message.UpdateEntityMessage;
+
+/**
+ * The messages describing the changes to an entity during a tick.  Each message is created the first time an observer needs it and is then shared with every other observer, so it is only
+ * encoded once.  The transform message is shared between observers with the same {@link RepositionManager}, since the manager converts the coordinates in the message.<br> Not thread safe, an instance should only be used by the thread syncing the entity.
+ */
+public class EntitySyncMessages {
+	private final Entity entity;
+	private final Transform transform;
+	private final Map<RepositionManager, Message> transformMessages = new HashMap<>();
+	private Message datatableMessage = null;
+	private boolean datatableChecked = false;
+
+	public EntitySyncMessages(Entity entity, Transform transform) {
+		this.entity = entity;
+		this.transform = transform;
+	}
+
+	/**
+	 * Gets the message that moves the entity to its current transform
+	 *
+	 * @param rm the reposition manager of the observer
+	 * @return the message
+	 */
+	public Message getTransformMessage(RepositionManager rm) {
+		Message transformMessage = transformMessages.get(rm);
+		if (transformMessage == null) {
+			transformMessage = new SharedMessage(new UpdateEntityMessage(entity.getId(), transform.copy(), UpdateAction.TRANSFORM, rm));
+			transformMessages.put(rm, transformMessage);
+		}
+		return transformMessage;
+	}
+
+	/**
+	 * Gets the message containing the changes to the entity's datatable, or null if it has not changed
+	 *
+	 * @return the message, or null
+	 */
+	public Message getDatatableMessage() {
+		if (!datatableChecked) {
+			datatableChecked = true;
+			if (!entity.getData().getDeltaMap().isEmpty()) {
+				datatableMessage = new SharedMessage(new EntityDatatableMessage(entity.getId(), entity.getData().getDeltaMap()));
+			}
+		}
+		return datatableMessage;
+	}
+
+	/**
+	 * Called once every observer has been synced.  Clears the entity's datatable changes if they were sent.
+	 */
+	public void finish() {
+		if (datatableMessage != null) {
+			entity.getData().resetDelta();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.entity;
+
+import org.spout.api.entity.Entity;
+import org.spout.api.entity.Player;
+import org.spout.api.geo.discrete.Transform;
+import org.spout.api.protocol.event.EntitySyncEvent;
+
+/**
+ * An {@link EntitySyncEvent} fired by the engine for one observer of an entity.  It carries the messages for the entity which are shared by all its observers this tick.  Listeners registered
+ * for {@link EntitySyncEvent} receive this event.
+ */
+public class SpoutEntitySyncEvent extends EntitySyncEvent {
+	private final Player observer;
+	private final EntitySyncMessages sharedMessages;
+
+	public SpoutEntitySyncEvent(Entity entity, Transform transform, boolean add, boolean sync, boolean remove, Player observer, EntitySyncMessages sharedMessages) {
+		super(entity, transform, add, sync, remove);
+		this.observer = observer;
+		this.sharedMessages = sharedMessages;
+	}
+
+	/**
+	 * Gets the player the entity is being synced to
+	 *
+	 * @return the observer
+	 */
+	public Player getObserver() {
+		return observer;
+	}
+
+	/**
+	 * Gets the messages for the entity which are shared between its observers
+	 *
+	 * @return the shared messages
+	 */
+	public EntitySyncMessages getSharedMessages() {
+		return sharedMessages;
+	}
+}
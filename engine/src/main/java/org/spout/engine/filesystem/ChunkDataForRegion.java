@@ -31,8 +31,16 @@ import java.util.List;
 
 import org.spout.engine.entity.SpoutEntitySnapshot;
 import org.spout.engine.world.dynamic.DynamicBlockUpdate;
+import org.spout.nbt.CompoundMap;
+import org.spout.nbt.CompoundTag;
 
 public class ChunkDataForRegion {
 	public final List<SpoutEntitySnapshot> loadedEntities = new ArrayList<>(10);
 	public final List<DynamicBlockUpdate> loadedUpdates = new ArrayList<>(10);
+	/**
+	 * The entities and block components read with the chunk, held until they are loaded on the region thread
+	 */
+	public CompoundMap entityMap;
+	public List<? extends CompoundTag> blockComponents;
+	public boolean skipComponentScan;
 }
@@ -27,22 +27,42 @@
 package org.spout.engine.filesystem;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
 import org.apache.commons.io.FileUtils;
 
 import org.spout.api.Spout;
@@ -52,15 +72,19 @@ import org.spout.api.command.CommandSource;
 import org.spout.api.command.Executor;
 import org.spout.api.exception.CommandException;
 import org.spout.api.exception.SpoutRuntimeException;
+import org.spout.api.plugin.Plugin;
 import org.spout.api.resource.FileSystem;
 import org.spout.api.resource.LoaderNotFoundException;
 import org.spout.api.resource.ResourceLoader;
 import org.spout.api.resource.ResourceNotFoundException;
 import org.spout.api.resource.ResourcePathResolver;
+import org.spout.engine.SpoutConfiguration;
 import org.spout.engine.filesystem.path.FilePathResolver;
 import org.spout.engine.filesystem.path.JarFilePathResolver;
 import org.spout.engine.filesystem.path.ZipFilePathResolver;
+import org.spout.engine.filesystem.resource.loader.CachedResourceLoader;
 import org.spout.engine.filesystem.resource.loader.CommandBatchLoader;
+import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
 
 public abstract class CommonFileSystem implements FileSystem {
 	public static final File PLUGINS_DIRECTORY = new File("plugins");
@@ -70,9 +94,29 @@ public abstract class CommonFileSystem implements FileSystem {
 	public static final File UPDATES_DIRECTORY = new File("updates");
 	public static final File DATA_DIRECTORY = new File("data");
 	public static final File WORLDS_DIRECTORY = new File("worlds");
-	protected final Set<ResourceLoader> loaders = new HashSet<>();
-	protected final Map<URI, Object> loadedResources = new HashMap<>();
-	protected final List<ResourcePathResolver> pathResolvers = new ArrayList<>();
+	public static final File PARSE_CACHE_DIRECTORY = new File(CACHE_DIRECTORY, ".parsed");
+	/**
+	 * The manifest listing the resources of a plugin that should be loaded at startup
+	 */
+	public static final String PRELOAD_MANIFEST = "/preload.txt";
+	/**
+	 * Placeholder for fallbacks which are registered but not loaded yet
+	 */
+	private static final Object PINNED = new Object();
+	protected final Set<ResourceLoader> loaders = new CopyOnWriteArraySet<>();
+	/**
+	 * Loaded resources from {@link ResourceLoader#isEvictable() evictable} loaders, values are softly referenced so unused resources can be reclaimed and loaded again on demand
+	 */
+	protected final Cache<URI, Object> loadedResources = CacheBuilder.newBuilder().maximumSize(Math.max(1, SpoutConfiguration.RESOURCE_CACHE_SIZE.getInt())).softValues().build();
+	/**
+	 * Fallback resources, these are never evicted since they are read directly when a resource is missing.<br> <br> Resources from loaders which are not evictable are also kept here, as they own
+	 * render or sound objects that would be leaked, and loaded a second time, if the resource was evicted while still in use.
+	 */
+	protected final ConcurrentMap<URI, Object> pinnedResources = new ConcurrentHashMap<>();
+	protected final ConcurrentMap<URI, FutureTask<Object>> pendingResources = new ConcurrentHashMap<>();
+	protected final List<ResourcePathResolver> pathResolvers = new CopyOnWriteArrayList<>();
+	protected final ParseCache parseCache = new ParseCache(PARSE_CACHE_DIRECTORY);
+	private final AtomicReference<ListeningExecutorService> loaderPool = new AtomicReference<>();
 	protected final Map<String, URI> requestedInstallations = new HashMap<>();
 	protected boolean initialized;
 
@@ -160,8 +204,20 @@ public abstract class CommonFileSystem implements FileSystem {
 				});
 	}
 
-	private void loadFallback(ResourceLoader loader) {
+	private static URI getFallback(ResourceLoader loader) {
 		String fallback = loader.getFallback();
+		if (fallback == null) {
+			return null;
+		}
+		try {
+			return new URI(fallback);
+		} catch (URISyntaxException e) {
+			throw new IllegalArgumentException("Fallback name for scheme " + loader.getScheme() + " is invalid.", e);
+		}
+	}
+
+	private void loadFallback(ResourceLoader loader) {
+		URI fallback = getFallback(loader);
 		if (fallback != null) {
 			try {
 				loadResource(fallback);
@@ -177,10 +233,132 @@ public abstract class CommonFileSystem implements FileSystem {
 
 	@Override
 	public void postStartup() {
-		// load fallbacks
+		// load fallbacks and every resource listed in the preload manifests, the fallbacks are loaded first so a failed preload can fall back
+		Set<URI> fallbacks = new LinkedHashSet<>();
+		for (ResourceLoader loader : loaders) {
+			URI fallback = getFallback(loader);
+			if (fallback != null) {
+				fallbacks.add(fallback);
+			}
+		}
+		awaitPreload(preloadResources(fallbacks));
 		for (ResourceLoader loader : loaders) {
 			loadFallback(loader);
 		}
+		awaitPreload(preloadResources(scanManifests()));
+	}
+
+	private void awaitPreload(ListenableFuture<List<Object>> future) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			Spout.getLogger().log(Level.WARNING, "Error while preloading resources", e.getCause());
+		}
+	}
+
+	/**
+	 * Reads the {@link #PRELOAD_MANIFEST} of every plugin. Each non-empty line which does not start with '#' is the URI of a resource, entries with a scheme that has no loader are skipped.
+	 *
+	 * @return the resources to preload
+	 */
+	public Set<URI> scanManifests() {
+		Set<URI> uris = new LinkedHashSet<>();
+		for (Plugin plugin : Spout.getPluginManager().getPlugins()) {
+			URI manifest;
+			try {
+				manifest = new URI("file", plugin.getName(), PRELOAD_MANIFEST, null);
+			} catch (URISyntaxException e) {
+				continue;
+			}
+			ResourcePathResolver resolver = getPathResolver(manifest);
+			if (resolver == null) {
+				continue;
+			}
+			InputStream in = resolver.getStream(manifest);
+			if (in == null) {
+				continue;
+			}
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					line = line.trim();
+					if (line.isEmpty() || line.startsWith("#")) {
+						continue;
+					}
+					try {
+						URI uri = new URI(line);
+						if (getLoader(uri.getScheme()) != null) {
+							uris.add(uri);
+						}
+					} catch (URISyntaxException e) {
+						Spout.getLogger().warning("Invalid resource '" + line + "' in the preload manifest of " + plugin.getName());
+					}
+				}
+			} catch (IOException e) {
+				Spout.getLogger().log(Level.WARNING, "Error reading the preload manifest of " + plugin.getName(), e);
+			}
+		}
+		return uris;
+	}
+
+	private ListeningExecutorService getLoaderPool() {
+		ListeningExecutorService pool = loaderPool.get();
+		if (pool == null) {
+			int threads = SpoutConfiguration.RESOURCE_THREADS.getInt();
+			if (threads <= 0) {
+				threads = Runtime.getRuntime().availableProcessors();
+			}
+			pool = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads, new NamedThreadFactory("Resource Loader", true)));
+			if (!loaderPool.compareAndSet(null, pool)) {
+				pool.shutdown();
+				pool = loaderPool.get();
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * Loads the given resources, resources with a {@link ResourceLoader#isConcurrent() concurrent} loader are loaded in parallel on the loader pool, the others are loaded on the calling thread
+	 * before this method returns.<br> Resources which depend on each other may be given in any order, a resource requested while it is being loaded is waited for rather than loaded twice.
+	 *
+	 * @param uris the resources to load
+	 * @return a future for the loaded resources, holding null for each resource that failed to load
+	 */
+	public ListenableFuture<List<Object>> preloadResources(Collection<URI> uris) {
+		List<ListenableFuture<Object>> futures = new ArrayList<>(uris.size());
+		List<URI> local = new ArrayList<>();
+		for (final URI uri : uris) {
+			ResourceLoader loader = getLoader(uri.getScheme());
+			if (loader != null && loader.isConcurrent()) {
+				futures.add(getLoaderPool().submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						return preload(uri);
+					}
+				}));
+			} else {
+				local.add(uri);
+			}
+		}
+		for (URI uri : local) {
+			try {
+				futures.add(Futures.immediateFuture(preload(uri)));
+			} catch (Exception e) {
+				futures.add(Futures.<Object>immediateFailedFuture(e));
+			}
+		}
+		return Futures.successfulAsList(futures);
+	}
+
+	private Object preload(URI uri) throws Exception {
+		try {
+			return getOrLoad(uri);
+		} catch (Exception e) {
+			Spout.getLogger().log(Level.WARNING, "Unable to preload " + uri, e);
+			throw e;
+		}
 	}
 
 	@Override
@@ -202,6 +380,10 @@ public abstract class CommonFileSystem implements FileSystem {
 	public void registerLoader(ResourceLoader loader) {
 		// load the fallback
 		loaders.add(loader);
+		URI fallback = getFallback(loader);
+		if (fallback != null) {
+			pinnedResources.putIfAbsent(fallback, PINNED);
+		}
 		if (initialized) {
 			loadFallback(loader);
 		}
@@ -244,8 +426,73 @@ public abstract class CommonFileSystem implements FileSystem {
 		return null;
 	}
 
-	@Override
-	public void loadResource(URI uri) throws LoaderNotFoundException, ResourceNotFoundException, IOException {
+	private Object getLoaded(URI uri) {
+		Object resource = pinnedResources.get(uri);
+		if (resource != null && resource != PINNED) {
+			return resource;
+		}
+		return loadedResources.getIfPresent(uri);
+	}
+
+	private void putLoaded(URI uri, Object resource) {
+		ResourceLoader loader = getLoader(uri.getScheme());
+		if (pinnedResources.containsKey(uri) || loader == null || !loader.isEvictable()) {
+			pinnedResources.put(uri, resource);
+		} else {
+			loadedResources.put(uri, resource);
+		}
+	}
+
+	/**
+	 * Gets a loaded resource or loads it. Concurrent requests for the same resource share a single load, which runs on whichever requesting thread gets to it first, so a loader thread waiting on
+	 * a dependency queued behind it never deadlocks the pool.
+	 */
+	private Object getOrLoad(final URI uri) throws LoaderNotFoundException, ResourceNotFoundException, IOException {
+		Object resource = getLoaded(uri);
+		if (resource != null) {
+			return resource;
+		}
+		FutureTask<Object> task = new FutureTask<>(new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				Object loaded = getLoaded(uri);
+				if (loaded == null) {
+					loaded = loadNow(uri);
+					putLoaded(uri, loaded);
+				}
+				return loaded;
+			}
+		});
+		FutureTask<Object> pending = pendingResources.putIfAbsent(uri, task);
+		if (pending != null) {
+			task = pending;
+		}
+		try {
+			task.run();
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading " + uri, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof LoaderNotFoundException) {
+				throw (LoaderNotFoundException) cause;
+			} else if (cause instanceof ResourceNotFoundException) {
+				throw (ResourceNotFoundException) cause;
+			} else if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("Error while loading " + uri, cause);
+		} finally {
+			pendingResources.remove(uri, task);
+		}
+	}
+
+	private Object loadNow(URI uri) throws LoaderNotFoundException, ResourceNotFoundException, IOException {
 		// find the loader
 		// this needs to be thrown first, so we can use a fallback loader and know it exists
 		String scheme = uri.getScheme();
@@ -260,12 +507,28 @@ public abstract class CommonFileSystem implements FileSystem {
 			throw new ResourceNotFoundException(uri.toString());
 		}
 		try (InputStream in = new BufferedInputStream(resolver.getStream(uri))) {
-			Object resource = loader.load(in);
+			Object resource;
+			if (loader instanceof CachedResourceLoader && SpoutConfiguration.PARSE_CACHE.getBoolean()) {
+				resource = parseCache.load((CachedResourceLoader<?, ?>) loader, in);
+			} else {
+				resource = loader.load(in);
+			}
 			if (resource == null) {
 				throw new IllegalStateException("Loader for scheme '" + scheme + "' returned a null resource.");
 			}
-			loadedResources.put(uri, resource);
+			return resource;
+		}
+	}
+
+	/**
+	 * Loads a resource, unless it is already loaded
+	 */
+	@Override
+	public void loadResource(URI uri) throws LoaderNotFoundException, ResourceNotFoundException, IOException {
+		if (getLoaded(uri) != null) {
+			return;
 		}
+		getOrLoad(uri);
 	}
 
 	@Override
@@ -288,14 +551,8 @@ public abstract class CommonFileSystem implements FileSystem {
 
 	@Override
 	public <R> R getResource(URI uri) {
-		if (loadedResources.containsKey(uri)) {
-			// already loaded
-			return tryCast(loadedResources.get(uri), uri.getScheme());
-		}
-
 		try {
-			// not loaded yet
-			loadResource(uri);
+			return tryCast(getOrLoad(uri), uri.getScheme());
 		} catch (LoaderNotFoundException e) {
 			// scheme has not loader
 			throw new IllegalArgumentException("No loader found for scheme " + uri.getScheme(), e);
@@ -312,13 +569,11 @@ public abstract class CommonFileSystem implements FileSystem {
 			}
 
 			try {
-				return tryCast(loadedResources.get(new URI(fallback)), uri.getScheme());
+				return tryCast(getLoaded(new URI(fallback)), uri.getScheme());
 			} catch (URISyntaxException se) {
 				throw new IllegalStateException("Fallback name for scheme " + uri.getScheme() + " is invalid.", e);
 			}
 		}
-
-		return tryCast(loadedResources.get(uri), uri.getScheme());
 	}
 
 	@Override
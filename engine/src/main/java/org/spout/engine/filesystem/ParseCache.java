@@ -0,0 +1,128 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.filesystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.google.common.hash.Hashing;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import org.spout.engine.filesystem.resource.loader.CachedResourceLoader;
+
+/**
+ * Stores the parsed form of resources on disk, keyed by scheme and a hash of the raw resource, so that unchanged resources skip parsing on the next start.<br> Any failure to read an entry is
+ * treated as a miss and the entry is rewritten.
+ */
+public class ParseCache {
+	private static final int MAGIC = 0x53504331;
+	private final File directory;
+
+	public ParseCache(File directory) {
+		this.directory = directory;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Loads a resource through the cache, parsing and storing it if the cache has no valid entry for the stream contents.
+	 *
+	 * @param loader the loader for the resource
+	 * @param in the raw resource stream
+	 * @return the loaded resource
+	 * @throws IOException if the raw stream could not be read
+	 */
+	public <P, R> R load(CachedResourceLoader<P, R> loader, InputStream in) throws IOException {
+		byte[] raw = IOUtils.toByteArray(in);
+		File file = getFile(loader, raw);
+		P parsed = read(loader, file);
+		if (parsed == null) {
+			parsed = loader.parse(new ByteArrayInputStream(raw));
+			write(loader, parsed, file);
+		}
+		return loader.build(parsed);
+	}
+
+	private File getFile(CachedResourceLoader<?, ?> loader, byte[] raw) {
+		return new File(new File(directory, loader.getScheme()), Hashing.sha1().hashBytes(raw).toString() + ".bin");
+	}
+
+	private <P> P read(CachedResourceLoader<P, ?> loader, File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != loader.getCacheVersion()) {
+				return null;
+			}
+			return loader.readParsed(in);
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private <P> void write(CachedResourceLoader<P, ?> loader, P parsed, File file) {
+		File parent = file.getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			return;
+		}
+		// write to a private file first so concurrent readers never see a partial entry
+		File temp = new File(parent, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(loader.getCacheVersion());
+			loader.writeParsed(parsed, out);
+		} catch (IOException e) {
+			temp.delete();
+			return;
+		}
+		if (!temp.renameTo(file)) {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Deletes all cache entries.
+	 *
+	 * @throws IOException if the cache directory could not be deleted
+	 */
+	public void clear() throws IOException {
+		FileUtils.deleteDirectory(directory);
+	}
+}
@@ -103,4 +103,14 @@ public class AnimationLoader extends ResourceLoader {
 	public Animation load(InputStream in) {
 		return AnimationLoader.loadObj(in);
 	}
+
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
+	@Override
+	public boolean isEvictable() {
+		return true;
+	}
 }
@@ -26,10 +26,12 @@
  */
 package org.spout.engine.filesystem.resource.loader;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Scanner;
 import java.util.Set;
 
 import org.spout.api.material.block.BlockFace;
@@ -38,130 +40,90 @@ import org.spout.api.math.Vector3;
 import org.spout.api.model.mesh.OrientedMesh;
 import org.spout.api.model.mesh.OrientedMeshFace;
 import org.spout.api.model.mesh.Vertex;
-import org.spout.api.resource.ResourceLoader;
 
-public class BlockMeshLoader extends ResourceLoader {
+public class BlockMeshLoader extends CachedResourceLoader<ObjData, OrientedMesh> {
 	public BlockMeshLoader() {
 		super("blockmesh", "blockmesh://Spout/fallbacks/fallback.obj");
 	}
 
-	private static OrientedMesh loadObj(InputStream stream) {
-		ArrayList<OrientedMeshFace> faces;
-		try (Scanner scan = new Scanner(stream)) {
-			ArrayList<Vector3> verticies = new ArrayList<>();
-			ArrayList<Vector3> normals = new ArrayList<>();
-			ArrayList<Vector2> uvs = new ArrayList<>();
-			faces = new ArrayList<>();
-			while (scan.hasNext()) {
-				String s = scan.nextLine();
-				if (s.startsWith("#")) {
-					continue; // it's a comment, skip it
-				}
-				if (s.startsWith("v ")) { // Space is important !!
-					String[] sp = s.split(" ");
-					verticies.add(new Vector3(Float.parseFloat(sp[1]), Float.parseFloat(sp[2]), Float.parseFloat(sp[3])));
-				}
-				if (s.startsWith("vn ")) {
-					String[] sp = s.split(" ");
-					normals.add(new Vector3(Float.parseFloat(sp[1]), Float.parseFloat(sp[2]), Float.parseFloat(sp[3])));
-				}
-				if (s.startsWith("vt ")) {
-					String[] sp = s.split(" ");
-					uvs.add(new Vector2(Float.parseFloat(sp[1]), 1 - Float.parseFloat(sp[2])));
-				}
-				if (s.startsWith("f ")) {
-					String[] sp = s.split(" ");
-					Set<BlockFace> requiredFace = null;
-					if (sp.length > 2) {
-						requiredFace = new HashSet<>();
-						for (int i = 0; i < sp[2].length(); i++) {
-							char c = sp[2].charAt(i);
-							switch (c) {
-								case 'T':
-									requiredFace.add(BlockFace.TOP);
-									break;
-								case 'B':
-									requiredFace.add(BlockFace.BOTTOM);
-									break;
-								case 'N':
-									requiredFace.add(BlockFace.NORTH);
-									break;
-								case 'S':
-									requiredFace.add(BlockFace.SOUTH);
-									break;
-								case 'W':
-									requiredFace.add(BlockFace.WEST);
-									break;
-								case 'E':
-									requiredFace.add(BlockFace.EAST);
-									break;
-								default:
-									break;
-							}
-						}
-						if (requiredFace.isEmpty()) {
-							requiredFace = null;
-						}
-					}
-					if (sp[1].contains("//")) {
-						ArrayList<Vertex> ar = new ArrayList<>();
-						for (int i = 1; i <= 3; i++) {
-							String[] sn = sp[i].split("//");
-							int pos = Integer.parseInt(sn[0]);
-							int norm = Integer.parseInt(sn[1]);
-
-							ar.add(Vertex.createVertexPositionNormal(verticies.get(pos - 1), normals.get(norm - 1)));
-						}
-						if (requiredFace == null) {
-							faces.add(new OrientedMeshFace(ar.get(2), ar.get(1), ar.get(0)));
-						} else {
-							faces.add(new OrientedMeshFace(ar.get(2), ar.get(1), ar.get(0), requiredFace));
-						}
-						ar.clear();
-					} else if (sp[1].contains("/")) {
-						ArrayList<Vertex> ar = new ArrayList<>();
-						for (int i = 1; i <= 3; i++) {
-							String[] sn = sp[i].split("/");
-							int pos = Integer.parseInt(sn[0]);
-							int uv = Integer.parseInt(sn[1]);
-							if (sn.length > 2) {
-								int norm = Integer.parseInt(sn[2]);
+	@Override
+	public ObjData parse(InputStream in) {
+		return ObjData.parse(in, false);
+	}
 
-								ar.add(Vertex.createVertexPositionNormaTexture0(verticies.get(pos - 1), normals.get(norm - 1), uvs.get(uv - 1)));
-							} else {
-								ar.add(Vertex.createVertexPositionTexture0(verticies.get(pos - 1), uvs.get(uv - 1)));
-							}
-						}
-						if (requiredFace == null) {
-							faces.add(new OrientedMeshFace(ar.get(2), ar.get(1), ar.get(0)));
-						} else {
-							faces.add(new OrientedMeshFace(ar.get(2), ar.get(1), ar.get(0), requiredFace));
-						}
-						ar.clear();
+	@Override
+	public OrientedMesh build(ObjData data) {
+		Vector3[] verticies = data.createPositions();
+		Vector3[] normals = data.createNormals();
+		Vector2[] uvs = data.createUvs();
+		ArrayList<OrientedMeshFace> faces = new ArrayList<>(data.getFaceCount());
+		Vertex[] ar = new Vertex[3];
+		for (int face = 0; face < data.getFaceCount(); face++) {
+			for (int i = 0; i < 3; i++) {
+				int pos = data.getPositionIndex(face, i) - 1;
+				int uv = data.getUvIndex(face, i) - 1;
+				int norm = data.getNormalIndex(face, i) - 1;
+				if (uv >= 0) {
+					if (norm >= 0) {
+						ar[i] = Vertex.createVertexPositionNormaTexture0(verticies[pos], normals[norm], uvs[uv]);
 					} else {
-						int face1 = Integer.parseInt(sp[1]) - 1;
-						int face2 = Integer.parseInt(sp[2]) - 1;
-						int face3 = Integer.parseInt(sp[3]) - 1;
-
-						Vertex p1 = Vertex.createVertexPosition(verticies.get(face1));
-						Vertex p2 = Vertex.createVertexPosition(verticies.get(face2));
-						Vertex p3 = Vertex.createVertexPosition(verticies.get(face3));
-
-						if (requiredFace == null) {
-							faces.add(new OrientedMeshFace(p3, p2, p1));
-						} else {
-							faces.add(new OrientedMeshFace(p3, p2, p1, requiredFace));
-						}
+						ar[i] = Vertex.createVertexPositionTexture0(verticies[pos], uvs[uv]);
 					}
+				} else if (norm >= 0) {
+					ar[i] = Vertex.createVertexPositionNormal(verticies[pos], normals[norm]);
+				} else {
+					ar[i] = Vertex.createVertexPosition(verticies[pos]);
 				}
 			}
+			Set<BlockFace> requiredFace = getRequiredFaces(data.getFaceFlags(face));
+			if (requiredFace == null) {
+				faces.add(new OrientedMeshFace(ar[2], ar[1], ar[0]));
+			} else {
+				faces.add(new OrientedMeshFace(ar[2], ar[1], ar[0], requiredFace));
+			}
 		}
 
 		return new OrientedMesh(faces);
 	}
 
+	private static Set<BlockFace> getRequiredFaces(int flags) {
+		if (flags == 0) {
+			return null;
+		}
+		Set<BlockFace> requiredFace = new HashSet<>();
+		if ((flags & ObjData.TOP) != 0) {
+			requiredFace.add(BlockFace.TOP);
+		}
+		if ((flags & ObjData.BOTTOM) != 0) {
+			requiredFace.add(BlockFace.BOTTOM);
+		}
+		if ((flags & ObjData.NORTH) != 0) {
+			requiredFace.add(BlockFace.NORTH);
+		}
+		if ((flags & ObjData.SOUTH) != 0) {
+			requiredFace.add(BlockFace.SOUTH);
+		}
+		if ((flags & ObjData.WEST) != 0) {
+			requiredFace.add(BlockFace.WEST);
+		}
+		if ((flags & ObjData.EAST) != 0) {
+			requiredFace.add(BlockFace.EAST);
+		}
+		return requiredFace;
+	}
+
+	@Override
+	public void writeParsed(ObjData parsed, DataOutputStream out) throws IOException {
+		parsed.write(out);
+	}
+
+	@Override
+	public ObjData readParsed(DataInputStream in) throws IOException {
+		return ObjData.read(in);
+	}
+
 	@Override
-	public OrientedMesh load(InputStream in) {
-		return BlockMeshLoader.loadObj(in);
+	public boolean isConcurrent() {
+		return true;
 	}
 }
@@ -0,0 +1,80 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.filesystem.resource.loader;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.spout.api.resource.ResourceLoader;
+
+/**
+ * A loader that splits loading into a parse step, whose result can be stored in the parse cache, and a build step that turns the parsed form into the resource.
+ *
+ * @param <P> the parsed form
+ * @param <R> the resource type
+ */
+public abstract class CachedResourceLoader<P, R> extends ResourceLoader {
+	public CachedResourceLoader(String scheme, String fallback) {
+		super(scheme, fallback);
+	}
+
+	/**
+	 * Parses the raw resource.
+	 *
+	 * @param in the resource stream
+	 * @return the parsed form
+	 */
+	public abstract P parse(InputStream in);
+
+	/**
+	 * Builds the resource from its parsed form.
+	 *
+	 * @param parsed the parsed form
+	 * @return the resource
+	 */
+	public abstract R build(P parsed);
+
+	public abstract void writeParsed(P parsed, DataOutputStream out) throws IOException;
+
+	public abstract P readParsed(DataInputStream in) throws IOException;
+
+	/**
+	 * Gets the version of the cached format, cache entries written with a different version are discarded.
+	 *
+	 * @return the cache format version
+	 */
+	public int getCacheVersion() {
+		return 1;
+	}
+
+	@Override
+	public R load(InputStream in) {
+		return build(parse(in));
+	}
+}
@@ -53,4 +53,14 @@ public class CommandBatchLoader extends ResourceLoader {
 		}
 		return bat;
 	}
+
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
+	@Override
+	public boolean isEvictable() {
+		return true;
+	}
 }
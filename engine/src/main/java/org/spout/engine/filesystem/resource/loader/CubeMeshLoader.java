@@ -124,4 +124,9 @@ public class CubeMeshLoader extends ResourceLoader {
 	public OrientedMesh load(InputStream stream) {
 		return CubeMeshLoader.loadObj(stream);
 	}
-}
\ No newline at end of file
+
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+}
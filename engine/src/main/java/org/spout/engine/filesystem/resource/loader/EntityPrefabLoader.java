@@ -98,4 +98,14 @@ public class EntityPrefabLoader extends ResourceLoader {
 
 		return new ClientEntityPrefab((Client) engine, (String) name, components, datas);
 	}
+
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
+	@Override
+	public boolean isEvictable() {
+		return true;
+	}
 }
@@ -26,104 +26,74 @@
  */
 package org.spout.engine.filesystem.resource.loader;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Scanner;
 
 import org.spout.api.math.Vector2;
 import org.spout.api.math.Vector3;
 import org.spout.api.model.mesh.MeshFace;
 import org.spout.api.model.mesh.Vertex;
-import org.spout.api.resource.ResourceLoader;
 import org.spout.engine.mesh.BaseMesh;
 
-public class MeshLoader extends ResourceLoader {
+public class MeshLoader extends CachedResourceLoader<ObjData, BaseMesh> {
 	public MeshLoader() {
 		super("mesh", "mesh://Spout/fallbacks/fallback.obj");
 	}
 
-	private static BaseMesh loadObj(InputStream stream) {
+	@Override
+	public ObjData parse(InputStream in) {
+		return ObjData.parse(in, true);
+	}
 
-		boolean normal, color, texture0;
-		ArrayList<MeshFace> faces;
-		try (Scanner scan = new Scanner(stream)) {
-			normal = false;
-			color = false;
-			texture0 = false;
-			ArrayList<Vector3> verticies = new ArrayList<>();
-			ArrayList<Vector3> normals = new ArrayList<>();
-			ArrayList<Vector2> uvs = new ArrayList<>();
-			faces = new ArrayList<>();
-			while (scan.hasNext()) {
-				String s = scan.nextLine();
-				if (s.startsWith("#")) {
-					continue; // it's a comment, skip it
-				}
-				if (s.startsWith("v ")) { // Space is important !!
-					String[] sp = s.split(" ");
-					verticies.add(new Vector3(Float.parseFloat(sp[1]), Float.parseFloat(sp[2]), Float.parseFloat(sp[3])));
-				}
-				if (s.startsWith("vn ")) {
-					String[] sp = s.split(" ");
-					normals.add(new Vector3(Float.parseFloat(sp[1]), Float.parseFloat(sp[2]), Float.parseFloat(sp[3])));
-				}
-				if (s.startsWith("vt ")) {
-					String[] sp = s.split(" ");
-					uvs.add(new Vector2(Float.parseFloat(sp[1]), 1 - Float.parseFloat(sp[2])));
-				}
-				if (s.startsWith("f ")) {
-					String[] sp = s.split(" ");
-					if (sp.length > 4) {
-						throw new RuntimeException(".obj files must be triangulated.  Re-export the mesh with triangles, not quads");
-					}
-					if (sp[1].contains("//")) {
+	@Override
+	public BaseMesh build(ObjData data) {
+		boolean normal = false, color = false, texture0 = false;
+		Vector3[] verticies = data.createPositions();
+		Vector3[] normals = data.createNormals();
+		Vector2[] uvs = data.createUvs();
+		ArrayList<MeshFace> faces = new ArrayList<>(data.getFaceCount());
+		Vertex[] ar = new Vertex[3];
+		for (int face = 0; face < data.getFaceCount(); face++) {
+			for (int i = 0; i < 3; i++) {
+				int pos = data.getPositionIndex(face, i);
+				int uv = data.getUvIndex(face, i);
+				int norm = data.getNormalIndex(face, i);
+				if (uv != 0) {
+					texture0 = true;
+					if (norm != 0) {
 						normal = true;
-						ArrayList<Vertex> ar = new ArrayList<>();
-						for (int i = 1; i <= 3; i++) {
-							String[] sn = sp[i].split("//");
-							int pos = Integer.parseInt(sn[0]);
-							int norm = Integer.parseInt(sn[1]);
-							ar.add(Vertex.createVertexPositionNormalIndex(verticies.get(pos - 1), normals.get(norm - 1), pos));
-						}
-						faces.add(new MeshFace(ar.get(2), ar.get(1), ar.get(0)));
-						ar.clear();
-					} else if (sp[1].contains("/")) {
-						texture0 = true;
-						ArrayList<Vertex> ar = new ArrayList<>();
-						for (int i = 1; i <= 3; i++) {
-							String[] sn = sp[i].split("/");
-							int pos = Integer.parseInt(sn[0]);
-							int uv = Integer.parseInt(sn[1]);
-							if (sn.length > 2) {
-								normal = true;
-								int norm = Integer.parseInt(sn[2]);
-								ar.add(Vertex.createVertexPositionNormalTexture0Index(verticies.get(pos - 1), normals.get(norm - 1), uvs.get(uv - 1), pos));
-							} else {
-								ar.add(Vertex.createVertexPositionTexture0Index(verticies.get(pos - 1), uvs.get(uv - 1), pos));
-							}
-						}
-						faces.add(new MeshFace(ar.get(2), ar.get(1), ar.get(0)));
-						ar.clear();
+						ar[i] = Vertex.createVertexPositionNormalTexture0Index(verticies[pos - 1], normals[norm - 1], uvs[uv - 1], pos);
 					} else {
-						int face1 = Integer.parseInt(sp[1]);
-						int face2 = Integer.parseInt(sp[2]);
-						int face3 = Integer.parseInt(sp[3]);
-
-						Vertex p1 = Vertex.createVertexPositionIndex(verticies.get(face1 - 1), face1);
-						Vertex p2 = Vertex.createVertexPositionIndex(verticies.get(face2 - 1), face2);
-						Vertex p3 = Vertex.createVertexPositionIndex(verticies.get(face3 - 1), face3);
-
-						faces.add(new MeshFace(p3, p2, p1));
+						ar[i] = Vertex.createVertexPositionTexture0Index(verticies[pos - 1], uvs[uv - 1], pos);
 					}
+				} else if (norm != 0) {
+					normal = true;
+					ar[i] = Vertex.createVertexPositionNormalIndex(verticies[pos - 1], normals[norm - 1], pos);
+				} else {
+					ar[i] = Vertex.createVertexPositionIndex(verticies[pos - 1], pos);
 				}
 			}
+			faces.add(new MeshFace(ar[2], ar[1], ar[0]));
 		}
 
 		return new BaseMesh(faces, normal, color, texture0, true);
 	}
 
 	@Override
-	public BaseMesh load(InputStream in) {
-		return MeshLoader.loadObj(in);
+	public void writeParsed(ObjData parsed, DataOutputStream out) throws IOException {
+		parsed.write(out);
+	}
+
+	@Override
+	public ObjData readParsed(DataInputStream in) throws IOException {
+		return ObjData.read(in);
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return true;
 	}
 }
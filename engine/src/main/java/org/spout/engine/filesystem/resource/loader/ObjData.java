@@ -0,0 +1,278 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.filesystem.resource.loader;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Scanner;
+
+import gnu.trove.list.array.TByteArrayList;
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.list.array.TIntArrayList;
+
+import org.spout.api.math.Vector2;
+import org.spout.api.math.Vector3;
+
+/**
+ * The parsed contents of a triangulated .obj file, kept as flat primitive arrays so it can be written to and read back from the parse cache without reparsing the text.<br> Indices are 1-based as in
+ * the source file, 0 marks a missing texture or normal reference.
+ */
+public final class ObjData {
+	public static final int TOP = 1;
+	public static final int BOTTOM = 2;
+	public static final int NORTH = 4;
+	public static final int SOUTH = 8;
+	public static final int WEST = 16;
+	public static final int EAST = 32;
+	private static final int CORNER_SIZE = 3;
+	private static final int FACE_SIZE = CORNER_SIZE * 3;
+	private final float[] positions;
+	private final float[] normals;
+	private final float[] uvs;
+	private final int[] faces;
+	private final byte[] faceFlags;
+
+	private ObjData(float[] positions, float[] normals, float[] uvs, int[] faces, byte[] faceFlags) {
+		this.positions = positions;
+		this.normals = normals;
+		this.uvs = uvs;
+		this.faces = faces;
+		this.faceFlags = faceFlags;
+	}
+
+	/**
+	 * Parses an .obj stream.
+	 *
+	 * @param stream the stream to parse
+	 * @param rejectPolygons true to fail on faces with more than three corners instead of ignoring the extra corners
+	 * @return the parsed data
+	 */
+	public static ObjData parse(InputStream stream, boolean rejectPolygons) {
+		TFloatArrayList positions = new TFloatArrayList();
+		TFloatArrayList normals = new TFloatArrayList();
+		TFloatArrayList uvs = new TFloatArrayList();
+		TIntArrayList faces = new TIntArrayList();
+		TByteArrayList faceFlags = new TByteArrayList();
+		try (Scanner scan = new Scanner(stream)) {
+			while (scan.hasNext()) {
+				String s = scan.nextLine();
+				if (s.startsWith("#")) {
+					continue; // it's a comment, skip it
+				}
+				if (s.startsWith("v ")) { // Space is important !!
+					String[] sp = s.split(" ");
+					positions.add(Float.parseFloat(sp[1]));
+					positions.add(Float.parseFloat(sp[2]));
+					positions.add(Float.parseFloat(sp[3]));
+				} else if (s.startsWith("vn ")) {
+					String[] sp = s.split(" ");
+					normals.add(Float.parseFloat(sp[1]));
+					normals.add(Float.parseFloat(sp[2]));
+					normals.add(Float.parseFloat(sp[3]));
+				} else if (s.startsWith("vt ")) {
+					String[] sp = s.split(" ");
+					uvs.add(Float.parseFloat(sp[1]));
+					uvs.add(1 - Float.parseFloat(sp[2]));
+				} else if (s.startsWith("f ")) {
+					String[] sp = s.split(" ");
+					if (rejectPolygons && sp.length > 4) {
+						throw new RuntimeException(".obj files must be triangulated.  Re-export the mesh with triangles, not quads");
+					}
+					faceFlags.add(sp.length > 2 ? parseFlags(sp[2]) : 0);
+					for (int i = 1; i <= 3; i++) {
+						parseCorner(sp[i], faces);
+					}
+				}
+			}
+		}
+		return new ObjData(positions.toArray(), normals.toArray(), uvs.toArray(), faces.toArray(), faceFlags.toArray());
+	}
+
+	private static void parseCorner(String corner, TIntArrayList faces) {
+		int pos, uv = 0, norm = 0;
+		if (corner.contains("//")) {
+			String[] sn = corner.split("//");
+			pos = Integer.parseInt(sn[0]);
+			norm = Integer.parseInt(sn[1]);
+		} else if (corner.contains("/")) {
+			String[] sn = corner.split("/");
+			pos = Integer.parseInt(sn[0]);
+			uv = Integer.parseInt(sn[1]);
+			if (sn.length > 2) {
+				norm = Integer.parseInt(sn[2]);
+			}
+		} else {
+			pos = Integer.parseInt(corner);
+		}
+		faces.add(pos);
+		faces.add(uv);
+		faces.add(norm);
+	}
+
+	private static byte parseFlags(String token) {
+		int flags = 0;
+		for (int i = 0; i < token.length(); i++) {
+			switch (token.charAt(i)) {
+				case 'T':
+					flags |= TOP;
+					break;
+				case 'B':
+					flags |= BOTTOM;
+					break;
+				case 'N':
+					flags |= NORTH;
+					break;
+				case 'S':
+					flags |= SOUTH;
+					break;
+				case 'W':
+					flags |= WEST;
+					break;
+				case 'E':
+					flags |= EAST;
+					break;
+				default:
+					break;
+			}
+		}
+		return (byte) flags;
+	}
+
+	public int getFaceCount() {
+		return faceFlags.length;
+	}
+
+	/**
+	 * Gets the face flags parsed from the second token of the face line, a combination of {@link #TOP}, {@link #BOTTOM}, {@link #NORTH}, {@link #SOUTH}, {@link #WEST} and {@link #EAST}
+	 *
+	 * @param face the face index
+	 * @return the flags, or 0 if none were given
+	 */
+	public int getFaceFlags(int face) {
+		return faceFlags[face];
+	}
+
+	public int getPositionIndex(int face, int corner) {
+		return faces[face * FACE_SIZE + corner * CORNER_SIZE];
+	}
+
+	public int getUvIndex(int face, int corner) {
+		return faces[face * FACE_SIZE + corner * CORNER_SIZE + 1];
+	}
+
+	public int getNormalIndex(int face, int corner) {
+		return faces[face * FACE_SIZE + corner * CORNER_SIZE + 2];
+	}
+
+	public Vector3[] createPositions() {
+		return createVectors(positions);
+	}
+
+	public Vector3[] createNormals() {
+		return createVectors(normals);
+	}
+
+	public Vector2[] createUvs() {
+		Vector2[] vectors = new Vector2[uvs.length / 2];
+		for (int i = 0; i < vectors.length; i++) {
+			vectors[i] = new Vector2(uvs[i * 2], uvs[i * 2 + 1]);
+		}
+		return vectors;
+	}
+
+	private static Vector3[] createVectors(float[] values) {
+		Vector3[] vectors = new Vector3[values.length / 3];
+		for (int i = 0; i < vectors.length; i++) {
+			vectors[i] = new Vector3(values[i * 3], values[i * 3 + 1], values[i * 3 + 2]);
+		}
+		return vectors;
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		writeFloats(positions, out);
+		writeFloats(normals, out);
+		writeFloats(uvs, out);
+		out.writeInt(faceFlags.length);
+		out.write(faceFlags);
+		for (int i = 0; i < faces.length; i++) {
+			out.writeInt(faces[i]);
+		}
+	}
+
+	public static ObjData read(DataInputStream in) throws IOException {
+		float[] positions = readFloats(in);
+		float[] normals = readFloats(in);
+		float[] uvs = readFloats(in);
+		int faceCount = in.readInt();
+		if (faceCount < 0) {
+			throw new IOException("Negative face count " + faceCount);
+		}
+		byte[] faceFlags = new byte[faceCount];
+		in.readFully(faceFlags);
+		int[] faces = new int[faceCount * FACE_SIZE];
+		for (int i = 0; i < faces.length; i++) {
+			faces[i] = in.readInt();
+		}
+		return new ObjData(positions, normals, uvs, faces, faceFlags);
+	}
+
+	private static void writeFloats(float[] values, DataOutputStream out) throws IOException {
+		out.writeInt(values.length);
+		for (int i = 0; i < values.length; i++) {
+			out.writeFloat(values[i]);
+		}
+	}
+
+	private static float[] readFloats(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Negative array length " + length);
+		}
+		float[] values = new float[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = in.readFloat();
+		}
+		return values;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof ObjData)) {
+			return false;
+		}
+		ObjData other = (ObjData) obj;
+		return Arrays.equals(positions, other.positions) && Arrays.equals(normals, other.normals) && Arrays.equals(uvs, other.uvs) && Arrays.equals(faces, other.faces) && Arrays.equals(faceFlags, other.faceFlags);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(faces) * 31 + Arrays.hashCode(positions);
+	}
+}
@@ -110,4 +110,14 @@ public class SkeletonLoader extends ResourceLoader {
 	public Skeleton load(InputStream in) {
 		return SkeletonLoader.loadObj(in);
 	}
+
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
+	@Override
+	public boolean isEvictable() {
+		return true;
+	}
 }
@@ -26,9 +26,11 @@
  */
 package org.spout.engine.filesystem.versioned;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -40,6 +42,8 @@ import org.spout.api.Spout;
 import org.spout.api.component.BlockComponentOwner;
 import org.spout.api.component.Component;
 import org.spout.api.datatable.ManagedHashMap;
+import org.spout.api.entity.EntitySnapshot;
+import org.spout.api.entity.PlayerSnapshot;
 import org.spout.api.geo.cuboid.ChunkSnapshot.BlockComponentSnapshot;
 import org.spout.api.lighting.LightingManager;
 import org.spout.api.lighting.LightingRegistry;
@@ -74,10 +78,27 @@ import org.spout.nbt.stream.NBTOutputStream;
 import org.spout.nbt.util.NBTMapper;
 
 public class ChunkFiles {
-	public static final byte CHUNK_VERSION = 5;
+	public static final byte CHUNK_VERSION = 6;
+	private static final byte TAG_END = 0;
+	private static final byte TAG_LIST = 9;
+	private static final byte TAG_COMPOUND = 10;
 	private static final TypeChecker<List<? extends CompoundTag>> checkerListCompoundTag = TypeChecker.tList(CompoundTag.class);
 
 	public static SpoutChunk loadChunk(SpoutRegion r, int x, int y, int z, InputStream dis, ChunkDataForRegion dataForRegion) {
+		SpoutChunk chunk = readChunk(r, x, y, z, dis, dataForRegion);
+		if (chunk != null) {
+			finishChunk(chunk, dataForRegion);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Decodes the blocks, lighting and dynamic updates of a chunk.  This does not touch the world, so it may run off the region thread.  The entities and block components are only parsed into
+	 * {@code dataForRegion}, {@link #finishChunk(SpoutChunk, ChunkDataForRegion)} must be called on the region thread to load them.
+	 *
+	 * @return the chunk, or null if there was no chunk data or it could not be read
+	 */
+	public static SpoutChunk readChunk(SpoutRegion r, int x, int y, int z, InputStream dis, ChunkDataForRegion dataForRegion) {
 		if (Spout.getPlatform() != Platform.SERVER) {
 			throw new UnsupportedOperationException("Unable to load chunk in client mode");
 		}
@@ -119,9 +140,12 @@ public class ChunkFiles {
 				if (version <= 4) {
 					map = convertV4V5(map);
 				}
+				if (version <= 5) {
+					map = convertV5V6(map);
+				}
 			}
 
-			chunk = loadChunk(r, x, y, z, dataForRegion, map, version);
+			chunk = readChunk(r, x, y, z, dataForRegion, map);
 			if (converted) {
 				chunk.setModified();
 			}
@@ -139,6 +163,12 @@ public class ChunkFiles {
 	}
 
 	public static SpoutChunk loadChunk(SpoutRegion r, int x, int y, int z, ChunkDataForRegion dataForRegion, CompoundMap map, int version) throws IOException {
+		SpoutChunk chunk = readChunk(r, x, y, z, dataForRegion, map);
+		finishChunk(chunk, dataForRegion);
+		return chunk;
+	}
+
+	private static SpoutChunk readChunk(SpoutRegion r, int x, int y, int z, ChunkDataForRegion dataForRegion, CompoundMap map) throws IOException {
 		if (Spout.getPlatform() != Platform.SERVER) {
 			throw new UnsupportedOperationException("Unable to load chunk in client mode");
 		}
@@ -176,13 +206,13 @@ public class ChunkFiles {
 		}
 		chunk = new SpoutChunk(r.getWorld(), r, cx, cy, cz, PopulationState.byID(populationState), palette, blockArrayWidth, variableWidthBlockArray, extraDataMap, lightStable);
 
-		CompoundMap entityMap = SafeCast.toGeneric(NBTMapper.toTagValue(map.get("entities")), null, CompoundMap.class);
-		EntityFiles.loadEntities(r, entityMap, dataForRegion.loadedEntities);
+		dataForRegion.entityMap = SafeCast.toGeneric(NBTMapper.toTagValue(map.get("entities")), null, CompoundMap.class);
 
 		List<? extends CompoundTag> updateList = checkerListCompoundTag.checkTag(map.get("dynamic_updates"));
 		loadDynamicUpdates(updateList, dataForRegion.loadedUpdates);
 
-		List<? extends CompoundTag> componentsList = checkerListCompoundTag.checkTag(map.get("block_components"), null);
+		dataForRegion.blockComponents = checkerListCompoundTag.checkTag(map.get("block_components"), null);
+		dataForRegion.skipComponentScan = skipScan;
 
 		CompoundMap lightingMap = SafeCast.toGeneric(NBTMapper.toTagValue(map.get("light_buffers")), null, CompoundMap.class);
 		StringToUniqueIntegerMap worldMap = world.getLightingMap();
@@ -191,27 +221,38 @@ public class ChunkFiles {
 		loadLightingBuffers(lightingManagers, lightingData, lightingMap, worldMap);
 
 		chunk.addLightingBufferData(lightingManagers, lightingData);
+		return chunk;
+	}
+
+	/**
+	 * Loads the entities and block components of a chunk decoded by {@link #readChunk(SpoutRegion, int, int, int, InputStream, ChunkDataForRegion)}.  This must run on the region thread.
+	 *
+	 * @param chunk the chunk
+	 * @param dataForRegion the data read with the chunk
+	 */
+	public static void finishChunk(SpoutChunk chunk, ChunkDataForRegion dataForRegion) {
+		EntityFiles.loadEntities(chunk.getRegion(), dataForRegion.entityMap, dataForRegion.loadedEntities);
+		dataForRegion.entityMap = null;
 
 		//Load Block components
 		//This is a three-part process
 		//1.) Scan the blocks and add them to the chunk map
 		//2.) Load the datatables associated with the block components
 		//3.) Attach the components
-		if (!skipScan) {
+		if (!dataForRegion.skipComponentScan) {
 			chunk.blockComponentScan();
 		}
 		//Load data associated with block components
-		loadBlockComponents(chunk, componentsList);
+		loadBlockComponents(chunk, dataForRegion.blockComponents);
+		dataForRegion.blockComponents = null;
 		//Attach block components
 		chunk.getBlockComponentOwners().forEachEntry(new AttachComponentProcedure());
-		return chunk;
 	}
 
 	public static void saveChunk(SpoutServerWorld world, SpoutChunkSnapshot snapshot, List<DynamicBlockUpdate> blockUpdates, OutputStream dos) {
 		if (Spout.getPlatform() != Platform.SERVER) {
 			throw new UnsupportedOperationException("Unable to save chunk in client mode");
 		}
-		CompoundMap chunkTags = new CompoundMap();
 
 		//Switch block ids from engine material ids to world specific ids
 		StringToUniqueIntegerMap global = ((SpoutServer) Spout.getEngine()).getEngineItemMap();
@@ -229,28 +270,28 @@ public class ChunkFiles {
 			convertArray(packetBlockArray, global, itemMap);
 		}
 
-		chunkTags.put(new ByteTag("version", CHUNK_VERSION));
-		chunkTags.put(new ByteTag("format", (byte) 0));
-		chunkTags.put(new IntTag("x", snapshot.getX()));
-		chunkTags.put(new IntTag("y", snapshot.getY()));
-		chunkTags.put(new IntTag("z", snapshot.getZ()));
-		chunkTags.put(new ByteTag("populationState", snapshot.getPopulationState().getId()));
-		chunkTags.put(new IntArrayTag("palette", palette));
-		chunkTags.put(new IntTag("packedWidth", packedWidth));
-		chunkTags.put(new IntArrayTag("packedBlockArray", packetBlockArray));
-		chunkTags.put(new CompoundTag("entities", EntityFiles.saveEntities(snapshot.getEntities())));
-		chunkTags.put(saveDynamicUpdates(blockUpdates));
-		chunkTags.put(saveBlockComponents(snapshot.getBlockComponents()));
-		chunkTags.put(new ByteArrayTag("extraData", snapshot.getDataMap().serialize()));
-		chunkTags.put(saveLightingBuffers(lightingMap, snapshot.getLightBuffers()));
-
-		CompoundTag chunkCompound = new CompoundTag("chunk", chunkTags);
-
-		NBTOutputStream os = null;
+		// The chunk compound is streamed tag by tag, rather than built as a single tree, so that only one entity or update is held in memory at a time
 		try {
-			os = new NBTOutputStream(dos, false);
-			os.writeTag(chunkCompound);
-			os.flush();
+			DataOutputStream out = new DataOutputStream(dos);
+			NBTOutputStream os = new NBTOutputStream(out, false);
+
+			writeTagHeader(out, TAG_COMPOUND, "chunk");
+			os.writeTag(new ByteTag("version", CHUNK_VERSION));
+			os.writeTag(new ByteTag("format", (byte) 0));
+			os.writeTag(new IntTag("x", snapshot.getX()));
+			os.writeTag(new IntTag("y", snapshot.getY()));
+			os.writeTag(new IntTag("z", snapshot.getZ()));
+			os.writeTag(new ByteTag("populationState", snapshot.getPopulationState().getId()));
+			os.writeTag(new IntArrayTag("palette", palette));
+			os.writeTag(new IntTag("packedWidth", packedWidth));
+			os.writeTag(new IntArrayTag("packedBlockArray", packetBlockArray));
+			writeEntities(out, os, snapshot.getEntities());
+			writeDynamicUpdates(out, os, blockUpdates);
+			os.writeTag(saveBlockComponents(snapshot.getBlockComponents()));
+			os.writeTag(new ByteArrayTag("extraData", snapshot.getDataMap().serialize()));
+			writeLightingBuffers(out, os, lightingMap, snapshot.getLightBuffers());
+			out.writeByte(TAG_END);
+			out.flush();
 		} catch (IOException e) {
 			Spout.getLogger().log(Level.SEVERE, "Error saving chunk {" + snapshot.getX() + ", " + snapshot.getY() + ", " + snapshot + "}", e);
 		}
@@ -259,6 +300,55 @@ public class ChunkFiles {
 		world.getLightingMap().save();
 	}
 
+	/**
+	 * Writes the type and name of a tag, without its payload
+	 */
+	private static void writeTagHeader(DataOutputStream out, int type, String name) throws IOException {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		out.writeByte(type);
+		out.writeShort(nameBytes.length);
+		out.write(nameBytes);
+	}
+
+	private static void writeEntities(DataOutputStream out, NBTOutputStream os, List<EntitySnapshot> entities) throws IOException {
+		writeTagHeader(out, TAG_COMPOUND, "entities");
+		for (EntitySnapshot e : entities) {
+			//Players are saved elsewhere
+			if (!(e instanceof PlayerSnapshot)) {
+				Tag<?> tag = EntityFiles.saveEntity(e);
+				if (tag != null) {
+					os.writeTag(tag);
+				}
+			}
+		}
+		out.writeByte(TAG_END);
+	}
+
+	private static void writeDynamicUpdates(DataOutputStream out, NBTOutputStream os, List<DynamicBlockUpdate> updates) throws IOException {
+		writeTagHeader(out, TAG_LIST, "dynamic_updates");
+		out.writeByte(TAG_COMPOUND);
+		out.writeInt(updates.size());
+		for (DynamicBlockUpdate update : updates) {
+			// List elements are unnamed, so only the payload of each compound is written
+			os.writeTag(new IntTag("packedPosition", update.getPacked()));
+			os.writeTag(new LongTag("nextUpdate", update.getNextUpdate()));
+			os.writeTag(new IntTag("data", update.getData()));
+			out.writeByte(TAG_END);
+		}
+	}
+
+	private static void writeLightingBuffers(DataOutputStream out, NBTOutputStream os, StringToUniqueIntegerMap worldLighting, CuboidLightBuffer[] buffers) throws IOException {
+		StringToUniqueIntegerMap globalLighting = ((SpoutServer) Spout.getEngine()).getEngineLightingMap();
+
+		writeTagHeader(out, TAG_COMPOUND, "light_buffers");
+		for (int i = 0; i < buffers.length; i++) {
+			CuboidLightBuffer buffer = buffers[i];
+			int worldId = globalLighting.convertTo(worldLighting, buffer.getManagerId());
+			os.writeTag(saveLightingBuffer(worldId, buffer));
+		}
+		out.writeByte(TAG_END);
+	}
+
 	private static void convertArray(int[] fullState, StringToUniqueIntegerMap from, StringToUniqueIntegerMap to) {
 		for (int i = 0; i < fullState.length; i++) {
 			short newId = (short) from.convertTo(to, BlockFullState.getId(fullState[i]));
@@ -326,29 +416,6 @@ public class ChunkFiles {
 		return new ListTag<>("block_components", CompoundTag.class, list);
 	}
 
-	private static ListTag<CompoundTag> saveDynamicUpdates(List<DynamicBlockUpdate> updates) {
-		List<CompoundTag> list = new ArrayList<>(updates.size());
-
-		for (DynamicBlockUpdate update : updates) {
-			CompoundTag tag = saveDynamicUpdate(update);
-			if (tag != null) {
-				list.add(tag);
-			}
-		}
-
-		return new ListTag<>("dynamic_updates", CompoundTag.class, list);
-	}
-
-	private static CompoundTag saveDynamicUpdate(DynamicBlockUpdate update) {
-		CompoundMap map = new CompoundMap();
-
-		map.put(new IntTag("packedPosition", update.getPacked()));
-		map.put(new LongTag("nextUpdate", update.getNextUpdate()));
-		map.put(new IntTag("data", update.getData()));
-
-		return new CompoundTag("update", map);
-	}
-
 	private static void loadDynamicUpdates(List<? extends CompoundTag> list, List<DynamicBlockUpdate> loadedUpdates) {
 		if (list == null) {
 			return;
@@ -393,20 +460,6 @@ public class ChunkFiles {
 		}
 	}
 
-	private static CompoundTag saveLightingBuffers(StringToUniqueIntegerMap worldLighting, CuboidLightBuffer[] buffers) {
-		StringToUniqueIntegerMap globalLighting = ((SpoutServer) Spout.getEngine()).getEngineLightingMap();
-
-		CompoundMap map = new CompoundMap();
-
-		for (int i = 0; i < buffers.length; i++) {
-			CuboidLightBuffer buffer = buffers[i];
-			int worldId = globalLighting.convertTo(worldLighting, buffer.getManagerId());
-			map.put(saveLightingBuffer(worldId, buffer));
-		}
-
-		return new CompoundTag("light_buffers", map);
-	}
-
 	private static CompoundTag saveLightingBuffer(int worldId, CuboidLightBuffer buffer) {
 		CompoundMap map = new CompoundMap();
 		map.put(new IntTag("manager_id", worldId));
@@ -610,4 +663,14 @@ public class ChunkFiles {
 	private static CompoundMap convertV4V5(CompoundMap map) {
 		return map;
 	}
+
+	/**
+	 * Version 5 to version 6 conversion
+	 *
+	 * Light buffers may be stored in uniform or sparse form.  Version 5 light data is always a dense array of half the buffer volume, buffers check for that length before the compact forms, so
+	 * version 5 data is read unchanged and no conversion needed.  The chunk is saved in the new format, as converted chunks are marked as modified.
+	 */
+	private static CompoundMap convertV5V6(CompoundMap map) {
+		return map;
+	}
 }
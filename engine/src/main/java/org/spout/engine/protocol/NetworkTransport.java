@@ -0,0 +1,196 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.protocol;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+
+import org.spout.api.Spout;
+import org.spout.engine.SpoutConfiguration;
+import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
+
+/**
+ * The Netty transport used for the server and client channels.<br>
+ * <br>
+ * The native epoll transport is only used on Linux when <code>netty-transport-native-epoll</code> is on the class path, it is looked up by name so the engine does not depend on it.
+ * Buffers come from a single allocator shared by every channel, pooled and direct by default, see {@link SpoutConfiguration#NETWORK_POOLED_BUFFERS}.
+ */
+public enum NetworkTransport {
+	NIO("io.netty.channel.nio.NioEventLoopGroup", "io.netty.channel.socket.nio.NioServerSocketChannel", "io.netty.channel.socket.nio.NioSocketChannel"),
+	EPOLL("io.netty.channel.epoll.EpollEventLoopGroup", "io.netty.channel.epoll.EpollServerSocketChannel", "io.netty.channel.epoll.EpollSocketChannel");
+	private static final AtomicReference<ByteBufAllocator> allocator = new AtomicReference<>();
+	private final Class<?> eventLoopGroupClass;
+	private final Class<?> serverChannelClass;
+	private final Class<?> channelClass;
+
+	private NetworkTransport(String eventLoopGroupClass, String serverChannelClass, String channelClass) {
+		this.eventLoopGroupClass = load(eventLoopGroupClass);
+		this.serverChannelClass = load(serverChannelClass);
+		this.channelClass = load(channelClass);
+	}
+
+	/**
+	 * Gets if this transport can be used on this machine
+	 *
+	 * @return true if the transport is available
+	 */
+	public boolean isAvailable() {
+		if (eventLoopGroupClass == null || serverChannelClass == null || channelClass == null) {
+			return false;
+		}
+		if (this == EPOLL) {
+			if (!System.getProperty("os.name", "").toLowerCase().contains("linux")) {
+				return false;
+			}
+			Class<?> epoll = load("io.netty.channel.epoll.Epoll");
+			if (epoll != null) {
+				try {
+					Method isAvailable = epoll.getMethod("isAvailable");
+					return (Boolean) isAvailable.invoke(null);
+				} catch (ReflectiveOperationException | LinkageError e) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates an event loop group for this transport
+	 *
+	 * @param threads the number of threads, 0 for the Netty default
+	 * @param name the name prefix of the threads
+	 * @return the event loop group
+	 */
+	public EventLoopGroup newEventLoopGroup(int threads, String name) {
+		try {
+			Constructor<?> constructor = eventLoopGroupClass.getConstructor(int.class, ThreadFactory.class);
+			return (EventLoopGroup) constructor.newInstance(threads, new NamedThreadFactory(name));
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("Unable to create the " + this + " event loop group", e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to create the " + this + " event loop group", e);
+		}
+	}
+
+	/**
+	 * Sets the channel type and options of a server bootstrap
+	 *
+	 * @param bootstrap the bootstrap
+	 * @return the bootstrap
+	 */
+	@SuppressWarnings ("unchecked")
+	public ServerBootstrap configure(ServerBootstrap bootstrap) {
+		bootstrap.channel((Class<? extends ServerChannel>) serverChannelClass);
+		bootstrap.option(ChannelOption.ALLOCATOR, getAllocator());
+		bootstrap.childOption(ChannelOption.ALLOCATOR, getAllocator());
+		bootstrap.childOption(ChannelOption.TCP_NODELAY, true);
+		bootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
+		bootstrap.childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, SpoutConfiguration.WRITE_BUFFER_HIGH_WATER_MARK.getInt());
+		bootstrap.childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, SpoutConfiguration.WRITE_BUFFER_LOW_WATER_MARK.getInt());
+		return bootstrap;
+	}
+
+	/**
+	 * Sets the channel type and options of a client bootstrap
+	 *
+	 * @param bootstrap the bootstrap
+	 * @return the bootstrap
+	 */
+	@SuppressWarnings ("unchecked")
+	public Bootstrap configure(Bootstrap bootstrap) {
+		bootstrap.channel((Class<? extends Channel>) channelClass);
+		bootstrap.option(ChannelOption.ALLOCATOR, getAllocator());
+		bootstrap.option(ChannelOption.TCP_NODELAY, true);
+		bootstrap.option(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, SpoutConfiguration.WRITE_BUFFER_HIGH_WATER_MARK.getInt());
+		bootstrap.option(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, SpoutConfiguration.WRITE_BUFFER_LOW_WATER_MARK.getInt());
+		return bootstrap;
+	}
+
+	/**
+	 * Gets the transport selected by {@link SpoutConfiguration#NETWORK_TRANSPORT}. "auto" picks epoll if it is available and NIO otherwise.
+	 *
+	 * @return the transport
+	 */
+	public static NetworkTransport getConfigured() {
+		String name = SpoutConfiguration.NETWORK_TRANSPORT.getString().toUpperCase();
+		if (!name.equals("AUTO")) {
+			try {
+				NetworkTransport transport = valueOf(name);
+				if (transport.isAvailable()) {
+					return transport;
+				}
+				Spout.getLogger().warning("The " + transport + " network transport is not available, falling back to auto selection");
+			} catch (IllegalArgumentException e) {
+				Spout.getLogger().warning("Unknown network transport " + name + ", falling back to auto selection");
+			}
+		}
+		return EPOLL.isAvailable() ? EPOLL : NIO;
+	}
+
+	/**
+	 * Gets the allocator shared by all channels
+	 *
+	 * @return the allocator
+	 */
+	public static ByteBufAllocator getAllocator() {
+		ByteBufAllocator alloc = allocator.get();
+		if (alloc == null) {
+			boolean direct = SpoutConfiguration.NETWORK_DIRECT_BUFFERS.getBoolean();
+			if (SpoutConfiguration.NETWORK_POOLED_BUFFERS.getBoolean()) {
+				alloc = new PooledByteBufAllocator(direct);
+			} else {
+				alloc = new UnpooledByteBufAllocator(direct);
+			}
+			if (!allocator.compareAndSet(null, alloc)) {
+				alloc = allocator.get();
+			}
+		}
+		return alloc;
+	}
+
+	private static Class<?> load(String name) {
+		try {
+			return Class.forName(name, false, NetworkTransport.class.getClassLoader());
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+}
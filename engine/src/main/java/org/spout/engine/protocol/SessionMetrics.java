@@ -0,0 +1,152 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.protocol;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.spout.api.protocol.Message;
+
+/**
+ * Counts the inbound messages handled each tick and the time spent in the handler for each message type.<br>
+ * Handlers are recorded from the session pulse threads, {@link #endTick(long)} is called once the pulse is complete.
+ */
+public class SessionMetrics {
+	private final ConcurrentMap<Class<? extends Message>, HandlerStats> handlers = new ConcurrentHashMap<>();
+	private final AtomicInteger handled = new AtomicInteger();
+	private final AtomicInteger deferred = new AtomicInteger();
+	private volatile int handledLastTick;
+	private volatile int deferredLastTick;
+	private volatile long pulseTimeLastTick;
+
+	/**
+	 * Records that a message was handled
+	 *
+	 * @param type the message class
+	 * @param nanos the time spent in the handler
+	 */
+	public void record(Class<? extends Message> type, long nanos) {
+		HandlerStats stats = handlers.get(type);
+		if (stats == null) {
+			stats = new HandlerStats();
+			HandlerStats old = handlers.putIfAbsent(type, stats);
+			if (old != null) {
+				stats = old;
+			}
+		}
+		stats.count.incrementAndGet();
+		stats.nanos.addAndGet(nanos);
+		handled.incrementAndGet();
+	}
+
+	/**
+	 * Records that a session reached its message budget and left messages queued for the next tick
+	 */
+	public void recordDeferred() {
+		deferred.incrementAndGet();
+	}
+
+	/**
+	 * Ends the current tick
+	 *
+	 * @param nanos the time taken by the whole session pulse
+	 */
+	public void endTick(long nanos) {
+		handledLastTick = handled.getAndSet(0);
+		deferredLastTick = deferred.getAndSet(0);
+		pulseTimeLastTick = nanos;
+	}
+
+	/**
+	 * Gets the number of messages handled during the last tick
+	 *
+	 * @return the number of messages
+	 */
+	public int getHandledLastTick() {
+		return handledLastTick;
+	}
+
+	/**
+	 * Gets the number of sessions that had messages left over at the end of the last tick
+	 *
+	 * @return the number of sessions
+	 */
+	public int getDeferredLastTick() {
+		return deferredLastTick;
+	}
+
+	/**
+	 * Gets the wall time of the last session pulse, in nanoseconds
+	 *
+	 * @return the pulse time
+	 */
+	public long getPulseTimeLastTick() {
+		return pulseTimeLastTick;
+	}
+
+	/**
+	 * Gets the total time spent in the handler for each message type since the last reset, in nanoseconds
+	 *
+	 * @return a map of message class to handler time
+	 */
+	public Map<Class<? extends Message>, Long> getHandlerTimes() {
+		Map<Class<? extends Message>, Long> times = new HashMap<>();
+		for (Map.Entry<Class<? extends Message>, HandlerStats> e : handlers.entrySet()) {
+			times.put(e.getKey(), e.getValue().nanos.get());
+		}
+		return times;
+	}
+
+	/**
+	 * Gets the number of messages handled for each message type since the last reset
+	 *
+	 * @return a map of message class to message count
+	 */
+	public Map<Class<? extends Message>, Long> getHandlerCounts() {
+		Map<Class<? extends Message>, Long> counts = new HashMap<>();
+		for (Map.Entry<Class<? extends Message>, HandlerStats> e : handlers.entrySet()) {
+			counts.put(e.getKey(), e.getValue().count.get());
+		}
+		return counts;
+	}
+
+	/**
+	 * Clears the per message type totals
+	 */
+	public void reset() {
+		handlers.clear();
+	}
+
+	private static class HandlerStats {
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong nanos = new AtomicLong();
+	}
+}
@@ -28,7 +28,6 @@ package org.spout.engine.protocol;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -70,9 +69,9 @@ public abstract class SpoutSession<T extends SpoutEngine> implements Session {
     private final AtomicReference<NetworkSendThread> networkSendThread = new AtomicReference<>();
 
     /**
-	 * A queue of incoming and unprocessed messages
+	 * A queue of incoming and unprocessed messages, written by the network threads and drained by the session pulse
 	 */
-    private final Queue<Message> messageQueue = new ArrayDeque<>();
+    private final Queue<Message> messageQueue = new ConcurrentLinkedQueue<>();
 
     /**
 	 * A queue of outgoing messages that will be sent after the client finishes identification
@@ -194,6 +193,17 @@ public abstract class SpoutSession<T extends SpoutEngine> implements Session {
     private long spikeEnd = 0;
 
     public void pulse() {
+        pulse(Integer.MAX_VALUE, null);
+    }
+
+    /**
+	 * Sends any queued outgoing messages and handles up to {@code budget} incoming messages. Messages over the budget are left queued for the next pulse.
+	 *
+	 * @param budget the maximum number of messages to handle
+	 * @param metrics the metrics to record handler times to, or null
+	 * @return true if messages were left queued because the budget was reached
+	 */
+    public boolean pulse(int budget, SessionMetrics metrics) {
         pulseThread.run();
         Message message;
         if (state == State.GAME) {
@@ -204,21 +214,66 @@ public abstract class SpoutSession<T extends SpoutEngine> implements Session {
         if (fakeLatency) {
             long currentTime = System.currentTimeMillis();
             if (currentTime < spikeEnd) {
-                return;
+                return false;
             }
             if (random.nextFloat() < spikeChance) {
                 long spike = (long) (spikeLatency * random.nextFloat());
                 spikeEnd = currentTime + spike;
             }
         }
-        while ((message = messageQueue.poll()) != null) {
-            handleMessage(message);
+        for (int handled = 0; handled < budget; handled++) {
+            if ((message = messageQueue.poll()) == null) {
+                return false;
+            }
+            handleMessage(message, getHandler(message), metrics);
         }
+        return !messageQueue.isEmpty();
+    }
+
+    /**
+	 * Handles queued messages from the head of the queue for as long as their handlers are {@link MessageHandler#isRegionAffine() region-affine}, up to {@code budget} messages. This stops at the
+	 * first message that must be handled on the main thread, so messages are still handled in the order they were received.<br>
+	 * <br>
+	 * This is called on the session pulse thread of the player's region, before {@link #pulse(int, SessionMetrics)} handles the rest of the queue on the main thread.
+	 *
+	 * @param budget the maximum number of messages to handle
+	 * @param metrics the metrics to record handler times to, or null
+	 * @return the number of messages handled
+	 */
+    public int pulseRegionAffine(int budget, SessionMetrics metrics) {
+        if (fakeLatency && System.currentTimeMillis() < spikeEnd) {
+            return 0;
+        }
+        int handled = 0;
+        Message message;
+        while (handled < budget && (message = messageQueue.peek()) != null) {
+            MessageHandler<Message> handler = getHandler(message);
+            if (handler == null || !handler.isRegionAffine()) {
+                break;
+            }
+            messageQueue.poll();
+            handleMessage(message, handler, metrics);
+            handled++;
+        }
+        return handled;
     }
 
     @SuppressWarnings(value = { "unchecked" })
-    private void handleMessage(Message message) {
-        MessageHandler<Message> handler = (MessageHandler<Message>) protocol.get().getHandlerLookupService().find(message.getClass());
+    private MessageHandler<Message> getHandler(Message message) {
+        return (MessageHandler<Message>) protocol.get().getHandlerLookupService().find(message.getClass());
+    }
+
+    private void handleMessage(Message message, MessageHandler<Message> handler, SessionMetrics metrics) {
+        if (metrics == null) {
+            handleMessage(message, handler);
+        } else {
+            long start = System.nanoTime();
+            handleMessage(message, handler);
+            metrics.record(message.getClass(), System.nanoTime() - start);
+        }
+    }
+
+    private void handleMessage(Message message, MessageHandler<Message> handler) {
         if (handler != null) {
             try {
                 handler.handle(this, message);
@@ -296,7 +351,7 @@ public abstract class SpoutSession<T extends SpoutEngine> implements Session {
     @Override
     public void messageReceived(Message message) {
         if (message.isAsync()) {
-            handleMessage(message);
+            handleMessage(message, getHandler(message));
         } else {
             messageQueue.add(message);
         }
@@ -26,27 +26,145 @@
  */
 package org.spout.engine.protocol;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 
+import org.spout.api.Spout;
+import org.spout.api.entity.Player;
+import org.spout.api.geo.cuboid.Region;
 import org.spout.api.protocol.Session;
 import org.spout.api.protocol.SessionRegistry;
+import org.spout.engine.SpoutConfiguration;
+import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
 
 /**
- * A list of all the sessions which provides a convenient {@link #pulse()} method to pulse every session in one operation.
+ * A list of all the sessions which provides a convenient {@link #pulse()} method to pulse every session in one operation.<br>
+ * <br>
+ * Sessions are pulsed serially on the main thread. When a session pulse pool is configured, with {@link SpoutConfiguration#SESSION_THREADS} above 1, messages with {@link org.spout.api.protocol.MessageHandler#isRegionAffine() region-affine} handlers
+ * at the head of each queue are handled first on the pool, with sessions grouped by the region their player is in. Each group is pulsed in order on a single pool thread, so handlers for
+ * players in the same region never run concurrently. Each session handles at most {@link SpoutConfiguration#SESSION_MESSAGE_BUDGET} messages per pulse.
  */
 public final class SpoutSessionRegistry implements SessionRegistry {
 	/**
 	 * A list of the sessions.
 	 */
 	private final ConcurrentMap<SpoutSession<?>, Boolean> sessions = new ConcurrentHashMap<>();
+	/**
+	 * Message and handler time metrics
+	 */
+	private final SessionMetrics metrics = new SessionMetrics();
+	/**
+	 * The pool that handles the region-affine messages of each region group, created on the first pulse, null if all messages are handled on the calling thread
+	 */
+	private ExecutorService pool;
+	private boolean poolChecked = false;
 
 	/**
 	 * Pulses all the sessions
 	 */
 	public void pulse() {
+		long start = System.nanoTime();
+		int budget = SpoutConfiguration.SESSION_MESSAGE_BUDGET.getInt();
+		if (budget <= 0) {
+			budget = Integer.MAX_VALUE;
+		}
+		Map<SpoutSession<?>, Integer> handled = Collections.emptyMap();
+		ExecutorService pool = getPool();
+		if (pool != null && sessions.size() > 1) {
+			handled = pulseRegionAffine(pool, budget);
+		}
 		for (SpoutSession<?> session : sessions.keySet()) {
-			session.pulse();
+			Integer used = handled.get(session);
+			if (session.pulse(used == null ? budget : budget - used, metrics)) {
+				metrics.recordDeferred();
+			}
+		}
+		metrics.endTick(System.nanoTime() - start);
+	}
+
+	/**
+	 * Handles the region-affine messages of the sessions with a player in a region, one pool task per region
+	 *
+	 * @return the number of messages handled for each session
+	 */
+	private Map<SpoutSession<?>, Integer> pulseRegionAffine(ExecutorService pool, int budget) {
+		Map<Region, SessionGroup> groups = new HashMap<>();
+		ConcurrentMap<SpoutSession<?>, Integer> handled = new ConcurrentHashMap<>();
+		for (SpoutSession<?> session : sessions.keySet()) {
+			Region region = getRegion(session);
+			if (region == null) {
+				continue;
+			}
+			SessionGroup group = groups.get(region);
+			if (group == null) {
+				group = new SessionGroup(budget, handled);
+				groups.put(region, group);
+			}
+			group.members.add(session);
+		}
+		if (groups.isEmpty()) {
+			return handled;
+		}
+		try {
+			for (Future<Void> f : pool.invokeAll(groups.values())) {
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					Spout.getLogger().log(Level.SEVERE, "Exception when pulsing sessions", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return handled;
+	}
+
+	private static Region getRegion(SpoutSession<?> session) {
+		if (session.getState() != Session.State.GAME) {
+			return null;
+		}
+		Player player = session.getPlayer();
+		return player == null ? null : player.getRegion();
+	}
+
+	private ExecutorService getPool() {
+		if (!poolChecked) {
+			poolChecked = true;
+			// 0 or 1 handles every message on the calling thread, the only region-affine handlers are too cheap to be worth handing off by default
+			int threads = SpoutConfiguration.SESSION_THREADS.getInt();
+			if (threads > 1) {
+				pool = Executors.newFixedThreadPool(threads, new NamedThreadFactory("Session Pulse", true));
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * Gets the inbound message metrics
+	 *
+	 * @return the metrics
+	 */
+	public SessionMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Shuts down the session pulse pool
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
 		}
 	}
 
@@ -77,4 +195,23 @@ public final class SpoutSessionRegistry implements SessionRegistry {
 			throw new IllegalArgumentException("This session registry can only handle SpoutSessions");
 		}
 	}
+
+	private class SessionGroup implements Callable<Void> {
+		private final List<SpoutSession<?>> members = new ArrayList<>();
+		private final int budget;
+		private final ConcurrentMap<SpoutSession<?>, Integer> handled;
+
+		public SessionGroup(int budget, ConcurrentMap<SpoutSession<?>, Integer> handled) {
+			this.budget = budget;
+			this.handled = handled;
+		}
+
+		@Override
+		public Void call() {
+			for (SpoutSession<?> session : members) {
+				handled.put(session, session.pulseRegionAffine(budget, metrics));
+			}
+			return null;
+		}
+	}
 }
@@ -57,6 +57,7 @@ import org.spout.engine.protocol.builtin.codec.CommandCodec;
 import org.spout.engine.protocol.builtin.codec.CuboidBlockUpdateCodec;
 import org.spout.engine.protocol.builtin.codec.EntityDatatableCodec;
 import org.spout.engine.protocol.builtin.codec.LoginCodec;
+import org.spout.engine.protocol.builtin.codec.MultiBlockUpdateCodec;
 import org.spout.engine.protocol.builtin.codec.ReadyCodec;
 import org.spout.engine.protocol.builtin.codec.SyncedMapCodec;
 import org.spout.engine.protocol.builtin.codec.UpdateEntityCodec;
@@ -70,6 +71,7 @@ import org.spout.engine.protocol.builtin.handler.CommandMessageHandler;
 import org.spout.engine.protocol.builtin.handler.CuboidBlockUpdateMessageHandler;
 import org.spout.engine.protocol.builtin.handler.EntityDatatableMessageHandler;
 import org.spout.engine.protocol.builtin.handler.LoginMessageHandler;
+import org.spout.engine.protocol.builtin.handler.MultiBlockUpdateMessageHandler;
 import org.spout.engine.protocol.builtin.handler.ReadyMessageHandler;
 import org.spout.engine.protocol.builtin.handler.SyncedMapMessageHandler;
 import org.spout.engine.protocol.builtin.handler.UpdateEntityMessageHandler;
@@ -83,7 +85,7 @@ import org.spout.engine.protocol.builtin.message.SyncedMapMessage;
  */
 public class SpoutProtocol extends Protocol {
 	public static final SpoutProtocol INSTANCE = new SpoutProtocol();
-	public static final int PROTOCOL_VERSION = 0;
+	public static final int PROTOCOL_VERSION = 1;
 	public static final int DEFAULT_PORT = 13756;
 
 	public SpoutProtocol() {
@@ -101,6 +103,7 @@ public class SpoutProtocol extends Protocol {
 		registerPacket(EntityDatatableCodec.class, new EntityDatatableMessageHandler());
 		registerPacket(UpdateEntityCodec.class, new UpdateEntityMessageHandler());
 		registerPacket(WorldChangeCodec.class, new WorldChangeMessageHandler());
+		registerPacket(MultiBlockUpdateCodec.class, new MultiBlockUpdateMessageHandler());
 	}
 
 	@Override
@@ -27,7 +27,7 @@
 package org.spout.engine.protocol.builtin.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.protocol.MessageCodec;
 import org.spout.engine.protocol.builtin.message.BlockUpdateMessage;
@@ -41,8 +41,8 @@ public class BlockUpdateCodec extends MessageCodec<BlockUpdateMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(BlockUpdateMessage message) {
-		ByteBuf buffer = Unpooled.buffer(17);
+	public ByteBuf encode(ByteBufAllocator alloc, BlockUpdateMessage message) {
+		ByteBuf buffer = alloc.buffer(17);
 		buffer.writeInt(message.getX());
 		buffer.writeInt(message.getY());
 		buffer.writeInt(message.getZ());
@@ -35,7 +35,7 @@ import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.Spout;
 import org.spout.api.geo.cuboid.Chunk;
@@ -56,10 +56,10 @@ public class ChunkDataCodec extends MessageCodec<ChunkDataMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(ChunkDataMessage message) throws IOException {
+	public ByteBuf encode(ByteBufAllocator alloc, ChunkDataMessage message) throws IOException {
 		final ByteBuf buffer;
 		if (message.isUnload()) {
-			buffer = Unpooled.buffer(13);
+			buffer = alloc.buffer(13);
 			buffer.writeByte(ISUNLOAD); // we're unloading
 			buffer.writeInt(message.getX());
 			buffer.writeInt(message.getY());
@@ -72,7 +72,11 @@ public class ChunkDataCodec extends MessageCodec<ChunkDataMessage> {
 			if (hasBiomes) {
 				dataSize += Chunk.BLOCKS.AREA;
 			}
-			dataSize += lightSize * (2 + 2048); // One short id + 1 16^3/2 chunk data per lighting manager
+			int lightDataSize = 0;
+			for (byte[] data : message.getLight().values()) {
+				lightDataSize += 4 + data.length; // One short id + one short length + the serialized light buffer
+			}
+			dataSize += lightDataSize;
 
 			byte[] uncompressedData = new byte[dataSize];
 			byte[] compressedData = new byte[dataSize];
@@ -90,6 +94,9 @@ public class ChunkDataCodec extends MessageCodec<ChunkDataMessage> {
 				short s = e.getKey();
 				uncompressedData[index++] = (byte) s;
 				uncompressedData[index++] = (byte) (s >> 8);
+				int length = e.getValue().length;
+				uncompressedData[index++] = (byte) length;
+				uncompressedData[index++] = (byte) (length >> 8);
 				System.arraycopy(e.getValue(), 0, uncompressedData, index, e.getValue().length);
 				index += e.getValue().length;
 			}
@@ -109,7 +116,7 @@ public class ChunkDataCodec extends MessageCodec<ChunkDataMessage> {
 			}
 
 			size += compressedSize;
-			buffer = Unpooled.buffer(size);
+			buffer = alloc.buffer(size);
 			buffer.writeByte(hasBiomes ? HASBIOMES : 0); // Has biomes only, not unload
 			buffer.writeInt(message.getX());
 			buffer.writeInt(message.getY());
@@ -118,6 +125,7 @@ public class ChunkDataCodec extends MessageCodec<ChunkDataMessage> {
 				ByteBufUtils.writeString(buffer, message.getBiomeManagerClass());
 			}
 			buffer.writeShort(lightSize);
+			buffer.writeInt(lightDataSize);
 			buffer.writeInt(compressedSize);
 			buffer.writeBytes(compressedData, 0, compressedSize);
 		}
@@ -141,7 +149,7 @@ public class ChunkDataCodec extends MessageCodec<ChunkDataMessage> {
 			if (hasBiomes) {
 				uncompressedSize += Chunk.BLOCKS.AREA;
 			}
-			uncompressedSize += lightSize * (2 + 2048); // One short id + 1 16^3/2 chunk data for every lighting manager
+			uncompressedSize += buffer.readInt(); // Light buffers are serialized with their length, as uniform and sparse buffers are shorter
 			final byte[] uncompressedData = new byte[uncompressedSize];
 			final byte[] compressedData = new byte[buffer.readInt()];
 			buffer.readBytes(compressedData);
@@ -167,8 +175,9 @@ public class ChunkDataCodec extends MessageCodec<ChunkDataMessage> {
 				blockData[i] = (short) (uncompressedData[index++] | (uncompressedData[index++] << 8));
 			}
 			for (int i = 0; i < lightSize; ++i) {
-				byte[] data = new byte[2048];
 				final short lightId = (short) (uncompressedData[index++] | (uncompressedData[index++] << 8));
+				final int length = (uncompressedData[index++] & 0xFF) | ((uncompressedData[index++] & 0xFF) << 8);
+				byte[] data = new byte[length];
 				System.arraycopy(uncompressedData, index, data, 0, data.length);
 				index += data.length;
 				light.put(lightId, data);
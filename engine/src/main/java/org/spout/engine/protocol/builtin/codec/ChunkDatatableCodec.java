@@ -27,7 +27,7 @@
 package org.spout.engine.protocol.builtin.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.datatable.delta.DeltaMap;
 import org.spout.api.protocol.MessageCodec;
@@ -40,8 +40,8 @@ public class ChunkDatatableCodec extends MessageCodec<ChunkDatatableMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(ChunkDatatableMessage message) {
-		ByteBuf buffer = Unpooled.buffer();
+	public ByteBuf encode(ByteBufAllocator alloc, ChunkDatatableMessage message) {
+		ByteBuf buffer = alloc.buffer();
 		ByteBufUtils.writeString(buffer, message.getWorld());
 		buffer.writeInt(message.getX());
 		buffer.writeInt(message.getY());
@@ -27,7 +27,7 @@
 package org.spout.engine.protocol.builtin.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.protocol.MessageCodec;
 import org.spout.engine.protocol.builtin.message.ClickRequestMessage;
@@ -38,8 +38,8 @@ public class ClickRequestCodec extends MessageCodec<ClickRequestMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(ClickRequestMessage message) {
-		ByteBuf buffer = Unpooled.buffer(3);
+	public ByteBuf encode(ByteBufAllocator alloc, ClickRequestMessage message) {
+		ByteBuf buffer = alloc.buffer(3);
 		buffer.writeByte(message.getX());
 		buffer.writeByte(message.getY());
 		buffer.writeByte(message.getClickType().ordinal());
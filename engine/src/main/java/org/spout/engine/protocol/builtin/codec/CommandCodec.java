@@ -27,7 +27,7 @@
 package org.spout.engine.protocol.builtin.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.protocol.MessageCodec;
 import org.spout.api.util.ByteBufUtils;
@@ -39,8 +39,8 @@ public class CommandCodec extends MessageCodec<CommandMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(CommandMessage message) {
-		ByteBuf buffer = Unpooled.buffer();
+	public ByteBuf encode(ByteBufAllocator alloc, CommandMessage message) {
+		ByteBuf buffer = alloc.buffer();
 		ByteBufUtils.writeString(buffer, message.getCommand());
 		ByteBufUtils.writeStringArray(buffer, message.getArguments());
 		return buffer;
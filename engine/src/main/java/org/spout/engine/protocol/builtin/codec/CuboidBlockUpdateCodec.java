@@ -29,7 +29,7 @@ package org.spout.engine.protocol.builtin.codec;
 import java.util.UUID;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.protocol.MessageCodec;
 import org.spout.api.util.ByteBufUtils;
@@ -44,8 +44,8 @@ public class CuboidBlockUpdateCodec extends MessageCodec<CuboidBlockUpdateMessag
 	}
 
 	@Override
-	public ByteBuf encode(CuboidBlockUpdateMessage message) {
-		ByteBuf buffer = Unpooled.buffer(4 * 6 + message.getBlockTypes().length * 2 + message.getBlockData().length * 2 + message.getBlockLight().length + message.getSkyLight().length + ByteBufUtils.UUID_SIZE);
+	public ByteBuf encode(ByteBufAllocator alloc, CuboidBlockUpdateMessage message) {
+		ByteBuf buffer = alloc.buffer(4 * 6 + message.getBlockTypes().length * 2 + message.getBlockData().length * 2 + message.getBlockLight().length + message.getSkyLight().length + ByteBufUtils.UUID_SIZE);
 		buffer.writeInt(message.getMinX());
 		buffer.writeInt(message.getMinY());
 		buffer.writeInt(message.getMinZ());
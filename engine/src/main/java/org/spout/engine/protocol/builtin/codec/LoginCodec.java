@@ -27,7 +27,7 @@
 package org.spout.engine.protocol.builtin.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.protocol.MessageCodec;
 import org.spout.api.util.ByteBufUtils;
@@ -39,8 +39,8 @@ public class LoginCodec extends MessageCodec<LoginMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(LoginMessage message) {
-		ByteBuf buffer = Unpooled.buffer();
+	public ByteBuf encode(ByteBufAllocator alloc, LoginMessage message) {
+		ByteBuf buffer = alloc.buffer();
 		ByteBufUtils.writeString(buffer, message.getPlayerName());
 		buffer.writeInt(message.getExtraInt());
 		return buffer;
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.protocol.builtin.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import org.spout.api.protocol.MessageCodec;
+import org.spout.engine.protocol.builtin.message.MultiBlockUpdateMessage;
+
+/**
+ *
+ */
+public class MultiBlockUpdateCodec extends MessageCodec<MultiBlockUpdateMessage> {
+	public MultiBlockUpdateCodec(int opcode) {
+		super(MultiBlockUpdateMessage.class, opcode);
+	}
+
+	@Override
+	public ByteBuf encode(ByteBufAllocator alloc, MultiBlockUpdateMessage message) {
+		final int count = message.getCount();
+		ByteBuf buffer = alloc.buffer(14 + count * 6);
+		buffer.writeInt(message.getChunkX());
+		buffer.writeInt(message.getChunkY());
+		buffer.writeInt(message.getChunkZ());
+		buffer.writeShort(count);
+		short[] blocks = message.getBlocks();
+		short[] types = message.getTypes();
+		short[] data = message.getData();
+		for (int i = 0; i < count; i++) {
+			buffer.writeShort(blocks[i]);
+			buffer.writeShort(types[i]);
+			buffer.writeShort(data[i]);
+		}
+		return buffer;
+	}
+
+	@Override
+	public MultiBlockUpdateMessage decode(ByteBuf buffer) {
+		final int chunkX = buffer.readInt();
+		final int chunkY = buffer.readInt();
+		final int chunkZ = buffer.readInt();
+		final int count = buffer.readUnsignedShort();
+		short[] blocks = new short[count];
+		short[] types = new short[count];
+		short[] data = new short[count];
+		for (int i = 0; i < count; i++) {
+			blocks[i] = buffer.readShort();
+			types[i] = buffer.readShort();
+			data[i] = buffer.readShort();
+		}
+		return new MultiBlockUpdateMessage(chunkX, chunkY, chunkZ, blocks, types, data);
+	}
+}
@@ -27,7 +27,7 @@
 package org.spout.engine.protocol.builtin.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.protocol.MessageCodec;
 import org.spout.engine.protocol.builtin.message.ReadyMessage;
@@ -38,8 +38,8 @@ public class ReadyCodec extends MessageCodec<ReadyMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(ReadyMessage message) {
-		return Unpooled.buffer(0);
+	public ByteBuf encode(ByteBufAllocator alloc, ReadyMessage message) {
+		return alloc.buffer(0);
 	}
 
 	@Override
@@ -32,7 +32,7 @@ import java.util.List;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.protocol.MessageCodec;
 import org.spout.api.util.ByteBufUtils;
@@ -44,8 +44,8 @@ public class SyncedMapCodec extends MessageCodec<SyncedMapMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(SyncedMapMessage message) {
-		ByteBuf buffer = Unpooled.buffer();
+	public ByteBuf encode(ByteBufAllocator alloc, SyncedMapMessage message) {
+		ByteBuf buffer = alloc.buffer();
 		buffer.writeInt(message.getMap());
 		buffer.writeByte(message.getAction().ordinal());
 		buffer.writeInt(message.getElements().size());
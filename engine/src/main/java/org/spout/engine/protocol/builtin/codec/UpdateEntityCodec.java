@@ -27,7 +27,7 @@
 package org.spout.engine.protocol.builtin.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.geo.discrete.Transform;
 import org.spout.api.protocol.MessageCodec;
@@ -42,17 +42,17 @@ public class UpdateEntityCodec extends MessageCodec<UpdateEntityMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(UpdateEntityMessage message) {
+	public ByteBuf encode(ByteBufAllocator alloc, UpdateEntityMessage message) {
 		ByteBuf buffer = null;
 		switch (message.getAction()) {
 			case REMOVE:
-				buffer = Unpooled.buffer(5);
+				buffer = alloc.buffer(5);
 				buffer.writeByte(message.getAction().ordinal());
 				buffer.writeInt(message.getEntityId());
 				break;
 			case ADD:
 			case TRANSFORM:
-				buffer = Unpooled.buffer(5 + ByteBufUtils.UUID_SIZE + ByteBufUtils.VECTOR3_SIZE * 2 + ByteBufUtils.QUATERNINON_SIZE);
+				buffer = alloc.buffer(5 + ByteBufUtils.UUID_SIZE + ByteBufUtils.VECTOR3_SIZE * 2 + ByteBufUtils.QUATERNINON_SIZE);
 				buffer.writeByte(message.getAction().ordinal());
 				buffer.writeInt(message.getEntityId());
 				ByteBufUtils.writeTransform(buffer, message.getTransform());
@@ -29,7 +29,7 @@ package org.spout.engine.protocol.builtin.codec;
 import java.util.UUID;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 
 import org.spout.api.datatable.delta.DeltaMap;
 import org.spout.api.math.Quaternion;
@@ -44,8 +44,8 @@ public class WorldChangeCodec extends MessageCodec<WorldChangeMessage> {
 	}
 
 	@Override
-	public ByteBuf encode(WorldChangeMessage message) {
-		ByteBuf buffer = Unpooled.buffer();
+	public ByteBuf encode(ByteBufAllocator alloc, WorldChangeMessage message) {
+		ByteBuf buffer = alloc.buffer();
 		ByteBufUtils.writeString(buffer, message.getWorldName());
 		ByteBufUtils.writeUUID(buffer, message.getWorldUUID());
 		ByteBufUtils.writeVector3(buffer, message.getPosition());
@@ -27,16 +27,56 @@
 package org.spout.engine.protocol.builtin.handler;
 
 import org.spout.api.entity.Player;
+import org.spout.api.event.cause.PlayerCause;
+import org.spout.api.geo.LoadOption;
+import org.spout.api.geo.World;
 import org.spout.api.geo.cuboid.Block;
+import org.spout.api.geo.discrete.Point;
 import org.spout.api.material.BlockMaterial;
+import org.spout.api.math.Vector3;
 import org.spout.api.protocol.ClientSession;
 import org.spout.api.protocol.MessageHandler;
+import org.spout.api.protocol.ServerSession;
+import org.spout.engine.SpoutConfiguration;
 import org.spout.engine.protocol.builtin.message.BlockUpdateMessage;
 
 /**
  *
  */
 public class BlockUpdateMessageHandler extends MessageHandler<BlockUpdateMessage> {
+	/**
+	 * The maximum distance from the player, squared, of a block the player may change
+	 */
+	public static final double MAX_REACH_SQUARED = 8 * 8;
+
+	/**
+	 * Applies a block change sent by a load-test client.  Clients never send block changes otherwise, so these are ignored unless debug.load-test-block-changes is enabled.  The change fires a
+	 * cancellable {@link org.spout.api.event.block.BlockChangeEvent} caused by the player.
+	 */
+	@Override
+	public void handleServer(ServerSession session, BlockUpdateMessage message) {
+		if (!SpoutConfiguration.LOAD_TEST_BLOCK_CHANGES.getBoolean() || !session.hasPlayer()) {
+			return;
+		}
+		Player player = session.getPlayer();
+		World world = player.getWorld();
+		if (world.getChunkFromBlock(message.getX(), message.getY(), message.getZ(), LoadOption.NO_LOAD) == null) {
+			return;
+		}
+		Block block = world.getBlock(message.getX(), message.getY(), message.getZ());
+		BlockMaterial material = BlockMaterial.get(message.getType());
+		Point position = player.getPhysics().getPosition();
+		if (material == null || position.distanceSquared(new Vector3(message.getX() + 0.5f, message.getY() + 0.5f, message.getZ() + 0.5f)) > MAX_REACH_SQUARED) {
+			// rejected, correct the client
+			session.send(new BlockUpdateMessage(block));
+			return;
+		}
+		if (!block.setMaterial(material, message.getData(), new PlayerCause(player))) {
+			// cancelled or unchanged, make sure the client has the real block
+			session.send(new BlockUpdateMessage(block));
+		}
+	}
+
 	@Override
 	public void handleClient(ClientSession session, BlockUpdateMessage message) {
 		Player player = session.getPlayer();
@@ -34,12 +34,17 @@ import org.spout.api.protocol.ServerSession;
 import org.spout.api.protocol.Session;
 import org.spout.engine.SpoutClient;
 import org.spout.engine.SpoutConfiguration;
+import org.spout.engine.protocol.builtin.SpoutProtocol;
 import org.spout.engine.protocol.builtin.message.LoginMessage;
 import org.spout.engine.protocol.builtin.message.ReadyMessage;
 
 public class LoginMessageHandler extends MessageHandler<LoginMessage> {
 	@Override
 	public void handleServer(ServerSession session, LoginMessage message) {
+		if (message.getExtraInt() != SpoutProtocol.PROTOCOL_VERSION) {
+			session.disconnect("Protocol version " + message.getExtraInt() + " is not supported, expected " + SpoutProtocol.PROTOCOL_VERSION);
+			return;
+		}
 		session.getEngine().getEventManager().callEvent(new PlayerConnectEvent(session, message.getPlayerName(), (SpoutConfiguration.VIEW_DISTANCE.getInt())));
 		if (session.hasPlayer()) {
 			session.send(true, new LoginMessage(session.getPlayer().getName(), session.getPlayer().getId()));
@@ -0,0 +1,58 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.protocol.builtin.handler;
+
+import org.spout.api.geo.LoadOption;
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.material.BlockMaterial;
+import org.spout.api.protocol.ClientSession;
+import org.spout.api.protocol.MessageHandler;
+import org.spout.api.util.hashing.NibbleQuadHashed;
+import org.spout.engine.protocol.builtin.message.MultiBlockUpdateMessage;
+
+public class MultiBlockUpdateMessageHandler extends MessageHandler<MultiBlockUpdateMessage> {
+	@Override
+	public void handleClient(ClientSession session, MultiBlockUpdateMessage message) {
+		Chunk chunk = session.getPlayer().getWorld().getChunk(message.getChunkX(), message.getChunkY(), message.getChunkZ(), LoadOption.NO_LOAD);
+		if (chunk == null) {
+			return;
+		}
+		final int bx = chunk.getBlockX();
+		final int by = chunk.getBlockY();
+		final int bz = chunk.getBlockZ();
+		short[] blocks = message.getBlocks();
+		short[] types = message.getTypes();
+		short[] data = message.getData();
+		for (int i = 0; i < blocks.length; i++) {
+			BlockMaterial material = BlockMaterial.get(types[i]);
+			if (material == null) {
+				continue;
+			}
+			chunk.setBlockMaterial(bx + NibbleQuadHashed.key1(blocks[i]), by + NibbleQuadHashed.key2(blocks[i]), bz + NibbleQuadHashed.key3(blocks[i]), material, data[i], null);
+		}
+	}
+}
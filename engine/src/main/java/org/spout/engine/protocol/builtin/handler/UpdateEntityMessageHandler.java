@@ -26,6 +26,8 @@
  */
 package org.spout.engine.protocol.builtin.handler;
 
+import org.spout.api.Platform;
+import org.spout.api.Spout;
 import org.spout.api.entity.Entity;
 import org.spout.api.geo.LoadOption;
 import org.spout.api.protocol.ClientSession;
@@ -87,4 +89,12 @@ public class UpdateEntityMessageHandler extends MessageHandler<UpdateEntityMessa
 		}
 		throw new UnsupportedOperationException("Not allowed to perform the following UpdateAction on the server: " + message.getAction());
 	}
+
+	/**
+	 * The server only stores the player's received transform in the session, which the player's movement validator reads later.  The client spawns and moves entities anywhere in the world.
+	 */
+	@Override
+	public boolean isRegionAffine() {
+		return Spout.getPlatform() == Platform.SERVER;
+	}
 }
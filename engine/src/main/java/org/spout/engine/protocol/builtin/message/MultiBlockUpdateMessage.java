@@ -0,0 +1,135 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.protocol.builtin.message;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import org.spout.api.material.block.BlockFullState;
+import org.spout.api.util.SpoutToStringStyle;
+
+/**
+ * Carries every block changed in a chunk during a tick.  Block positions are chunk coordinates, packed using {@link org.spout.api.util.hashing.NibbleQuadHashed}.
+ */
+public class MultiBlockUpdateMessage extends SpoutMessage {
+	private final int chunkX, chunkY, chunkZ;
+	private final short[] blocks;
+	private final short[] types, data;
+
+	public MultiBlockUpdateMessage(int chunkX, int chunkY, int chunkZ, short[] blocks, int[] states) {
+		this.chunkX = chunkX;
+		this.chunkY = chunkY;
+		this.chunkZ = chunkZ;
+		this.blocks = blocks;
+		this.types = new short[states.length];
+		this.data = new short[states.length];
+		for (int i = 0; i < states.length; i++) {
+			types[i] = BlockFullState.getId(states[i]);
+			data[i] = BlockFullState.getData(states[i]);
+		}
+	}
+
+	public MultiBlockUpdateMessage(int chunkX, int chunkY, int chunkZ, short[] blocks, short[] types, short[] data) {
+		if (blocks.length != types.length || blocks.length != data.length) {
+			throw new IllegalArgumentException("Block, type and data arrays must be the same length");
+		}
+		this.chunkX = chunkX;
+		this.chunkY = chunkY;
+		this.chunkZ = chunkZ;
+		this.blocks = blocks;
+		this.types = types;
+		this.data = data;
+	}
+
+	public int getChunkX() {
+		return chunkX;
+	}
+
+	public int getChunkY() {
+		return chunkY;
+	}
+
+	public int getChunkZ() {
+		return chunkZ;
+	}
+
+	public int getCount() {
+		return blocks.length;
+	}
+
+	public short[] getBlocks() {
+		return blocks;
+	}
+
+	public short[] getTypes() {
+		return types;
+	}
+
+	public short[] getData() {
+		return data;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this, SpoutToStringStyle.INSTANCE)
+				.append("chunkX", chunkX)
+				.append("chunkY", chunkY)
+				.append("chunkZ", chunkZ)
+				.append("count", blocks.length)
+				.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		return new HashCodeBuilder(47, 97)
+				.append(chunkX)
+				.append(chunkY)
+				.append(chunkZ)
+				.append(blocks)
+				.append(types)
+				.append(data)
+				.toHashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof MultiBlockUpdateMessage) {
+			final MultiBlockUpdateMessage other = (MultiBlockUpdateMessage) obj;
+			return new EqualsBuilder()
+					.append(chunkX, other.chunkX)
+					.append(chunkY, other.chunkY)
+					.append(chunkZ, other.chunkZ)
+					.append(blocks, other.blocks)
+					.append(types, other.types)
+					.append(data, other.data)
+					.isEquals();
+		} else {
+			return false;
+		}
+	}
+}
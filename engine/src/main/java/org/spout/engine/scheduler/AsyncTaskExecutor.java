@@ -0,0 +1,274 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.spout.engine.SpoutConfiguration;
+import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
+
+/**
+ * The engine wide executor for async tasks.<br> <br> Tasks are queued by key, which is the owning plugin, or the region and owning plugin for region tasks. The workers take one task from each
+ * key in turn, so a key with many queued tasks can't starve the others, and each key may only have a limited number of tasks queued.<br> <br> Long lived tasks either get a dedicated thread, or
+ * run on a shared, elastic pool of threads that time out when idle, depending on the configuration. Long lived tasks are never queued, once the pool is at its size limit each further task gets a
+ * dedicated thread.
+ */
+public class AsyncTaskExecutor {
+	private static final long BLOCKING_THREAD_KEEP_ALIVE = 60;
+	private final ConcurrentHashMap<Object, KeyQueue> queues = new ConcurrentHashMap<>();
+	private final BlockingQueue<KeyQueue> ready = new LinkedBlockingQueue<>();
+	private final AtomicReference<Pools> pools = new AtomicReference<>();
+	private final AtomicBoolean shutdown = new AtomicBoolean(false);
+	/**
+	 * Added to the ready queue on shut down, to wake the idle workers
+	 */
+	private final KeyQueue wakeUp = new KeyQueue(null);
+
+	/**
+	 * Queues a task to be run by the shared workers
+	 *
+	 * @param key the plugin or region that the task belongs to
+	 * @param task the task
+	 * @throws RejectedExecutionException if the executor is shut down or the key has too many tasks queued
+	 */
+	public void execute(Object key, RunnableFuture<?> task) {
+		if (shutdown.get()) {
+			throw new RejectedExecutionException("Async task executor has been shut down");
+		}
+		Pools p = getPools();
+		KeyQueue queue = getQueue(key);
+		if (queue.size.incrementAndGet() > p.queueLimit) {
+			queue.size.decrementAndGet();
+			throw new RejectedExecutionException("Too many async tasks queued for " + key + ", limit is " + p.queueLimit);
+		}
+		queue.tasks.add(task);
+		if (shutdown.get() && queue.tasks.remove(task)) {
+			// Shut down while the task was being added, after the queues were drained
+			queue.size.decrementAndGet();
+			task.cancel(false);
+			return;
+		}
+		if (queue.scheduled.compareAndSet(false, true)) {
+			ready.add(queue);
+		}
+	}
+
+	/**
+	 * Runs a long lived task on the shared blocking pool
+	 *
+	 * @param task the task
+	 * @throws RejectedExecutionException if the executor is shut down
+	 */
+	public void executeBlocking(RunnableFuture<?> task) {
+		if (shutdown.get()) {
+			throw new RejectedExecutionException("Async task executor has been shut down");
+		}
+		getPools().blocking.execute(task);
+	}
+
+	/**
+	 * Gets if long lived tasks should run on the shared blocking pool, rather than on a dedicated thread
+	 *
+	 * @return true to use the shared blocking pool
+	 */
+	public boolean isSharedBlocking() {
+		return getPools().sharedBlocking;
+	}
+
+	/**
+	 * Gets the number of tasks queued for a key
+	 *
+	 * @param key the plugin or region
+	 * @return the number of queued tasks
+	 */
+	public int getQueued(Object key) {
+		KeyQueue queue = queues.get(key);
+		return queue == null ? 0 : queue.size.get();
+	}
+
+	/**
+	 * Stops the workers. Running tasks are left to complete, queued tasks that have not started are cancelled, so anything waiting on their futures is released.
+	 */
+	public void shutdown() {
+		if (!shutdown.compareAndSet(false, true)) {
+			return;
+		}
+		Pools p = pools.get();
+		if (p != null) {
+			p.workers.shutdown();
+			p.blocking.shutdown();
+			for (int i = 0; i < p.threads; i++) {
+				ready.add(wakeUp);
+			}
+		}
+		for (KeyQueue queue : queues.values()) {
+			cancelQueued(queue);
+		}
+		KeyQueue queue;
+		while ((queue = ready.poll()) != null) {
+			if (queue != wakeUp) {
+				cancelQueued(queue);
+			}
+		}
+	}
+
+	private void cancelQueued(KeyQueue queue) {
+		RunnableFuture<?> task;
+		while ((task = queue.tasks.poll()) != null) {
+			queue.size.decrementAndGet();
+			task.cancel(false);
+		}
+	}
+
+	private KeyQueue getQueue(Object key) {
+		KeyQueue queue = queues.get(key);
+		if (queue == null) {
+			queue = new KeyQueue(key);
+			KeyQueue previous = queues.putIfAbsent(key, queue);
+			if (previous != null) {
+				queue = previous;
+			}
+		}
+		return queue;
+	}
+
+	/**
+	 * The pools are created on first use, as the engine configuration is not loaded when the scheduler is created
+	 */
+	private Pools getPools() {
+		Pools p = pools.get();
+		if (p != null) {
+			return p;
+		}
+		p = new Pools();
+		if (pools.compareAndSet(null, p)) {
+			p.start();
+			return p;
+		}
+		return pools.get();
+	}
+
+	private void runWorker() {
+		while (!shutdown.get()) {
+			KeyQueue queue;
+			try {
+				queue = ready.take();
+			} catch (InterruptedException e) {
+				break;
+			}
+			if (queue == wakeUp) {
+				continue;
+			}
+			RunnableFuture<?> task = queue.tasks.poll();
+			if (task != null) {
+				queue.size.decrementAndGet();
+				task.run();
+				// Clear the interrupt flag, in case the task was cancelled while running
+				Thread.interrupted();
+			}
+			if (!queue.tasks.isEmpty()) {
+				ready.add(queue);
+			} else {
+				queue.scheduled.set(false);
+				if (!queue.tasks.isEmpty()) {
+					if (queue.scheduled.compareAndSet(false, true)) {
+						ready.add(queue);
+					}
+				} else {
+					// Tasks added to a queue after it is removed are still run, since the queue itself is in the ready queue
+					queues.remove(queue.key, queue);
+				}
+			}
+		}
+	}
+
+	private static class KeyQueue {
+		private final Object key;
+		private final Queue<RunnableFuture<?>> tasks = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger size = new AtomicInteger();
+		private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+		private KeyQueue(Object key) {
+			this.key = key;
+		}
+	}
+
+	private class Pools {
+		private final int threads;
+		private final int queueLimit;
+		private final boolean sharedBlocking;
+		private final ExecutorService workers;
+		private final ThreadPoolExecutor blocking;
+
+		private Pools() {
+			int configThreads = SpoutConfiguration.ASYNC_THREADS.getInt();
+			threads = configThreads > 0 ? configThreads : Runtime.getRuntime().availableProcessors() * 2;
+			queueLimit = Math.max(1, SpoutConfiguration.ASYNC_QUEUE_LIMIT.getInt());
+			sharedBlocking = SpoutConfiguration.SHARED_BLOCKING_THREADS.getBoolean();
+			int blockingThreads = Math.max(1, SpoutConfiguration.BLOCKING_THREAD_LIMIT.getInt());
+			workers = Executors.newFixedThreadPool(threads, new NamedThreadFactory("Scheduler Thread Pool Thread"));
+			final ThreadFactory blockingFactory = new NamedThreadFactory("Scheduler Blocking Thread");
+			// Long lived tasks may never finish, so rather than queueing behind them a task is given a dedicated thread once the pool is full
+			blocking = new ThreadPoolExecutor(0, blockingThreads, BLOCKING_THREAD_KEEP_ALIVE, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), blockingFactory, new RejectedExecutionHandler() {
+				@Override
+				public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+					if (executor.isShutdown()) {
+						throw new RejectedExecutionException("Async task executor has been shut down");
+					}
+					blockingFactory.newThread(r).start();
+				}
+			});
+		}
+
+		private void start() {
+			for (int i = 0; i < threads; i++) {
+				workers.execute(new Runnable() {
+					@Override
+					public void run() {
+						runWorker();
+					}
+				});
+			}
+		}
+	}
+}
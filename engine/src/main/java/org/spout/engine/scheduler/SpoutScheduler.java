@@ -46,11 +46,13 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.lwjgl.opengl.Display;
 import org.spout.api.Client;
 import org.spout.api.Engine;
 import org.spout.api.Platform;
 import org.spout.api.Spout;
+import org.spout.api.geo.cuboid.Region;
 import org.spout.api.gui.ScreenStack;
 import org.spout.api.math.Vector2;
 import org.spout.api.plugin.Plugin;
@@ -187,6 +189,9 @@ public final class SpoutScheduler implements Scheduler {
     // scheduler executor service
     private final ExecutorService executorService;
 
+    // engine wide executor for async tasks
+    private final AsyncTaskExecutor asyncTaskExecutor = new AsyncTaskExecutor();
+
     public SpoutScheduler(Engine engine) {
         this.engine = engine;
         mainThread = new MainThread();
@@ -407,6 +412,7 @@ public final class SpoutScheduler implements Scheduler {
                     delay <<= 1;
                 }
             }
+            asyncTaskExecutor.shutdown();
             runLastTickTasks();
             NetworkSendThreadPool.shutdown();
             runFinalTasks();
@@ -857,7 +863,22 @@ public final class SpoutScheduler implements Scheduler {
 
     @Override
     public <T extends java.lang.Object> Future<T> callSyncMethod(Object plugin, Callable<T> task, TaskPriority priority) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        return taskManager.callSyncMethod(plugin, task, priority);
+    }
+
+    @Override
+    public <T> ListenableFuture<T> supplySync(Object plugin, Callable<T> task) {
+        return taskManager.supplySync(plugin, task, TaskPriority.CRITICAL);
+    }
+
+    @Override
+    public <T> ListenableFuture<T> supplyAsync(Object plugin, Callable<T> task) {
+        return taskManager.supplyAsync(plugin, task);
+    }
+
+    @Override
+    public <T> ListenableFuture<T> supplyOnRegion(Region region, Object plugin, Callable<T> task) {
+        return ((SpoutTaskManager) region.getTaskManager()).supplySync(plugin, task, TaskPriority.CRITICAL);
     }
 
     @Override
@@ -909,6 +930,15 @@ public final class SpoutScheduler implements Scheduler {
         return mainThread;
     }
 
+    /**
+     * Gets the engine wide executor used by the task managers for async tasks
+     *
+     * @return the async task executor
+     */
+    public AsyncTaskExecutor getAsyncTaskExecutor() {
+        return asyncTaskExecutor;
+    }
+
     @Override
     public long getTickTime() {
         return System.currentTimeMillis() - tickStartTime.get();
@@ -26,6 +26,7 @@
  */
 package org.spout.engine.scheduler;
 
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -196,6 +197,10 @@ public class SpoutTask implements Task, LongPrioritized {
 	 */
 	public void stop() {
 		remove();
+		if (task instanceof Future) {
+			// Futures returned by callSyncMethod and the supply methods would otherwise never complete
+			((Future<?>) task).cancel(false);
+		}
 	}
 
 	/**
@@ -27,17 +27,17 @@
 package org.spout.engine.scheduler;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
 import org.spout.api.Spout;
 import org.spout.api.scheduler.Scheduler;
 import org.spout.api.scheduler.Task;
@@ -45,7 +45,6 @@ import org.spout.api.scheduler.TaskManager;
 import org.spout.api.scheduler.TaskPriority;
 import org.spout.api.scheduler.Worker;
 import org.spout.engine.util.thread.AsyncManager;
-import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
 
 public class SpoutTaskManager implements TaskManager {
 	private final ConcurrentHashMap<SpoutTask, SpoutWorker> activeWorkers = new ConcurrentHashMap<>();
@@ -56,7 +55,7 @@ public class SpoutTaskManager implements TaskManager {
 	private final AtomicLong upTime;
 	private final Object scheduleLock = new Object();
 	private final Scheduler scheduler;
-	private final ExecutorService pool = Executors.newFixedThreadPool(20, new NamedThreadFactory("Scheduler Thread Pool Thread"));
+	private final AsyncManager asyncManager;
 
 	public SpoutTaskManager(Scheduler scheduler, Thread mainThread) {
 		this(scheduler, mainThread, null, 0L);
@@ -67,11 +66,12 @@ public class SpoutTaskManager implements TaskManager {
 	}
 
 	public SpoutTaskManager(Scheduler scheduler, Thread mainThread, AsyncManager manager, long age) {
-		this.taskQueue = new TaskPriorityQueue(manager, SpoutScheduler.PULSE_EVERY / 4);
+		this.taskQueue = new TaskPriorityQueue(manager, SpoutScheduler.PULSE_EVERY / 4, age);
 		this.mainThread = mainThread != null;
 		this.alive = new AtomicBoolean(true);
 		this.upTime = new AtomicLong(age);
 		this.scheduler = scheduler;
+		this.asyncManager = manager;
 	}
 
 	@Override
@@ -122,37 +122,66 @@ public class SpoutTaskManager implements TaskManager {
 
 	@Override
 	public <T> Future<T> callSyncMethod(Object plugin, Callable<T> task, TaskPriority priority) {
-		throw new UnsupportedOperationException("Not supported yet.");
+		return supplySync(plugin, task, priority);
+	}
+
+	/**
+	 * Calls a Callable as a sync task of this manager.  The future is completed in the stage where this manager runs its sync tasks, {@link org.spout.api.scheduler.TickStage#TICKSTART} for the
+	 * engine and {@link org.spout.api.scheduler.TickStage#STAGE1} for regions and worlds.
+	 *
+	 * @param plugin the owner of the task
+	 * @param task the Callable to execute
+	 * @param priority the priority of the task
+	 * @return a future for the result of the Callable
+	 */
+	public <T> ListenableFuture<T> supplySync(Object plugin, Callable<T> task, TaskPriority priority) {
+		ListenableFutureTask<T> future = ListenableFutureTask.create(task);
+		if (scheduleSyncDelayedTask(plugin, future, priority) == null) {
+			future.cancel(false);
+		}
+		return future;
+	}
+
+	/**
+	 * Calls a Callable as an async task, holding the snapshot read lock while it runs
+	 *
+	 * @param plugin the owner of the task
+	 * @param task the Callable to execute
+	 * @return a future for the result of the Callable
+	 */
+	public <T> ListenableFuture<T> supplyAsync(final Object plugin, final Callable<T> task) {
+		ListenableFutureTask<T> future = ListenableFutureTask.create(new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				scheduler.getSnapshotLock().readLock(plugin);
+				try {
+					return task.call();
+				} finally {
+					scheduler.getSnapshotLock().readUnlock(plugin);
+				}
+			}
+		});
+		if (scheduleAsyncTask(plugin, future, false) == null) {
+			future.cancel(false);
+		}
+		return future;
 	}
 
 	public void heartbeat(long delta) {
 		long upTime = this.upTime.addAndGet(delta);
 
-		Queue<SpoutTask> q;
-
-		while ((q = taskQueue.poll(upTime)) != null) {
-			boolean checkRequired = !taskQueue.isFullyBelowThreshold(q, upTime);
-			Iterator<SpoutTask> itr = q.iterator();
-			while (itr.hasNext()) {
-				SpoutTask currentTask = itr.next();
-				if (checkRequired && currentTask.getPriority() > upTime) {
-					continue;
-				}
+		SpoutTask currentTask;
 
-				itr.remove();
-				currentTask.setUnqueued();
+		while ((currentTask = taskQueue.poll(upTime)) != null) {
+			currentTask.setUnqueued();
 
-				if (!currentTask.isAlive()) {
-					continue;
-				} else if (currentTask.isSync()) {
-					currentTask.pulse();
-					repeatSchedule(currentTask);
-				} else {
-					Spout.getLogger().info("Async repeating task submitted");
-				}
-			}
-			if (taskQueue.complete(q, upTime)) {
-				break;
+			if (!currentTask.isAlive()) {
+				continue;
+			} else if (currentTask.isSync()) {
+				currentTask.pulse();
+				repeatSchedule(currentTask);
+			} else {
+				Spout.getLogger().info("Async repeating task submitted");
 			}
 		}
 	}
@@ -183,7 +212,14 @@ public class SpoutTaskManager implements TaskManager {
 			if (!task.isSync()) {
 				SpoutWorker worker = new SpoutWorker(task, this);
 				addWorker(worker, task);
-				worker.start(pool);
+				try {
+					worker.start(((SpoutScheduler) scheduler).getAsyncTaskExecutor(), getExecutorKey(task));
+				} catch (RejectedExecutionException e) {
+					Spout.getLogger().warning("Unable to start async task " + task + ": " + e.getMessage());
+					task.stop();
+					removeWorker(worker, task);
+					removeTask(task);
+				}
 			} else {
 				taskQueue.add(task);
 			}
@@ -191,6 +227,18 @@ public class SpoutTaskManager implements TaskManager {
 		}
 	}
 
+	/**
+	 * Gets the key that async tasks are queued under, for fairness between plugins and regions.  Tasks of a region are keyed by the region and their owner, so plugins sharing a region are also
+	 * treated fairly.
+	 */
+	private Object getExecutorKey(SpoutTask task) {
+		Object owner = task.getOwner();
+		if (asyncManager != null) {
+			return owner != null ? new ExecutorKey(asyncManager, owner) : asyncManager;
+		}
+		return owner != null ? owner : this;
+	}
+
 	protected Task repeatSchedule(SpoutTask task) {
 		synchronized (scheduleLock) {
 			if (task.isAlive()) {
@@ -298,7 +346,6 @@ public class SpoutTaskManager implements TaskManager {
 			throw new IllegalStateException("Only the task manager for the main thread should be shutdown, since the other task managers do not support async tasks");
 		}
 		alive.set(false);
-		pool.shutdown();
 		cancelAllTasks();
 		return true;
 	}
@@ -307,4 +354,36 @@ public class SpoutTaskManager implements TaskManager {
 	public long getUpTime() {
 		return upTime.get();
 	}
+
+	/**
+	 * The executor key for the tasks of one owner in a region
+	 */
+	private static final class ExecutorKey {
+		private final AsyncManager manager;
+		private final Object owner;
+
+		private ExecutorKey(AsyncManager manager, Object owner) {
+			this.manager = manager;
+			this.owner = owner;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ExecutorKey)) {
+				return false;
+			}
+			ExecutorKey other = (ExecutorKey) obj;
+			return manager == other.manager && owner.equals(other.owner);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(manager) + owner.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return owner + " in " + manager;
+		}
+	}
 }
@@ -26,8 +26,8 @@
  */
 package org.spout.engine.scheduler;
 
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.spout.api.scheduler.Worker;
@@ -68,13 +68,38 @@ public class SpoutWorker implements Worker, Runnable {
 		this.taskManager = taskManager;
 	}
 
-	public void start(ExecutorService pool) {
-		if (thread != null) {
+	/**
+	 * Starts the worker on its own thread, for long lived tasks, or on the async executor
+	 *
+	 * @param executor the engine's async executor
+	 * @param key the plugin or region to queue the task under
+	 * @throws java.util.concurrent.RejectedExecutionException if the executor refuses the task
+	 */
+	public void start(AsyncTaskExecutor executor, Object key) {
+		if (task.isLongLived() && !executor.isSharedBlocking()) {
 			thread.start();
 		} else {
-			Future<?> future = pool.submit(r);
+			FutureTask<?> future = new FutureTask<Void>(r, null) {
+				@Override
+				protected void done() {
+					if (isCancelled()) {
+						// Also cancels the future of a supply task, which would otherwise never complete
+						task.stop();
+						taskManager.removeWorker(SpoutWorker.this, task);
+						taskManager.removeTask(task);
+					}
+				}
+			};
 			if (!this.futureRef.compareAndSet(NOT_SUBMITED, future)) {
-				future.cancel(true);
+				// Cancelled before it was started
+				taskManager.removeWorker(this, task);
+				taskManager.removeTask(task);
+				return;
+			}
+			if (task.isLongLived()) {
+				executor.executeBlocking(future);
+			} else {
+				executor.execute(key, future);
 			}
 		}
 	}
@@ -109,7 +134,7 @@ public class SpoutWorker implements Worker, Runnable {
 	}
 
 	public void interrupt() {
-		if (thread != null) {
+		if (thread != null && thread.isAlive()) {
 			thread.interrupt();
 		} else {
 			if (!this.futureRef.compareAndSet(NOT_SUBMITED, CANCELLED)) {
@@ -26,20 +26,20 @@
  */
 package org.spout.engine.scheduler;
 
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Queue;
 
-import org.spout.api.util.list.concurrent.ConcurrentLongPriorityQueue;
-import org.spout.api.util.list.concurrent.RedirectableConcurrentLinkedQueue;
+import org.spout.api.util.list.concurrent.ConcurrentLongTimingWheel;
 import org.spout.engine.util.thread.AsyncManager;
 
-public class TaskPriorityQueue extends ConcurrentLongPriorityQueue<SpoutTask> {
+public class TaskPriorityQueue extends ConcurrentLongTimingWheel<SpoutTask> {
 	private final AsyncManager taskManager;
 
 	public TaskPriorityQueue(AsyncManager manager, long resolution) {
-		super(resolution);
+		this(manager, resolution, 0L);
+	}
+
+	public TaskPriorityQueue(AsyncManager manager, long resolution, long startTime) {
+		super(resolution, startTime);
 		taskManager = manager;
 	}
 
@@ -50,7 +50,7 @@ public class TaskPriorityQueue extends ConcurrentLongPriorityQueue<SpoutTask> {
 	 * @param currentTime the current time
 	 * @return the first pending task, or null if no task is pending
 	 */
-	public Queue<SpoutTask> getPendingTask(long currentTime) {
+	public SpoutTask getPendingTask(long currentTime) {
 		if (Thread.currentThread() != taskManager.getExecutionThread()) {
 			throw new IllegalStateException("getPendingTask() may only be called from the thread that created the TaskPriorityQueue");
 		}
@@ -68,11 +68,6 @@ public class TaskPriorityQueue extends ConcurrentLongPriorityQueue<SpoutTask> {
 		return super.add(task);
 	}
 
-	@Override
-	public boolean redirect(SpoutTask task) {
-		return super.add(task);
-	}
-
 	@Override
 	public boolean remove(SpoutTask task) {
 		task.remove();
@@ -101,16 +96,6 @@ public class TaskPriorityQueue extends ConcurrentLongPriorityQueue<SpoutTask> {
 	}
 
 	public List<SpoutTask> getTasks() {
-		List<SpoutTask> list = new ArrayList<>();
-		Iterator<RedirectableConcurrentLinkedQueue<SpoutTask>> iq = queueMap.values().iterator();
-		while (iq.hasNext()) {
-			Iterator<SpoutTask> i = iq.next().iterator();
-			while (i.hasNext()) {
-				SpoutTask t = i.next();
-				list.add(t);
-			}
-		}
-		return list;
+		return getAll();
 	}
 }
-
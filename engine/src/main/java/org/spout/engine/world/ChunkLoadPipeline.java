@@ -0,0 +1,161 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.world;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.spout.engine.SpoutConfiguration;
+import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
+
+/**
+ * The thread pools used to load chunks from the region files off the region threads.<br> Chunk data is read from disk on a small I/O pool and is then inflated and decoded on a pool sized
+ * to the available processors. Both pools run their queued tasks nearest chunk first, the finished chunks are handed back to their region which installs them at the start of its tick.
+ */
+public final class ChunkLoadPipeline {
+	private static final AtomicReference<ChunkLoadPipeline> instance = new AtomicReference<>();
+	private final ExecutorService ioPool;
+	private final ExecutorService decodePool;
+
+	private ChunkLoadPipeline() {
+		this(createPool("Chunk I/O", Math.max(1, SpoutConfiguration.CHUNK_IO_THREADS.getInt())), createPool("Chunk Decode", SpoutConfiguration.CHUNK_DECODE_THREADS.getInt()));
+	}
+
+	ChunkLoadPipeline(ExecutorService ioPool, ExecutorService decodePool) {
+		this.ioPool = ioPool;
+		this.decodePool = decodePool;
+	}
+
+	private static ExecutorService createPool(String name, int threads) {
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), new NamedThreadFactory(name, true));
+	}
+
+	/**
+	 * Gets the pipeline, creating its pools on first use
+	 *
+	 * @return the pipeline
+	 */
+	public static ChunkLoadPipeline getInstance() {
+		ChunkLoadPipeline pipeline = instance.get();
+		if (pipeline == null) {
+			pipeline = new ChunkLoadPipeline();
+			if (!instance.compareAndSet(null, pipeline)) {
+				pipeline.shutdownPools();
+				pipeline = instance.get();
+			}
+		}
+		return pipeline;
+	}
+
+	/**
+	 * Shuts down the pipeline pools, if they were ever started. Loads that are still queued are cancelled.
+	 */
+	public static void shutdown() {
+		ChunkLoadPipeline pipeline = instance.getAndSet(null);
+		if (pipeline != null) {
+			pipeline.shutdownPools();
+		}
+	}
+
+	void shutdownPools() {
+		cancel(ioPool.shutdownNow());
+		cancel(decodePool.shutdownNow());
+	}
+
+	private static void cancel(List<Runnable> queued) {
+		for (Runnable task : queued) {
+			((Task) task).cancel();
+		}
+	}
+
+	/**
+	 * Queues a task to read chunk data from disk. The task is cancelled if the pipeline has been shut down.
+	 *
+	 * @param task the task
+	 */
+	void read(Task task) {
+		execute(ioPool, task);
+	}
+
+	/**
+	 * Queues a task to decode chunk data which has been read from disk. The task is cancelled if the pipeline has been shut down.
+	 *
+	 * @param task the task
+	 */
+	void decode(Task task) {
+		execute(decodePool, task);
+	}
+
+	private static void execute(ExecutorService pool, Task task) {
+		try {
+			pool.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.cancel();
+		}
+	}
+
+	/**
+	 * A task run on one of the pipeline pools. Tasks with a lower priority value run first, tasks with equal priority run in the order they were created.
+	 */
+	static abstract class Task implements Runnable, Comparable<Task> {
+		private static final AtomicLong sequenceCounter = new AtomicLong();
+		private final long sequence = sequenceCounter.getAndIncrement();
+		private final long priority;
+
+		protected Task(long priority) {
+			this.priority = priority;
+		}
+
+		public long getPriority() {
+			return priority;
+		}
+
+		/**
+		 * Called instead of running the task when the pipeline is shut down before the task runs
+		 */
+		abstract void cancel();
+
+		@Override
+		public int compareTo(Task o) {
+			long p1 = priority;
+			long p2 = o.priority;
+			if (p1 != p2) {
+				return p1 < p2 ? -1 : 1;
+			}
+			return sequence < o.sequence ? -1 : (sequence == o.sequence ? 0 : 1);
+		}
+	}
+}
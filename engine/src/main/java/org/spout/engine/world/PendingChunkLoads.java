@@ -0,0 +1,321 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.world;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Level;
+
+import org.spout.api.Spout;
+import org.spout.api.geo.LoadOption;
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.geo.cuboid.Region;
+import org.spout.api.util.future.SimpleFuture;
+import org.spout.engine.filesystem.ChunkDataForRegion;
+
+/**
+ * The chunk loads of a region which run through the {@link ChunkLoadPipeline}.<br>
+ * <br>
+ * Requests for the same chunk share a single load. The chunk data is read on the pipeline I/O pool and decoded on the decode pool, then the region installs the chunk at the start of its
+ * tick, which is where its entities and block components are loaded. A chunk with no data on disk is remembered as missing, so later load-only requests complete at once with null until the
+ * chunk is next removed from the region.
+ */
+class PendingChunkLoads {
+	private final Source source;
+	private final ChunkLoadPipeline pipeline;
+	/**
+	 * Loads which have not completed yet, keyed by chunk key
+	 */
+	private final ConcurrentHashMap<Integer, ChunkLoad> pending = new ConcurrentHashMap<>();
+	/**
+	 * Loads which have left the pipeline and are waiting to be installed
+	 */
+	private final Queue<ChunkLoad> loaded = new ConcurrentLinkedQueue<>();
+	/**
+	 * The number of times each chunk has been removed from the region, used to detect chunk data that was read before the chunk was last removed
+	 */
+	private final AtomicIntegerArray removals = new AtomicIntegerArray(Region.CHUNKS.VOLUME);
+	/**
+	 * The keys of the chunks which were found to have no data on disk
+	 */
+	private final Set<Integer> missing = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+	/**
+	 * Creates the loads for a region
+	 *
+	 * @param source the region
+	 * @param pipeline the pipeline to run the loads on, or null to use the shared pipeline
+	 */
+	PendingChunkLoads(Source source, ChunkLoadPipeline pipeline) {
+		this.source = source;
+		this.pipeline = pipeline;
+	}
+
+	private ChunkLoadPipeline getPipeline() {
+		return pipeline == null ? ChunkLoadPipeline.getInstance() : pipeline;
+	}
+
+	/**
+	 * Requests a chunk, joining the pending load for the chunk if there is one
+	 *
+	 * @param x the local chunk x coordinate
+	 * @param y the local chunk y coordinate
+	 * @param z the local chunk z coordinate
+	 * @param generate true if the chunk should be generated when it has no data on disk
+	 * @param priority the load priority, lower values are loaded first
+	 * @return a future for the chunk
+	 */
+	public Future<Chunk> load(int x, int y, int z, boolean generate, long priority) {
+		final int key = SpoutRegion.getChunkKey(x, y, z);
+		if (!generate && missing.contains(key)) {
+			SimpleFuture<Chunk> future = new SimpleFuture<>();
+			future.setResult(null);
+			return future;
+		}
+		while (true) {
+			ChunkLoad load = pending.get(key);
+			if (load == null) {
+				load = new ChunkLoad(x, y, z, generate, priority);
+				ChunkLoad oldLoad = pending.putIfAbsent(key, load);
+				if (oldLoad == null) {
+					getPipeline().read(load);
+					return load.future;
+				}
+				load = oldLoad;
+			}
+			if (load.join(generate)) {
+				return load.future;
+			}
+		}
+	}
+
+	/**
+	 * Gets if a load for a chunk is waiting to be completed
+	 *
+	 * @param x the local chunk x coordinate
+	 * @param y the local chunk y coordinate
+	 * @param z the local chunk z coordinate
+	 * @return true if the chunk is being loaded
+	 */
+	public boolean isPending(int x, int y, int z) {
+		return pending.containsKey(SpoutRegion.getChunkKey(x, y, z));
+	}
+
+	/**
+	 * Installs the chunks which have been loaded by the pipeline and completes their futures. This must be called on the region thread.<br>
+	 * <br>
+	 * A load that read its data before the chunk was last removed, or that needs a chunk generated, falls back to a synchronous load so that the future still holds the current chunk.
+	 */
+	public void install() {
+		ChunkLoad load;
+		while ((load = loaded.poll()) != null) {
+			if (!load.close()) {
+				continue;
+			}
+			LoadOption loadopt = load.generate ? LoadOption.LOAD_GEN : LoadOption.LOAD_ONLY;
+			boolean fresh = load.removals == removals.get(load.key);
+			try {
+				SpoutChunk c;
+				if (load.chunk != null && fresh) {
+					c = source.installChunk(load.chunk, load.x, load.y, load.z, load.dataForRegion, loadopt);
+				} else {
+					if (load.chunk != null) {
+						load.chunk.setUnloadedUnchecked();
+					}
+					if (load.missing && fresh && !load.generate) {
+						c = source.getChunk(load.x, load.y, load.z, LoadOption.NO_LOAD);
+						if (c == null) {
+							missing.add(load.key);
+						}
+					} else {
+						c = source.getChunk(load.x, load.y, load.z, loadopt);
+					}
+				}
+				load.future.setResult(c);
+			} catch (RuntimeException e) {
+				load.future.setThrowable(e);
+			}
+		}
+	}
+
+	/**
+	 * Records that a chunk has been removed from the region. Data read for the chunk before this is stale, and the chunk may now have data on disk.
+	 *
+	 * @param x the local chunk x coordinate
+	 * @param y the local chunk y coordinate
+	 * @param z the local chunk z coordinate
+	 */
+	public void chunkRemoved(int x, int y, int z) {
+		int key = SpoutRegion.getChunkKey(x, y, z);
+		removals.incrementAndGet(key);
+		missing.remove(key);
+	}
+
+	/**
+	 * Completes the futures of all pending loads with null
+	 */
+	public void cancel() {
+		for (ChunkLoad load : pending.values()) {
+			load.cancel();
+		}
+		loaded.clear();
+	}
+
+	/**
+	 * The chunk store and chunk map of the region the loads belong to
+	 */
+	interface Source {
+		/**
+		 * Gets if there is data on disk for a chunk
+		 */
+		public boolean inputStreamExists(int x, int y, int z);
+
+		/**
+		 * Opens the data on disk for a chunk
+		 */
+		public InputStream getChunkInputStream(int x, int y, int z);
+
+		/**
+		 * Decodes the blocks and lighting of a chunk, off the region thread
+		 *
+		 * @return the chunk, or null if the data could not be decoded
+		 */
+		public SpoutChunk readChunk(int x, int y, int z, InputStream in, ChunkDataForRegion dataForRegion);
+
+		/**
+		 * Loads the entities and block components of a decoded chunk and adds it to the region, on the region thread
+		 *
+		 * @return the chunk in the region, which is an existing chunk if one was added first
+		 */
+		public SpoutChunk installChunk(SpoutChunk chunk, int x, int y, int z, ChunkDataForRegion dataForRegion, LoadOption loadopt);
+
+		/**
+		 * Gets a chunk synchronously
+		 */
+		public SpoutChunk getChunk(int x, int y, int z, LoadOption loadopt);
+	}
+
+	/**
+	 * A single chunk load. The chunk data is read on the pipeline I/O pool, decoded on the decode pool and the chunk is then installed by the region thread.
+	 */
+	private class ChunkLoad extends ChunkLoadPipeline.Task {
+		private final int x, y, z;
+		private final int key;
+		private final SimpleFuture<Chunk> future = new SimpleFuture<>();
+		// Guarded by this
+		private boolean generate;
+		private boolean closed = false;
+		// Only accessed by the stage currently running the load
+		private boolean read = false;
+		private boolean missing = false;
+		private int removals;
+		private InputStream in;
+		private SpoutChunk chunk;
+		private ChunkDataForRegion dataForRegion;
+
+		public ChunkLoad(int x, int y, int z, boolean generate, long priority) {
+			super(priority);
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.key = SpoutRegion.getChunkKey(x, y, z);
+			this.generate = generate;
+		}
+
+		/**
+		 * Adds another request to this load
+		 *
+		 * @param generate true if the request also needs the chunk generated when there is no chunk data
+		 * @return false if the load has already completed
+		 */
+		public synchronized boolean join(boolean generate) {
+			if (closed) {
+				return false;
+			}
+			this.generate |= generate;
+			return true;
+		}
+
+		/**
+		 * Closes the load to new requests and removes it from the pending loads
+		 *
+		 * @return false if the load was already closed
+		 */
+		public synchronized boolean close() {
+			if (closed) {
+				return false;
+			}
+			closed = true;
+			pending.remove(key, this);
+			return true;
+		}
+
+		private synchronized boolean isClosed() {
+			return closed;
+		}
+
+		@Override
+		void cancel() {
+			if (close()) {
+				future.setResult(null);
+			}
+		}
+
+		@Override
+		public void run() {
+			if (isClosed()) {
+				return;
+			}
+			try {
+				if (!read) {
+					read = true;
+					removals = PendingChunkLoads.this.removals.get(key);
+					if (source.inputStreamExists(x, y, z)) {
+						in = source.getChunkInputStream(x, y, z);
+						getPipeline().decode(this);
+						return;
+					}
+					missing = true;
+				} else {
+					dataForRegion = new ChunkDataForRegion();
+					chunk = source.readChunk(x, y, z, in, dataForRegion);
+					in = null;
+				}
+			} catch (RuntimeException e) {
+				Spout.getLogger().log(Level.SEVERE, "Exception when loading chunk " + x + ", " + y + ", " + z + " in " + source, e);
+				chunk = null;
+			}
+			loaded.add(this);
+		}
+	}
+}
@@ -26,23 +26,32 @@
  */
 package org.spout.engine.world;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-import org.spout.api.Platform;
 import org.spout.api.Spout;
+import org.spout.api.generator.ColumnWorldGenerator;
+import org.spout.api.generator.WorldGenerator;
 import org.spout.api.geo.LoadOption;
+import org.spout.api.geo.World;
 import org.spout.api.geo.cuboid.Chunk;
 import org.spout.api.geo.cuboid.Region;
 import org.spout.api.lighting.LightingManager;
-import org.spout.api.material.BlockMaterial;
+import org.spout.api.material.BlockPropertyTable;
+import org.spout.api.material.MaterialRegistry;
 import org.spout.api.material.block.BlockFace;
 import org.spout.api.material.block.BlockFaces;
+import org.spout.api.material.block.BlockFullState;
 import org.spout.api.math.GenericMath;
 import org.spout.api.math.IntVector3;
 import org.spout.api.scheduler.SnapshotLock;
@@ -50,7 +59,6 @@ import org.spout.api.util.Named;
 import org.spout.api.util.cuboid.CuboidBlockMaterialBuffer;
 import org.spout.api.util.cuboid.CuboidLightBuffer;
 import org.spout.api.util.map.concurrent.AtomicBlockStore;
-import org.spout.api.util.map.concurrent.palette.AtomicPaletteBlockStore;
 import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
 
 public class RegionGenerator implements Named {
@@ -59,6 +67,10 @@ public class RegionGenerator implements Named {
 					Runtime.getRuntime().availableProcessors() * 2 + 1,
 					new NamedThreadFactory("RegionGenerator - async pool",
 							true));
+	/**
+	 * Pool for the parallel phases of column generation.  Tasks submitted from the async pool wait for their phase to complete.
+	 */
+	private final static ForkJoinPool phasePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 	private final SpoutRegion region;
 	private final SpoutWorld world;
 	private final Lock[][] columnLocks;
@@ -162,7 +174,7 @@ public class RegionGenerator implements Named {
 
 			LightingManager<?>[] managers = world.getLightingManagers();
 
-			CuboidLightBuffer[][][][] buffers = new CuboidLightBuffer[managers.length][][][];
+			final CuboidLightBuffer[][][][] buffers = new CuboidLightBuffer[managers.length][][][];
 
 			boolean success = false;
 			success |= generated.compareAndSet(GenerateState.NONE, sync ? GenerateState.IN_PROGRESS_SYNC : GenerateState.IN_PROGRESS_ASYNC);
@@ -182,7 +194,7 @@ public class RegionGenerator implements Named {
 			int czz = cz + z;
 
 			final CuboidBlockMaterialBuffer buffer = new CuboidBlockMaterialBuffer(cxx << Chunk.BLOCKS.BITS, cy << Chunk.BLOCKS.BITS, czz << Chunk.BLOCKS.BITS, Chunk.BLOCKS.SIZE << shift, Region.BLOCKS.SIZE, Chunk.BLOCKS.SIZE << shift);
-			world.getGenerator().generate(buffer, world);
+			generateParallel(world.getGenerator(), world, buffer);
 
 			int[][] heights = new int[Chunk.BLOCKS.SIZE << shift][Chunk.BLOCKS.SIZE << shift];
 
@@ -196,22 +208,7 @@ public class RegionGenerator implements Named {
 						int regionHeight = (genHeights[7][7] >> Region.BLOCKS.BITS);
 						if (regionHeight == region.getY()) {
 							int[][] generatedHeights = new int[Chunk.BLOCKS.SIZE][Chunk.BLOCKS.SIZE];
-							for (int blockX = 0; blockX < Chunk.BLOCKS.SIZE; blockX++) {
-								int blWorldX = blockX + (colWorldX << Chunk.BLOCKS.BITS);
-								for (int blockZ = 0; blockZ < Chunk.BLOCKS.SIZE; blockZ++) {
-									int blWorldZ = blockZ + (colWorldZ << Chunk.BLOCKS.BITS);
-									int topY = buffer.getTop().getFloorY();
-									int botY = buffer.getBase().getFloorY();
-									generatedHeights[blockX][blockZ] = region.getBlockY() - 1;
-									for (int blY = topY - 1; blY >= botY; blY--) {
-										BlockMaterial m = buffer.get(blWorldX, blY, blWorldZ);
-										if (m.isSurface()) {
-											generatedHeights[blockX][blockZ] = blY;
-											break;
-										}
-									}
-								}
-							}
+							scanSurfaceHeights(buffer, colWorldX << Chunk.BLOCKS.BITS, colWorldZ << Chunk.BLOCKS.BITS, generatedHeights, region.getBlockY() - 1);
 							SnapshotLock lock = Spout.getScheduler().getSnapshotLock();
 							lock.readLock(colLock);
 							try {
@@ -239,28 +236,52 @@ public class RegionGenerator implements Named {
 				}
 			}
 
+			final AtomicBlockStore[][][] blockStores = new AtomicBlockStore[width][Region.CHUNKS.SIZE][width];
+
+			List<ForkJoinTask<?>> tasks = new ArrayList<>(managers.length + width * width);
+
 			for (int i = 0; i < managers.length; i++) {
-				buffers[i] = managers[i].bulkInitializeUnchecked(buffer, heights);
+				final LightingManager<?> manager = managers[i];
+				final int managerIndex = i;
+				final int[][] finalHeights = heights;
+				tasks.add(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute() {
+						buffers[managerIndex] = manager.bulkInitializeUnchecked(buffer, finalHeights);
+					}
+				});
 			}
 
-			AtomicBlockStore[][][] blockStores = new AtomicBlockStore[width][Region.CHUNKS.SIZE][width];
-
 			for (int xx = 0; xx < width; xx++) {
-				cxx = cx + x + xx;
+				final int colX = xx;
+				final int chunkWorldX = cx + x + xx;
 				for (int zz = 0; zz < width; zz++) {
-					czz = cz + z + zz;
-					for (int yy = Region.CHUNKS.SIZE - 1; yy >= 0; yy--) {
-						int cyy = cy + yy;
-						final CuboidBlockMaterialBuffer chunk = new CuboidBlockMaterialBuffer(cxx << Chunk.BLOCKS.BITS, cyy << Chunk.BLOCKS.BITS, czz << Chunk.BLOCKS.BITS, Chunk.BLOCKS.SIZE, Chunk.BLOCKS.SIZE, Chunk.BLOCKS.SIZE);
-						chunk.write(buffer);
-						blockStores[xx][yy][zz] = new AtomicPaletteBlockStore(Chunk.BLOCKS.BITS, Spout.getEngine().getPlatform() == Platform.CLIENT, true, 10, chunk.getRawId(), chunk.getRawData());
-					}
-					if (generated.get().done(sync)) {
-						return;
-					}
+					final int colZ = zz;
+					final int chunkWorldZ = cz + z + zz;
+					tasks.add(new RecursiveAction() {
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						protected void compute() {
+							for (int yy = Region.CHUNKS.SIZE - 1; yy >= 0; yy--) {
+								int cyy = cy + yy;
+								final CuboidBlockMaterialBuffer chunk = new CuboidBlockMaterialBuffer(chunkWorldX << Chunk.BLOCKS.BITS, cyy << Chunk.BLOCKS.BITS, chunkWorldZ << Chunk.BLOCKS.BITS, Chunk.BLOCKS.SIZE, Chunk.BLOCKS.SIZE, Chunk.BLOCKS.SIZE);
+								chunk.write(buffer);
+								blockStores[colX][yy][colZ] = SpoutChunk.createBlockStore(chunk.getRawId(), chunk.getRawData(), true);
+							}
+						}
+					});
 				}
 			}
 
+			runPhase(tasks);
+
+			if (generated.get().done(sync)) {
+				return;
+			}
+
 			SnapshotLock lock = Spout.getScheduler().getSnapshotLock();
 
 			lock.readLock(colLock);
@@ -310,8 +331,134 @@ public class RegionGenerator implements Named {
 		}
 	}
 
+	/**
+	 * Fills a buffer using a world generator.  If the generator is a {@link ColumnWorldGenerator}, the buffer is split into chunk columns, which are generated in parallel and copied into the
+	 * buffer.  Other generators are given the whole buffer.<br> <br> The buffer must be aligned to chunk columns in the x and z directions.
+	 *
+	 * @param generator the world generator
+	 * @param world the world to generate for
+	 * @param buffer the buffer to fill
+	 */
+	public static void generateParallel(final WorldGenerator generator, final World world, final CuboidBlockMaterialBuffer buffer) {
+		final int baseX = buffer.getBase().getFloorX();
+		final int baseY = buffer.getBase().getFloorY();
+		final int baseZ = buffer.getBase().getFloorZ();
+		final int sizeY = buffer.getSize().getFloorY();
+		int columnsX = buffer.getSize().getFloorX() >> Chunk.BLOCKS.BITS;
+		int columnsZ = buffer.getSize().getFloorZ() >> Chunk.BLOCKS.BITS;
+
+		if (columnsX * columnsZ <= 1 || !(generator instanceof ColumnWorldGenerator)) {
+			generator.generate(buffer, world);
+			return;
+		}
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(columnsX * columnsZ);
+		for (int colX = 0; colX < columnsX; colX++) {
+			final int bx = baseX + (colX << Chunk.BLOCKS.BITS);
+			for (int colZ = 0; colZ < columnsZ; colZ++) {
+				final int bz = baseZ + (colZ << Chunk.BLOCKS.BITS);
+				tasks.add(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute() {
+						CuboidBlockMaterialBuffer column = new CuboidBlockMaterialBuffer(bx, baseY, bz, Chunk.BLOCKS.SIZE, sizeY, Chunk.BLOCKS.SIZE);
+						generator.generate(column, world);
+						copyColumn(column, buffer);
+					}
+				});
+			}
+		}
+		runPhase(tasks);
+	}
+
+	/**
+	 * Copies a chunk column buffer into a larger buffer that contains it.  Unlike {@link CuboidBlockMaterialBuffer#write}, this does not modify the target buffer's state, so disjoint columns can be
+	 * copied concurrently.
+	 */
+	private static void copyColumn(CuboidBlockMaterialBuffer column, CuboidBlockMaterialBuffer target) {
+		short[] sourceId = column.getRawId();
+		short[] sourceData = column.getRawData();
+		short[] targetId = target.getRawId();
+		short[] targetData = target.getRawData();
+
+		int targetSizeX = target.getSize().getFloorX();
+		int targetSizeZ = target.getSize().getFloorZ();
+		int targetYinc = targetSizeX * targetSizeZ;
+		int offsetX = column.getBase().getFloorX() - target.getBase().getFloorX();
+		int offsetZ = column.getBase().getFloorZ() - target.getBase().getFloorZ();
+		int sizeY = column.getSize().getFloorY();
+
+		int sourceIndex = 0;
+		int targetRowStart = offsetZ * targetSizeX + offsetX;
+		for (int y = 0; y < sizeY; y++) {
+			int targetIndex = targetRowStart;
+			for (int z = 0; z < Chunk.BLOCKS.SIZE; z++) {
+				System.arraycopy(sourceId, sourceIndex, targetId, targetIndex, Chunk.BLOCKS.SIZE);
+				System.arraycopy(sourceData, sourceIndex, targetData, targetIndex, Chunk.BLOCKS.SIZE);
+				sourceIndex += Chunk.BLOCKS.SIZE;
+				targetIndex += targetSizeX;
+			}
+			targetRowStart += targetYinc;
+		}
+	}
+
+	/**
+	 * Finds the height of the highest surface block for each block column in a chunk column.  The raw id and data arrays are scanned downwards against the surface flags of the block property
+	 * table.
+	 *
+	 * @param buffer the buffer to scan
+	 * @param blockX the x coordinate of the chunk column's base block
+	 * @param blockZ the z coordinate of the chunk column's base block
+	 * @param heights the array to place the heights, indexed by [x][z]
+	 * @param noSurface the height to use when a column contains no surface blocks
+	 */
+	public static void scanSurfaceHeights(CuboidBlockMaterialBuffer buffer, int blockX, int blockZ, int[][] heights, int noSurface) {
+		short[] ids = buffer.getRawId();
+		short[] data = buffer.getRawData();
+
+		int baseY = buffer.getBase().getFloorY();
+		int sizeX = buffer.getSize().getFloorX();
+		int sizeY = buffer.getSize().getFloorY();
+		int sizeZ = buffer.getSize().getFloorZ();
+		int yInc = sizeX * sizeZ;
+		int offsetX = blockX - buffer.getBase().getFloorX();
+		int offsetZ = blockZ - buffer.getBase().getFloorZ();
+
+		BlockPropertyTable properties = MaterialRegistry.getBlockProperties();
+
+		for (int x = 0; x < Chunk.BLOCKS.SIZE; x++) {
+			for (int z = 0; z < Chunk.BLOCKS.SIZE; z++) {
+				int index = (sizeY - 1) * yInc + (offsetZ + z) * sizeX + offsetX + x;
+				heights[x][z] = noSurface;
+				for (int y = sizeY - 1; y >= 0; y--) {
+					if (properties.isSurface(BlockFullState.getPacked(ids[index], data[index]))) {
+						heights[x][z] = baseY + y;
+						break;
+					}
+					index -= yInc;
+				}
+			}
+		}
+	}
+
+	private static void runPhase(final List<ForkJoinTask<?>> tasks) {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		phasePool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+	}
+
 	public static void shutdownExecutorService() {
 		pool.shutdown();
+		phasePool.shutdown();
 	}
 
 	public static void awaitExecutorServiceTermination() {
@@ -98,6 +98,8 @@ public class RegionSource implements Iterable<Region> {
 								Spout.getLogger().info("Regions loaded dropped below zero");
 							}
 
+							r.cancelPendingLoads();
+
 							Spout.getEventManager().callDelayedEvent(new RegionUnloadEvent(world, r));
 
 							r.unlinkNeighbours();
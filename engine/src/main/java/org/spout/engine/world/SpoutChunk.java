@@ -30,10 +30,13 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.lang.ref.WeakReference;
 import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +50,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 
 import com.google.common.collect.Sets;
@@ -87,6 +91,7 @@ import org.spout.api.lighting.LightingManager;
 import org.spout.api.lighting.LightingRegistry;
 import org.spout.api.lighting.Modifiable;
 import org.spout.api.material.BlockMaterial;
+import org.spout.api.material.BlockPropertyTable;
 import org.spout.api.material.DynamicMaterial;
 import org.spout.api.material.DynamicUpdateEntry;
 import org.spout.api.material.MaterialRegistry;
@@ -100,9 +105,9 @@ import org.spout.api.math.IntVector3;
 import org.spout.api.math.Vector3;
 import org.spout.api.protocol.event.BlockUpdateEvent;
 import org.spout.api.protocol.event.ChunkSendEvent;
+import org.spout.api.protocol.event.MultiBlockUpdateEvent;
 import org.spout.api.render.RenderMaterial;
 import org.spout.api.scheduler.TickStage;
-import org.spout.api.util.bytebit.ByteBitSet;
 import org.spout.api.util.cuboid.CuboidBlockMaterialBuffer;
 import org.spout.api.util.cuboid.CuboidLightBuffer;
 import org.spout.api.util.hashing.NibbleQuadHashed;
@@ -110,6 +115,7 @@ import org.spout.api.util.list.concurrent.setqueue.SetQueue;
 import org.spout.api.util.list.concurrent.setqueue.SetQueueElement;
 import org.spout.api.util.map.concurrent.AtomicBlockStore;
 import org.spout.api.util.map.concurrent.palette.AtomicPaletteBlockStore;
+import org.spout.api.util.map.concurrent.palette.UniformBlockStore;
 import org.spout.engine.SpoutConfiguration;
 import org.spout.engine.entity.SpoutEntity;
 import org.spout.engine.entity.SpoutPlayer;
@@ -120,18 +126,22 @@ import org.spout.engine.world.physics.UpdateQueue;
 
 public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	public static final WeakReference<SpoutChunk> NULL_WEAK_REFERENCE = new WeakReference<>(null);
+	/**
+	 * The number of changed blocks tracked per tick.  Observers are sent a full copy of the chunk, rather than a block delta, once this is exceeded.
+	 */
+	public static final int DIRTY_BLOCK_LIMIT = 64;
 	//Not static to allow the engine to parse values first
 	private final int autosaveInterval = SpoutConfiguration.AUTOSAVE_INTERVAL.getInt(60000);
-	private final Set<SpoutEntity> observers = Sets.newSetFromMap(new ConcurrentHashMap<SpoutEntity, Boolean>());
-	private final Set<SpoutEntity> unmodifiableObservers = Collections.unmodifiableSet(observers);
-	private final Set<SpoutPlayer> observingPlayers = Sets.newSetFromMap(new ConcurrentHashMap<SpoutPlayer, Boolean>());
-	private final Set<SpoutPlayer> unmodifiableObservingPlayers = Collections.unmodifiableSet(observingPlayers);
 	/**
-	 * An entity may still exist but no longer be an observer. As such, we need to remove all entities that it was observing. The following three variables deal with this.
+	 * The observer sets for this chunk.  These are only created when the chunk is first observed, since most loaded chunks are never observed directly.
+	 */
+	private final AtomicReference<ChunkObservers> observers = new AtomicReference<>();
+	/**
+	 * Live, unmodifiable views of the observer sets, which are empty until the observer sets are created
 	 */
-	private final ConcurrentLinkedQueue<SpoutEntity> expiredObserversQueue = new ConcurrentLinkedQueue<>();
-	private final LinkedHashSet<SpoutEntity> expiredObservers = new LinkedHashSet<>();
-	private final Set<SpoutEntity> unmodifiableExpiredObservers = Collections.unmodifiableSet(expiredObservers);
+	private final Set<SpoutEntity> observersView = new ObserverView<>(ObserverView.OBSERVERS);
+	private final Set<SpoutPlayer> observingPlayersView = new ObserverView<>(ObserverView.OBSERVING_PLAYERS);
+	private final Set<SpoutEntity> expiredObserversView = new ObserverView<>(ObserverView.EXPIRED_OBSERVERS);
 	/**
 	 * Not thread safe, synchronize on access
 	 */
@@ -142,9 +152,11 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	private static final int restrictedStages = TickStage.PHYSICS | TickStage.DYNAMIC_BLOCKS;
 	private static final int allowedStages = TickStage.STAGE1 | TickStage.STAGE2P | TickStage.TICKSTART | TickStage.GLOBAL_PHYSICS | TickStage.GLOBAL_DYNAMIC_BLOCKS;
 	/**
-	 * Storage for block ids, data and auxiliary data. For blocks with data = 0 and auxiliary data = null, the block is stored as a short.
+	 * Storage for block ids, data and auxiliary data. For blocks with data = 0 and auxiliary data = null, the block is stored as a short.<br> <br> Uniform chunks use a {@link UniformBlockStore}
+	 * shared with every other chunk of the same state.  It is replaced by a writable store, using {@link #getWritableBlockStore()}, before the first block change.
 	 */
-	protected AtomicBlockStore blockStore;
+	protected volatile AtomicBlockStore blockStore;
+	private static final AtomicReferenceFieldUpdater<SpoutChunk, AtomicBlockStore> blockStoreUpdater = AtomicReferenceFieldUpdater.newUpdater(SpoutChunk.class, AtomicBlockStore.class, "blockStore");
 	/**
 	 * Indicates that the chunk should be saved if unloaded
 	 */
@@ -183,7 +195,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	/**
 	 * A set of all blocks in this chunk that need a physics update in the next tick. The coordinates in this set are relative to the <b>Region</b> containing the chunk.
 	 */
-	private final PhysicsQueue physicsQueue;
+	private final AtomicReference<PhysicsQueue> physicsQueue = new AtomicReference<>();
 	private final SpoutScheduler scheduler;
 	/**
 	 * Keeps track if the chunk has been modified since it's last save
@@ -199,6 +211,15 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	 */
 	private final AtomicReference<CuboidLightBuffer[]> lightBuffers = new AtomicReference<>(new CuboidLightBuffer[0]);
 	private final static CuboidLightBuffer[] lightBufferExample = new CuboidLightBuffer[0];
+	/**
+	 * Incremented after every modification, used to validate the cached light buffer copies
+	 */
+	private final AtomicInteger modifiedVersion = new AtomicInteger(0);
+	private volatile LightBufferCopies lightBufferCopies = null;
+	/**
+	 * The block changes for the current tick, shared by all observers of the chunk
+	 */
+	private volatile BlockDelta blockDelta = null;
 	/**
 	 * This field is used to store a "fake" observer for force queuing population.
 	 */
@@ -237,11 +258,11 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	}
 
 	public SpoutChunk(SpoutWorld world, SpoutRegion region, float x, float y, float z, PopulationState popState, int[] palette, int blockArrayWidth, int[] variableWidthBlockArray, ManagedHashMap extraData, boolean lightStable) {
-		this(world, region, x, y, z, popState, extraData, new AtomicPaletteBlockStore(BLOCKS.BITS, Spout.getEngine().getPlatform() == Platform.CLIENT, true, 10, palette, blockArrayWidth, variableWidthBlockArray));
+		this(world, region, x, y, z, popState, extraData, palette.length == 1 ? UniformBlockStore.get(BLOCKS.BITS, palette[0]) : new AtomicPaletteBlockStore(BLOCKS.BITS, Spout.getEngine().getPlatform() == Platform.CLIENT, true, DIRTY_BLOCK_LIMIT, palette, blockArrayWidth, variableWidthBlockArray));
 	}
 
 	public SpoutChunk(SpoutWorld world, SpoutRegion region, float x, float y, float z, PopulationState popState, short[] blocks, short[] data, ManagedHashMap extraData, boolean lightStable) {
-		this(world, region, x, y, z, popState, extraData, new AtomicPaletteBlockStore(BLOCKS.BITS, Spout.getEngine().getPlatform() == Platform.CLIENT, false, 10, blocks, data));
+		this(world, region, x, y, z, popState, extraData, createBlockStore(blocks, data, false));
 	}
 
 	private SpoutChunk(SpoutWorld world, SpoutRegion region, float x, float y, float z, PopulationState popState, ManagedHashMap extraData, AtomicBlockStore blockStore) {
@@ -257,8 +278,6 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 			this.dataMap = new ManagedHashMap();
 		}
 
-		physicsQueue = new PhysicsQueue(this);
-
 		if (Spout.getPlatform() == Platform.CLIENT) {
 			column = world.getColumn(this.getX(), this.getZ(), LoadOption.NO_LOAD);
 		} else {
@@ -305,7 +324,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		int by = y & BLOCKS.MASK;
 		int bz = z & BLOCKS.MASK;
 		try {
-			return blockStore.touchBlock(bx, by, bz);
+			return getWritableBlockStore().touchBlock(bx, by, bz);
 		} finally {
 			queueDirty();
 		}
@@ -357,6 +376,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 
 	@Override
 	public boolean commitCuboid(CuboidBlockMaterialBuffer buffer, Cause<?> cause) {
+		final AtomicBlockStore blockStore = getWritableBlockStore();
 		blockStore.writeLock();
 
 		try {
@@ -385,28 +405,50 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 
 	@Override
 	public void setCuboid(int bx, int by, int bz, CuboidBlockMaterialBuffer buffer, Cause<?> cause) {
+		final AtomicBlockStore blockStore = getWritableBlockStore();
 		blockStore.writeLock();
 		try {
-			Vector3 size = buffer.getSize();
-
-			int startX = Math.max(bx, this.getBlockX());
-			int startY = Math.max(by, this.getBlockY());
-			int startZ = Math.max(bz, this.getBlockZ());
-
-			int endX = Math.min(bx + size.getFloorX(), this.getBlockX() + BLOCKS.SIZE - 1);
-			int endY = Math.min(by + size.getFloorY(), this.getBlockY() + BLOCKS.SIZE - 1);
-			int endZ = Math.min(bz + size.getFloorZ(), this.getBlockZ() + BLOCKS.SIZE - 1);
-
-			Vector3 base = buffer.getBase();
-
-			int offX = bx - base.getFloorX();
-			int offY = by - base.getFloorY();
-			int offZ = bz - base.getFloorZ();
+			CuboidOverlap overlap = new CuboidOverlap(bx, by, bz, buffer);
+			if (overlap.isEmpty()) {
+				return;
+			}
 
-			for (int dx = startX; dx < endX; dx++) {
-				for (int dy = startY; dy < endY; dy++) {
-					for (int dz = startZ; dz < endZ; dz++) {
-						setBlockMaterial(dx, dy, dz, buffer.get(dx - offX, dy - offY, dz - offZ), buffer.getData(dx - offX, dy - offY, dz - offZ), cause, false);
+			checkChunkLoaded();
+			checkBlockStoreUpdateAllowed();
+
+			short[] ids = buffer.getRawId();
+			short[] datas = buffer.getRawData();
+			int[] row = new int[overlap.length];
+
+			// Materials usually repeat along a row, so the sub-material lookup is only redone when the buffer state changes
+			int lastState = -1;
+			BlockMaterial material = null;
+			short data = 0;
+			int newState = 0;
+
+			for (int dy = overlap.startY; dy < overlap.endY; dy++) {
+				for (int dz = overlap.startZ; dz < overlap.endZ; dz++) {
+					int storeIndex = overlap.getStoreIndex(dy, dz);
+					int bufferIndex = overlap.getBufferIndex(dy, dz);
+					blockStore.getFullData(storeIndex, row, 0, row.length);
+					for (int i = 0; i < row.length; i++) {
+						int state = BlockFullState.getPacked(ids[bufferIndex + i], datas[bufferIndex + i]);
+						if (state != lastState) {
+							lastState = state;
+							data = BlockFullState.getData(state);
+							material = BlockMaterial.get(BlockFullState.getId(state), data).getSubMaterial(data);
+							short dataMask = material.getDataMask();
+							data = (short) ((data & ~dataMask) | (material.getData() & dataMask));
+							newState = BlockFullState.getPacked(material.getId(), data);
+						}
+						if (row[i] == newState) {
+							continue;
+						}
+						int x = overlap.startX + i;
+						int oldState = getAndSetBlock(x, dy, dz, material.getId(), data);
+						if (oldState != newState) {
+							blockChanged(x, dy, dz, material, data, MaterialRegistry.get(oldState), BlockFullState.getData(oldState), cause);
+						}
 					}
 				}
 			}
@@ -419,38 +461,35 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	 * @return true if all materials are the same
 	 */
 	public boolean testCuboid(int bx, int by, int bz, CuboidBlockMaterialBuffer buffer) {
+		final AtomicBlockStore blockStore = this.blockStore;
 		blockStore.writeLock();
 		try {
-			Vector3 size = buffer.getSize();
-
-			int startX = Math.max(bx, this.getBlockX());
-			int startY = Math.max(by, this.getBlockY());
-			int startZ = Math.max(bz, this.getBlockZ());
-
-			int endX = Math.min(bx + size.getFloorX(), this.getBlockX() + BLOCKS.SIZE - 1);
-			int endY = Math.min(by + size.getFloorY(), this.getBlockY() + BLOCKS.SIZE - 1);
-			int endZ = Math.min(bz + size.getFloorZ(), this.getBlockZ() + BLOCKS.SIZE - 1);
-
-			Vector3 base = buffer.getBase();
-
-			int offX = bx - base.getFloorX();
-			int offY = by - base.getFloorY();
-			int offZ = bz - base.getFloorZ();
+			CuboidOverlap overlap = new CuboidOverlap(bx, by, bz, buffer);
+			if (overlap.isEmpty()) {
+				return true;
+			}
 
-			for (int dx = startX; dx < endX; dx++) {
-				for (int dy = startY; dy < endY; dy++) {
-					for (int dz = startZ; dz < endZ; dz++) {
-						BlockMaterial worldMaterial = getBlockMaterial(dx, dy, dz);
-						BlockMaterial bufferMaterial = buffer.get(dx - offX, dy - offY, dz - offZ);
+			short[] ids = buffer.getRawId();
+			short[] datas = buffer.getRawData();
+			int[] row = new int[overlap.length];
+
+			for (int dy = overlap.startY; dy < overlap.endY; dy++) {
+				for (int dz = overlap.startZ; dz < overlap.endZ; dz++) {
+					int bufferIndex = overlap.getBufferIndex(dy, dz);
+					blockStore.getFullData(overlap.getStoreIndex(dy, dz), row, 0, row.length);
+					for (int i = 0; i < row.length; i++) {
+						short bufferId = ids[bufferIndex + i];
+						short bufferData = datas[bufferIndex + i];
+						int worldState = row[i];
+						if (worldState == BlockFullState.getPacked(bufferId, bufferData)) {
+							continue;
+						}
 
-						if (worldMaterial != bufferMaterial) {
+						if (BlockFullState.getData(worldState) != bufferData) {
 							return false;
 						}
 
-						short worldData = getBlockData(dx, dy, dz);
-						short bufferData = buffer.getData(dx - offX, dy - offY, dz - offZ);
-
-						if (worldData != bufferData) {
+						if (BlockFullState.getMaterial(worldState) != BlockMaterial.get(bufferId, bufferData)) {
 							return false;
 						}
 					}
@@ -488,29 +527,33 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 
 	@Override
 	public void getCuboid(int bx, int by, int bz, CuboidBlockMaterialBuffer buffer) {
+		final AtomicBlockStore blockStore = this.blockStore;
 		blockStore.writeLock();
 		try {
-			Vector3 size = buffer.getSize();
-
-			int startX = Math.max(bx, this.getBlockX());
-			int startY = Math.max(by, this.getBlockY());
-			int startZ = Math.max(bz, this.getBlockZ());
-
-			int endX = Math.min(bx + size.getFloorX(), this.getBlockX() + BLOCKS.SIZE);
-			int endY = Math.min(by + size.getFloorY(), this.getBlockY() + BLOCKS.SIZE);
-			int endZ = Math.min(bz + size.getFloorZ(), this.getBlockZ() + BLOCKS.SIZE);
-
-			Vector3 base = buffer.getBase();
-
-			int offX = bx - base.getFloorX();
-			int offY = by - base.getFloorY();
-			int offZ = bz - base.getFloorZ();
+			CuboidOverlap overlap = new CuboidOverlap(bx, by, bz, buffer);
+			if (overlap.isEmpty()) {
+				return;
+			}
 
-			for (int dx = startX; dx < endX; dx++) {
-				for (int dy = startY; dy < endY; dy++) {
-					for (int dz = startZ; dz < endZ; dz++) {
-						int packed = this.getBlockFullState(dx, dy, dz);
-						buffer.set(dx - offX, dy - offY, dz - offZ, BlockFullState.getMaterial(packed).getId(), BlockFullState.getData(packed));
+			short[] ids = buffer.getRawId();
+			short[] datas = buffer.getRawData();
+			int[] row = new int[overlap.length];
+
+			int lastState = -1;
+			short id = 0;
+
+			for (int dy = overlap.startY; dy < overlap.endY; dy++) {
+				for (int dz = overlap.startZ; dz < overlap.endZ; dz++) {
+					int bufferIndex = overlap.getBufferIndex(dy, dz);
+					blockStore.getFullData(overlap.getStoreIndex(dy, dz), row, 0, row.length);
+					for (int i = 0; i < row.length; i++) {
+						int packed = row[i];
+						if (packed != lastState) {
+							lastState = packed;
+							id = BlockFullState.getMaterial(packed).getId();
+						}
+						ids[bufferIndex + i] = id;
+						datas[bufferIndex + i] = BlockFullState.getData(packed);
 					}
 				}
 			}
@@ -519,6 +562,51 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		}
 	}
 
+	/**
+	 * The overlap between this chunk and a cuboid buffer placed at a given base, used to walk both row by row.  Rows run along the x axis, which is contiguous in both the block store and the buffer.
+	 */
+	private class CuboidOverlap {
+		private final int startX, startY, startZ;
+		private final int endX, endY, endZ;
+		private final int length;
+		private final int bufferBase;
+		private final int bufferZinc;
+		private final int bufferYinc;
+
+		public CuboidOverlap(int bx, int by, int bz, CuboidBlockMaterialBuffer buffer) {
+			Vector3 size = buffer.getSize();
+			int sizeX = size.getFloorX();
+			int sizeZ = size.getFloorZ();
+
+			startX = Math.max(bx, getBlockX());
+			startY = Math.max(by, getBlockY());
+			startZ = Math.max(bz, getBlockZ());
+
+			endX = Math.min(bx + sizeX, getBlockX() + BLOCKS.SIZE);
+			endY = Math.min(by + size.getFloorY(), getBlockY() + BLOCKS.SIZE);
+			endZ = Math.min(bz + sizeZ, getBlockZ() + BLOCKS.SIZE);
+
+			length = endX - startX;
+
+			// The buffer is placed so that its first element lines up with (bx, by, bz)
+			bufferZinc = sizeX;
+			bufferYinc = sizeX * sizeZ;
+			bufferBase = startX - bx - by * bufferYinc - bz * bufferZinc;
+		}
+
+		public boolean isEmpty() {
+			return startX >= endX || startY >= endY || startZ >= endZ;
+		}
+
+		public int getBufferIndex(int y, int z) {
+			return bufferBase + y * bufferYinc + z * bufferZinc;
+		}
+
+		public int getStoreIndex(int y, int z) {
+			return ((y & BLOCKS.MASK) << BLOCKS.DOUBLE_BITS) + ((z & BLOCKS.MASK) << BLOCKS.BITS) + (startX & BLOCKS.MASK);
+		}
+	}
+
 	@Override
 	public void resetDynamicBlock(int x, int y, int z) {
 		parentRegion.resetDynamicBlock(getBlockX(x), getBlockY(y), getBlockZ(z));
@@ -603,7 +691,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		rx += (getX() & Region.CHUNKS.MASK) << BLOCKS.BITS;
 		ry += (getY() & Region.CHUNKS.MASK) << BLOCKS.BITS;
 		rz += (getZ() & Region.CHUNKS.MASK) << BLOCKS.BITS;
-		physicsQueue.queueForUpdateAsync(rx, ry, rz, range, oldMaterial);
+		getPhysicsQueue().queueForUpdateAsync(rx, ry, rz, range, oldMaterial);
 	}
 
 	@Override
@@ -619,7 +707,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		rx += (getX() & Region.CHUNKS.MASK) << BLOCKS.BITS;
 		ry += (getY() & Region.CHUNKS.MASK) << BLOCKS.BITS;
 		rz += (getZ() & Region.CHUNKS.MASK) << BLOCKS.BITS;
-		physicsQueue.queueForUpdate(rx, ry, rz, oldMaterial);
+		getPhysicsQueue().queueForUpdate(rx, ry, rz, oldMaterial);
 	}
 
 	@Override
@@ -746,18 +834,18 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 			case NO_BLOCK_DATA:
 				break;
 			case BLOCK_IDS_ONLY:
-				blockIds = blockStore.getBlockIdArray();
+				blockIds = blockStore.getBlockIdSnapshot();
 				break;
 			case BLOCKS_ONLY:
-				blockIds = blockStore.getBlockIdArray();
-				blockData = blockStore.getDataArray();
+				blockIds = blockStore.getBlockIdSnapshot();
+				blockData = blockStore.getDataSnapshot();
 				break;
 			case LIGHT_ONLY:
 				lightBuffersCopy = copyLightBuffers();
 				break;
 			case BOTH:
-				blockIds = blockStore.getBlockIdArray();
-				blockData = blockStore.getDataArray();
+				blockIds = blockStore.getBlockIdSnapshot();
+				blockData = blockStore.getDataSnapshot();
 				lightBuffersCopy = copyLightBuffers();
 				break;
 		}
@@ -792,9 +880,10 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		if (!isPopulated()) {
 			queueForPopulation(false);
 		}
-		boolean wasEmpty = observers.isEmpty();
-		if (observers.add((SpoutEntity) entity) && (entity instanceof SpoutPlayer)) {
-			observingPlayers.add((SpoutPlayer) entity);
+		ChunkObservers o = getChunkObservers();
+		boolean wasEmpty = o.observers.isEmpty();
+		if (o.observers.add((SpoutEntity) entity) && (entity instanceof SpoutPlayer)) {
+			o.observingPlayers.add((SpoutPlayer) entity);
 			if (wasEmpty) {
 				RegionGenerator generator = getRegion().getRegionGenerator();
 				if (generator != null) {
@@ -814,10 +903,11 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		TickStage.checkStage(TickStage.FINALIZE);
 		checkChunkLoaded();
 
-		if (observers.remove(entity) && (entity instanceof SpoutPlayer)) {
-			observingPlayers.remove(entity);
+		ChunkObservers o = getChunkObservers();
+		if (o.observers.remove(entity) && (entity instanceof SpoutPlayer)) {
+			o.observingPlayers.remove(entity);
 		}
-		expiredObserversQueue.add((SpoutEntity) entity);
+		o.expiredObserversQueue.add((SpoutEntity) entity);
 		if (!isObserved()) {
 			this.unloadQueueElement.add();
 		}
@@ -826,23 +916,35 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 
 	@ServerOnly
 	public boolean isObserved() {
-		return !observers.isEmpty();
+		ChunkObservers o = observers.get();
+		return o != null && !o.observers.isEmpty();
+	}
+
+	/**
+	 * Queues this chunk to be unloaded if nothing observes it.  The chunk is kept if it is observed by the time the unload is processed.
+	 */
+	@ServerOnly
+	public void queueUnloadIfUnobserved() {
+		if (!isObserved()) {
+			this.unloadQueueElement.add();
+		}
 	}
 
 	@Override
 	@ServerOnly
 	public int getNumObservers() {
-		return observers.size();
+		ChunkObservers o = observers.get();
+		return o == null ? 0 : o.observers.size();
 	}
 
 	@Override
 	public Set<SpoutPlayer> getObservingPlayers() {
-		return unmodifiableObservingPlayers;
+		return observingPlayersView;
 	}
 
 	@Override
 	public Set<SpoutEntity> getObservers() {
-		return unmodifiableObservers;
+		return observersView;
 	}
 
 	/**
@@ -851,33 +953,118 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	 * @return the expired observers
 	 */
 	public Set<SpoutEntity> getExpiredObservers() {
-		return unmodifiableExpiredObservers;
+		return expiredObserversView;
 	}
 
 	public void updateExpiredObservers() {
-		expiredObservers.clear();
+		ChunkObservers o = observers.get();
+		if (o == null) {
+			return;
+		}
+		o.expiredObservers.clear();
 		SpoutEntity e;
-		while ((e = expiredObserversQueue.poll()) != null) {
-			if (!observers.contains(e)) {
-				expiredObservers.add(e);
+		while ((e = o.expiredObserversQueue.poll()) != null) {
+			if (!o.observers.contains(e)) {
+				o.expiredObservers.add(e);
 			}
 		}
 	}
 
+	private ChunkObservers getChunkObservers() {
+		ChunkObservers o = observers.get();
+		if (o == null) {
+			o = new ChunkObservers();
+			if (!observers.compareAndSet(null, o)) {
+				o = observers.get();
+			}
+		}
+		return o;
+	}
+
+	private PhysicsQueue getPhysicsQueue() {
+		PhysicsQueue queue = physicsQueue.get();
+		if (queue == null) {
+			queue = new PhysicsQueue(this);
+			if (!physicsQueue.compareAndSet(null, queue)) {
+				queue = physicsQueue.get();
+			}
+		}
+		return queue;
+	}
+
 	public boolean compressIfRequired() {
 		checkChunkLoaded();
 		TickStage.checkStage(TickStage.FINALIZE);
+		boolean compressed = compressLightBuffers();
 		if (!blockStore.needsCompression()) {
-			return false;
+			return compressed;
 		}
 		return compressRaw();
 	}
 
+	/**
+	 * Demotes light buffers which have become uniform or sparse since they were last compressed
+	 */
+	protected boolean compressLightBuffers() {
+		boolean compressed = false;
+		for (CuboidLightBuffer buffer : lightBuffers.get()) {
+			if (buffer != null) {
+				compressed |= buffer.compress();
+			}
+		}
+		return compressed;
+	}
+
 	protected boolean compressRaw() {
-		blockStore.compress();
+		AtomicBlockStore store = blockStore;
+		store.compress();
+		// An unobserved chunk which has become uniform goes back to the shared store, observed chunks are likely to change again soon
+		if (store.isBlockUniform() && !(store instanceof UniformBlockStore) && !isObserved() && store.tryWriteLock()) {
+			try {
+				if (!store.isDirty() && store.isBlockUniform()) {
+					blockStoreUpdater.compareAndSet(this, store, UniformBlockStore.get(BLOCKS.BITS, store.getFullData(0)));
+				}
+			} finally {
+				store.writeUnlock();
+			}
+		}
 		return true;
 	}
 
+	/**
+	 * Creates the block store for a chunk, using the shared store if all the blocks have the same state
+	 *
+	 * @param blocks the block ids
+	 * @param data the block data, or null if all block data is 0
+	 * @param compress true if the writable store should be compressed
+	 * @return the block store
+	 */
+	public static AtomicBlockStore createBlockStore(short[] blocks, short[] data, boolean compress) {
+		UniformBlockStore uniform = UniformBlockStore.get(BLOCKS.BITS, blocks, data);
+		if (uniform != null) {
+			return uniform;
+		}
+		return new AtomicPaletteBlockStore(BLOCKS.BITS, Spout.getEngine().getPlatform() == Platform.CLIENT, compress, DIRTY_BLOCK_LIMIT, blocks, data);
+	}
+
+	/**
+	 * Gets the block store for a block change.  The shared uniform store is replaced by a writable store holding the same blocks the first time this is called.
+	 *
+	 * @return the writable block store
+	 */
+	private AtomicBlockStore getWritableBlockStore() {
+		while (true) {
+			AtomicBlockStore store = blockStore;
+			if (!(store instanceof UniformBlockStore)) {
+				return store;
+			}
+			AtomicBlockStore promoted = ((UniformBlockStore) store).toPaletteStore(Spout.getEngine().getPlatform() == Platform.CLIENT, DIRTY_BLOCK_LIMIT);
+			if (blockStoreUpdater.compareAndSet(this, store, promoted)) {
+				return promoted;
+			}
+		}
+	}
+
 	public void setLightDirty(boolean dirty) {
 		lightDirty.set(dirty);
 		if (dirty) { //To send to the renderer
@@ -902,7 +1089,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	}
 
 	public void lockStore() {
-		blockStore.writeLock();
+		getWritableBlockStore().writeLock();
 	}
 
 	public void unlockStore() {
@@ -910,7 +1097,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	}
 
 	public boolean tryLockStore() {
-		return blockStore.tryWriteLock();
+		return getWritableBlockStore().tryWriteLock();
 	}
 
 	public boolean isDirtyOverflow() {
@@ -1372,6 +1559,13 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		populationState.set(state);
 	}
 
+	/**
+	 * Gets if the chunk has been queued for population with the observe flag set, so it is populated even when no player observes it, for example by the pre-generator
+	 */
+	public boolean isPopulationForced() {
+		return popObserver.get();
+	}
+
 	public void queueForPopulation(boolean priority) {
 		if (!priority) {
 			populationQueueElement.add();
@@ -1437,16 +1631,8 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	}
 
 	public void notifyColumn() {
-		for (int x = 0; x < BLOCKS.SIZE; x++) {
-			for (int z = 0; z < BLOCKS.SIZE; z++) {
-				notifyColumn(x, z);
-			}
-		}
-	}
-
-	private void notifyColumn(int x, int z) {
 		if (columnRegistered.get()) {
-			column.notifyChunkAdded(this, x, z);
+			column.notifyChunkAdded(this);
 		}
 	}
 
@@ -1501,7 +1687,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		z &= BLOCKS.MASK;
 
 		synchronized (blockComponents) {
-			int oldState = blockStore.getAndSetBlock(x, y, z, newId, newData);
+			int oldState = getWritableBlockStore().getAndSetBlock(x, y, z, newId, newData);
 			if (newId != BlockFullState.getId(oldState)) {//Only try to change if they aren't the same id
 				BlockMaterial newMaterial = MaterialRegistry.get(BlockFullState.getPacked(newId, newData));
 				short packed = NibbleQuadHashed.key(x, y, z, 0);
@@ -1589,7 +1775,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		short expId = BlockFullState.getId(expect);
 		short expData = BlockFullState.getData(expect);
 
-		boolean success = this.blockStore.compareAndSetBlock(bx & BLOCKS.MASK, by & BLOCKS.MASK, bz & BLOCKS.MASK, expId, expData, expId, data);
+		boolean success = getWritableBlockStore().compareAndSetBlock(bx & BLOCKS.MASK, by & BLOCKS.MASK, bz & BLOCKS.MASK, expId, expData, expId, data);
 		if (success && expData != data) {
 			blockChanged(bx, by, bz, expId, data, expId, expData, cause);
 		}
@@ -1686,7 +1872,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 			if (!blockEvent.isCancelled()) {
 				newId = blockEvent.getSnapshot().getMaterial().getId();
 				newData = blockEvent.getSnapshot().getData();
-				success = blockStore.compareAndSetBlock(bx, by, bz, oldId, oldData, newId, newData);
+				success = getWritableBlockStore().compareAndSetBlock(bx, by, bz, oldId, oldData, newId, newData);
 				updated = oldData != newData || oldId != newId;
 			}
 		}
@@ -1731,7 +1917,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 			if (!blockEvent.isCancelled()) {
 				newId = blockEvent.getSnapshot().getMaterial().getId();
 				newData = blockEvent.getSnapshot().getData();
-				success = blockStore.compareAndSetBlock(bx, by, bz, oldId, oldData, newId, newData);
+				success = getWritableBlockStore().compareAndSetBlock(bx, by, bz, oldId, oldData, newId, newData);
 				updated = oldData != newData || oldId != newId;
 			}
 		}
@@ -1853,6 +2039,11 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		physicsUpdates = 0;
 		SpoutWorld world = getWorld();
 
+		PhysicsQueue physicsQueue = this.physicsQueue.get();
+		if (physicsQueue == null) {
+			return false;
+		}
+
 		boolean updated = false;
 		updated |= physicsQueue.commitAsyncQueue();
 		if (updated) {
@@ -1878,6 +2069,11 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		physicsUpdates = 0;
 		SpoutWorld world = getWorld();
 
+		PhysicsQueue physicsQueue = this.physicsQueue.get();
+		if (physicsQueue == null) {
+			return;
+		}
+
 		UpdateQueue queue = physicsQueue.getMultiRegionQueue();
 
 		while (queue.hasNext()) {
@@ -1935,6 +2131,7 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 
 	@Override
 	public void setModified() {
+		modifiedVersion.incrementAndGet();
 		if (chunkModified.compareAndSet(false, true)) {
 			setAutosaveTicks(new Random().nextInt(autosaveInterval * 2));
 		}
@@ -2031,15 +2228,118 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 		return list.toArray(lightBufferExample);
 	}
 
+	/**
+	 * Gets copies of the light buffers for this chunk.  The copies are shared between snapshots until the chunk is next modified and must not be modified.
+	 */
 	protected CuboidLightBuffer[] copyLightBuffers() {
+		LightBufferCopies copies = lightBufferCopies;
+		CuboidLightBuffer[] liveArray = lightBuffers.get();
+		int version = modifiedVersion.get();
+		if (copies != null && copies.version == version && copies.live == liveArray) {
+			return copies.buffers;
+		}
 		CuboidLightBuffer[] live = getLightBuffers();
 		CuboidLightBuffer[] newArray = new CuboidLightBuffer[live.length];
 		for (int i = 0; i < live.length; i++) {
 			newArray[i] = live[i].copy();
 		}
+		if (modifiedVersion.get() == version) {
+			lightBufferCopies = new LightBufferCopies(version, liveArray, newArray);
+		}
 		return newArray;
 	}
 
+	private static class ChunkObservers {
+		private final Set<SpoutEntity> observers = Sets.newSetFromMap(new ConcurrentHashMap<SpoutEntity, Boolean>());
+		private final Set<SpoutEntity> unmodifiableObservers = Collections.unmodifiableSet(observers);
+		private final Set<SpoutPlayer> observingPlayers = Sets.newSetFromMap(new ConcurrentHashMap<SpoutPlayer, Boolean>());
+		private final Set<SpoutPlayer> unmodifiableObservingPlayers = Collections.unmodifiableSet(observingPlayers);
+		/**
+		 * An entity may still exist but no longer be an observer. As such, we need to remove all entities that it was observing. The following three variables deal with this.
+		 */
+		private final ConcurrentLinkedQueue<SpoutEntity> expiredObserversQueue = new ConcurrentLinkedQueue<>();
+		private final LinkedHashSet<SpoutEntity> expiredObservers = new LinkedHashSet<>();
+		private final Set<SpoutEntity> unmodifiableExpiredObservers = Collections.unmodifiableSet(expiredObservers);
+	}
+
+	/**
+	 * A view of one of the observer sets of this chunk, which reads through to the set once it has been created
+	 */
+	private class ObserverView<T> extends AbstractSet<T> {
+		private static final int OBSERVERS = 0;
+		private static final int OBSERVING_PLAYERS = 1;
+		private static final int EXPIRED_OBSERVERS = 2;
+		private final int type;
+
+		private ObserverView(int type) {
+			this.type = type;
+		}
+
+		@SuppressWarnings ("unchecked")
+		private Set<T> getSet() {
+			ChunkObservers o = observers.get();
+			if (o == null) {
+				return null;
+			}
+			switch (type) {
+				case OBSERVERS:
+					return (Set<T>) o.unmodifiableObservers;
+				case OBSERVING_PLAYERS:
+					return (Set<T>) o.unmodifiableObservingPlayers;
+				default:
+					return (Set<T>) o.unmodifiableExpiredObservers;
+			}
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			Set<T> set = getSet();
+			return set == null ? Collections.<T>emptyIterator() : set.iterator();
+		}
+
+		@Override
+		public int size() {
+			Set<T> set = getSet();
+			return set == null ? 0 : set.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			Set<T> set = getSet();
+			return set == null || set.isEmpty();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			Set<T> set = getSet();
+			return set != null && set.contains(o);
+		}
+	}
+
+	private static class LightBufferCopies {
+		private final int version;
+		private final CuboidLightBuffer[] live;
+		private final CuboidLightBuffer[] buffers;
+
+		private LightBufferCopies(int version, CuboidLightBuffer[] live, CuboidLightBuffer[] buffers) {
+			this.version = version;
+			this.live = live;
+			this.buffers = buffers;
+		}
+	}
+
+	private static class BlockDelta {
+		private final int version;
+		private final short[] blocks;
+		private final int[] states;
+
+		private BlockDelta(int version, short[] blocks, int[] states) {
+			this.version = version;
+			this.blocks = blocks;
+			this.states = states;
+		}
+	}
+
 	private class ChunkSetQueueElement<T extends Cube> extends SetQueueElement<T> {
 		private final boolean validIfUnloaded;
 
@@ -2134,15 +2434,15 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 				addMaterialToSet(updatedRenderMaterials, getDirtyNewState(i));
 			}
 			int size = BLOCKS.SIZE;
+			BlockPropertyTable properties = MaterialRegistry.getBlockProperties();
 			for (int i = 0; i < dirtyBlocks; i++) {
 				Vector3 blockPos = getDirtyBlock(i);
-				BlockMaterial material = getBlockMaterial(blockPos.getFloorX(), blockPos.getFloorY(), blockPos.getFloorZ());
-				ByteBitSet occlusion = material.getOcclusion(material.getData());
+				int blockState = getBlockFullState(blockPos.getFloorX(), blockPos.getFloorY(), blockPos.getFloorZ());
 				for (BlockFace face : BlockFace.values()) {
 					if (face.equals(BlockFace.THIS)) {
 						continue;
 					}
-					if (occlusion.get(face)) {
+					if (properties.isOccluding(blockState, face)) {
 						continue;
 					}
 					Vector3 neighborPos = blockPos.add(face.getOffset());
@@ -2174,29 +2474,92 @@ public class SpoutChunk extends Chunk implements Snapshotable, Modifiable {
 	@Override
 	public void sync(NetworkComponent network) {
 		if (!isDirtyOverflow() && !isLightDirty()) {
-			for (int i = 0; true; i++) {
-				Vector3 block = getDirtyBlock(i);
-				if (block == null) {
-					break;
-				}
-
-				try {
-					network.callProtocolEvent(new BlockUpdateEvent(this, block.getFloorX(), block.getFloorY(), block.getFloorZ()));
-				} catch (Exception e) {
-					Spout.getEngine().getLogger().log(Level.SEVERE, "Exception thrown by plugin when attempting to send a block update");
-				}
+			if (getDirtyBlocks() == 0) {
+				return;
 			}
+			BlockDelta delta = getBlockDelta();
+			syncBlocks(this, network, delta.blocks, delta.states);
 		} else {
 			network.callProtocolEvent(new ChunkSendEvent(this));
 		}
 	}
 
+	/**
+	 * Sends a block delta as a {@link MultiBlockUpdateEvent}.  If no protocol handles that event, one {@link BlockUpdateEvent} is called for each block instead, so protocols that only know about
+	 * single block updates still see every change.
+	 *
+	 * @param chunk the chunk
+	 * @param network the network component to call the events on
+	 * @param blocks the chunk coordinates of each changed block, packed using {@link NibbleQuadHashed}
+	 * @param states the packed full state of each changed block
+	 */
+	static void syncBlocks(Chunk chunk, NetworkComponent network, short[] blocks, int[] states) {
+		MultiBlockUpdateEvent event = new MultiBlockUpdateEvent(chunk, blocks, states);
+		try {
+			network.callProtocolEvent(event);
+		} catch (Exception e) {
+			Spout.getEngine().getLogger().log(Level.SEVERE, "Exception thrown by plugin when attempting to send a block update");
+		}
+		if (!event.getMessages().isEmpty()) {
+			return;
+		}
+		for (short block : blocks) {
+			try {
+				network.callProtocolEvent(new BlockUpdateEvent(chunk, NibbleQuadHashed.key1(block), NibbleQuadHashed.key2(block), NibbleQuadHashed.key3(block)));
+			} catch (Exception e) {
+				Spout.getEngine().getLogger().log(Level.SEVERE, "Exception thrown by plugin when attempting to send a block update");
+			}
+		}
+	}
+
+	/**
+	 * Gets the blocks changed this tick, and their current states.  The delta is only built once per block store version, so all observers share the same arrays.
+	 */
+	private BlockDelta getBlockDelta() {
+		int version = blockStore.getVersion();
+		BlockDelta delta = blockDelta;
+		if (delta != null && delta.version == version) {
+			return delta;
+		}
+
+		int dirtyBlocks = getDirtyBlocks();
+		short[] blocks = new short[dirtyBlocks];
+		int count = 0;
+		for (int i = 0; i < dirtyBlocks; i++) {
+			Vector3 block = getDirtyBlock(i);
+			if (block == null) {
+				break;
+			}
+			short packed = NibbleQuadHashed.key(block.getFloorX(), block.getFloorY(), block.getFloorZ(), 0);
+			// A block changed more than once is only sent once, with its final state
+			boolean duplicate = false;
+			for (int j = 0; j < count && !duplicate; j++) {
+				duplicate = blocks[j] == packed;
+			}
+			if (!duplicate) {
+				blocks[count++] = packed;
+			}
+		}
+		if (count < blocks.length) {
+			blocks = Arrays.copyOf(blocks, count);
+		}
+
+		int[] states = new int[count];
+		for (int i = 0; i < count; i++) {
+			states[i] = getBlockFullState(NibbleQuadHashed.key1(blocks[i]), NibbleQuadHashed.key2(blocks[i]), NibbleQuadHashed.key3(blocks[i]));
+		}
+
+		delta = new BlockDelta(version, blocks, states);
+		blockDelta = delta;
+		return delta;
+	}
+
 	@ClientOnly
 	public void rawSetBlockStore(short[] blocks, short[] data) {
 		if (Spout.getPlatform() != Platform.CLIENT) {
 			throw new UnsupportedOperationException("Cannot raw set the block store unless in client mode.");
 		}
-		blockStore = new AtomicPaletteBlockStore(BLOCKS.BITS, false, false, 10, blocks, data);
+		blockStore = new AtomicPaletteBlockStore(BLOCKS.BITS, false, false, DIRTY_BLOCK_LIMIT, blocks, data);
 		// Basically a new chunk, we want to rerender everything
 		firstRender = true;
 	}
@@ -31,15 +31,19 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicReference;
 
+import gnu.trove.map.hash.TIntObjectHashMap;
+
 import org.spout.api.generator.biome.BiomeGenerator;
 import org.spout.api.generator.biome.BiomeManager;
 import org.spout.api.geo.LoadOption;
 import org.spout.api.geo.cuboid.Chunk;
 import org.spout.api.geo.cuboid.Region;
 import org.spout.api.material.BlockMaterial;
-import org.spout.api.material.block.BlockFullState;
+import org.spout.api.material.BlockPropertyTable;
+import org.spout.api.material.MaterialRegistry;
 import org.spout.api.math.BitSize;
 import org.spout.api.scheduler.TickStage;
 import org.spout.api.util.cuboid.ImmutableHeightMapBuffer;
@@ -52,12 +56,25 @@ public class SpoutColumn {
 	 * Stores the size of the amount of blocks in this Column
 	 */
 	public static BitSize BLOCKS = Chunk.BLOCKS;
+	/**
+	 * Marks a block column with no block changes waiting to be resolved
+	 */
+	private static final int NO_CHANGE = Integer.MIN_VALUE;
 	private final SpoutWorld world;
 	private final int x;
 	private final int z;
 	private final AtomicInteger activeChunks = new AtomicInteger(0);
-	private final AtomicInteger[][] heightMap;
-	private final int[][] heightMapSnapshot = new int[BLOCKS.SIZE][BLOCKS.SIZE];
+	/**
+	 * The height of each block column, indexed by (z << BLOCKS.BITS) | x
+	 */
+	private final AtomicIntegerArray heightMap = new AtomicIntegerArray(BLOCKS.AREA);
+	private final int[] heightMapSnapshot = new int[heightMap.length()];
+	/**
+	 * The highest block changed in each block column since the height map was last resolved, or NO_CHANGE
+	 */
+	private final AtomicIntegerArray pendingChanges = new AtomicIntegerArray(heightMap.length());
+	private final AtomicInteger recordedChanges = new AtomicInteger(0);
+	private volatile int resolvedChanges = 0;
 	private final AtomicInteger dirtyColumns = new AtomicInteger(0);
 	private final AtomicInteger lowestY = new AtomicInteger();
 	private final AtomicInteger highestY = new AtomicInteger();
@@ -85,7 +102,6 @@ public class SpoutColumn {
 		this.world = world;
 		this.x = x;
 		this.z = z;
-		this.heightMap = new AtomicInteger[BLOCKS.SIZE][BLOCKS.SIZE];
 		this.dirtyArray = new AtomicBoolean[BLOCKS.SIZE][BLOCKS.SIZE];
 		this.topmostBlocks = new BlockMaterial[BLOCKS.SIZE][BLOCKS.SIZE];
 
@@ -93,7 +109,8 @@ public class SpoutColumn {
 
 		for (int xx = 0; xx < BLOCKS.SIZE; xx++) {
 			for (int zz = 0; zz < BLOCKS.SIZE; zz++) {
-				heightMap[xx][zz] = new AtomicInteger(heights == null ? 0 : heights[xx][zz]);
+				heightMap.set(getIndex(xx, zz), heights == null ? 0 : heights[xx][zz]);
+				pendingChanges.set(getIndex(xx, zz), NO_CHANGE);
 				dirtyArray[xx][zz] = new AtomicBoolean(false);
 			}
 		}
@@ -114,10 +131,9 @@ public class SpoutColumn {
 	}
 
 	public void copySnapshot() {
-		for (int xx = 0; xx < BLOCKS.SIZE; xx++) {
-			for (int zz = 0; zz < BLOCKS.SIZE; zz++) {
-				heightMapSnapshot[xx][zz] = heightMap[xx][zz].get();
-			}
+		resolvePending();
+		for (int i = 0; i < heightMapSnapshot.length; i++) {
+			heightMapSnapshot[i] = heightMap.get(i);
 		}
 	}
 
@@ -129,7 +145,7 @@ public class SpoutColumn {
 			for (int xx = 0; xx < BLOCKS.SIZE; xx++) {
 				for (int zz = 0; zz < BLOCKS.SIZE; zz++) {
 					if (getDirtyFlag(xx, zz).compareAndSet(true, false)) {
-						int y = getAtomicInteger(xx, zz).get();
+						int y = heightMap.get(getIndex(xx, zz));
 						int wxx = wx + xx;
 						int wzz = wz + zz;
 						Chunk c = world.getChunkFromBlock(wxx, y, wzz, LoadOption.LOAD_ONLY);
@@ -179,6 +195,7 @@ public class SpoutColumn {
 	}
 
 	public synchronized void syncSave() {
+		resolvePending();
 		OutputStream out = world.getHeightMapOutputStream(x, z);
 		try {
 			ColumnFiles.writeColumn(out, this, lowestY, highestY, topmostBlocks);
@@ -195,7 +212,8 @@ public class SpoutColumn {
 	}
 
 	public int getSurfaceHeight(int x, int z) {
-		final int height = getAtomicInteger(x, z).get();
+		resolvePending();
+		final int height = heightMap.get(getIndex(x, z));
 		if (height != Integer.MIN_VALUE) {
 			// height known
 			return height;
@@ -203,6 +221,29 @@ public class SpoutColumn {
 		return getGeneratorHeight(x, z);
 	}
 
+	/**
+	 * Gets the stored height of a block column, without falling back to the generator height
+	 *
+	 * @param x the x coordinate of the block column
+	 * @param z the z coordinate of the block column
+	 * @return the height, or Integer.MIN_VALUE if unknown
+	 */
+	public int getHeight(int x, int z) {
+		resolvePending();
+		return heightMap.get(getIndex(x, z));
+	}
+
+	/**
+	 * Sets the stored height of a block column.  This is used when the column is loaded.
+	 *
+	 * @param x the x coordinate of the block column
+	 * @param z the z coordinate of the block column
+	 * @param height the height
+	 */
+	public void setHeight(int x, int z, int height) {
+		heightMap.set(getIndex(x, z), height);
+	}
+
 	public BlockMaterial getTopmostBlock(int x, int z) {
 		TickStage.checkStage(TickStage.SNAPSHOT | TickStage.PRESNAPSHOT);
 		int cx = x & BLOCKS.MASK;
@@ -225,34 +266,27 @@ public class SpoutColumn {
 		return h[x & BLOCKS.MASK][z & BLOCKS.MASK];
 	}
 
-	public void notifyChunkAdded(Chunk c, int x, int z) {
-		int y = c.getBlockY();
-		int maxY = y + Chunk.BLOCKS.SIZE - 1;
-		AtomicInteger v = getAtomicInteger(x, z);
-
-		if (maxY < v.get()) {
-			return;
-		}
-
-		if (((SpoutChunk) c).isBlockUniform()) {
-			//simplified version
-			if (!isAir(c, x, maxY, z)) {
-				notifyBlockChange(v, x, maxY, z);
-			}
-			return;
-		}
-
-		for (int yy = maxY; yy >= y; yy--) {
-			if (!isAir(c, x, yy, z)) {
-				notifyBlockChange(v, x, yy, z);
-				return;
-			}
+	/**
+	 * Queues a height check at the top of a chunk that has been added to this column for every block column
+	 *
+	 * @param c the chunk
+	 */
+	public void notifyChunkAdded(Chunk c) {
+		int maxY = c.getBlockY() + BLOCKS.SIZE - 1;
+		for (int i = 0; i < pendingChanges.length(); i++) {
+			recordChange(i, maxY);
 		}
 	}
 
+	/**
+	 * Queues a height check for a block change.  Changes are batched and resolved once per tick, before lighting, or when the height is read.
+	 *
+	 * @param x the x coordinate of the block
+	 * @param y the y coordinate of the block
+	 * @param z the z coordinate of the block
+	 */
 	public void notifyBlockChange(int x, int y, int z) {
-		AtomicInteger v = getAtomicInteger(x, z);
-		notifyBlockChange(v, x, y, z);
+		recordChange(getIndex(x, z), y);
 	}
 
 	public int getX() {
@@ -267,73 +301,93 @@ public class SpoutColumn {
 		return world;
 	}
 
-	private void notifyBlockChange(AtomicInteger v, int x, int y, int z) {
+	private void recordChange(int index, int y) {
 		while (true) {
-			int value = v.get();
-			if (y < value) {
+			int top = pendingChanges.get(index);
+			if (y <= top) {
 				return;
-			} else if (y == value) {
-				falling(x, v, z);
-				return;
-			} else {
-				if (!isAir(x, y, z)) {
-					if (!v.compareAndSet(value, y)) {
-						continue;
-					}
-					setDirty(x, z);
-					falling(x, v, z);
-					return;
-				} else {
-					return;
+			}
+			if (pendingChanges.compareAndSet(index, top, y)) {
+				if (top == NO_CHANGE) {
+					heightDirtyQueue.add();
 				}
+				recordedChanges.incrementAndGet();
+				return;
 			}
 		}
 	}
 
-	private void falling(int x, AtomicInteger v, int z) {
-		boolean dirty = false;
-		try {
-			while (true) {
-				int value = v.get();
-				if (!isAir(x, value, z)) {
-					return;
+	/**
+	 * Resolves the height of every block column with pending changes.  Each block column is scanned down from its highest change, one chunk at a time, reading the chunk block stores directly.
+	 * Chunks with a uniform block store are checked with a single read.
+	 */
+	private void resolvePending() {
+		if (resolvedChanges == recordedChanges.get()) {
+			return;
+		}
+		synchronized (pendingChanges) {
+			int recorded = recordedChanges.get();
+			if (resolvedChanges == recorded) {
+				return;
+			}
+			BlockPropertyTable properties = MaterialRegistry.getBlockProperties();
+			TIntObjectHashMap<SpoutChunk> chunks = new TIntObjectHashMap<>();
+			for (int i = 0; i < pendingChanges.length(); i++) {
+				int top = pendingChanges.getAndSet(i, NO_CHANGE);
+				if (top == NO_CHANGE) {
+					continue;
 				}
-
-				if (v.compareAndSet(value, value - 1)) {
-					dirty = true;
+				int height = heightMap.get(i);
+				if (top < height) {
+					// Changes below the highest surface block can not change the height
+					continue;
+				}
+				int newHeight = findSurface(i & BLOCKS.MASK, i >> BLOCKS.BITS, top, height, properties, chunks);
+				if (newHeight != height) {
+					heightMap.set(i, newHeight);
+					dirtyColumns.incrementAndGet();
+					getDirtyFlag(i & BLOCKS.MASK, i >> BLOCKS.BITS).set(true);
+					dirty.set(true);
 				}
 			}
-		} finally {
-			if (dirty) {
-				setDirty(x, z);
-			}
+			resolvedChanges = recorded;
 		}
 	}
 
-	private boolean isAir(int x, int y, int z) {
-		int xx = (this.x << BLOCKS.BITS) + (x & BLOCKS.MASK);
-		int yy = y;
-		int zz = (this.z << BLOCKS.BITS) + (z & BLOCKS.MASK);
-		LoadOption opt = LoadOption.LOAD_ONLY;
-		Chunk c = world.getChunkFromBlock(xx, yy, zz, opt);
-		if (c == null) {
-			return false;
-		} else {
-			return isAir(c.getBlockFullState(xx, yy, zz));
+	private int findSurface(int x, int z, int top, int height, BlockPropertyTable properties, TIntObjectHashMap<SpoutChunk> chunks) {
+		int y = top;
+		int cy = y >> BLOCKS.BITS;
+		while (true) {
+			SpoutChunk c;
+			if (chunks.containsKey(cy)) {
+				c = chunks.get(cy);
+			} else {
+				c = world.getChunk(this.x, cy, this.z, LoadOption.NO_LOAD);
+				chunks.put(cy, c);
+			}
+			if (c == null) {
+				// Nothing is known below an unloaded chunk, so the height only falls to the top of it if the old surface block was removed
+				return y > height ? height : y;
+			}
+			if (c.isBlockUniform()) {
+				if (properties.isSurface(c.getBlockFullState(0))) {
+					return y;
+				}
+			} else {
+				int base = cy << BLOCKS.BITS;
+				for (; y >= base; y--) {
+					if (properties.isSurface(c.getBlockFullState(x, y, z))) {
+						return y;
+					}
+				}
+			}
+			y = (cy << BLOCKS.BITS) - 1;
+			cy--;
 		}
 	}
 
-	private boolean isAir(Chunk c, int x, int y, int z) {
-		return isAir(c.getBlockFullState(x, y, z));
-	}
-
-	private boolean isAir(int fullData) {
-		BlockMaterial material = BlockFullState.getMaterial(fullData);
-		return !material.isSurface();
-	}
-
-	public AtomicInteger getAtomicInteger(int x, int z) {
-		return heightMap[x & BLOCKS.MASK][z & BLOCKS.MASK];
+	private static int getIndex(int x, int z) {
+		return ((z & BLOCKS.MASK) << BLOCKS.BITS) | (x & BLOCKS.MASK);
 	}
 
 	private AtomicBoolean getDirtyFlag(int x, int z) {
@@ -347,11 +401,12 @@ public class SpoutColumn {
 
 		for (int xx = 0; xx < BLOCKS.SIZE; xx++) {
 			for (int zz = 0; zz < BLOCKS.SIZE; zz++) {
-				if (getDirtyFlag(xx, zz).get() && heightMapSnapshot[xx][zz] != Integer.MIN_VALUE) {
+				int i = getIndex(xx, zz);
+				if (getDirtyFlag(xx, zz).get() && heightMapSnapshot[i] != Integer.MIN_VALUE) {
 					x[pos] = bx + xx;
 					z[pos] = bz + zz;
-					int nh = heightMap[xx][zz].get();
-					int oh = heightMapSnapshot[xx][zz];
+					int nh = heightMap.get(i);
+					int oh = heightMapSnapshot[i];
 					if ((nh >= maxY && oh >= maxY) || (nh < minY && oh < minY)) {
 						continue;
 					}
@@ -366,6 +421,7 @@ public class SpoutColumn {
 
 	public int getDirtyColumns() {
 		TickStage.checkStage(TickStage.LIGHTING);
+		resolvePending();
 		return Math.min(256, dirtyColumns.get());
 	}
 
@@ -393,7 +449,12 @@ public class SpoutColumn {
 	}
 
 	public ImmutableHeightMapBuffer getHeightMapBuffer() {
-		return new ImmutableHeightMapBuffer(getX() << BLOCKS.BITS, getZ() << BLOCKS.BITS, SpoutColumn.BLOCKS.SIZE, SpoutColumn.BLOCKS.SIZE, heightMap);
+		resolvePending();
+		int[] copy = new int[heightMap.length()];
+		for (int i = 0; i < copy.length; i++) {
+			copy[i] = heightMap.get(i);
+		}
+		return new ImmutableHeightMapBuffer(getX() << BLOCKS.BITS, getZ() << BLOCKS.BITS, SpoutColumn.BLOCKS.SIZE, SpoutColumn.BLOCKS.SIZE, copy);
 	}
 
 	@Override
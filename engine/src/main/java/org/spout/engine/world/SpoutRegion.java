@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -57,6 +58,7 @@ import org.spout.api.geo.cuboid.Block;
 import org.spout.api.geo.cuboid.Chunk;
 import org.spout.api.geo.cuboid.Cube;
 import org.spout.api.geo.cuboid.Region;
+import org.spout.api.geo.discrete.Point;
 import org.spout.api.geo.discrete.Transform;
 import org.spout.api.io.bytearrayarray.BAAWrapper;
 import org.spout.api.lighting.LightingManager;
@@ -79,6 +81,7 @@ import org.spout.api.util.cuboid.ImmutableHeightMapBuffer;
 import org.spout.api.util.cuboid.LocalRegionChunkCuboidBlockMaterialBufferWrapper;
 import org.spout.api.util.cuboid.LocalRegionChunkCuboidLightBufferWrapper;
 import org.spout.api.util.cuboid.LocalRegionChunkHeightMapBufferWrapper;
+import org.spout.api.util.future.SimpleFuture;
 import org.spout.api.util.list.concurrent.setqueue.SetQueue;
 import org.spout.api.util.list.concurrent.setqueue.SetQueueElement;
 import org.spout.api.util.set.TByteTripleHashSet;
@@ -117,6 +120,10 @@ public class SpoutRegion extends Region implements AsyncManager {
 	 * The maximum number of chunks that will be processed for population each tick.
 	 */
 	private static final int POPULATE_PER_TICK = 20;
+	/**
+	 * The width, in chunks, of the column groups generated by the region generator
+	 */
+	public static final int GENERATOR_COLUMN_WIDTH = 4;
 	/**
 	 * The source of this region
 	 */
@@ -134,6 +141,56 @@ public class SpoutRegion extends Region implements AsyncManager {
 	 */
 	private final BAAWrapper chunkStore;
 	private final Queue<SpoutChunkSnapshotFuture> snapshotQueue = new ConcurrentLinkedQueue<>();
+	/**
+	 * Chunk loads requested through {@link #getChunkFuture(int, int, int, LoadOption)}
+	 */
+	private final PendingChunkLoads pendingLoads = new PendingChunkLoads(new PendingChunkLoads.Source() {
+		@Override
+		public boolean inputStreamExists(int x, int y, int z) {
+			return SpoutRegion.this.inputStreamExists(x, y, z);
+		}
+
+		@Override
+		public InputStream getChunkInputStream(int x, int y, int z) {
+			return SpoutRegion.this.getChunkInputStream(x, y, z);
+		}
+
+		@Override
+		public SpoutChunk readChunk(int x, int y, int z, InputStream in, ChunkDataForRegion dataForRegion) {
+			SpoutChunk chunk = ChunkFiles.readChunk(SpoutRegion.this, x, y, z, in, dataForRegion);
+			if (chunk == null) {
+				Spout.getLogger().severe("Unable to load chunk at location " + (getChunkX() + x) + ", " + (getChunkY() + y) + ", " + (getChunkZ() + z) + " in region " + SpoutRegion.this);
+			}
+			return chunk;
+		}
+
+		@Override
+		public SpoutChunk installChunk(SpoutChunk chunk, int x, int y, int z, ChunkDataForRegion dataForRegion, LoadOption loadopt) {
+			SpoutChunk current = chunks[x][y][z].get();
+			if (current == null) {
+				ChunkFiles.finishChunk(chunk, dataForRegion);
+				current = setChunk(chunk, x, y, z, dataForRegion, false);
+			} else {
+				chunk.setUnloadedUnchecked();
+			}
+			checkChunkLoaded(current, loadopt);
+			if (current == chunk) {
+				// The entity that asked for the chunk may have moved away while it was loading
+				chunk.queueUnloadIfUnobserved();
+			}
+			return current;
+		}
+
+		@Override
+		public SpoutChunk getChunk(int x, int y, int z, LoadOption loadopt) {
+			return SpoutRegion.this.getChunk(x, y, z, loadopt);
+		}
+
+		@Override
+		public String toString() {
+			return SpoutRegion.this.toString();
+		}
+	}, null);
 	protected SetQueue<SpoutChunk> unloadQueue = new SetQueue<>(CHUNKS.VOLUME);
 	/**
 	 * The sequence number for executing inter-region physics and dynamic updates
@@ -200,7 +257,7 @@ public class SpoutRegion extends Region implements AsyncManager {
 			this.generator = null;
 			this.chunkStore = null;
 		} else {
-			this.generator = new RegionGenerator(this, 4);
+			this.generator = new RegionGenerator(this, GENERATOR_COLUMN_WIDTH);
 			this.chunkStore = ((SpoutServerWorld) world).getRegionFile(getX(), getY(), getZ());
 		}
 		taskManager = new SpoutTaskManager(world.getEngine().getScheduler(), null, this, world.getAge());
@@ -292,6 +349,53 @@ public class SpoutRegion extends Region implements AsyncManager {
 		return c;
 	}
 
+	@Override
+	@LiveRead
+	public Future<Chunk> getChunkFuture(int x, int y, int z, LoadOption loadopt) {
+		x &= CHUNKS.MASK;
+		y &= CHUNKS.MASK;
+		z &= CHUNKS.MASK;
+
+		if (chunks[x][y][z].get() != null || !loadopt.loadIfNeeded() || Spout.getPlatform() == Platform.CLIENT) {
+			// Nothing needs to be read from disk
+			SimpleFuture<Chunk> future = new SimpleFuture<>();
+			future.setResult(getChunk(x, y, z, loadopt));
+			return future;
+		}
+
+		return pendingLoads.load(x, y, z, loadopt.generateIfNeeded(), getLoadPriority(x, y, z));
+	}
+
+	/**
+	 * Gets the squared distance, in chunks, between a chunk in this region and the nearest player in the world
+	 *
+	 * @param x the local chunk x coordinate
+	 * @param y the local chunk y coordinate
+	 * @param z the local chunk z coordinate
+	 * @return the squared distance, or Long.MAX_VALUE if there are no players
+	 */
+	private long getLoadPriority(int x, int y, int z) {
+		int cx = getChunkX() + x;
+		int cy = getChunkY() + y;
+		int cz = getChunkZ() + z;
+		long nearest = Long.MAX_VALUE;
+		for (Player player : getWorld().getPlayers()) {
+			Point position = player.getPhysics().getPosition();
+			long dx = position.getChunkX() - cx;
+			long dy = position.getChunkY() - cy;
+			long dz = position.getChunkZ() - cz;
+			nearest = Math.min(nearest, dx * dx + dy * dy + dz * dz);
+		}
+		return nearest;
+	}
+
+	/**
+	 * Completes the futures of all pending chunk loads with null. This is called once the region has been removed from its world.
+	 */
+	public void cancelPendingLoads() {
+		pendingLoads.cancel();
+	}
+
 	@Override
 	public SpoutChunk getChunkFromBlock(Vector3 position) {
 		return this.getChunkFromBlock(position, LoadOption.LOAD_GEN);
@@ -386,6 +490,7 @@ public class SpoutRegion extends Region implements AsyncManager {
 		}
 		boolean success = current.compareAndSet(currentChunk, null);
 		if (success) {
+			pendingLoads.chunkRemoved(c.getX(), c.getY(), c.getZ());
 			int num = numberActiveChunks.decrementAndGet();
 
 			for (Entity e : currentChunk.getLiveEntities()) {
@@ -583,16 +688,20 @@ public class SpoutRegion extends Region implements AsyncManager {
 
 	@ServerOnly
 	private void updatePopulation() {
+		List<SpoutChunk> deferred = null;
+		List<SpoutChunk> deferredPriority = null;
 		for (int i = 0; i < POPULATE_PER_TICK && !scheduler.isServerOverloaded(); i++) {
+			boolean priority = true;
 			SpoutChunk toPopulate = populationPriorityQueue.poll();
 			if (toPopulate == null) {
+				priority = false;
 				toPopulate = populationQueue.poll();
 				if (toPopulate == null) {
 					break;
 				}
 			}
 			if (toPopulate.isLoaded()) {
-				if (!toPopulate.isObserved()) {
+				if (!toPopulate.isObserved() && !toPopulate.isPopulationForced()) {
 					continue;
 				}
 				boolean surrounded = true;
@@ -610,7 +719,20 @@ public class SpoutRegion extends Region implements AsyncManager {
 						}
 					}
 				}
-				if (surrounded && toPopulate.populate()) {
+				if (!surrounded) {
+					// Retried on a later tick, once the neighbours have been generated
+					if (priority) {
+						if (deferredPriority == null) {
+							deferredPriority = new ArrayList<>();
+						}
+						deferredPriority.add(toPopulate);
+					} else {
+						if (deferred == null) {
+							deferred = new ArrayList<>();
+						}
+						deferred.add(toPopulate);
+					}
+				} else if (toPopulate.populate()) {
 					if (scheduler.isServerOverloaded()) {
 						break;
 					}
@@ -619,6 +741,16 @@ public class SpoutRegion extends Region implements AsyncManager {
 			}
 			i--;
 		}
+		if (deferredPriority != null) {
+			for (SpoutChunk c : deferredPriority) {
+				c.queueForPopulation(true);
+			}
+		}
+		if (deferred != null) {
+			for (SpoutChunk c : deferred) {
+				c.queueForPopulation(false);
+			}
+		}
 	}
 
 	@ServerOnly
@@ -669,6 +801,7 @@ public class SpoutRegion extends Region implements AsyncManager {
 				updateBlockComponents(dt);
 				updateEntities(dt);
 				if (Spout.getPlatform() == Platform.SERVER) {
+					pendingLoads.install();
 					updateAutosave();
 					updatePopulation();
 					unloadChunks();
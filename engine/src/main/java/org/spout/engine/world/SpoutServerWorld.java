@@ -34,6 +34,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.spout.api.Server;
 import org.spout.api.component.Component;
@@ -87,6 +88,10 @@ public class SpoutServerWorld extends SpoutWorld {
 	 */
 	private final WeakReference<SpoutServerWorld> selfReference;
 	private final WeakValueHashMap<Long, SetQueue<SpoutColumn>> regionColumnDirtyQueueMap = new WeakValueHashMap<>();
+	/**
+	 * The pre-generator for this world, if any
+	 */
+	private final AtomicReference<WorldPregenerator> pregenerator = new AtomicReference<>();
 
 	// TODO set up number of stages ?
 	public SpoutServerWorld(String name, SpoutEngine engine, long seed, long age, WorldGenerator generator, UUID uid, StringToUniqueIntegerMap itemMap, StringToUniqueIntegerMap lightingMap) {
@@ -177,6 +182,10 @@ public class SpoutServerWorld extends SpoutWorld {
 
 	@Override
 	public void unload(boolean save) {
+		WorldPregenerator pregen = pregenerator.get();
+		if (pregen != null) {
+			pregen.pauseAndWait();
+		}
 		for (Component component : values()) {
 			component.onDetached();
 		}
@@ -214,6 +223,36 @@ public class SpoutServerWorld extends SpoutWorld {
 		return selfReference;
 	}
 
+	/**
+	 * Gets the pre-generator for this world.  If none is active, the progress of a previous run is loaded from the world directory.
+	 *
+	 * @return the pre-generator, or null if there is none
+	 */
+	public WorldPregenerator getPregenerator() {
+		WorldPregenerator pregen = pregenerator.get();
+		if (pregen == null) {
+			pregen = WorldPregenerator.load(this);
+			if (pregen != null && !pregenerator.compareAndSet(null, pregen)) {
+				pregen = pregenerator.get();
+			}
+		}
+		return pregen;
+	}
+
+	/**
+	 * Sets the pre-generator for this world, if no pre-generator is currently running
+	 *
+	 * @param pregen the new pre-generator
+	 * @return true on success
+	 */
+	public boolean setPregenerator(WorldPregenerator pregen) {
+		WorldPregenerator old = pregenerator.get();
+		if (old != null && old.isRunning()) {
+			return false;
+		}
+		return pregenerator.compareAndSet(old, pregen);
+	}
+
 	public RegionFileManager getRegionFileManager() {
 		if (regionFileManager == null) {
 			throw new IllegalStateException("Client does not have file manager");
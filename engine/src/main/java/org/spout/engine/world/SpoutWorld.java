@@ -38,6 +38,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -78,6 +79,7 @@ import org.spout.api.math.Vector3;
 import org.spout.api.scheduler.TaskManager;
 import org.spout.api.util.cuboid.CuboidBlockMaterialBuffer;
 import org.spout.api.util.cuboid.CuboidLightBuffer;
+import org.spout.api.util.future.SimpleFuture;
 import org.spout.api.util.hashing.IntPairHashed;
 import org.spout.api.util.hashing.NibblePairHashed;
 import org.spout.api.util.list.concurrent.UnprotectedCopyOnUpdateArray;
@@ -240,6 +242,17 @@ public abstract class SpoutWorld extends BaseComponentOwner implements AsyncMana
 		return null;
 	}
 
+	@Override
+	public Future<Chunk> getChunkFuture(int x, int y, int z, LoadOption loadopt) {
+		SpoutRegion region = getRegionFromChunk(x, y, z, loadopt);
+		if (region != null) {
+			return region.getChunkFuture(x, y, z, loadopt);
+		}
+		SimpleFuture<Chunk> future = new SimpleFuture<>();
+		future.setResult(null);
+		return future;
+	}
+
 	@Override
 	public Biome getBiome(int x, int y, int z) {
 		if (!(generator instanceof BiomeGenerator)) {
@@ -258,7 +271,8 @@ public abstract class SpoutWorld extends BaseComponentOwner implements AsyncMana
 				}
 			}
 		}
-		return ((BiomeGenerator) generator).getBiome(x, y, z, seed);
+		// Column biome managers are 2D, so use the cached column biomes to match what the column will hold once generated
+		return ((BiomeGenerator) generator).getBiome(x, z, seed);
 	}
 
 	@Override
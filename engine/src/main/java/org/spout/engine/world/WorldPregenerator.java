@@ -0,0 +1,432 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.world;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.spout.api.Spout;
+import org.spout.api.geo.LoadOption;
+import org.spout.api.geo.cuboid.Region;
+import org.spout.api.scheduler.SnapshotLock;
+import org.spout.engine.SpoutConfiguration;
+import org.spout.engine.util.thread.threadfactory.NamedThreadFactory;
+
+/**
+ * Generates, lights and saves a rectangular area of a world using all available processors, independently of the region ticks.<br> <br> Column groups are generated in batches.  The progress is
+ * written to the world directory after every batch, so a paused or interrupted run can be resumed.  A batch containing a group which fails to generate stops the run at that group, so it is
+ * retried when generation is resumed.<br> <br> Generated chunks are unloaded, and so saved, as soon as their group is done.  Population is queued on the regions and runs at the normal
+ * population rate, populated chunks are unloaded once population completes and generation waits while too many chunks are waiting to be populated.<br> <br> Every region between
+ * the configured minimum and maximum pre-generation heights is generated for each column group.
+ */
+public class WorldPregenerator {
+	private static final byte PROGRESS_VERSION = 2;
+	private static final String PROGRESS_FILE = "pregen.dat";
+	/**
+	 * The maximum number of batches of chunks which may be waiting for population
+	 */
+	private static final int MAX_POPULATING_BATCHES = 4;
+	private static final long POPULATION_POLL_MILLIS = 50;
+	private final SpoutServerWorld world;
+	private final int minX;
+	private final int minZ;
+	private final int sizeX;
+	private final int sizeZ;
+	private final int minRegionY;
+	private final int sizeY;
+	private final int step;
+	private final boolean populate;
+	private final int threads;
+	private final AtomicInteger completed = new AtomicInteger(0);
+	private final AtomicLong startTime = new AtomicLong();
+	private final AtomicInteger startCompleted = new AtomicInteger();
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private final AtomicBoolean pauseRequested = new AtomicBoolean(false);
+	private volatile Thread coordinator;
+	private final Queue<SpoutChunk> populating = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Creates a pre-generator for the given area
+	 *
+	 * @param world the world
+	 * @param minX the lowest chunk x coordinate
+	 * @param minZ the lowest chunk z coordinate
+	 * @param maxX the highest chunk x coordinate (inclusive)
+	 * @param maxZ the highest chunk z coordinate (inclusive)
+	 * @param populate true to queue the generated chunks for population
+	 */
+	public WorldPregenerator(SpoutServerWorld world, int minX, int minZ, int maxX, int maxZ, boolean populate) {
+		this(world, minX, minZ, maxX, maxZ, SpoutConfiguration.PREGEN_MIN_HEIGHT.getInt(), SpoutConfiguration.PREGEN_MAX_HEIGHT.getInt(), populate, 0);
+	}
+
+	private WorldPregenerator(SpoutServerWorld world, int minX, int minZ, int maxX, int maxZ, int minY, int maxY, boolean populate, int next) {
+		if (maxX < minX || maxZ < minZ || maxY < minY) {
+			throw new IllegalArgumentException("The maximum coordinates must not be less than the minimum coordinates");
+		}
+		this.world = world;
+		this.step = SpoutRegion.GENERATOR_COLUMN_WIDTH;
+		this.minX = minX & ~(step - 1);
+		this.minZ = minZ & ~(step - 1);
+		this.sizeX = ((maxX - this.minX) / step) + 1;
+		this.sizeZ = ((maxZ - this.minZ) / step) + 1;
+		this.minRegionY = minY >> Region.BLOCKS.BITS;
+		this.sizeY = (maxY >> Region.BLOCKS.BITS) - this.minRegionY + 1;
+		this.populate = populate;
+		this.threads = Runtime.getRuntime().availableProcessors();
+		this.completed.set(next);
+	}
+
+	/**
+	 * Creates a pre-generator for a square area around a chunk
+	 *
+	 * @param world the world
+	 * @param chunkX the center chunk x coordinate
+	 * @param chunkZ the center chunk z coordinate
+	 * @param radius the radius, in chunks
+	 * @param populate true to queue the generated chunks for population
+	 */
+	public static WorldPregenerator fromRadius(SpoutServerWorld world, int chunkX, int chunkZ, int radius, boolean populate) {
+		return new WorldPregenerator(world, chunkX - radius, chunkZ - radius, chunkX + radius, chunkZ + radius, populate);
+	}
+
+	/**
+	 * Loads the progress of a previous run from the world directory
+	 *
+	 * @param world the world
+	 * @return the pre-generator, or null if there is no stored progress
+	 */
+	public static WorldPregenerator load(SpoutServerWorld world) {
+		File file = new File(world.getDirectory(), PROGRESS_FILE);
+		if (!file.exists()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			byte version = in.readByte();
+			if (version < 1 || version > PROGRESS_VERSION) {
+				Spout.getLogger().info("Ignoring pre-generation progress with unknown version " + version + " for " + world.getName());
+				return null;
+			}
+			int minX = in.readInt();
+			int minZ = in.readInt();
+			int maxX = in.readInt();
+			int maxZ = in.readInt();
+			int minY = SpoutConfiguration.PREGEN_MIN_HEIGHT.getInt();
+			int maxY = SpoutConfiguration.PREGEN_MAX_HEIGHT.getInt();
+			if (version > 1) {
+				minY = in.readInt();
+				maxY = in.readInt();
+			}
+			boolean populate = in.readBoolean();
+			int next = in.readInt();
+			return new WorldPregenerator(world, minX, minZ, maxX, maxZ, minY, maxY, populate, next);
+		} catch (IOException e) {
+			Spout.getLogger().log(Level.SEVERE, "Unable to read pre-generation progress for " + world.getName(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Starts or resumes generation on a background thread
+	 *
+	 * @return false if the pre-generator is already running or complete
+	 */
+	public boolean start() {
+		if (isComplete() || !running.compareAndSet(false, true)) {
+			return false;
+		}
+		pauseRequested.set(false);
+		startTime.set(System.nanoTime());
+		startCompleted.set(completed.get());
+		Thread t = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					runBatches();
+				} finally {
+					running.set(false);
+				}
+			}
+		}, "Pregenerator - " + world.getName());
+		t.setDaemon(true);
+		coordinator = t;
+		t.start();
+		return true;
+	}
+
+	/**
+	 * Requests that generation stops after the current batch.  The progress is saved and generation can be resumed with {@link #start()}.
+	 */
+	public void pause() {
+		pauseRequested.set(true);
+	}
+
+	/**
+	 * Pauses generation and waits for the current batch to finish
+	 */
+	public void pauseAndWait() {
+		pause();
+		Thread t = coordinator;
+		if (t != null) {
+			boolean interrupted = false;
+			while (t.isAlive()) {
+				try {
+					t.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public boolean isRunning() {
+		return running.get();
+	}
+
+	public boolean isComplete() {
+		return completed.get() >= getGroups();
+	}
+
+	public SpoutServerWorld getWorld() {
+		return world;
+	}
+
+	/**
+	 * Gets the total number of chunk columns to generate
+	 */
+	public int getTotal() {
+		return sizeX * sizeZ * step * step;
+	}
+
+	/**
+	 * Gets the number of chunk columns that have been generated
+	 */
+	public int getCompleted() {
+		return Math.min(completed.get() * step * step, getTotal());
+	}
+
+	/**
+	 * Gets the generation rate since the last start, in chunk columns per second
+	 */
+	public double getColumnsPerSecond() {
+		long elapsed = System.nanoTime() - startTime.get();
+		int done = (completed.get() - startCompleted.get()) * step * step;
+		if (elapsed <= 0 || done <= 0) {
+			return 0;
+		}
+		return done * 1000000000.0 / elapsed;
+	}
+
+	/**
+	 * Gets the generation rate since the last start, in chunks per second
+	 */
+	public double getChunksPerSecond() {
+		return getColumnsPerSecond() * sizeY * Region.CHUNKS.SIZE;
+	}
+
+	/**
+	 * Gets the estimated time to completion, in seconds, or -1 if unknown
+	 */
+	public long getEstimatedSecondsRemaining() {
+		double rate = getColumnsPerSecond();
+		if (rate <= 0) {
+			return -1;
+		}
+		return (long) ((getTotal() - getCompleted()) / rate);
+	}
+
+	private int getGroups() {
+		return sizeX * sizeZ;
+	}
+
+	private void runBatches() {
+		ExecutorService pool = Executors.newFixedThreadPool(threads, new NamedThreadFactory("Pregenerator - " + world.getName(), true));
+		try {
+			int batchSize = threads * 4;
+			while (!pauseRequested.get() && completed.get() < getGroups()) {
+				int start = completed.get();
+				int end = Math.min(start + batchSize, getGroups());
+				List<Future<?>> futures = new ArrayList<>(end - start);
+				for (int i = start; i < end; i++) {
+					final int index = i;
+					futures.add(pool.submit(new Runnable() {
+						@Override
+						public void run() {
+							generateGroup(index);
+						}
+					}));
+				}
+				int next = end;
+				for (int i = 0; i < futures.size(); i++) {
+					if (!waitFor(futures.get(i)) && next == end) {
+						next = start + i;
+					}
+				}
+				completed.set(next);
+				saveProgress();
+				if (next != end) {
+					Spout.getLogger().severe("Pre-generation of " + world.getName() + " stopped at column group " + next + ", it will be retried when generation is resumed");
+					break;
+				}
+				if (populate) {
+					waitForPopulation(batchSize * step * step * sizeY * Region.CHUNKS.SIZE * MAX_POPULATING_BATCHES);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		if (isComplete()) {
+			new File(world.getDirectory(), PROGRESS_FILE).delete();
+			Spout.getLogger().info("Pre-generation of " + world.getName() + " complete, " + getTotal() + " columns");
+		}
+	}
+
+	private void generateGroup(int index) {
+		int chunkX = minX + (index % sizeX) * step;
+		int chunkZ = minZ + (index / sizeX) * step;
+
+		for (int regionY = minRegionY; regionY < minRegionY + sizeY; regionY++) {
+			generateRegion(chunkX, regionY << Region.CHUNKS.BITS, chunkZ);
+		}
+	}
+
+	private void generateRegion(int chunkX, int chunkY, int chunkZ) {
+		SpoutRegion region;
+		SnapshotLock lock = Spout.getScheduler().getSnapshotLock();
+		lock.readLock(this);
+		try {
+			region = world.getRegionFromChunk(chunkX, chunkY, chunkZ, LoadOption.LOAD_GEN);
+		} finally {
+			lock.readUnlock(this);
+		}
+
+		region.getRegionGenerator().generateColumn(chunkX, chunkZ, false, true);
+
+		for (int x = chunkX; x < chunkX + step; x++) {
+			for (int z = chunkZ; z < chunkZ + step; z++) {
+				for (int y = chunkY; y < chunkY + Region.CHUNKS.SIZE; y++) {
+					SpoutChunk c = region.getChunk(x & Region.CHUNKS.MASK, y & Region.CHUNKS.MASK, z & Region.CHUNKS.MASK, LoadOption.NO_LOAD);
+					if (c == null) {
+						continue;
+					}
+					if (populate && !c.isPopulated()) {
+						c.populate(true, true);
+						populating.add(c);
+					} else {
+						c.unload(true);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Unloads the chunks which have finished population and waits until no more than the given number of chunks are waiting to be populated, or a pause is requested
+	 *
+	 * @param limit the number of chunks which may still be waiting
+	 */
+	private void waitForPopulation(int limit) {
+		while (true) {
+			Iterator<SpoutChunk> itr = populating.iterator();
+			while (itr.hasNext()) {
+				SpoutChunk c = itr.next();
+				if (!c.isLoaded()) {
+					itr.remove();
+				} else if (c.isPopulated()) {
+					c.unload(true);
+					itr.remove();
+				}
+			}
+			if (populating.size() <= limit || pauseRequested.get()) {
+				return;
+			}
+			try {
+				Thread.sleep(POPULATION_POLL_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void saveProgress() {
+		File file = new File(world.getDirectory(), PROGRESS_FILE);
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+			out.writeByte(PROGRESS_VERSION);
+			out.writeInt(minX);
+			out.writeInt(minZ);
+			out.writeInt(minX + sizeX * step - 1);
+			out.writeInt(minZ + sizeZ * step - 1);
+			out.writeInt(minRegionY << Region.BLOCKS.BITS);
+			out.writeInt(((minRegionY + sizeY) << Region.BLOCKS.BITS) - 1);
+			out.writeBoolean(populate);
+			out.writeInt(completed.get());
+		} catch (IOException e) {
+			Spout.getLogger().log(Level.SEVERE, "Unable to save pre-generation progress for " + world.getName(), e);
+		}
+	}
+
+	private boolean waitFor(Future<?> f) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					f.get();
+					return true;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					Spout.getLogger().log(Level.SEVERE, "Exception during pre-generation of " + world.getName(), e.getCause());
+					return false;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
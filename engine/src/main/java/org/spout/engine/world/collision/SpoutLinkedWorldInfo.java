@@ -26,8 +26,14 @@
  */
 package org.spout.engine.world.collision;
 
-import org.spout.api.geo.cuboid.Block;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+
 import org.spout.api.material.BlockMaterial;
+import org.spout.api.util.hashing.Int21TripleHashed;
+import org.spout.engine.world.SpoutBlock;
 import org.spout.engine.world.SpoutRegion;
 
 import org.spout.physics.body.GhostImmobileRigidBody;
@@ -36,9 +42,20 @@ import org.spout.physics.body.RigidBodyMaterial;
 import org.spout.physics.collision.shape.CollisionShape;
 import org.spout.physics.engine.linked.LinkedWorldInfo;
 import org.spout.physics.math.Matrix3x3;
+import org.spout.physics.math.Quaternion;
+import org.spout.physics.math.Transform;
+import org.spout.physics.math.Vector3;
 
+/**
+ * Supplies the voxel bodies for a region's linked dynamics world.<br> <br> The inertia tensor, friction and restitution are computed once per block material and copied into each body, since the
+ * physics engine owns the objects given to a body. The block at each voxel position is cached, the cache is cleared when it becomes full.<br> <br> This class is only accessed by the region's
+ * physics thread.
+ */
 public final class SpoutLinkedWorldInfo implements LinkedWorldInfo {
+	private static final int MAX_CACHED_VOXELS = 4096;
 	private SpoutRegion region;
+	private final Map<BlockMaterial, MaterialProperties> materials = new IdentityHashMap<>();
+	private final TLongObjectHashMap<SpoutBlock> blocks = new TLongObjectHashMap<>();
 
 	public SpoutLinkedWorldInfo(SpoutRegion region) {
 		this.region = region;
@@ -46,25 +63,67 @@ public final class SpoutLinkedWorldInfo implements LinkedWorldInfo {
 
 	@Override
 	public ImmobileRigidBody getBody(int x, int y, int z) {
-		final Block block = region.getBlock(x - 0.5f, y - 0.5f, z - 0.5f);
-		final BlockMaterial material = block.getMaterial();
-		final CollisionShape shape = material.getShape();
-		if (shape == null) {
+		final long key = Int21TripleHashed.key(x, y, z);
+		SpoutBlock block = blocks.get(key);
+		if (block == null) {
+			if (blocks.size() >= MAX_CACHED_VOXELS) {
+				blocks.clear();
+			}
+			block = region.getWorld().getBlock(x - 0.5f, y - 0.5f, z - 0.5f);
+			blocks.put(key, block);
+		}
+		final MaterialProperties properties = getProperties(block.getMaterial());
+		if (properties == null) {
 			return null;
 		}
-		final Matrix3x3 inertiaTensorLocal = new Matrix3x3();
-		final float mass = material.getMass();
-		shape.computeLocalInertiaTensor(inertiaTensorLocal, mass);
+		final Transform transform = new Transform(new Vector3(x + 0.5f, y + 0.5f, z + 0.5f), new Quaternion(0, 0, 0, 1));
+		final Matrix3x3 inertiaTensorLocal = new Matrix3x3(properties.inertiaTensorLocal);
 		final ImmobileRigidBody body;
-		if (material.isGhost()) {
-			body = new GhostImmobileRigidBody(new org.spout.physics.math.Transform(new org.spout.physics.math.Vector3(x + 0.5f, y + 0.5f, z + 0.5f),
-					new org.spout.physics.math.Quaternion(0, 0, 0, 1)), mass, inertiaTensorLocal, shape, region.getSimulation().getNextFreeID());
+		if (properties.ghost) {
+			body = new GhostImmobileRigidBody(transform, properties.mass, inertiaTensorLocal, properties.shape, region.getSimulation().getNextFreeID());
 		} else {
-			body = new ImmobileRigidBody(new org.spout.physics.math.Transform(new org.spout.physics.math.Vector3(x + 0.5f, y + 0.5f, z + 0.5f),
-					new org.spout.physics.math.Quaternion(0, 0, 0, 1)), mass, inertiaTensorLocal, shape, region.getSimulation().getNextFreeID());
+			body = new ImmobileRigidBody(transform, properties.mass, inertiaTensorLocal, properties.shape, region.getSimulation().getNextFreeID());
 		}
-		body.setMaterial(new RigidBodyMaterial(material.getRestitution(), material.getFriction()));
+		body.setMaterial(new RigidBodyMaterial(properties.restitution, properties.friction));
 		body.setUserPointer(block); //It is safe to use block as these bodies are destroyed at the end of the physics tick
 		return body;
 	}
+
+	private MaterialProperties getProperties(BlockMaterial material) {
+		final CollisionShape shape = material.getShape();
+		if (shape == null) {
+			return null;
+		}
+		MaterialProperties properties = materials.get(material);
+		if (properties == null || !properties.matches(material)) {
+			properties = new MaterialProperties(material);
+			materials.put(material, properties);
+		}
+		return properties;
+	}
+
+	/**
+	 * The physics properties of a block material. These are checked against the material on each use, as materials may change their shape, mass, friction or restitution at any time.
+	 */
+	private static class MaterialProperties {
+		private final CollisionShape shape;
+		private final float mass;
+		private final float friction;
+		private final float restitution;
+		private final boolean ghost;
+		private final Matrix3x3 inertiaTensorLocal = new Matrix3x3();
+
+		private MaterialProperties(BlockMaterial material) {
+			shape = material.getShape();
+			mass = material.getMass();
+			friction = material.getFriction();
+			restitution = material.getRestitution();
+			ghost = material.isGhost();
+			shape.computeLocalInertiaTensor(inertiaTensorLocal, mass);
+		}
+
+		private boolean matches(BlockMaterial material) {
+			return shape == material.getShape() && mass == material.getMass() && friction == material.getFriction() && restitution == material.getRestitution() && ghost == material.isGhost();
+		}
+	}
 }
@@ -34,7 +34,9 @@ import org.spout.api.geo.cuboid.Chunk;
 import org.spout.api.geo.cuboid.Region;
 import org.spout.api.material.BlockMaterial;
 import org.spout.api.material.range.EffectIterator;
+import org.spout.api.material.range.EffectProcedure;
 import org.spout.api.material.range.EffectRange;
+import org.spout.api.material.range.EffectRangeImpl;
 import org.spout.api.math.IntVector3;
 import org.spout.api.scheduler.TickStage;
 import org.spout.engine.scheduler.SpoutScheduler;
@@ -55,6 +57,43 @@ public class PhysicsQueue {
 	private final ConcurrentLinkedQueue<PhysicsUpdate> asyncQueue = new ConcurrentLinkedQueue<>();
 	private final UpdateQueue updateQueue = new UpdateQueue();
 	private final UpdateQueue multiRegionQueue = new UpdateQueue();
+	private final PhysicsProcedure chunkProcedure = new PhysicsProcedure() {
+		@Override
+		public boolean execute(int dx, int dy, int dz) {
+			queueForUpdate(x + dx, y + dy, z + dz, oldMaterial);
+			return true;
+		}
+	};
+	private final PhysicsProcedure regionProcedure = new PhysicsProcedure() {
+		@Override
+		public boolean execute(int dx, int dy, int dz) {
+			int ox = x + dx;
+			int oy = y + dy;
+			int oz = z + dz;
+			if ((ox & MASK) == (x & MASK) && (oy & MASK) == (y & MASK) && (oz & MASK) == (z & MASK)) {
+				queueForUpdate(ox, oy, oz, oldMaterial);
+			} else {
+				region.updateBlockPhysics(ox, oy, oz, oldMaterial);
+			}
+			return true;
+		}
+	};
+	private final PhysicsProcedure worldProcedure = new PhysicsProcedure() {
+		@Override
+		public boolean execute(int dx, int dy, int dz) {
+			int ox = x + dx;
+			int oy = y + dy;
+			int oz = z + dz;
+			if ((ox & MASK) == (x & MASK) && (oy & MASK) == (y & MASK) && (oz & MASK) == (z & MASK)) {
+				queueForUpdate(ox, oy, oz, oldMaterial);
+			} else if (ox >= 0 && ox < Region.BLOCKS.SIZE && oy >= 0 && oy < Region.BLOCKS.SIZE && oz >= 0 && oz < Region.BLOCKS.SIZE) {
+				region.updateBlockPhysics(ox, oy, oz, oldMaterial);
+			} else {
+				region.getWorld().queueBlockPhysics(region.getBlockX() + ox, region.getBlockY() + oy, region.getBlockZ() + oz, EffectRange.THIS, oldMaterial);
+			}
+			return true;
+		}
+	};
 
 	public PhysicsQueue(SpoutChunk chunk) {
 		this.region = chunk.getRegion();
@@ -65,25 +104,38 @@ public class PhysicsQueue {
 	public boolean commitAsyncQueue() {
 		boolean updated = false;
 		PhysicsUpdate update;
-		EffectIterator ei = new EffectIterator();
+		EffectIterator ei = null;
 		while ((update = asyncQueue.poll()) != null) {
 			updated = true;
-			update.getRange().initEffectIterator(ei);
+			EffectRange range = update.getRange();
 			int x = update.getX();
 			int y = update.getY();
 			int z = update.getZ();
-			while (ei.hasNext()) {
-				IntVector3 v = ei.next();
-				int ox = x + v.getX();
-				int oy = y + v.getY();
-				int oz = z + v.getZ();
-				if ((ox & MASK) == (x & MASK) && (oy & MASK) == (y & MASK) && (oz & MASK) == (z & MASK)) {
-					queueForUpdate(ox, oy, oz, update.getOldMaterial());
-				} else if (ox >= 0 && ox < Region.BLOCKS.SIZE && oy >= 0 && oy < Region.BLOCKS.SIZE && oz >= 0 && oz < Region.BLOCKS.SIZE) {
-					region.updateBlockPhysics(ox, oy, oz, update.getOldMaterial());
+			if (range instanceof EffectRangeImpl) {
+				EffectRangeImpl rangeImpl = (EffectRangeImpl) range;
+				// Ranges that stay inside this chunk, or this region, skip the per offset boundary checks
+				final PhysicsProcedure procedure;
+				if (rangeImpl.isChunkLocal(x, y, z)) {
+					procedure = chunkProcedure;
+				} else if (rangeImpl.isRegionLocal(x, y, z)) {
+					procedure = regionProcedure;
 				} else {
-					region.getWorld().queueBlockPhysics(region.getBlockX() + ox, region.getBlockY() + oy, region.getBlockZ() + oz, EffectRange.THIS, update.getOldMaterial());
+					procedure = worldProcedure;
+				}
+				procedure.set(x, y, z, update.getOldMaterial());
+				rangeImpl.forEach(procedure);
+				procedure.set(0, 0, 0, null);
+			} else {
+				if (ei == null) {
+					ei = new EffectIterator();
 				}
+				range.initEffectIterator(ei);
+				worldProcedure.set(x, y, z, update.getOldMaterial());
+				while (ei.hasNext()) {
+					IntVector3 v = ei.next();
+					worldProcedure.execute(v.getX(), v.getY(), v.getZ());
+				}
+				worldProcedure.set(0, 0, 0, null);
 			}
 		}
 		return updated;
@@ -131,4 +183,16 @@ public class PhysicsQueue {
 		this.regionThread = region.getExecutionThread();
 		TickStage.checkStage(globalStages, localStages, regionThread);
 	}
+
+	private static abstract class PhysicsProcedure implements EffectProcedure {
+		protected int x, y, z;
+		protected BlockMaterial oldMaterial;
+
+		public void set(int x, int y, int z, BlockMaterial oldMaterial) {
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.oldMaterial = oldMaterial;
+		}
+	}
 }
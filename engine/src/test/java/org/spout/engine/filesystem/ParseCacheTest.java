@@ -0,0 +1,167 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.filesystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import org.spout.engine.filesystem.resource.loader.CachedResourceLoader;
+import org.spout.engine.filesystem.resource.loader.ObjData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParseCacheTest {
+	private static final String OBJ = "# test\n"
+			+ "v 0 0 0\n"
+			+ "v 1 0 0\n"
+			+ "v 0 1 0\n"
+			+ "vn 0 0 1\n"
+			+ "vt 0 0.25\n"
+			+ "vt 1 0.5\n"
+			+ "f 1//1 2//1 3//1\n"
+			+ "f 1/1/1 2/2/1 3/1\n"
+			+ "f 3 2 1\n";
+
+	private static InputStream stream(String s) {
+		return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void objParseTest() {
+		ObjData data = ObjData.parse(stream(OBJ), false);
+		assertEquals(3, data.getFaceCount());
+		assertEquals(3, data.createPositions().length);
+		assertEquals(0.75f, data.createUvs()[0].getY(), 0f);
+
+		assertEquals(2, data.getPositionIndex(0, 1));
+		assertEquals(0, data.getUvIndex(0, 1));
+		assertEquals(1, data.getNormalIndex(0, 1));
+
+		assertEquals(2, data.getUvIndex(1, 1));
+		assertEquals(1, data.getUvIndex(1, 2));
+		assertEquals(0, data.getNormalIndex(1, 2));
+
+		assertEquals(3, data.getPositionIndex(2, 0));
+		assertEquals(0, data.getUvIndex(2, 0));
+		assertEquals(0, data.getNormalIndex(2, 0));
+	}
+
+	@Test (expected = RuntimeException.class)
+	public void objRejectQuadTest() {
+		ObjData.parse(stream("v 0 0 0\nf 1 1 1 1\n"), true);
+	}
+
+	@Test
+	public void objRoundTripTest() throws IOException {
+		ObjData data = ObjData.parse(stream(OBJ), false);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		data.write(new DataOutputStream(bytes));
+		ObjData read = ObjData.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(data, read);
+	}
+
+	@Test
+	public void cacheTest() throws IOException {
+		File directory = new File(FileUtils.getTempDirectory(), "spout-parse-cache-" + System.nanoTime());
+		try {
+			ParseCache cache = new ParseCache(directory);
+			CountingLoader loader = new CountingLoader();
+
+			ObjData first = cache.load(loader, stream(OBJ));
+			ObjData second = cache.load(loader, stream(OBJ));
+			assertEquals(1, loader.parses.get());
+			assertEquals(first, second);
+
+			// a different resource is parsed again
+			cache.load(loader, stream(OBJ + "v 2 2 2\n"));
+			assertEquals(2, loader.parses.get());
+
+			// a new cache version discards the old entries
+			loader.version = 2;
+			assertEquals(first, cache.load(loader, stream(OBJ)));
+			assertEquals(3, loader.parses.get());
+
+			// corrupt entries are treated as a miss
+			for (File file : new File(directory, "test").listFiles()) {
+				FileUtils.writeByteArrayToFile(file, new byte[] {1, 2, 3});
+			}
+			assertEquals(first, cache.load(loader, stream(OBJ)));
+			assertEquals(4, loader.parses.get());
+
+			cache.clear();
+			assertTrue(!directory.exists());
+		} finally {
+			FileUtils.deleteQuietly(directory);
+		}
+	}
+
+	private static class CountingLoader extends CachedResourceLoader<ObjData, ObjData> {
+		private final AtomicInteger parses = new AtomicInteger();
+		private int version = 1;
+
+		public CountingLoader() {
+			super("test", null);
+		}
+
+		@Override
+		public ObjData parse(InputStream in) {
+			parses.incrementAndGet();
+			return ObjData.parse(in, true);
+		}
+
+		@Override
+		public ObjData build(ObjData parsed) {
+			return parsed;
+		}
+
+		@Override
+		public void writeParsed(ObjData parsed, DataOutputStream out) throws IOException {
+			parsed.write(out);
+		}
+
+		@Override
+		public ObjData readParsed(DataInputStream in) throws IOException {
+			return ObjData.read(in);
+		}
+
+		@Override
+		public int getCacheVersion() {
+			return version;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+	@Test
+	public void bucketTest() {
+		long previous = -1;
+		for (long v = 0; v < 1 << 20; v++) {
+			int index = LatencyHistogram.getIndex(v);
+			long highest = LatencyHistogram.getHighestValue(index);
+			assertTrue("value " + v + " above its bucket " + highest, v <= highest);
+			assertTrue("value " + v + " error too large", highest - v <= Math.max(0, v / 32));
+			if (index != LatencyHistogram.getIndex(v - 1)) {
+				assertEquals(previous + 1, v);
+			}
+			previous = v;
+		}
+		assertTrue(LatencyHistogram.getIndex(Long.MAX_VALUE) < 60 * 32);
+	}
+
+	@Test
+	public void percentileTest() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentile(50));
+
+		Random r = new Random(1);
+		long[] values = new long[10000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = r.nextInt(100000);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+		assertEquals(values.length, histogram.getCount());
+		assertEquals(values[values.length - 1], histogram.getMax());
+		for (int p : new int[] {1, 50, 90, 99, 100}) {
+			long exact = values[(int) Math.ceil(values.length * p / 100D) - 1];
+			long estimate = histogram.getPercentile(p);
+			assertTrue("p" + p + " " + estimate + " below " + exact, estimate >= exact);
+			assertTrue("p" + p + " " + estimate + " too far above " + exact, estimate <= exact + exact / 32 + 1);
+		}
+
+		histogram.record(-5);
+		assertEquals(0, histogram.getPercentile(0.001));
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+
+import org.spout.api.Spout;
+import org.spout.api.material.BlockMaterial;
+import org.spout.api.protocol.Protocol;
+import org.spout.api.scheduler.TaskPriority;
+import org.spout.engine.SpoutApplication;
+import org.spout.engine.SpoutConfiguration;
+import org.spout.engine.SpoutServer;
+import org.spout.engine.protocol.NetworkTransport;
+import org.spout.engine.protocol.builtin.SpoutProtocol;
+import org.spout.engine.scheduler.SpoutScheduler;
+
+/**
+ * A headless load generator which connects a number of {@link LoadTestBot}s to a server over loopback, lets them move, change blocks and chat, and reports tick times, chunk send latency,
+ * bandwidth and memory per player.<br> By default an embedded server is started in the same process so server side metrics can be taken, use --host to test an external server instead.<br> <br> Bots only change blocks on servers with debug.load-test-block-changes enabled in the configuration, which the
+ * embedded server turns on.
+ */
+public class LoadTest {
+	@Parameter (names = {"--bots", "-b"}, description = "Number of simulated clients")
+	public int bots = 50;
+	@Parameter (names = {"--duration"}, description = "Seconds to run once all bots are connected")
+	public int duration = 60;
+	@Parameter (names = {"--ramp"}, description = "Milliseconds between bot connections")
+	public int ramp = 50;
+	@Parameter (names = {"--host"}, description = "Server to connect to, starts an embedded server if not given")
+	public String host = null;
+	@Parameter (names = {"--port"}, description = "Port of the server")
+	public int port = SpoutProtocol.DEFAULT_PORT;
+	@Parameter (names = {"--step"}, description = "Milliseconds between bot actions")
+	public int step = 250;
+	@Parameter (names = {"--block-chance"}, description = "Chance per action of breaking or placing a block")
+	public float blockChance = 0.1F;
+	@Parameter (names = {"--chat-chance"}, description = "Chance per action of sending a chat message")
+	public float chatChance = 0.02F;
+	@Parameter (names = {"--place-material"}, description = "Material id of placed blocks, defaults to SolidBlue on an embedded server")
+	public int placeMaterial = -1;
+	@Parameter (names = {"--path"}, description = "File of 'x y z' waypoints relative to spawn that bots follow, bots wander randomly if not given")
+	public String path = null;
+	@Parameter (names = {"--threads"}, description = "Network threads for the bots")
+	public int threads = 2;
+	@Parameter (names = {"--seed"}, description = "Random seed")
+	public long seed = 0;
+	@Parameter (names = {"--output", "-o"}, description = "Properties file to write the results to")
+	public String output = null;
+	private final LoadTestMetrics metrics = new LoadTestMetrics();
+	private final List<LoadTestBot> connected = new ArrayList<>();
+
+	public static void main(String[] args) {
+		LoadTest test = new LoadTest();
+		new JCommander(test).parse(args);
+		int status;
+		try {
+			status = test.run() ? 0 : 1;
+		} catch (Throwable t) {
+			t.printStackTrace();
+			status = 2;
+		}
+		Runtime.getRuntime().halt(status);
+	}
+
+	public LoadTestMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Runs the load test and reports the results
+	 *
+	 * @return true if every bot logged in and stayed connected
+	 * @throws Exception if the server or the bots could not be started
+	 */
+	public boolean run() throws Exception {
+		SpoutServer server = host == null ? startServer() : null;
+		String address = host == null ? "127.0.0.1" : host;
+		Protocol protocol = Protocol.getProtocol("Spout");
+		if (protocol == null) {
+			protocol = SpoutProtocol.INSTANCE;
+		}
+		short material = (short) (placeMaterial >= 0 ? placeMaterial : server != null ? BlockMaterial.SOLID_BLUE.getId() : 1);
+		float[][] waypoints = path == null ? null : readPath(new File(path));
+
+		if (server != null) {
+			metrics.setBaselineMemory(usedMemory());
+			final AtomicLong lastTick = new AtomicLong();
+			server.getScheduler().scheduleSyncRepeatingTask(server, new Runnable() {
+				@Override
+				public void run() {
+					long now = System.nanoTime();
+					long last = lastTick.getAndSet(now);
+					if (last != 0) {
+						metrics.getTickInterval().record(TimeUnit.NANOSECONDS.toMillis(now - last));
+					}
+				}
+			}, 0, SpoutScheduler.PULSE_EVERY, TaskPriority.CRITICAL);
+		}
+
+		NetworkTransport transport = NetworkTransport.getConfigured();
+		EventLoopGroup group = transport.newEventLoopGroup(threads, "Load Test Bot");
+		try {
+			Bootstrap bootstrap = transport.configure(new Bootstrap().group(group));
+			InetSocketAddress target = new InetSocketAddress(address, port);
+			for (int i = 0; i < bots; i++) {
+				final LoadTestBot bot = new LoadTestBot("LoadBot" + i, protocol, metrics, waypoints);
+				bootstrap.handler(new ChannelInitializer<SocketChannel>() {
+					@Override
+					protected void initChannel(SocketChannel ch) {
+						bot.initChannel(ch);
+					}
+				});
+				if (bootstrap.connect(target).await(10, TimeUnit.SECONDS)) {
+					connected.add(bot);
+				} else {
+					Spout.getLogger().warning("Bot " + bot.getName() + " timed out connecting to " + target);
+				}
+				Thread.sleep(ramp);
+			}
+
+			long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(duration);
+			long start = System.currentTimeMillis();
+			Random random = new Random(seed);
+			boolean memorySampled = false;
+			while (System.currentTimeMillis() < end) {
+				for (LoadTestBot bot : connected) {
+					bot.step(random, blockChance, chatChance, material);
+				}
+				if (server != null && !memorySampled && metrics.getLogins() >= connected.size()) {
+					metrics.setLoadedMemory(usedMemory());
+					memorySampled = true;
+				}
+				Thread.sleep(step);
+			}
+			if (server != null && !memorySampled) {
+				metrics.setLoadedMemory(usedMemory());
+			}
+
+			boolean healthy = true;
+			for (LoadTestBot bot : connected) {
+				healthy &= bot.isLoggedIn() && bot.isConnected();
+				bot.disconnect();
+			}
+			healthy &= connected.size() == bots;
+			report(metrics.getResults(bots, System.currentTimeMillis() - start));
+			return healthy;
+		} finally {
+			group.shutdownGracefully();
+			if (server != null) {
+				server.stop("Load test finished");
+			}
+		}
+	}
+
+	private void report(Map<String, String> results) throws IOException {
+		for (Map.Entry<String, String> e : results.entrySet()) {
+			Spout.getLogger().info("[LoadTest] " + e.getKey() + " = " + e.getValue());
+		}
+		if (output != null) {
+			LoadTestMetrics.write(new File(output), results);
+		}
+	}
+
+	private static SpoutServer startServer() {
+		SpoutServer server = new SpoutServer();
+		Spout.setEngine(server);
+		server.getFileSystem().init();
+		server.init(new SpoutApplication());
+		SpoutConfiguration.LOAD_TEST_BLOCK_CHANGES.setValue(true);
+		server.start();
+		return server;
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Reads a path file, each non-empty line not starting with '#' holds the x, y and z offset of a waypoint
+	 *
+	 * @param file the file
+	 * @return the waypoints
+	 * @throws IOException if the file could not be read
+	 */
+	public static float[][] readPath(File file) throws IOException {
+		List<float[]> points = new ArrayList<>();
+		for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] split = line.split("\\s+");
+			if (split.length != 3) {
+				throw new IOException("Expected 'x y z' but found '" + line + "' in " + file);
+			}
+			points.add(new float[] {Float.parseFloat(split[0]), Float.parseFloat(split[1]), Float.parseFloat(split[2])});
+		}
+		return points.toArray(new float[points.size()][]);
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.loadtest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import org.spout.api.protocol.Message;
+import org.spout.api.protocol.MessageCodec;
+import org.spout.api.protocol.Protocol;
+import org.spout.api.protocol.event.EntityUpdateEvent.UpdateAction;
+import org.spout.api.util.ByteBufUtils;
+import org.spout.engine.protocol.builtin.SpoutProtocol;
+import org.spout.engine.protocol.builtin.message.BlockUpdateMessage;
+import org.spout.engine.protocol.builtin.message.ChunkDataMessage;
+import org.spout.engine.protocol.builtin.message.CommandMessage;
+import org.spout.engine.protocol.builtin.message.LoginMessage;
+import org.spout.engine.protocol.builtin.message.ReadyMessage;
+import org.spout.engine.protocol.builtin.message.UpdateEntityMessage;
+
+/**
+ * A simulated client speaking the {@link SpoutProtocol}.<br> Bots only decode the messages they act on: the login response, their own transform and the chunk headers. Everything else is
+ * counted and skipped, so a single process can drive many bots.
+ */
+public class LoadTestBot {
+	private static final int HEADER_SIZE = 6;
+	private static final int WANDER_RADIUS = 32;
+	private static final int BLOCK_REACH = 3;
+	private final String name;
+	private final Protocol protocol;
+	private final LoadTestMetrics metrics;
+	private final float[][] path;
+	private final int loginOpcode;
+	private final int chunkOpcode;
+	private final int entityOpcode;
+	private Channel channel;
+	private volatile long connectTime;
+	private volatile long loginTime;
+	private volatile int playerId = -1;
+	/**
+	 * The world UUID and position of the last transform, written back unchanged apart from the position
+	 */
+	private volatile byte[] worldId;
+	private volatile byte[] orientation;
+	private volatile float spawnX, spawnY, spawnZ;
+	private float x, y, z;
+	private int pathIndex;
+	private boolean breakNext = true;
+	private int messageCounter;
+
+	/**
+	 * Creates a bot
+	 *
+	 * @param name the player name
+	 * @param protocol the protocol the server speaks, the opcodes must match the server's
+	 * @param metrics the metrics to record into
+	 * @param path waypoints relative to the spawn point, looped in order, or null to wander randomly
+	 */
+	public LoadTestBot(String name, Protocol protocol, LoadTestMetrics metrics, float[][] path) {
+		this.name = name;
+		this.protocol = protocol;
+		this.metrics = metrics;
+		this.path = path;
+		loginOpcode = protocol.getCodecLookupService().find(LoginMessage.class).getOpcode();
+		chunkOpcode = protocol.getCodecLookupService().find(ChunkDataMessage.class).getOpcode();
+		entityOpcode = protocol.getCodecLookupService().find(UpdateEntityMessage.class).getOpcode();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isLoggedIn() {
+		return playerId != -1;
+	}
+
+	public boolean isSpawned() {
+		return worldId != null;
+	}
+
+	public boolean isConnected() {
+		return channel != null && channel.isActive();
+	}
+
+	/**
+	 * Called when the channel for this bot has been initialized
+	 *
+	 * @param channel the channel
+	 */
+	public void initChannel(Channel channel) {
+		this.channel = channel;
+		channel.pipeline().addLast(new FrameDecoder(), new FrameHandler());
+	}
+
+	public void disconnect() {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Performs one action step: moves along the path and, with the given chances, changes a block or chats
+	 *
+	 * @param random the random to use
+	 * @param blockChance the chance of changing a block
+	 * @param chatChance the chance of sending a chat message
+	 * @param placeMaterial the material id of placed blocks
+	 */
+	public void step(Random random, float blockChance, float chatChance, short placeMaterial) {
+		if (!isConnected() || !isSpawned()) {
+			return;
+		}
+		move(random);
+		if (random.nextFloat() < blockChance) {
+			int bx = (int) Math.floor(x) + random.nextInt(BLOCK_REACH * 2 + 1) - BLOCK_REACH;
+			int by = (int) Math.floor(y) - 1;
+			int bz = (int) Math.floor(z) + random.nextInt(BLOCK_REACH * 2 + 1) - BLOCK_REACH;
+			send(new BlockUpdateMessage(bx, by, bz, (short) (breakNext ? 0 : placeMaterial), (short) 0));
+			breakNext = !breakNext;
+			metrics.blockChanged();
+		}
+		if (random.nextFloat() < chatChance) {
+			send(new CommandMessage("say", "load", "test", "message", Integer.toString(messageCounter++)));
+			metrics.chatted();
+		}
+	}
+
+	private void move(Random random) {
+		if (path != null && path.length > 0) {
+			float[] point = path[pathIndex++ % path.length];
+			x = spawnX + point[0];
+			y = spawnY + point[1];
+			z = spawnZ + point[2];
+		} else {
+			x = clamp(x + random.nextFloat() * 2 - 1, spawnX);
+			z = clamp(z + random.nextFloat() * 2 - 1, spawnZ);
+		}
+		ByteBuf body = channel.alloc().buffer(5 + ByteBufUtils.TRANSFORM_SIZE);
+		body.writeByte(UpdateAction.TRANSFORM.ordinal());
+		body.writeInt(playerId);
+		body.writeBytes(worldId);
+		body.writeFloat(x);
+		body.writeFloat(y);
+		body.writeFloat(z);
+		body.writeBytes(orientation);
+		write(entityOpcode, body);
+		metrics.moved();
+	}
+
+	private static float clamp(float value, float center) {
+		return Math.max(center - WANDER_RADIUS, Math.min(center + WANDER_RADIUS, value));
+	}
+
+	@SuppressWarnings ("unchecked")
+	private void send(Message message) {
+		MessageCodec<Message> codec = (MessageCodec<Message>) protocol.getCodecLookupService().find(message.getClass());
+		try {
+			write(codec.getOpcode(), codec.encode(channel.alloc(), true, message));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to encode " + message, e);
+		}
+	}
+
+	private void write(int opcode, ByteBuf body) {
+		ByteBuf header = channel.alloc().buffer(HEADER_SIZE);
+		header.writeShort(opcode);
+		header.writeInt(body.writerIndex());
+		metrics.addBytesOut(HEADER_SIZE + body.readableBytes());
+		channel.writeAndFlush(Unpooled.wrappedBuffer(header, body));
+	}
+
+	private void frameReceived(int opcode, ByteBuf body) throws IOException {
+		metrics.messageReceived();
+		if (opcode == loginOpcode) {
+			LoginMessage login = (LoginMessage) protocol.getCodecLookupService().find(opcode).decode(true, body);
+			loginTime = System.currentTimeMillis();
+			playerId = login.getExtraInt();
+			metrics.loggedIn(loginTime - connectTime);
+			send(ReadyMessage.INSTANCE);
+		} else if (opcode == chunkOpcode) {
+			// unload messages only carry the coordinates
+			if (loginTime != 0 && body.readableBytes() > 13) {
+				metrics.chunkReceived(System.currentTimeMillis() - loginTime);
+			}
+		} else if (opcode == entityOpcode) {
+			int action = body.readByte();
+			int id = body.readInt();
+			if (id == playerId && (action == UpdateAction.ADD.ordinal() || action == UpdateAction.TRANSFORM.ordinal())) {
+				updateTransform(body);
+			}
+		}
+	}
+
+	private void updateTransform(ByteBuf body) {
+		byte[] world = new byte[ByteBufUtils.UUID_SIZE];
+		body.readBytes(world);
+		float px = body.readFloat();
+		float py = body.readFloat();
+		float pz = body.readFloat();
+		byte[] rest = new byte[ByteBufUtils.QUATERNINON_SIZE + ByteBufUtils.VECTOR3_SIZE];
+		body.readBytes(rest);
+		orientation = rest;
+		if (worldId == null) {
+			spawnX = x = px;
+			spawnY = y = py;
+			spawnZ = z = pz;
+		}
+		worldId = world;
+	}
+
+	/**
+	 * Splits the stream into frames without decoding the message bodies
+	 */
+	private class FrameDecoder extends ByteToMessageDecoder {
+		@Override
+		protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+			while (in.readableBytes() >= HEADER_SIZE) {
+				int length = in.getInt(in.readerIndex() + 2);
+				if (in.readableBytes() < HEADER_SIZE + length) {
+					return;
+				}
+				int opcode = in.readUnsignedShort();
+				in.skipBytes(4);
+				metrics.addBytesIn(HEADER_SIZE + length);
+				ByteBuf body = in.readSlice(length);
+				try {
+					frameReceived(opcode, body);
+				} catch (IndexOutOfBoundsException e) {
+					throw new IOException("Truncated message with opcode " + opcode, e);
+				}
+			}
+		}
+	}
+
+	private class FrameHandler extends ChannelInboundHandlerAdapter {
+		@Override
+		public void channelActive(ChannelHandlerContext ctx) {
+			connectTime = System.currentTimeMillis();
+			send(new LoginMessage(name, SpoutProtocol.PROTOCOL_VERSION));
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) {
+			metrics.disconnected();
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+			ctx.close();
+		}
+	}
+}
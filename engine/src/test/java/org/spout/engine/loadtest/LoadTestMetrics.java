@@ -0,0 +1,181 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.loadtest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The measurements taken during a load test
+ */
+public class LoadTestMetrics {
+	/**
+	 * Time between the starts of consecutive server ticks, in milliseconds
+	 */
+	private final LatencyHistogram tickInterval = new LatencyHistogram();
+	/**
+	 * Time from connecting to receiving the login response, in milliseconds
+	 */
+	private final LatencyHistogram loginLatency = new LatencyHistogram();
+	/**
+	 * Time from the login response to the arrival of each chunk, in milliseconds
+	 */
+	private final LatencyHistogram chunkLatency = new LatencyHistogram();
+	private final AtomicLong bytesIn = new AtomicLong();
+	private final AtomicLong bytesOut = new AtomicLong();
+	private final AtomicLong messagesIn = new AtomicLong();
+	private final AtomicLong chunks = new AtomicLong();
+	private final AtomicLong moves = new AtomicLong();
+	private final AtomicLong blockChanges = new AtomicLong();
+	private final AtomicLong chats = new AtomicLong();
+	private final AtomicLong logins = new AtomicLong();
+	private final AtomicLong disconnects = new AtomicLong();
+	private volatile long baselineMemory = -1;
+	private volatile long loadedMemory = -1;
+
+	public LatencyHistogram getTickInterval() {
+		return tickInterval;
+	}
+
+	public LatencyHistogram getLoginLatency() {
+		return loginLatency;
+	}
+
+	public LatencyHistogram getChunkLatency() {
+		return chunkLatency;
+	}
+
+	public void addBytesIn(long bytes) {
+		bytesIn.addAndGet(bytes);
+	}
+
+	public void addBytesOut(long bytes) {
+		bytesOut.addAndGet(bytes);
+	}
+
+	public void messageReceived() {
+		messagesIn.incrementAndGet();
+	}
+
+	public void chunkReceived(long latency) {
+		chunks.incrementAndGet();
+		chunkLatency.record(latency);
+	}
+
+	public void loggedIn(long latency) {
+		logins.incrementAndGet();
+		loginLatency.record(latency);
+	}
+
+	public long getLogins() {
+		return logins.get();
+	}
+
+	public void moved() {
+		moves.incrementAndGet();
+	}
+
+	public void blockChanged() {
+		blockChanges.incrementAndGet();
+	}
+
+	public void chatted() {
+		chats.incrementAndGet();
+	}
+
+	public void disconnected() {
+		disconnects.incrementAndGet();
+	}
+
+	public void setBaselineMemory(long baselineMemory) {
+		this.baselineMemory = baselineMemory;
+	}
+
+	public void setLoadedMemory(long loadedMemory) {
+		this.loadedMemory = loadedMemory;
+	}
+
+	/**
+	 * Gets all results as a flat, sorted map
+	 *
+	 * @param bots the number of bots in the test
+	 * @param durationMillis the length of the measured part of the test
+	 * @return the results
+	 */
+	public Map<String, String> getResults(int bots, long durationMillis) {
+		Map<String, String> results = new TreeMap<>();
+		int players = Math.max(1, bots);
+		results.put("bots", Integer.toString(bots));
+		results.put("duration.ms", Long.toString(durationMillis));
+		results.put("logins", Long.toString(logins.get()));
+		results.put("disconnects", Long.toString(disconnects.get()));
+		results.put("messages.in", Long.toString(messagesIn.get()));
+		results.put("chunks", Long.toString(chunks.get()));
+		results.put("moves", Long.toString(moves.get()));
+		results.put("block-changes", Long.toString(blockChanges.get()));
+		results.put("chats", Long.toString(chats.get()));
+		results.put("bytes.in.per-player", Long.toString(bytesIn.get() / players));
+		results.put("bytes.out.per-player", Long.toString(bytesOut.get() / players));
+		if (baselineMemory >= 0 && loadedMemory >= 0) {
+			results.put("memory.per-player", Long.toString((loadedMemory - baselineMemory) / players));
+		}
+		putHistogram(results, "tick-interval.ms", tickInterval);
+		putHistogram(results, "login-latency.ms", loginLatency);
+		putHistogram(results, "chunk-latency.ms", chunkLatency);
+		return results;
+	}
+
+	private static void putHistogram(Map<String, String> results, String name, LatencyHistogram histogram) {
+		results.put(name + ".count", Long.toString(histogram.getCount()));
+		results.put(name + ".mean", String.format("%.2f", histogram.getMean()));
+		results.put(name + ".p50", Long.toString(histogram.getPercentile(50)));
+		results.put(name + ".p90", Long.toString(histogram.getPercentile(90)));
+		results.put(name + ".p99", Long.toString(histogram.getPercentile(99)));
+		results.put(name + ".max", Long.toString(histogram.getMax()));
+	}
+
+	/**
+	 * Writes the results as a properties file, so runs can be compared by scripts
+	 *
+	 * @param file the file to write
+	 * @param results the results from {@link #getResults(int, long)}
+	 * @throws IOException if the file could not be written
+	 */
+	public static void write(File file, Map<String, String> results) throws IOException {
+		Properties properties = new Properties();
+		properties.putAll(results);
+		try (OutputStream out = new FileOutputStream(file)) {
+			properties.store(out, "Spout load test results");
+		}
+	}
+}
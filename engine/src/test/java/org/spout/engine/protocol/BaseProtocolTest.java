@@ -31,6 +31,7 @@ import java.io.IOException;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import org.junit.Test;
 
 import org.spout.api.protocol.CodecLookupService;
@@ -71,7 +72,7 @@ public abstract class BaseProtocolTest {
 			ByteBuf encoded;
 			Message decoded;
 			try {
-				encoded = codec.encodeToServer(message);
+				encoded = codec.encodeToServer(UnpooledByteBufAllocator.DEFAULT, message);
 				decoded = codec.decodeFromClient(encoded);
 			} catch (Throwable t) {
 				fail("Failed (C -> S) for: " + message.getClass().getName() + ", " + message);
@@ -79,7 +80,7 @@ public abstract class BaseProtocolTest {
 			}
 			assertEquals("Failed (C -> S) for: " + message.getClass().getName(), message, decoded);
 			try {
-				encoded = codec.encodeToClient(message);
+				encoded = codec.encodeToClient(UnpooledByteBufAllocator.DEFAULT, message);
 				decoded = codec.decodeFromServer(encoded);
 			} catch (Throwable t) {
 				fail("Failed (S -> C) for: " + message.getClass().getName() + ", " + message);
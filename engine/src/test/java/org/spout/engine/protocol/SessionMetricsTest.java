@@ -0,0 +1,85 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.protocol;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.spout.api.protocol.Message;
+
+import static org.junit.Assert.assertEquals;
+
+public class SessionMetricsTest {
+	@Test
+	public void testTickCounts() {
+		SessionMetrics metrics = new SessionMetrics();
+		metrics.record(FirstMessage.class, 10);
+		metrics.record(FirstMessage.class, 20);
+		metrics.record(SecondMessage.class, 5);
+		metrics.recordDeferred();
+		metrics.endTick(100);
+		assertEquals(3, metrics.getHandledLastTick());
+		assertEquals(1, metrics.getDeferredLastTick());
+		assertEquals(100, metrics.getPulseTimeLastTick());
+		metrics.endTick(50);
+		assertEquals(0, metrics.getHandledLastTick());
+		assertEquals(0, metrics.getDeferredLastTick());
+	}
+
+	@Test
+	public void testHandlerTimes() {
+		SessionMetrics metrics = new SessionMetrics();
+		metrics.record(FirstMessage.class, 10);
+		metrics.record(FirstMessage.class, 20);
+		metrics.record(SecondMessage.class, 5);
+		metrics.endTick(100);
+		Map<Class<? extends Message>, Long> times = metrics.getHandlerTimes();
+		assertEquals(30L, (long) times.get(FirstMessage.class));
+		assertEquals(5L, (long) times.get(SecondMessage.class));
+		Map<Class<? extends Message>, Long> counts = metrics.getHandlerCounts();
+		assertEquals(2L, (long) counts.get(FirstMessage.class));
+		assertEquals(1L, (long) counts.get(SecondMessage.class));
+		metrics.reset();
+		assertEquals(0, metrics.getHandlerTimes().size());
+	}
+
+	private static class FirstMessage implements Message {
+		@Override
+		public boolean isAsync() {
+			return false;
+		}
+
+		@Override
+		public int getChannelId() {
+			return DEFAULT_CHANNEL;
+		}
+	}
+
+	private static class SecondMessage extends FirstMessage {
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.protocol;
+
+import org.junit.Test;
+
+import org.spout.api.protocol.HandlerLookupService;
+import org.spout.engine.SpoutServer;
+import org.spout.engine.faker.EngineFaker;
+import org.spout.engine.protocol.builtin.SpoutProtocol;
+import org.spout.engine.protocol.builtin.message.CommandMessage;
+import org.spout.engine.protocol.builtin.message.LoginMessage;
+import org.spout.engine.protocol.builtin.message.UpdateEntityMessage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SessionPulseTest {
+	static {
+		EngineFaker.setupEngine();
+	}
+
+	private static final SpoutProtocol PROTOCOL = new SpoutProtocol();
+
+	@Test
+	public void testHandlerAffinity() {
+		HandlerLookupService handlers = PROTOCOL.getHandlerLookupService();
+		assertFalse(handlers.find(LoginMessage.class).isRegionAffine());
+		assertFalse(handlers.find(CommandMessage.class).isRegionAffine());
+		assertTrue(handlers.find(UpdateEntityMessage.class).isRegionAffine());
+	}
+
+	@Test
+	public void testLoginAndCommandStayOnMainThread() {
+		SpoutServerSession<SpoutServer> session = new SpoutServerSession<>(null, null, PROTOCOL);
+		session.messageReceived(new LoginMessage("Spouty", 0));
+		session.messageReceived(new CommandMessage("test", "hi"));
+		// the region pulse must leave both messages queued for the main thread pulse
+		assertEquals(0, session.pulseRegionAffine(Integer.MAX_VALUE, null));
+	}
+}
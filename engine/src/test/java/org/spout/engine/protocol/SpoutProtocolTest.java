@@ -56,6 +56,7 @@ import org.spout.engine.protocol.builtin.message.CommandMessage;
 import org.spout.engine.protocol.builtin.message.CuboidBlockUpdateMessage;
 import org.spout.engine.protocol.builtin.message.EntityDatatableMessage;
 import org.spout.engine.protocol.builtin.message.LoginMessage;
+import org.spout.engine.protocol.builtin.message.MultiBlockUpdateMessage;
 import org.spout.engine.protocol.builtin.message.ReadyMessage;
 import org.spout.engine.protocol.builtin.message.SyncedMapMessage;
 import org.spout.engine.protocol.builtin.message.UpdateEntityMessage;
@@ -94,6 +95,7 @@ public class SpoutProtocolTest extends BaseProtocolTest {
 			new WorldChangeMessage("world", EngineFaker.TEST_UUID, TEST_TRANSFORM, TEST_SERIALIZED_DATA, DeltaMap.DeltaType.SET),
 			new UpdateEntityMessage(0, TEST_TRANSFORM, UpdateAction.TRANSFORM, new NullRepositionManager()),
 			new ChunkDatatableMessage("Blank", 0, 0, 0, biomeData1, DeltaMap.DeltaType.SET),
+			new MultiBlockUpdateMessage(0, 1, 2, new short[] {0, 0x1230, (short) 0xFFF0}, new short[] {0, 1, 2}, new short[] {0, 0, 5}),
 			ReadyMessage.INSTANCE
 	};
 
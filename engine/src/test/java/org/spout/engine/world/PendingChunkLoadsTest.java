@@ -0,0 +1,229 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.world;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import org.spout.api.geo.LoadOption;
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.engine.filesystem.ChunkDataForRegion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PendingChunkLoadsTest {
+	private final ManualExecutor io = new ManualExecutor();
+	private final ManualExecutor decode = new ManualExecutor();
+	private final ChunkLoadPipeline pipeline = new ChunkLoadPipeline(io, decode);
+	private final TestSource source = new TestSource();
+	private final PendingChunkLoads loads = new PendingChunkLoads(source, pipeline);
+
+	@Test
+	public void testRequestsShareOneLoad() throws Exception {
+		Future<Chunk> first = loads.load(1, 2, 3, false, 0);
+		Future<Chunk> second = loads.load(1, 2, 3, true, 0);
+		assertSame(first, second);
+		assertEquals(1, io.queued.size());
+
+		io.runAll();
+		decode.runAll();
+		loads.install();
+
+		assertTrue(first.isDone());
+		assertSame(source.decoded, first.get());
+		assertEquals(1, source.reads);
+		// the second request asked for generation, which the shared load must honour
+		assertEquals(LoadOption.LOAD_GEN, source.installOption);
+		assertFalse(loads.isPending(1, 2, 3));
+	}
+
+	@Test
+	public void testStaleDataFallsBack() throws Exception {
+		Future<Chunk> future = loads.load(1, 2, 3, false, 0);
+		io.runAll();
+		// the chunk is unloaded, and saved, after its data was read
+		loads.chunkRemoved(1, 2, 3);
+		decode.runAll();
+		loads.install();
+
+		assertSame(source.loaded, future.get());
+		assertEquals(LoadOption.LOAD_ONLY, source.getOption);
+		Mockito.verify(source.decoded).setUnloadedUnchecked();
+	}
+
+	@Test
+	public void testMissingChunkRemembered() throws Exception {
+		source.exists = false;
+		Future<Chunk> future = loads.load(1, 2, 3, false, 0);
+		io.runAll();
+		assertTrue(decode.queued.isEmpty());
+		loads.install();
+		assertTrue(future.isDone());
+		assertNull(future.get());
+
+		// later load only requests do not read the disk again
+		future = loads.load(1, 2, 3, false, 0);
+		assertTrue(future.isDone());
+		assertNull(future.get());
+		assertTrue(io.queued.isEmpty());
+
+		// once the chunk has been removed it may have been saved
+		loads.chunkRemoved(1, 2, 3);
+		loads.load(1, 2, 3, false, 0);
+		assertEquals(1, io.queued.size());
+	}
+
+	@Test
+	public void testCancelPendingLoads() throws Exception {
+		Future<Chunk> future = loads.load(1, 2, 3, false, 0);
+		loads.cancel();
+		assertTrue(future.isDone());
+		assertNull(future.get());
+		assertFalse(loads.isPending(1, 2, 3));
+
+		io.runAll();
+		assertEquals(0, source.reads);
+		assertTrue(decode.queued.isEmpty());
+	}
+
+	@Test
+	public void testShutdownCompletesQueuedLoads() throws Exception {
+		Future<Chunk> queued = loads.load(1, 2, 3, false, 0);
+		pipeline.shutdownPools();
+		assertTrue(queued.isDone());
+		assertNull(queued.get());
+		assertFalse(loads.isPending(1, 2, 3));
+
+		Future<Chunk> rejected = loads.load(4, 5, 6, false, 0);
+		assertTrue(rejected.isDone());
+		assertNull(rejected.get());
+		assertFalse(loads.isPending(4, 5, 6));
+	}
+
+	private static class TestSource implements PendingChunkLoads.Source {
+		private final SpoutChunk decoded = Mockito.mock(SpoutChunk.class);
+		private final SpoutChunk loaded = Mockito.mock(SpoutChunk.class);
+		private boolean exists = true;
+		private int reads = 0;
+		private LoadOption installOption;
+		private LoadOption getOption;
+
+		@Override
+		public boolean inputStreamExists(int x, int y, int z) {
+			return exists;
+		}
+
+		@Override
+		public InputStream getChunkInputStream(int x, int y, int z) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+
+		@Override
+		public SpoutChunk readChunk(int x, int y, int z, InputStream in, ChunkDataForRegion dataForRegion) {
+			reads++;
+			return decoded;
+		}
+
+		@Override
+		public SpoutChunk installChunk(SpoutChunk chunk, int x, int y, int z, ChunkDataForRegion dataForRegion, LoadOption loadopt) {
+			installOption = loadopt;
+			return chunk;
+		}
+
+		@Override
+		public SpoutChunk getChunk(int x, int y, int z, LoadOption loadopt) {
+			if (loadopt == LoadOption.NO_LOAD) {
+				return null;
+			}
+			getOption = loadopt;
+			return loaded;
+		}
+	}
+
+	/**
+	 * An executor which only runs its tasks when asked to
+	 */
+	private static class ManualExecutor extends AbstractExecutorService {
+		private final List<Runnable> queued = new ArrayList<>();
+		private boolean shutdown = false;
+
+		public void runAll() {
+			while (!queued.isEmpty()) {
+				queued.remove(0).run();
+			}
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			if (shutdown) {
+				throw new RejectedExecutionException();
+			}
+			queued.add(command);
+		}
+
+		@Override
+		public void shutdown() {
+			shutdown = true;
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			shutdown = true;
+			List<Runnable> tasks = new ArrayList<>(queued);
+			queued.clear();
+			return tasks;
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return shutdown;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return shutdown && queued.isEmpty();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) {
+			return isTerminated();
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import org.spout.api.Engine;
+import org.spout.api.component.entity.NetworkComponent;
+import org.spout.api.component.entity.PhysicsComponent;
+import org.spout.api.entity.Entity;
+import org.spout.api.entity.Player;
+import org.spout.api.event.Event;
+import org.spout.api.event.EventExecutor;
+import org.spout.api.event.EventManager;
+import org.spout.api.event.Listener;
+import org.spout.api.event.Order;
+import org.spout.api.geo.World;
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.geo.discrete.Point;
+import org.spout.api.protocol.Message;
+import org.spout.api.protocol.event.BlockUpdateEvent;
+import org.spout.api.protocol.event.MultiBlockUpdateEvent;
+import org.spout.api.util.hashing.NibbleQuadHashed;
+import org.spout.engine.faker.EngineFaker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpoutChunkSyncTest {
+	private static final short[] BLOCKS = new short[] {NibbleQuadHashed.key(1, 2, 3, 0), NibbleQuadHashed.key(15, 0, 7, 0)};
+	private static final int[] STATES = new int[] {1 << 16, 2 << 16};
+
+	static {
+		EngineFaker.setupEngine();
+	}
+
+	@Test
+	public void testMultiBlockUpdateHandled() {
+		RecordingEventManager events = new RecordingEventManager(true);
+		SpoutChunk.syncBlocks(Mockito.mock(Chunk.class), createNetwork(events), BLOCKS, STATES);
+		assertEquals(1, events.called.size());
+		assertTrue(events.called.get(0) instanceof MultiBlockUpdateEvent);
+	}
+
+	@Test
+	public void testFallbackToBlockUpdates() {
+		RecordingEventManager events = new RecordingEventManager(false);
+		SpoutChunk.syncBlocks(Mockito.mock(Chunk.class), createNetwork(events), BLOCKS, STATES);
+		assertEquals(1 + BLOCKS.length, events.called.size());
+		assertTrue(events.called.get(0) instanceof MultiBlockUpdateEvent);
+		for (int i = 0; i < BLOCKS.length; i++) {
+			BlockUpdateEvent update = (BlockUpdateEvent) events.called.get(i + 1);
+			assertEquals(NibbleQuadHashed.key1(BLOCKS[i]), update.getX());
+			assertEquals(NibbleQuadHashed.key2(BLOCKS[i]), update.getY());
+			assertEquals(NibbleQuadHashed.key3(BLOCKS[i]), update.getZ());
+		}
+	}
+
+	private static NetworkComponent createNetwork(EventManager events) {
+		World world = Mockito.mock(World.class);
+		Mockito.when(world.getPlayers()).thenReturn(Collections.<Player>emptyList());
+		PhysicsComponent physics = Mockito.mock(PhysicsComponent.class);
+		Mockito.when(physics.getPosition()).thenReturn(new Point(world, 0, 0, 0));
+		Engine engine = Mockito.mock(Engine.class);
+		Mockito.when(engine.getEventManager()).thenReturn(events);
+		final Entity owner = Mockito.mock(Entity.class);
+		Mockito.when(owner.getWorld()).thenReturn(world);
+		Mockito.when(owner.getPhysics()).thenReturn(physics);
+		Mockito.when(owner.getEngine()).thenReturn(engine);
+		return new NetworkComponent() {
+			@Override
+			public Entity getOwner() {
+				return owner;
+			}
+		};
+	}
+
+	private static class RecordingEventManager implements EventManager {
+		private final List<Event> called = new ArrayList<>();
+		private final boolean handleMultiBlockUpdates;
+
+		public RecordingEventManager(boolean handleMultiBlockUpdates) {
+			this.handleMultiBlockUpdates = handleMultiBlockUpdates;
+		}
+
+		@Override
+		public <T extends Event> T callEvent(T event) {
+			called.add(event);
+			if (handleMultiBlockUpdates && event instanceof MultiBlockUpdateEvent) {
+				((MultiBlockUpdateEvent) event).getMessages().add(Mockito.mock(Message.class));
+			}
+			return event;
+		}
+
+		@Override
+		public <T extends Event> void callDelayedEvent(T event) {
+		}
+
+		@Override
+		public void registerEvents(Listener listener, Object owner) {
+		}
+
+		@Override
+		public void registerEvent(Class<? extends Event> event, Order priority, EventExecutor executor, Object owner) {
+		}
+	}
+}
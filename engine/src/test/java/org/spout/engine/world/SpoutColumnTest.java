@@ -0,0 +1,179 @@
+/*
+ * This file is part of Spout.
+ *
+ * Copyright (c) 2011 Spout LLC <http://www.spout.org/>
+ * Spout is licensed under the Spout License Version 1.
+ *
+ * Spout is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the Spout License Version 1.
+ *
+ * Spout is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the Spout License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://spout.in/licensev1> for the full license, including
+ * the MIT license.
+ */
+package org.spout.engine.world;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.spout.api.geo.LoadOption;
+import org.spout.api.geo.cuboid.Chunk;
+import org.spout.api.material.BlockMaterial;
+import org.spout.api.material.block.BlockFullState;
+import org.spout.api.scheduler.TickStage;
+import org.spout.api.util.list.concurrent.setqueue.SetQueue;
+import org.spout.engine.faker.EngineFaker;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpoutColumnTest {
+	private static final int CHUNKS = 3;
+	private static final int GROUND = 10;
+	private static final int AIR = BlockFullState.getPacked(BlockMaterial.AIR);
+	private static final int SOLID = BlockFullState.getPacked(BlockMaterial.SOLID_BLUE);
+
+	static {
+		EngineFaker.setupEngine();
+	}
+
+	/**
+	 * The fake world, indexed by [x][y][z]
+	 */
+	private final boolean[][][] solid = new boolean[Chunk.BLOCKS.SIZE][CHUNKS * Chunk.BLOCKS.SIZE][Chunk.BLOCKS.SIZE];
+	private SpoutColumn column;
+
+	@Before
+	public void setup() {
+		SpoutWorld world = Mockito.mock(SpoutServerWorld.class);
+		Mockito.when(world.getColumnDirtyQueue(Mockito.anyInt(), Mockito.anyInt())).thenReturn(new SetQueue<SpoutColumn>(16));
+		for (int cy = 0; cy < CHUNKS; cy++) {
+			SpoutChunk chunk = mockChunk(cy);
+			Mockito.when(world.getChunk(0, cy, 0, LoadOption.NO_LOAD)).thenReturn(chunk);
+		}
+		int[][] heights = new int[Chunk.BLOCKS.SIZE][Chunk.BLOCKS.SIZE];
+		for (int x = 0; x < Chunk.BLOCKS.SIZE; x++) {
+			for (int z = 0; z < Chunk.BLOCKS.SIZE; z++) {
+				fill(x, 0, GROUND, z, true);
+				heights[x][z] = GROUND;
+			}
+		}
+		column = new SpoutColumn(heights, world, 0, 0);
+	}
+
+	@After
+	public void resetStage() {
+		TickStage.setStage(TickStage.TICKSTART);
+	}
+
+	@Test
+	public void testNonUniformChunkChange() {
+		solid[3][GROUND + 2][4] = true;
+		column.notifyBlockChange(3, GROUND + 2, 4);
+		assertEquals(GROUND + 2, column.getHeight(3, 4));
+		assertEquals(GROUND, column.getHeight(4, 4));
+
+		solid[3][GROUND + 2][4] = false;
+		column.notifyBlockChange(3, GROUND + 2, 4);
+		assertEquals(GROUND, column.getHeight(3, 4));
+
+		solid[3][GROUND][4] = false;
+		column.notifyBlockChange(3, GROUND, 4);
+		assertEquals(GROUND - 1, column.getHeight(3, 4));
+	}
+
+	@Test
+	public void testUniformChunkChange() {
+		int top = 2 * Chunk.BLOCKS.SIZE - 1;
+		for (int x = 0; x < Chunk.BLOCKS.SIZE; x++) {
+			for (int z = 0; z < Chunk.BLOCKS.SIZE; z++) {
+				fill(x, Chunk.BLOCKS.SIZE, top, z, true);
+			}
+		}
+		column.notifyBlockChange(5, top, 5);
+		assertEquals(top, column.getHeight(5, 5));
+
+		for (int x = 0; x < Chunk.BLOCKS.SIZE; x++) {
+			for (int z = 0; z < Chunk.BLOCKS.SIZE; z++) {
+				fill(x, Chunk.BLOCKS.SIZE, top, z, false);
+			}
+		}
+		// the scan must skip the now uniform air chunk and find the ground in the chunk below
+		column.notifyBlockChange(5, top, 5);
+		assertEquals(GROUND, column.getHeight(5, 5));
+	}
+
+	@Test
+	public void testDirtyColumnsOnlyCountsHeightChanges() {
+		TickStage.setStage(TickStage.LIGHTING);
+		int dirty = column.getDirtyColumns();
+
+		// below the surface
+		solid[7][GROUND - 5][7] = false;
+		column.notifyBlockChange(7, GROUND - 5, 7);
+		// above the surface, but still air
+		column.notifyBlockChange(7, GROUND + 1, 7);
+		assertEquals(dirty, column.getDirtyColumns());
+
+		solid[7][GROUND + 1][7] = true;
+		column.notifyBlockChange(7, GROUND + 1, 7);
+		assertEquals(dirty + 1, column.getDirtyColumns());
+	}
+
+	private void fill(int x, int minY, int maxY, int z, boolean value) {
+		for (int y = minY; y <= maxY; y++) {
+			solid[x][y][z] = value;
+		}
+	}
+
+	private SpoutChunk mockChunk(int cy) {
+		final int base = cy << Chunk.BLOCKS.BITS;
+		SpoutChunk chunk = Mockito.mock(SpoutChunk.class);
+		Mockito.when(chunk.isBlockUniform()).thenAnswer(new Answer<Boolean>() {
+			@Override
+			public Boolean answer(InvocationOnMock invocation) {
+				boolean first = solid[0][base][0];
+				for (int x = 0; x < Chunk.BLOCKS.SIZE; x++) {
+					for (int y = base; y < base + Chunk.BLOCKS.SIZE; y++) {
+						for (int z = 0; z < Chunk.BLOCKS.SIZE; z++) {
+							if (solid[x][y][z] != first) {
+								return false;
+							}
+						}
+					}
+				}
+				return true;
+			}
+		});
+		Mockito.when(chunk.getBlockFullState(Mockito.anyInt())).thenAnswer(new Answer<Integer>() {
+			@Override
+			public Integer answer(InvocationOnMock invocation) {
+				return solid[0][base][0] ? SOLID : AIR;
+			}
+		});
+		Mockito.when(chunk.getBlockFullState(Mockito.anyInt(), Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new Answer<Integer>() {
+			@Override
+			public Integer answer(InvocationOnMock invocation) {
+				Object[] args = invocation.getArguments();
+				return solid[(Integer) args[0] & Chunk.BLOCKS.MASK][(Integer) args[1]][(Integer) args[2] & Chunk.BLOCKS.MASK] ? SOLID : AIR;
+			}
+		});
+		return chunk;
+	}
+}